@@ -0,0 +1,73 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.Gravitation;
+import com.extollit.gaming.ai.path.model.IPath;
+import com.extollit.gaming.ai.path.model.IPathingEntity;
+import com.extollit.gaming.ai.path.model.Passibility;
+import com.extollit.gaming.ai.path.model.PathObject;
+import com.extollit.linalg.immutable.Vec3d;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures complete searches with {@link HydrazinePathFinder#computePathTo(double, double, double)} and the iterative
+ * tick-driven API where {@link HydrazinePathFinder#initiatePathTo(double, double, double)} is followed by calls to
+ * {@link HydrazinePathFinder#updatePathFor(IPathingEntity)} while the entity follows the path to its destination.
+ *
+ * Occlusion fields are warmed up once per trial so the measurements cover path-finding alone.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PathFinderBenchmark {
+    private static final Vec3d ORIGIN = new Vec3d(0.5, 1, 0.5);
+    private static final int MAX_TICKS = 1000;
+
+    @Param({ "24", "48" })
+    public int distance;
+
+    @Param({ "-1", "15" })
+    public int obstacleMask;
+
+    private SyntheticWorld.Entity entity;
+    private HydrazinePathFinder pathFinder;
+
+    @Setup
+    public void setup() {
+        final SyntheticWorld world = new SyntheticWorld(this.obstacleMask);
+        this.entity = new SyntheticWorld.Entity(64, ORIGIN);
+        this.pathFinder = new HydrazinePathFinder(this.entity, world);
+        this.pathFinder.computePathTo(this.distance, 1, this.distance >> 2);
+    }
+
+    @Benchmark
+    public IPath computePathTo() {
+        final HydrazinePathFinder pathFinder = this.pathFinder;
+        pathFinder.reset();
+        pathFinder.schedulingPriority(SchedulingPriority.extreme);
+        return pathFinder.computePathTo(this.distance, 1, this.distance >> 2);
+    }
+
+    @Benchmark
+    public int initiateAndUpdate() {
+        final SyntheticWorld.Entity entity = this.entity;
+        final HydrazinePathFinder pathFinder = this.pathFinder;
+
+        entity.moveTo(ORIGIN, Passibility.passible, Gravitation.grounded);
+        pathFinder.reset();
+        pathFinder.schedulingPriority(SchedulingPriority.medium);
+
+        IPath path = pathFinder.initiatePathTo(this.distance, 1, this.distance >> 2);
+        int ticks = 0;
+        while (ticks++ < MAX_TICKS && (path == null || PathObject.active(path))) {
+            entity.tick();
+            path = pathFinder.updatePathFor(entity);
+        }
+
+        return ticks;
+    }
+}
@@ -0,0 +1,45 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.IPath;
+import com.extollit.linalg.immutable.Vec3d;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the binary heap and bucket queue strategies on complete searches over large open terrain.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class QueueStrategyBenchmark {
+    @Param({ "heap", "bucket" })
+    public QueueStrategy strategy;
+
+    @Param({ "40", "80" })
+    public int distance;
+
+    @Param({ "-1", "15" })
+    public int obstacleMask;
+
+    private HydrazinePathFinder pathFinder;
+
+    @Setup
+    public void setup() {
+        final SyntheticWorld world = new SyntheticWorld(this.obstacleMask);
+        final SyntheticWorld.Entity entity = new SyntheticWorld.Entity(128, new Vec3d(0.5, 1, 0.5));
+
+        this.pathFinder = new HydrazinePathFinder(entity, world).withQueueStrategy(this.strategy);
+        this.pathFinder.schedulingPriority(SchedulingPriority.extreme);
+    }
+
+    @Benchmark
+    public IPath computePathTo() {
+        final HydrazinePathFinder pathFinder = this.pathFinder;
+        pathFinder.reset();
+        return pathFinder.computePathTo(this.distance, 1, this.distance >> 2);
+    }
+}
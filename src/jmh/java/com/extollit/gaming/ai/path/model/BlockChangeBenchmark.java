@@ -0,0 +1,81 @@
+package com.extollit.gaming.ai.path.model;
+
+import com.extollit.gaming.ai.path.SyntheticWorld;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.extollit.gaming.ai.path.TestingBlocks.*;
+
+/**
+ * Measures applying block changes to the loaded occlusion fields of a column, toggling random blocks between stone
+ * and air, and reading whole rows from fields that may be stored in palette form as the jump-point scans do.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BlockChangeBenchmark {
+    private static final int
+        SAMPLES = 4096,
+        SECTIONS = 4;
+
+    @Param({ "-1", "0", "15" })
+    public int obstacleMask;
+
+    private SyntheticWorld world;
+    private ColumnarOcclusionFieldList fieldList;
+    private final int[]
+        xs = new int[SAMPLES],
+        ys = new int[SAMPLES],
+        zs = new int[SAMPLES];
+    private int toggle;
+
+    @Setup
+    public void setup() {
+        this.world = new SyntheticWorld(this.obstacleMask);
+        this.fieldList = this.world.columnarSpaceAt(0, 0).occlusionFields();
+        for (int cy = 0; cy < SECTIONS; ++cy)
+            this.fieldList.occlusionFieldAt(0, cy, 0);
+
+        final Random random = new Random(42);
+        for (int i = 0; i < SAMPLES; ++i) {
+            this.xs[i] = random.nextInt(16);
+            this.ys[i] = random.nextInt(SECTIONS << 4);
+            this.zs[i] = random.nextInt(16);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void setBlock() {
+        final SyntheticWorld world = this.world;
+        final int[]
+            xs = this.xs,
+            ys = this.ys,
+            zs = this.zs;
+
+        final IBlockObject block = (this.toggle++ & 1) == 0 ? stone : air;
+        for (int i = 0; i < SAMPLES; ++i)
+            world.setBlock(xs[i], ys[i], zs[i], block);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SECTIONS * 16 * 16)
+    public long rowAt() {
+        final ColumnarOcclusionFieldList fieldList = this.fieldList;
+
+        long accumulator = 0;
+        for (int cy = 0; cy < SECTIONS; ++cy) {
+            final OcclusionField field = fieldList.optOcclusionFieldAt(cy);
+            for (int y = 0; y < 16; ++y)
+                for (int z = 0; z < 16; ++z)
+                    accumulator ^= field.rowAt(0, y, z);
+        }
+
+        return accumulator;
+    }
+}
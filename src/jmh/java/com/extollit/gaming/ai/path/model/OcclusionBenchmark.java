@@ -0,0 +1,74 @@
+package com.extollit.gaming.ai.path.model;
+
+import com.extollit.gaming.ai.path.SyntheticWorld;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading a single occlusion field from a columnar space and sampling flags through an area occlusion provider
+ * spanning three by three columns whose fields have already been loaded and area-initialized.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class OcclusionBenchmark {
+    private static final int SAMPLES = 4096;
+
+    @Param({ "-1", "0", "15" })
+    public int obstacleMask;
+
+    private IColumnarSpace column;
+    private AreaOcclusionProvider provider;
+    private final int[]
+        xs = new int[SAMPLES],
+        ys = new int[SAMPLES],
+        zs = new int[SAMPLES];
+
+    @Setup
+    public void setup() {
+        final SyntheticWorld world = new SyntheticWorld(this.obstacleMask);
+        final IColumnarSpace[][] columns = new IColumnarSpace[3][3];
+        for (int z = 0; z < 3; ++z)
+            for (int x = 0; x < 3; ++x)
+                columns[z][x] = world.columnarSpaceAt(x - 1, z - 1);
+
+        this.column = columns[1][1];
+        this.provider = new AreaOcclusionProvider(columns, -1, -1);
+
+        final Random random = new Random(42);
+        for (int i = 0; i < SAMPLES; ++i) {
+            this.xs[i] = random.nextInt(48) - 16;
+            this.ys[i] = random.nextInt(4);
+            this.zs[i] = random.nextInt(48) - 16;
+            this.provider.elementAt(this.xs[i], this.ys[i], this.zs[i]);
+        }
+    }
+
+    @Benchmark
+    public OcclusionField loadFrom() {
+        final OcclusionField field = new OcclusionField();
+        field.loadFrom(this.column, 0, 0, 0);
+        return field;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public int elementAt() {
+        final AreaOcclusionProvider provider = this.provider;
+        final int[]
+            xs = this.xs,
+            ys = this.ys,
+            zs = this.zs;
+
+        int accumulator = 0;
+        for (int i = 0; i < SAMPLES; ++i)
+            accumulator += provider.elementAt(xs[i], ys[i], zs[i]);
+
+        return accumulator;
+    }
+}
@@ -0,0 +1,54 @@
+package com.extollit.gaming.ai.path.model;
+
+import com.extollit.gaming.ai.path.SyntheticWorld;
+import com.extollit.linalg.immutable.Vec3d;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures an entity following a complete path from start to finish by repeatedly calling
+ * {@link PathObject#update(IPathingEntity)} once per tick.  The path is a staircase that alternates between the x and z
+ * axes, so direct-line shortcuts are exercised along with point-to-point traversal.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PathObjectBenchmark {
+    private static final Vec3d ORIGIN = new Vec3d(0.5, 1, 0.5);
+    private static final int MAX_TICKS = 1000;
+
+    @Param({ "16", "64" })
+    public int length;
+
+    private Node[] nodes;
+    private SyntheticWorld.Entity entity;
+
+    @Setup
+    public void setup() {
+        this.nodes = new Node[this.length];
+        for (int i = 0; i < this.length; ++i)
+            this.nodes[i] = new Node((i + 1) >> 1, 1, i >> 1, Passibility.passible);
+
+        this.entity = new SyntheticWorld.Entity(64, ORIGIN);
+    }
+
+    @Benchmark
+    public int update() {
+        final SyntheticWorld.Entity entity = this.entity;
+        entity.moveTo(ORIGIN, Passibility.passible, Gravitation.grounded);
+
+        final PathObject path = new PathObject(1, new Random(42), this.nodes);
+        int ticks = 0;
+        while (ticks++ < MAX_TICKS && !path.done()) {
+            entity.tick();
+            path.update(entity);
+        }
+
+        return ticks;
+    }
+}
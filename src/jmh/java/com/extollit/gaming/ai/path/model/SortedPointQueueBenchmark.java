@@ -0,0 +1,80 @@
+package com.extollit.gaming.ai.path.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the open-node queue implementations filling with nodes of random journeys and draining, and repositioning
+ * queued nodes as their path lengths change.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SortedPointQueueBenchmark {
+    private static final int NODES = 256;
+
+    @Param({ "heap", "bucket" })
+    public String strategy;
+
+    private SortedPointQueue queue;
+    private final Node[] nodes = new Node[NODES];
+    private final byte[]
+        lengths = new byte[NODES],
+        remainings = new byte[NODES];
+
+    @Setup
+    public void setup() {
+        this.queue = "bucket".equals(this.strategy) ? new BucketPointQueue() : new SortedPointQueue();
+
+        final Random random = new Random(42);
+        final Passibility[] passibilities = { Passibility.passible, Passibility.passible, Passibility.risky, Passibility.dangerous };
+        for (int i = 0; i < NODES; ++i) {
+            this.nodes[i] = new Node(i & 15, 0, i >> 4, passibilities[random.nextInt(passibilities.length)]);
+            this.lengths[i] = (byte) random.nextInt(48);
+            this.remainings[i] = (byte) random.nextInt(64);
+        }
+    }
+
+    private void fill() {
+        final SortedPointQueue queue = this.queue;
+        for (int i = 0; i < NODES; ++i) {
+            final Node node = this.nodes[i];
+            node.length(this.lengths[i]);
+            node.remaining(this.remainings[i]);
+            queue.add(node);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NODES)
+    public int addDequeue() {
+        fill();
+
+        final SortedPointQueue queue = this.queue;
+        int accumulator = 0;
+        while (!queue.isEmpty())
+            accumulator += queue.dequeue().journey();
+
+        return accumulator;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NODES)
+    public int addLength() {
+        fill();
+
+        final SortedPointQueue queue = this.queue;
+        final Node[] nodes = this.nodes;
+        for (int i = 0; i < NODES; ++i)
+            queue.addLength(nodes[i], (i & 7) + 1);
+
+        final int size = queue.size();
+        queue.clear();
+        return size;
+    }
+}
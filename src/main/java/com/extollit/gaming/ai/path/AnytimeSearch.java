@@ -0,0 +1,137 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.Node;
+import com.extollit.gaming.ai.path.model.Passibility;
+import com.extollit.gaming.ai.path.model.SortedPointQueue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * State of the anytime search of a path-finder.  The search starts with an inflated heuristic so that a first path is
+ * found quickly, each time a path to the target is found the heuristic is tightened and the nodes that were
+ * re-parented in the meantime are re-opened so that the next iteration improves the path.  The search is finished once
+ * the heuristic is no longer inflated and no node was re-parented.
+ *
+ * @see PathOptions#epsilon(float)
+ */
+final class AnytimeSearch {
+    private static final float EPSILON_DECREMENT = 0.5f;
+
+    private final List<Node> inconsistent = new ArrayList<>();
+    private float epsilon = 1, initialEpsilon = 1;
+    private boolean improving;
+
+    /**
+     * Applies the heuristic inflation that subsequent searches start with
+     *
+     * @param epsilon initial weight of the heuristic, one for a plain A* search
+     */
+    void initialEpsilon(float epsilon) {
+        this.initialEpsilon = epsilon;
+    }
+
+    /**
+     * Starts a new search with the initial heuristic inflation
+     *
+     * @param queue open nodes of the search
+     * @param target node the search is headed for, null if there is none
+     * @param source node the search starts from
+     */
+    void reset(SortedPointQueue queue, Node target, Node source) {
+        this.improving = false;
+        this.inconsistent.clear();
+        queue.heuristicWeight(this.epsilon = this.initialEpsilon, target == null ? source.key : target.key);
+    }
+
+    /**
+     * @return true if a path was found and the search continues to improve it
+     */
+    boolean improving() {
+        return this.improving;
+    }
+
+    /**
+     * Forgets nodes that were discarded from the graph
+     *
+     * @param discarded nodes discarded from the graph
+     */
+    void discard(Collection<Node> discarded) {
+        this.inconsistent.removeAll(discarded);
+    }
+
+    /**
+     * Offers a shorter route through a node that was already expanded, if it is accepted the node is re-opened by the
+     * next iteration of the search
+     *
+     * @param queue open nodes of the search
+     * @param node an expanded node
+     * @param parent candidate parent of the node
+     * @param target node the search is headed for
+     */
+    void relink(SortedPointQueue queue, Node node, Node parent, Node target) {
+        if ((this.improving || this.epsilon > 1) && queue.relink(node, parent, target.key))
+            this.inconsistent.add(node);
+    }
+
+    /**
+     * Nodes re-opened by the anytime search keep their children, which are re-parented once expanded again
+     *
+     * @param node a node about to be opened
+     * @return true if the children of the node should be kept
+     */
+    boolean reopens(Node node) {
+        return this.improving && node.assigned();
+    }
+
+    /**
+     * Determines whether the current iteration of the search is complete, which is when no open node could lead to a
+     * shorter path to the target than the one already found (under the current heuristic inflation)
+     *
+     * @param queue open nodes of the search
+     * @param target node the search is headed for
+     * @return true if the path to the target cannot be improved by this iteration
+     */
+    boolean settled(SortedPointQueue queue, Node target) {
+        if (queue.isEmpty())
+            return true;
+
+        final Node top = queue.top();
+        final Passibility
+            passibility = top.passibility(),
+            targetPassibility = target.passibility();
+
+        return passibility.worseThan(targetPassibility)
+            || (passibility == targetPassibility && queue.priority(top) >= queue.priority(target));
+    }
+
+    /**
+     * Ends an iteration of the search after a path to the target was found.  If the heuristic is inflated or some
+     * expanded nodes were re-parented then the heuristic is tightened and those nodes are re-opened so that the next
+     * iteration improves the path, otherwise the search is finished and the queue is cleared (see
+     * {@link SortedPointQueue#heuristicWeight(float, com.extollit.gaming.ai.path.model.Coords)}).
+     *
+     * @param queue open nodes of the search
+     * @param target node the search is headed for
+     */
+    void tighten(SortedPointQueue queue, Node target) {
+        final boolean refine = this.epsilon > 1 || !this.inconsistent.isEmpty();
+
+        if (refine) {
+            this.epsilon = Math.max(1, this.epsilon - EPSILON_DECREMENT);
+            for (Node node : this.inconsistent)
+                if (node != target && !node.assigned()) {
+                    node.visited(false);
+                    queue.add(node);
+                }
+
+            this.inconsistent.clear();
+            queue.heuristicWeight(this.epsilon, target.key);
+        }
+
+        this.improving = refine && !queue.isEmpty();
+        if (!this.improving)
+            queue.clear();
+    }
+}
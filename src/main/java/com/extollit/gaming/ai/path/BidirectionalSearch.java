@@ -0,0 +1,350 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.Coords;
+import com.extollit.gaming.ai.path.model.IPathingEntity;
+import com.extollit.gaming.ai.path.model.Node;
+import com.extollit.gaming.ai.path.model.NodeMap;
+
+import java.util.*;
+
+import static com.extollit.gaming.ai.path.PassibilityHelpers.impedesMovement;
+
+/**
+ * Bidirectional A* search used for complete path computations to fixed destinations.  One search proceeds forward from
+ * the source and another proceeds backward from the target, they meet in the middle which roughly halves the number of
+ * nodes expanded over long open routes.
+ *
+ * Ground moves are not symmetric (e.g. falls, ladders and step-ups) so the backward search cannot simply expand the
+ * neighbours of a node.  Instead it expands the predecessors of a node, which are candidate nodes in each adjacent
+ * column (the node reached when stepping toward the column, and every floor above within falling distance) from which a
+ * forward move actually reaches the node.  Every move used by either search is therefore a move the forward search
+ * would make, so paths through the meeting point are always followable.
+ *
+ * Moves are costed by distance plus a penalty for the passibility of both nodes that is larger than any distance
+ * within the search range, so both searches prefer a longer route over a worse passibility just as the forward
+ * search does (see {@link com.extollit.gaming.ai.path.model.SortedPointQueue}).
+ *
+ * Nodes are obtained from the graph of the path-finder so they share its caching and graph node filter, but the state
+ * of this search is held separately from the nodes, in tables keyed by coordinates, so that the graph is left intact
+ * for the path-finder.
+ *
+ * @see PathOptions#bidirectional(boolean)
+ */
+final class BidirectionalSearch {
+    private static final int[]
+        DX = { -1, +1, 0, 0, 0, 0 },
+        DY = { 0, 0, 0, 0, +1, -1 },
+        DZ = { 0, 0, -1, +1, 0, 0 };
+
+    /**
+     * Cost of each tier of passibility, half of which is charged for each end of a move
+     */
+    private static final float TIER_PENALTY = 1 << 12;
+
+    private final HydrazinePathFinder pathFinder;
+    private final IPathingEntity.Capabilities capabilities;
+    private final boolean omnidirectional;
+    private final float searchRangeSquared;
+    private final int moves;
+
+    private int expansions;
+
+    BidirectionalSearch(HydrazinePathFinder pathFinder, IPathingEntity.Capabilities capabilities, boolean omnidirectional, float searchRangeSquared) {
+        this.pathFinder = pathFinder;
+        this.capabilities = capabilities;
+        this.omnidirectional = omnidirectional;
+        this.searchRangeSquared = searchRangeSquared;
+        this.moves = omnidirectional ? DX.length : 4;
+    }
+
+    /**
+     * @return the number of nodes expanded by both searches during the last call to {@link #search(Node, Node)}
+     */
+    int expansions() {
+        return this.expansions;
+    }
+
+    /**
+     * Searches for a path between two nodes
+     *
+     * @param source the node the path starts at
+     * @param target the node the path ends at
+     * @return the nodes of the path in the order they should be visited, or null if the target is unreachable
+     */
+    Node[] search(Node source, Node target) {
+        this.expansions = 0;
+        if (source == target)
+            return new Node[] { source };
+
+        final Frontier
+            forward = new Frontier(source, target),
+            backward = new Frontier(target, source);
+
+        Node meeting = null;
+        float best = Float.POSITIVE_INFINITY;
+
+        for (;;) {
+            final float
+                f = forward.minimum(),
+                b = backward.minimum();
+
+            // The forward search continues alone if the backward search is exhausted before they meet
+            if (f == Float.POSITIVE_INFINITY || (meeting != null && Math.max(f, b) >= best))
+                break;
+
+            final boolean forwards = backward.open.isEmpty() || (!forward.open.isEmpty() && forward.open.size() <= backward.open.size());
+            final Frontier frontier = forwards ? forward : backward;
+            final Frontier opposite = forwards ? backward : forward;
+            final Node node = frontier.poll();
+            if (node == null)
+                continue;
+
+            this.expansions++;
+            final float cost = frontier.cost(node);
+            for (int d = 0; d < this.moves; ++d) {
+                if (forwards)
+                    relax(frontier, node, cost, successor(node, d));
+                else
+                    predecessors(frontier, node, cost, d);
+            }
+
+            for (Node next : frontier.touched) {
+                final float other = opposite.cost(next);
+                if (other != Float.POSITIVE_INFINITY) {
+                    final float total = frontier.cost(next) + other;
+                    if (total < best) {
+                        best = total;
+                        meeting = next;
+                    }
+                }
+            }
+            frontier.touched.clear();
+        }
+
+        return meeting == null ? null : join(forward, backward, meeting);
+    }
+
+    private Node successor(Node node, int d) {
+        final Coords key = node.key;
+        final Node successor = this.pathFinder.cachedPassiblePointNear(key.x + DX[d], key.y + DY[d], key.z + DZ[d], key);
+        return passible(successor) ? successor : null;
+    }
+
+    private void predecessors(Frontier frontier, Node node, float cost, int d) {
+        final Coords key = node.key;
+        final Node near = successor(node, d);
+        if (near != null)
+            relaxBackward(frontier, node, cost, near);
+
+        if (this.omnidirectional)
+            return;
+
+        final int
+            x = key.x + DX[d],
+            z = key.z + DZ[d],
+            low = Math.max(key.y + 2, near == null ? Integer.MIN_VALUE : near.key.y + 1);
+
+        for (int y = key.y + this.pathFinder.context().fallDistance(); y >= low; --y)
+            if (floorAt(x, y, z)) {
+                final Node ledge = this.pathFinder.cachedPassiblePointNear(x, y, z, null);
+                if (passible(ledge) && ledge.key.y == y)
+                    relaxBackward(frontier, node, cost, ledge);
+            }
+    }
+
+    private void relaxBackward(Frontier frontier, Node node, float cost, Node predecessor) {
+        final Coords key = node.key;
+        final Node reached = this.pathFinder.cachedPassiblePointNear(key.x, predecessor.key.y, key.z, predecessor.key);
+        if (reached == node || (reached != null && reached.key.equals(key)))
+            relax(frontier, node, cost, predecessor);
+    }
+
+    private boolean floorAt(int x, int y, int z) {
+        final NodeMap nodeMap = this.pathFinder.nodeMap;
+        return impedesMovement(nodeMap.flagsAt(x, y - 1, z), this.capabilities) && !impedesMovement(nodeMap.flagsAt(x, y, z), this.capabilities);
+    }
+
+    private boolean passible(Node node) {
+        return node != null && !node.passibility().impassible(this.capabilities);
+    }
+
+    private void relax(Frontier frontier, Node from, float cost, Node to) {
+        if (to == null || frontier.closed(to) || Node.squareDelta(to, frontier.goal) >= this.searchRangeSquared)
+            return;
+
+        final float next = cost + step(from, to);
+        if (frontier.cost(to) <= next)
+            return;
+
+        frontier.record(to, next, from);
+        frontier.open.add(new Entry(to, next + estimate(to.key, frontier.goal.key)));
+        frontier.touched.add(to);
+    }
+
+    /**
+     * Cost of a move between two nodes, this must be symmetric so that costs accumulated by the backward search are
+     * comparable to those of the forward search.  Since the penalty is charged half for each end, every node along a
+     * path costs its full tier penalty except the source and target which are common to all paths.
+     */
+    private static float step(Node from, Node to) {
+        return estimate(from.key, to.key) + (from.passibility().ordinal() + to.passibility().ordinal()) * (TIER_PENALTY * 0.5f);
+    }
+
+    private static float estimate(Coords a, Coords b) {
+        return Math.abs(a.x - b.x) + Math.abs(a.y - b.y) + Math.abs(a.z - b.z);
+    }
+
+    private static Node[] join(Frontier forward, Frontier backward, Node meeting) {
+        final List<Node> nodes = new ArrayList<>();
+        for (Node node = meeting; node != null; node = forward.parent(node))
+            nodes.add(node);
+
+        Collections.reverse(nodes);
+        for (Node node = backward.parent(meeting); node != null; node = backward.parent(node))
+            nodes.add(node);
+
+        return nodes.toArray(new Node[0]);
+    }
+
+    /**
+     * One direction of the search, its cost, parent and closed state of each node is held in an open-addressing table
+     * keyed by the packed coordinates of the node
+     */
+    private static final class Frontier {
+        final Node origin, goal;
+        final PriorityQueue<Entry> open = new PriorityQueue<>();
+        final List<Node> touched = new ArrayList<>();
+
+        private long[] keys = new long[64];
+        private Node[] nodes = new Node[64], parents = new Node[64];
+        private float[] costs = new float[64];
+        private boolean[] closed = new boolean[64];
+        private int size;
+
+        Frontier(Node origin, Node goal) {
+            this.origin = origin;
+            this.goal = goal;
+            record(origin, 0, null);
+            this.open.add(new Entry(origin, estimate(origin.key, goal.key)));
+        }
+
+        float minimum() {
+            Entry entry;
+            while ((entry = this.open.peek()) != null && closed(entry.node))
+                this.open.poll();
+
+            return entry == null ? Float.POSITIVE_INFINITY : entry.estimate;
+        }
+
+        Node poll() {
+            final Entry entry = this.open.poll();
+            if (entry == null)
+                return null;
+
+            final int slot = slotOf(entry.node);
+            if (this.closed[slot])
+                return null;
+
+            this.closed[slot] = true;
+            return entry.node;
+        }
+
+        float cost(Node node) {
+            final int slot = slotOf(node);
+            return this.nodes[slot] == null ? Float.POSITIVE_INFINITY : this.costs[slot];
+        }
+
+        Node parent(Node node) {
+            final int slot = slotOf(node);
+            return this.nodes[slot] == null ? null : this.parents[slot];
+        }
+
+        boolean closed(Node node) {
+            final int slot = slotOf(node);
+            return this.nodes[slot] != null && this.closed[slot];
+        }
+
+        void record(Node node, float cost, Node parent) {
+            int slot = slotOf(node);
+            if (this.nodes[slot] == null) {
+                if (++this.size > this.keys.length >> 1) {
+                    grow();
+                    slot = slotOf(node);
+                }
+
+                this.keys[slot] = keyOf(node.key);
+                this.nodes[slot] = node;
+            }
+
+            this.costs[slot] = cost;
+            this.parents[slot] = parent;
+        }
+
+        /**
+         * Locates the slot of a node, or the empty slot where it would be inserted
+         */
+        private int slotOf(Node node) {
+            final long key = keyOf(node.key);
+            final long[] keys = this.keys;
+            final Node[] nodes = this.nodes;
+            final int mask = keys.length - 1;
+
+            int slot = mix(key) & mask;
+            while (nodes[slot] != null && keys[slot] != key)
+                slot = (slot + 1) & mask;
+
+            return slot;
+        }
+
+        private void grow() {
+            final Node[]
+                nodes = this.nodes,
+                parents = this.parents;
+            final float[] costs = this.costs;
+            final boolean[] closed = this.closed;
+            final int capacity = nodes.length << 1;
+
+            this.keys = new long[capacity];
+            this.nodes = new Node[capacity];
+            this.parents = new Node[capacity];
+            this.costs = new float[capacity];
+            this.closed = new boolean[capacity];
+
+            for (int i = 0; i < nodes.length; ++i)
+                if (nodes[i] != null) {
+                    final int slot = slotOf(nodes[i]);
+                    this.keys[slot] = keyOf(nodes[i].key);
+                    this.nodes[slot] = nodes[i];
+                    this.parents[slot] = parents[i];
+                    this.costs[slot] = costs[i];
+                    this.closed[slot] = closed[i];
+                }
+        }
+
+        private static long keyOf(Coords key) {
+            return ((long)(key.x & 0x3FFFFFF) << 38) | ((long)(key.z & 0x3FFFFFF) << 12) | (key.y & 0xFFF);
+        }
+
+        private static int mix(long key) {
+            key ^= key >>> 33;
+            key *= 0xff51afd7ed558ccdL;
+            key ^= key >>> 33;
+            return (int)key;
+        }
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        final Node node;
+        final float estimate;
+
+        Entry(Node node, float estimate) {
+            this.node = node;
+            this.estimate = estimate;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return Float.compare(this.estimate, other.estimate);
+        }
+    }
+}
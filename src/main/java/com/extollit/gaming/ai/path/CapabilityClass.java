@@ -0,0 +1,159 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.IInstanceSpace;
+import com.extollit.gaming.ai.path.model.INodeCalculator;
+import com.extollit.gaming.ai.path.model.IPathingEntity;
+
+import static java.lang.Math.floor;
+
+/**
+ * Identifies a class of pathing entities that observe exactly the same passibility everywhere, these are entities that
+ * share the same discrete size and height and the same movement capabilities.  Graph data derived from passibility can
+ * be shared between all entities of the same class, so objects of this class are suitable as keys for such caches.
+ *
+ * Speed is deliberately not part of the class since it does not affect passibility.
+ */
+public final class CapabilityClass {
+    private static final int
+        FLUIDIC = 1,
+        FIRE_RESISTANT = 1 << 1,
+        CAUTIOUS = 1 << 2,
+        CLIMBER = 1 << 3,
+        SWIMMER = 1 << 4,
+        AQUATIC = 1 << 5,
+        AVIAN = 1 << 6,
+        AQUAPHOBIC = 1 << 7,
+        AVOIDS_DOORWAYS = 1 << 8,
+        OPENS_DOORS = 1 << 9;
+
+    /**
+     * Discrete size (width) in blocks of entities in this class
+     */
+    public final int discreteSize;
+
+    /**
+     * Discrete height in blocks of entities in this class
+     */
+    public final int tall;
+
+    private final int flags;
+    private final IPathingEntity representative;
+
+    private CapabilityClass(int discreteSize, int tall, int flags, IPathingEntity representative) {
+        this.discreteSize = discreteSize;
+        this.tall = tall;
+        this.flags = flags;
+        this.representative = representative;
+    }
+
+    /**
+     * Determines the capability class of a pathing entity given its current size and capabilities
+     *
+     * @param entity the pathing entity to classify
+     * @return the capability class the entity currently belongs to
+     */
+    public static CapabilityClass of(IPathingEntity entity) {
+        return new CapabilityClass(
+            (int)floor(entity.width() + 1),
+            (int)floor(entity.height() + 1),
+            flagsOf(entity.capabilities()),
+            EntitySnapshot.of(entity)
+        );
+    }
+
+    /**
+     * Determines whether a pathing entity currently belongs to this class without allocating a new class
+     *
+     * @param entity the pathing entity to test
+     * @return true if the entity observes the same passibility as entities of this class
+     */
+    boolean matches(IPathingEntity entity) {
+        return
+            this.discreteSize == (int)floor(entity.width() + 1) &&
+            this.tall == (int)floor(entity.height() + 1) &&
+            this.flags == flagsOf(entity.capabilities());
+    }
+
+    private static int flagsOf(IPathingEntity.Capabilities capabilities) {
+        int flags = 0;
+
+        if (fluidic(capabilities))
+            flags |= FLUIDIC;
+        if (capabilities.fireResistant())
+            flags |= FIRE_RESISTANT;
+        if (capabilities.cautious())
+            flags |= CAUTIOUS;
+        if (capabilities.climber())
+            flags |= CLIMBER;
+        if (capabilities.swimmer())
+            flags |= SWIMMER;
+        if (capabilities.aquatic())
+            flags |= AQUATIC;
+        if (capabilities.avian())
+            flags |= AVIAN;
+        if (capabilities.aquaphobic())
+            flags |= AQUAPHOBIC;
+        if (capabilities.avoidsDoorways())
+            flags |= AVOIDS_DOORWAYS;
+        if (capabilities.opensDoors())
+            flags |= OPENS_DOORS;
+
+        return flags;
+    }
+
+    static boolean fluidic(IPathingEntity.Capabilities capabilities) {
+        return capabilities.avian() || (capabilities.swimmer() && capabilities.aquatic());
+    }
+
+    /**
+     * Whether entities of this class move omni-directionally (i.e. they fly or swim) rather than along the ground
+     *
+     * @return true if entities of this class are not bound by gravity
+     */
+    public boolean fluidic() {
+        return (this.flags & FLUIDIC) != 0;
+    }
+
+    IPathingEntity.Capabilities capabilities() {
+        return this.representative.capabilities();
+    }
+
+    /**
+     * Creates a node calculator that computes passibility for entities of this class
+     *
+     * @param instanceSpace the instance space the calculator should compute passibility within
+     * @param context configuration of the engine for the instance space
+     * @return a new node calculator already applied to a representative of this class
+     */
+    INodeCalculator createCalculator(IInstanceSpace instanceSpace, PathingContext context) {
+        final INodeCalculator calculator = HydrazinePathFinder.createPassibilityCalculator(instanceSpace, context, this.representative.capabilities());
+        calculator.applySubject(this.representative);
+        return calculator;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        final CapabilityClass that = (CapabilityClass) o;
+        return this.discreteSize == that.discreteSize && this.tall == that.tall && this.flags == that.flags;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = this.discreteSize;
+        result = 31 * result + this.tall;
+        result = 31 * result + this.flags;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "CapabilityClass{" +
+                "discreteSize=" + this.discreteSize +
+                ", tall=" + this.tall +
+                ", flags=" + Integer.toBinaryString(this.flags) +
+                '}';
+    }
+}
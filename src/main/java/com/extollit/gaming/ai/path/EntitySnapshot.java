@@ -0,0 +1,140 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.Gravitation;
+import com.extollit.gaming.ai.path.model.IPathingEntity;
+import com.extollit.gaming.ai.path.model.Passibility;
+import com.extollit.linalg.immutable.Vec3d;
+
+/**
+ * Immutable copy of the current state and capabilities of a pathing entity.  A snapshot is independent of the original
+ * entity so it can be used safely from other threads, e.g. by path computations that run off of the thread that owns the
+ * instance space.  Snapshots cannot be driven along a path.
+ */
+final class EntitySnapshot implements IPathingEntity, IPathingEntity.Capabilities {
+    private final Vec3d coordinates;
+    private final int age;
+    private final boolean bound;
+    private final float searchRange, width, height, speed;
+    private final boolean fireResistant, cautious, climber, swimmer, aquatic, avian, aquaphobic, avoidsDoorways, opensDoors;
+
+    private EntitySnapshot(IPathingEntity entity) {
+        final Capabilities capabilities = entity.capabilities();
+
+        this.coordinates = entity.coordinates();
+        this.age = entity.age();
+        this.bound = entity.bound();
+        this.searchRange = entity.searchRange();
+        this.width = entity.width();
+        this.height = entity.height();
+        this.speed = capabilities.speed();
+        this.fireResistant = capabilities.fireResistant();
+        this.cautious = capabilities.cautious();
+        this.climber = capabilities.climber();
+        this.swimmer = capabilities.swimmer();
+        this.aquatic = capabilities.aquatic();
+        this.avian = capabilities.avian();
+        this.aquaphobic = capabilities.aquaphobic();
+        this.avoidsDoorways = capabilities.avoidsDoorways();
+        this.opensDoors = capabilities.opensDoors();
+    }
+
+    /**
+     * Captures the current state of a pathing entity
+     *
+     * @param entity the entity to capture
+     * @return a detached copy of the entity's current state and capabilities
+     */
+    static EntitySnapshot of(IPathingEntity entity) {
+        return new EntitySnapshot(entity);
+    }
+
+    @Override
+    public int age() {
+        return this.age;
+    }
+
+    @Override
+    public boolean bound() {
+        return this.bound;
+    }
+
+    @Override
+    public float searchRange() {
+        return this.searchRange;
+    }
+
+    @Override
+    public Capabilities capabilities() {
+        return this;
+    }
+
+    @Override
+    public void moveTo(Vec3d position, Passibility passibility, Gravitation gravitation) {
+        throw new UnsupportedOperationException("Snapshots of pathing entities cannot be moved");
+    }
+
+    @Override
+    public Vec3d coordinates() {
+        return this.coordinates;
+    }
+
+    @Override
+    public float width() {
+        return this.width;
+    }
+
+    @Override
+    public float height() {
+        return this.height;
+    }
+
+    @Override
+    public float speed() {
+        return this.speed;
+    }
+
+    @Override
+    public boolean fireResistant() {
+        return this.fireResistant;
+    }
+
+    @Override
+    public boolean cautious() {
+        return this.cautious;
+    }
+
+    @Override
+    public boolean climber() {
+        return this.climber;
+    }
+
+    @Override
+    public boolean swimmer() {
+        return this.swimmer;
+    }
+
+    @Override
+    public boolean aquatic() {
+        return this.aquatic;
+    }
+
+    @Override
+    public boolean avian() {
+        return this.avian;
+    }
+
+    @Override
+    public boolean aquaphobic() {
+        return this.aquaphobic;
+    }
+
+    @Override
+    public boolean avoidsDoorways() {
+        return this.avoidsDoorways;
+    }
+
+    @Override
+    public boolean opensDoors() {
+        return this.opensDoors;
+    }
+}
@@ -0,0 +1,648 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.*;
+
+import java.util.*;
+
+import static java.lang.Math.floor;
+
+/**
+ * Shared distance fields for many pathing entities tracking the same destination entity.  Rather than each follower
+ * running its own A* search over nearly the same terrain, a single search is run backward from the destination and
+ * each node visited records its next step toward the destination.  A follower then reads its path by walking these
+ * steps from its own location, which costs nothing more than the length of the path.  Steps are weighted by the
+ * passibility of the node stepped into, steeply enough that a field prefers a long detour over a worse passibility
+ * just as the A* triage does.
+ *
+ * A field is computed once per destination and {@link CapabilityClass}, since all entities of a class observe the same
+ * passibility.  It covers the union of the windows of all its followers, which are the bounds between each follower
+ * and the destination padded by a margin.  When the destination moves within the field, the field is re-rooted in
+ * place: the steps from the new destination back to the old one are reversed and the cost of every other node becomes
+ * that of the path through the old destination, which is then improved outward from the new destination.  When a
+ * follower leaves the covered area, the field is grown and the search resumes from the nodes at the edge of the old
+ * window.  Both repairs keep every step valid so the field continues to serve followers while it is being repaired.
+ * A field is only computed again from scratch when a block changes near it or the destination moves out of it, then the
+ * previous field continues to serve followers until the next one is complete.  All of this work is spread across the
+ * updates of all followers according to their scheduling allowance, so the cost of a field is amortized across all
+ * followers of the destination.
+ *
+ * Objects of this class are not thread-safe, they must be used by the thread that owns the instance space.  Graph node
+ * filters are not applied to fields.
+ *
+ * @see HydrazinePathFinder#withFlowField(FlowField)
+ * @see HydrazinePathFinder#trackPathTo(IDynamicMovableObject)
+ */
+public final class FlowField {
+    private static final int WINDOW_MARGIN = OcclusionField.DIMENSION_SIZE;
+
+    /**
+     * Cost of a step into a node of each passibility (indexed by ordinal)
+     */
+    private static final int[] STEP_COSTS = { 1, 16, 256 };
+
+    private static final int[]
+        DX = { -1, +1, 0, 0, 0, 0 },
+        DY = { 0, 0, 0, 0, +1, -1 },
+        DZ = { 0, 0, -1, +1, 0, 0 };
+
+    private final IInstanceSpace instanceSpace;
+    private final PathingContext context;
+    private final IOcclusionProviderFactory occlusionProviderFactory;
+    private final Map<IDynamicMovableObject, Map<CapabilityClass, Field>> fields = new IdentityHashMap<>();
+
+    /**
+     * Create a new set of flow fields for an instance space configured by the global context
+     *
+     * @param instanceSpace the instance space followers path-find in
+     * @see PathingContext#global()
+     */
+    public FlowField(IInstanceSpace instanceSpace) {
+        this(instanceSpace, PathingContext.global());
+    }
+
+    /**
+     * Create a new set of flow fields for an instance space
+     *
+     * @param instanceSpace the instance space followers path-find in
+     * @param context configuration of the engine for the instance space
+     */
+    public FlowField(IInstanceSpace instanceSpace, PathingContext context) {
+        this(instanceSpace, context, AreaOcclusionProviderFactory.INSTANCE);
+    }
+
+    FlowField(IInstanceSpace instanceSpace, PathingContext context, IOcclusionProviderFactory occlusionProviderFactory) {
+        this.instanceSpace = instanceSpace;
+        this.context = context;
+        this.occlusionProviderFactory = occlusionProviderFactory;
+    }
+
+    /**
+     * Notifies the fields that a block has changed so that any field covering it is computed again.  This should be
+     * called along with {@link HydrazinePathFinder#onBlockChanged(int, int, int)}.
+     *
+     * @param x x-coordinate of the block that changed
+     * @param y y-coordinate of the block that changed
+     * @param z z-coordinate of the block that changed
+     * @see PathingSpace#onBlockChanged(int, int, int, IBlockDescription, int)
+     */
+    public void onBlockChanged(int x, int y, int z) {
+        for (Map<CapabilityClass, Field> classes : this.fields.values())
+            for (Field field : classes.values())
+                field.onBlockChanged(x, y, z);
+    }
+
+    /**
+     * Discards all computed fields, they are computed again as followers update
+     */
+    public void clear() {
+        for (Map<CapabilityClass, Field> classes : this.fields.values())
+            for (Field field : classes.values())
+                field.invalidate();
+    }
+
+    int fieldCount() {
+        int count = 0;
+        for (Map<CapabilityClass, Field> classes : this.fields.values())
+            count += classes.size();
+
+        return count;
+    }
+
+    private static long cellKey(int x, int y, int z) {
+        return ((long)(x & 0x3FFFFFF) << 38) | ((long)(z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    Field fieldFor(IDynamicMovableObject destination, CapabilityClass capabilityClass) {
+        Map<CapabilityClass, Field> classes = this.fields.get(destination);
+        if (classes == null)
+            this.fields.put(destination, classes = new HashMap<>());
+
+        Field field = classes.get(capabilityClass);
+        if (field == null)
+            classes.put(capabilityClass, field = new Field(destination, capabilityClass));
+
+        return field;
+    }
+
+    /**
+     * Distance field rooted at one destination for one capability class
+     */
+    final class Field {
+        private final IDynamicMovableObject destination;
+        private final CapabilityClass capabilityClass;
+        private final INodeCalculator calculator;
+        private final IPathingEntity.Capabilities capabilities;
+        private final boolean omnidirectional;
+        private final Map<Object, int[]> windows = new IdentityHashMap<>();
+
+        private Build served, building;
+        private boolean stale;
+
+        Field(IDynamicMovableObject destination, CapabilityClass capabilityClass) {
+            this.destination = destination;
+            this.capabilityClass = capabilityClass;
+            this.calculator = capabilityClass.createCalculator(FlowField.this.instanceSpace, FlowField.this.context);
+            this.capabilities = capabilityClass.capabilities();
+            this.omnidirectional = this.calculator.omnidirectional();
+        }
+
+        /**
+         * Registers or updates the window of a follower, which is the area between the follower and the destination
+         *
+         * @param follower the following path-finder
+         * @param x x-coordinate of the follower
+         * @param y y-coordinate of the follower
+         * @param z z-coordinate of the follower
+         */
+        void follow(Object follower, int x, int y, int z) {
+            final Coords root = destinationCell();
+            final int margin = WINDOW_MARGIN + this.capabilityClass.discreteSize;
+
+            int[] window = this.windows.get(follower);
+            if (window == null)
+                this.windows.put(follower, window = new int[6]);
+
+            window[0] = Math.min(x, root.x) - margin;
+            window[1] = Math.min(y, root.y) - margin;
+            window[2] = Math.min(z, root.z) - margin;
+            window[3] = Math.max(x, root.x) + margin;
+            window[4] = Math.max(y, root.y) + margin;
+            window[5] = Math.max(z, root.z) + margin;
+        }
+
+        /**
+         * Removes a follower, the field is discarded once it has no more followers
+         *
+         * @param follower the path-finder that no longer follows this field
+         */
+        void unfollow(Object follower) {
+            this.windows.remove(follower);
+            if (!this.windows.isEmpty())
+                return;
+
+            final Map<IDynamicMovableObject, Map<CapabilityClass, Field>> fields = FlowField.this.fields;
+            final Map<CapabilityClass, Field> classes = fields.get(this.destination);
+            if (classes != null && classes.get(this.capabilityClass) == this) {
+                classes.remove(this.capabilityClass);
+                if (classes.isEmpty())
+                    fields.remove(this.destination);
+            }
+        }
+
+        /**
+         * Brings this field up-to-date with the destination and the windows of the followers, spending no more than
+         * the specified number of node expansions
+         *
+         * @param budget maximum number of nodes to expand
+         * @return number of nodes expanded
+         */
+        int refresh(int budget) {
+            final Build served = this.served;
+            Build build = this.building;
+
+            if (build == null) {
+                if (served == null || this.stale)
+                    this.building = build = new Build(destinationCell(), union());
+                else if (served.complete()) {
+                    final Coords root = destinationCell();
+                    if (!root.equals(served.destination) && !served.reroot(root))
+                        this.building = build = new Build(root, union());
+                    else {
+                        if (!coversFollowers(served))
+                            served.extend(union());
+
+                        build = served;
+                    }
+                } else
+                    build = served;
+            }
+
+            final int expansions = build.expand(budget);
+            if (build == this.building && build.complete()) {
+                this.served = build;
+                this.building = null;
+                this.stale = false;
+            }
+            return expansions;
+        }
+
+        /**
+         * Reads the steps toward the destination from the specified node
+         *
+         * @param source coordinates of the node to start from
+         * @param maxLength maximum number of steps to read (including the source)
+         * @return the nodes from the source toward the destination, or null if the source is not covered by the field
+         */
+        Node[] stepsFrom(Coords source, int maxLength) {
+            final Build served = this.served;
+            if (served == null)
+                return null;
+
+            Cell cell = served.cells.get(cellKey(source.x, source.y, source.z));
+            if (cell == null)
+                return null;
+
+            int length = 0;
+            for (Cell step = cell; step != null && length < maxLength; step = step.next)
+                length++;
+
+            final Node[] steps = new Node[length];
+            for (int i = 0; i < length; ++i, cell = cell.next)
+                steps[i] = cell.node;
+
+            return steps;
+        }
+
+        /**
+         * Determines whether this field is up-to-date with the destination and the windows of the followers
+         *
+         * @return true if refreshing this field has nothing left to do
+         */
+        boolean complete() {
+            final Build served = this.served;
+            return
+                served != null && this.building == null && !this.stale && served.complete() &&
+                served.destination.equals(destinationCell()) && coversFollowers(served);
+        }
+
+        private boolean coversFollowers(Build build) {
+            for (int[] window : this.windows.values())
+                if (!build.covers(window))
+                    return false;
+
+            return true;
+        }
+
+        private void invalidate() {
+            this.served =
+            this.building = null;
+        }
+
+        private void onBlockChanged(int x, int y, int z) {
+            final Build
+                served = this.served,
+                building = this.building;
+
+            if (served != null && served.near(x, y, z))
+                this.stale = true;
+
+            if (building != null && building.near(x, y, z))
+                this.building = null;
+        }
+
+        private Coords destinationCell() {
+            final com.extollit.linalg.immutable.Vec3d coordinates = this.destination.coordinates();
+            return new Coords((int)floor(coordinates.x), (int)floor(coordinates.y), (int)floor(coordinates.z));
+        }
+
+        private int[] union() {
+            int[] result = null;
+            for (int[] window : this.windows.values())
+                if (result == null)
+                    result = window.clone();
+                else
+                    for (int i = 0; i < 3; ++i) {
+                        result[i] = Math.min(result[i], window[i]);
+                        result[i + 3] = Math.max(result[i + 3], window[i + 3]);
+                    }
+
+            if (result == null) {
+                final Coords root = destinationCell();
+                final int margin = WINDOW_MARGIN + this.capabilityClass.discreteSize;
+                result = new int[] {
+                    root.x - margin, root.y - margin, root.z - margin,
+                    root.x + margin, root.y + margin, root.z + margin
+                };
+            }
+            return result;
+        }
+
+        /**
+         * One search backward from the destination over a window, nodes are expanded in order of their cost to reach
+         * the destination (Dijkstra's algorithm).  Along the steps of a field the cost strictly decreases toward the
+         * destination, which keeps the steps free of cycles while costs are lowered by repairs.
+         */
+        private final class Build {
+            final CellMap cells = new CellMap();
+            final List<Cell> ids = new ArrayList<>();
+            final CostHeap open = new CostHeap();
+            final List<Cell> blocked = new ArrayList<>();
+
+            Coords destination;
+            int[] window;
+            FlagSampler sampler;
+            int bias;
+
+            Build(Coords destination, int[] window) {
+                this.destination = destination;
+                this.window = window;
+                this.sampler = samplerOver(window);
+
+                final Node root = rootNear(destination);
+                if (root != null)
+                    assign(cellFor(root), null, 0);
+            }
+
+            private FlagSampler samplerOver(int[] window) {
+                return new FlagSampler(
+                    FlowField.this.occlusionProviderFactory.fromInstanceSpace(
+                        FlowField.this.instanceSpace,
+                        window[0] >> 4, window[2] >> 4,
+                        window[3] >> 4, window[5] >> 4
+                    )
+                );
+            }
+
+            private Node rootNear(Coords destination) {
+                final Node root = Field.this.calculator.passibleNodeNear(destination.x, destination.y, destination.z, null, this.sampler);
+                return root.passibility().impassible(Field.this.capabilities) || !inside(root.key) ? null : root;
+            }
+
+            private Cell cellFor(Node node) {
+                final Coords key = node.key;
+                final Cell cell = new Cell(node, this.ids.size());
+                this.ids.add(cell);
+                this.cells.put(cellKey(key.x, key.y, key.z), cell);
+                return cell;
+            }
+
+            /**
+             * Current cost of reaching the destination from a cell, costs assigned before the field was last re-rooted
+             * are raised by the cost of the steps that were reversed then
+             */
+            private int costOf(Cell cell) {
+                return cell.cost + this.bias - cell.bias;
+            }
+
+            private void assign(Cell cell, Cell next, int cost) {
+                cell.next = next;
+                cell.cost = cost;
+                cell.bias = this.bias;
+                this.open.push(cost, cell.id);
+            }
+
+            int expand(int budget) {
+                final INodeCalculator calculator = Field.this.calculator;
+                final IPathingEntity.Capabilities capabilities = Field.this.capabilities;
+                final boolean omnidirectional = Field.this.omnidirectional;
+                final int moves = omnidirectional ? DX.length : 4;
+                final FlagSampler sampler = this.sampler;
+                final CellMap cells = this.cells;
+                final CostHeap open = this.open;
+
+                int expansions = 0;
+                while (expansions < budget && !open.isEmpty()) {
+                    final long entry = open.pop();
+                    final Cell cell = this.ids.get(CostHeap.idOf(entry));
+                    final int cost = costOf(cell);
+                    if (CostHeap.costOf(entry) != cost)
+                        continue;
+
+                    final Coords key = cell.node.key;
+                    final int through = cost + STEP_COSTS[cell.node.passibility().ordinal()];
+                    expansions++;
+
+                    for (int d = 0; d < moves; ++d) {
+                        final Node node = calculator.passibleNodeNear(key.x + DX[d], key.y + DY[d], key.z + DZ[d], key, sampler);
+                        final Coords neighbour = node.key;
+                        if (node.passibility().impassible(capabilities))
+                            continue;
+
+                        if (!inside(neighbour)) {
+                            if (!cell.blocked) {
+                                cell.blocked = true;
+                                this.blocked.add(cell);
+                            }
+                            continue;
+                        }
+
+                        Cell next = cells.get(cellKey(neighbour.x, neighbour.y, neighbour.z));
+                        if (next != null && costOf(next) <= through)
+                            continue;
+
+                        // Ground movement is not symmetric (e.g. falling versus climbing), so the move from the neighbour
+                        // back to this cell must also be possible
+                        if (!omnidirectional) {
+                            final Node back = calculator.passibleNodeNear(key.x, key.y, key.z, neighbour, sampler);
+                            if (back.passibility().impassible(capabilities) || !back.key.equals(key))
+                                continue;
+                        }
+
+                        if (next == null)
+                            next = cellFor(node);
+
+                        assign(next, cell, through);
+                    }
+                }
+                return expansions;
+            }
+
+            /**
+             * Moves the root of this complete field to a new destination within it.  The steps from the new destination
+             * back to the old one are reversed, so every other cell then reaches the new destination through the old
+             * one, and the search is resumed from the reversed cells to find cheaper steps.
+             *
+             * @return false if the new destination is not covered by this field, which must then be computed again
+             */
+            boolean reroot(Coords destination) {
+                final Node root = rootNear(destination);
+                final Cell target = root == null ? null : this.cells.get(cellKey(root.key.x, root.key.y, root.key.z));
+                if (target == null)
+                    return false;
+
+                final List<Cell> reversed = new ArrayList<>();
+                for (Cell cell = target; cell != null; cell = cell.next)
+                    reversed.add(cell);
+
+                for (int i = 0; i < reversed.size() - 1; ++i)
+                    this.bias += STEP_COSTS[reversed.get(i).node.passibility().ordinal()];
+
+                Cell next = null;
+                int cost = 0;
+                for (Cell cell : reversed) {
+                    assign(cell, next, cost);
+                    cost += STEP_COSTS[cell.node.passibility().ordinal()];
+                    next = cell;
+                }
+
+                this.destination = destination;
+                return true;
+            }
+
+            /**
+             * Grows the window of this field and resumes the search from the cells that had neighbours outside of the
+             * previous window
+             */
+            void extend(int[] window) {
+                final int[] previous = this.window;
+                for (int i = 0; i < 3; ++i) {
+                    window[i] = Math.min(window[i], previous[i]);
+                    window[i + 3] = Math.max(window[i + 3], previous[i + 3]);
+                }
+
+                this.window = window;
+                this.sampler = samplerOver(window);
+                for (Cell cell : this.blocked) {
+                    cell.blocked = false;
+                    this.open.push(costOf(cell), cell.id);
+                }
+                this.blocked.clear();
+            }
+
+            boolean complete() {
+                return this.open.isEmpty();
+            }
+
+            boolean inside(Coords key) {
+                final int[] window = this.window;
+                return
+                    key.x >= window[0] && key.y >= window[1] && key.z >= window[2] &&
+                    key.x <= window[3] && key.y <= window[4] && key.z <= window[5];
+            }
+
+            boolean covers(int[] other) {
+                final int[] window = this.window;
+                return
+                    other[0] >= window[0] && other[1] >= window[1] && other[2] >= window[2] &&
+                    other[3] <= window[3] && other[4] <= window[4] && other[5] <= window[5];
+            }
+
+            boolean near(int x, int y, int z) {
+                final int[] window = this.window;
+                final int reach = Field.this.capabilityClass.discreteSize + 1;
+                return
+                    x >= window[0] - reach && y >= window[1] - Field.this.capabilityClass.tall - 1 && z >= window[2] - reach &&
+                    x <= window[3] + reach && y <= window[4] + FlowField.this.context.fallDistance() + 1 && z <= window[5] + reach;
+            }
+        }
+    }
+
+    private static final class Cell {
+        final Node node;
+        final int id;
+        Cell next;
+        int cost, bias;
+        boolean blocked;
+
+        Cell(Node node, int id) {
+            this.node = node;
+            this.id = id;
+        }
+    }
+
+    /**
+     * Open-addressing table of cells keyed by their packed coordinates, cells are never removed
+     */
+    private static final class CellMap {
+        private long[] keys = new long[64];
+        private Cell[] cells = new Cell[64];
+        private int size;
+
+        private static int mix(long key) {
+            key ^= key >>> 33;
+            key *= 0xff51afd7ed558ccdL;
+            key ^= key >>> 33;
+            return (int)key;
+        }
+
+        Cell get(long key) {
+            final long[] keys = this.keys;
+            final Cell[] cells = this.cells;
+            final int mask = keys.length - 1;
+
+            for (int slot = mix(key) & mask; cells[slot] != null; slot = (slot + 1) & mask)
+                if (keys[slot] == key)
+                    return cells[slot];
+
+            return null;
+        }
+
+        void put(long key, Cell cell) {
+            if (++this.size > this.keys.length >> 1) {
+                final long[] keys = this.keys;
+                final Cell[] cells = this.cells;
+
+                this.keys = new long[keys.length << 1];
+                this.cells = new Cell[cells.length << 1];
+                for (int i = 0; i < keys.length; ++i)
+                    if (cells[i] != null)
+                        insert(keys[i], cells[i]);
+            }
+            insert(key, cell);
+        }
+
+        private void insert(long key, Cell cell) {
+            final int mask = this.keys.length - 1;
+            int slot = mix(key) & mask;
+            while (this.cells[slot] != null)
+                slot = (slot + 1) & mask;
+
+            this.keys[slot] = key;
+            this.cells[slot] = cell;
+        }
+    }
+
+    /**
+     * Binary min-heap of cell identifiers packed with the cost they were queued at, a cell whose cost was lowered after
+     * it was queued is queued again and the outdated entry is skipped when it is popped
+     */
+    static final class CostHeap {
+        private long[] entries = new long[64];
+        private int size;
+
+        static int costOf(long entry) {
+            return (int)(entry >>> 32);
+        }
+
+        static int idOf(long entry) {
+            return (int)entry;
+        }
+
+        boolean isEmpty() {
+            return this.size == 0;
+        }
+
+        void push(int cost, int id) {
+            if (this.size == this.entries.length)
+                this.entries = Arrays.copyOf(this.entries, this.size << 1);
+
+            final long[] entries = this.entries;
+            final long entry = ((long)cost << 32) | (id & 0xFFFFFFFFL);
+            int i = this.size++;
+            while (i > 0) {
+                final int parent = (i - 1) >> 1;
+                if (entries[parent] <= entry)
+                    break;
+
+                entries[i] = entries[parent];
+                i = parent;
+            }
+            entries[i] = entry;
+        }
+
+        long pop() {
+            final long[] entries = this.entries;
+            final long top = entries[0];
+            final long last = entries[--this.size];
+            final int size = this.size;
+
+            int i = 0;
+            while (true) {
+                int child = (i << 1) + 1;
+                if (child >= size)
+                    break;
+
+                if (child + 1 < size && entries[child + 1] < entries[child])
+                    child++;
+
+                if (entries[child] >= last)
+                    break;
+
+                entries[i] = entries[child];
+                i = child;
+            }
+            entries[i] = last;
+            return top;
+        }
+    }
+}
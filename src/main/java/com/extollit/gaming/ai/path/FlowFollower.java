@@ -0,0 +1,80 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.Coords;
+import com.extollit.gaming.ai.path.model.IDynamicMovableObject;
+import com.extollit.gaming.ai.path.model.Node;
+
+/**
+ * Membership of a path-finder in the flow field shared by all path-finders tracking the same destination entity.  While
+ * following a field the path-finder reads its path from the field and contributes iterations toward computing it.
+ *
+ * @see HydrazinePathFinder#withFlowField(FlowField)
+ */
+final class FlowFollower {
+    private FlowField.Field field;
+
+    /**
+     * Starts following the field of a destination entity, the field previously followed (if any) is unfollowed
+     *
+     * @param flowField flow fields of the instance space, null to stop following
+     * @param target destination entity being tracked
+     * @param capabilityClass class of the pathing entity
+     * @param source coordinates of the pathing entity
+     */
+    void follow(FlowField flowField, IDynamicMovableObject target, CapabilityClass capabilityClass, Coords source) {
+        final FlowField.Field field = flowField == null ? null : flowField.fieldFor(target, capabilityClass);
+        if (field != this.field) {
+            unfollow();
+            if ((this.field = field) != null)
+                field.follow(this, source.x, source.y, source.z);
+        }
+    }
+
+    /**
+     * Stops following the current field (if any)
+     */
+    void unfollow() {
+        final FlowField.Field field = this.field;
+        if (field != null) {
+            field.unfollow(this);
+            this.field = null;
+        }
+    }
+
+    /**
+     * @return true if a field is being followed
+     */
+    boolean following() {
+        return this.field != null;
+    }
+
+    /**
+     * @return true if the field being followed has been computed completely
+     */
+    boolean complete() {
+        return this.field.complete();
+    }
+
+    /**
+     * Updates the position of the pathing entity in the field and continues computing it
+     *
+     * @param source current coordinates of the pathing entity
+     * @param iterations iterations available for computing the field
+     * @return number of iterations spent
+     */
+    int refresh(Coords source, int iterations) {
+        final FlowField.Field field = this.field;
+        field.follow(this, source.x, source.y, source.z);
+        return field.refresh(iterations);
+    }
+
+    /**
+     * Reads a path from the field
+     *
+     * @param source current coordinates of the pathing entity
+     * @return the nodes of the path in the order they should be visited, or null if the field does not cover the source
+     */
+    Node[] stepsFrom(Coords source) {
+        return this.field.stepsFrom(source, Node.MAX_PATH_DISTANCE);
+    }
+}
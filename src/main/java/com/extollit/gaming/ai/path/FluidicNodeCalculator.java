@@ -58,7 +58,7 @@ class FluidicNodeCalculator extends AbstractNodeCalculator implements INodeCalcu
                 gravitation = gravitation.between(gravitationFrom(flagsBeneath));
 
                 if (impedesMovement(flags, capabilities))
-                    return new Node(x0, y0, z0, Passibility.impassible, flagSampler.volatility() > 0, gravitation);
+                    return flagSampler.node(x0, y0, z0, Passibility.impassible, flagSampler.volatility() > 0, gravitation);
                 else
                     passibility = passibility.between(passibilityFrom(flags, capabilities));
 
@@ -78,7 +78,7 @@ class FluidicNodeCalculator extends AbstractNodeCalculator implements INodeCalcu
                     minPartY = partY;
 
                 if (passibility.impassible(capabilities))
-                    return new Node(x0, y0, z0, Passibility.impassible, flagSampler.volatility() > 0, gravitation);
+                    return flagSampler.node(x0, y0, z0, Passibility.impassible, flagSampler.volatility() > 0, gravitation);
             }
 
         if (passibility.impassible(capabilities))
@@ -86,10 +86,7 @@ class FluidicNodeCalculator extends AbstractNodeCalculator implements INodeCalcu
         else if (hasOrigin)
             passibility = originHeadClearance(flagSampler, passibility, origin, minY, minPartY);
 
-        point = new Node(x0, minY + round(minPartY), z0);
-        point.passibility(passibility);
-        point.gravitation(gravitation);
-        point.volatile_(flagSampler.volatility() > 0);
+        point = flagSampler.node(x0, minY + round(minPartY), z0, passibility, flagSampler.volatility() > 0, gravitation);
 
         return point;
     }
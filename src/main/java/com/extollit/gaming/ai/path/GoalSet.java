@@ -0,0 +1,154 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.Coords;
+import com.extollit.gaming.ai.path.model.Node;
+import com.extollit.linalg.immutable.Vec3d;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import static java.lang.Math.floor;
+
+/**
+ * Destinations of a multi-goal search.  A multi-goal search heads for the nearest destination by straight-line distance
+ * but finishes as soon as any one of the destinations is reached, which then becomes the destination of the search.
+ *
+ * @see HydrazinePathFinder#initiatePathTo(java.util.Collection, PathOptions)
+ */
+final class GoalSet {
+    private Vec3d[] positions;
+    private Node[] nodes;
+    private int goal = -1;
+
+    /**
+     * Applies the destinations of subsequent searches
+     *
+     * @param positions coordinates of each destination, null for a search with a single destination
+     * @return true if the destinations are different from those previously applied
+     */
+    boolean apply(Vec3d[] positions) {
+        final Vec3d[] previous = this.positions;
+        this.positions = positions;
+        if (previous == null || positions == null)
+            return previous != positions;
+
+        if (previous.length != positions.length)
+            return true;
+
+        for (int i = 0; i < previous.length; ++i)
+            if (differs(positions[i], previous[i]))
+                return true;
+
+        return false;
+    }
+
+    /**
+     * Discards the destinations, subsequent searches have a single destination
+     */
+    void clear() {
+        this.positions = null;
+        this.nodes = null;
+        this.goal = -1;
+    }
+
+    /**
+     * @return true if the destinations of a multi-goal search have been applied
+     */
+    boolean active() {
+        return this.positions != null;
+    }
+
+    /**
+     * @return true if the nodes of the destinations have been resolved for the current search
+     */
+    boolean resolved() {
+        return this.nodes != null;
+    }
+
+    /**
+     * @return index of the destination reached by the current search, -1 if none has been reached
+     */
+    int goal() {
+        return this.goal;
+    }
+
+    /**
+     * Resolves the nodes of all destinations for a new search, which must be called after the target has been set.
+     * Destinations beyond the maximum path distance from the source are excluded.
+     *
+     * @param resolver determines the node of a destination, which is null if the destination is not eligible
+     * @param source node the search starts from
+     * @param target node the search is headed for, null if there is none
+     * @return coordinates of the nodes of the eligible destinations, null if there is no multi-goal search
+     */
+    Coords[] resolve(Function<Vec3d, Node> resolver, Node source, Node target) {
+        final Vec3d[] positions = this.positions;
+
+        this.goal = -1;
+        if (positions == null || target == null) {
+            this.nodes = null;
+            return null;
+        }
+
+        final Node[] nodes = new Node[positions.length];
+        final List<Coords> keys = new ArrayList<>(nodes.length);
+        for (int i = 0; i < nodes.length; ++i) {
+            final Node node = resolver.apply(positions[i]);
+            if (node == null || Node.squareDelta(node, source) > Node.MAX_PATH_DISTANCE * Node.MAX_PATH_DISTANCE)
+                continue;
+
+            nodes[i] = node;
+            keys.add(node.key);
+            if (node == target && this.goal == -1)
+                this.goal = i;
+        }
+
+        this.nodes = nodes;
+        return keys.toArray(new Coords[0]);
+    }
+
+    /**
+     * Determines whether a node is one of the destinations, if so it becomes the destination reached by the search
+     *
+     * @param node a node being expanded
+     * @return coordinates of the destination reached, null if the node is not a destination
+     */
+    Vec3d reached(Node node) {
+        final Node[] nodes = this.nodes;
+        if (nodes == null)
+            return null;
+
+        for (int i = 0; i < nodes.length; ++i)
+            if (nodes[i] == node) {
+                this.goal = i;
+                return this.positions[i];
+            }
+
+        return null;
+    }
+
+    /**
+     * Determines whether any of the destinations were discarded from the graph
+     *
+     * @param discarded nodes discarded from the graph
+     * @return true if the node of any destination was discarded
+     */
+    boolean discarded(Set<Node> discarded) {
+        final Node[] nodes = this.nodes;
+        if (nodes != null)
+            for (Node node : nodes)
+                if (node != null && discarded.contains(node))
+                    return true;
+
+        return false;
+    }
+
+    private static boolean differs(Vec3d a, Vec3d b) {
+        return
+            (int)floor(a.x) != (int)floor(b.x) ||
+            (int)floor(a.y) != (int)floor(b.y) ||
+            (int)floor(a.z) != (int)floor(b.z);
+    }
+}
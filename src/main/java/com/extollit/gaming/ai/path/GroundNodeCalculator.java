@@ -7,20 +7,22 @@ import static com.extollit.gaming.ai.path.PassibilityHelpers.passibilityFrom;
 import static java.lang.Math.round;
 
 class GroundNodeCalculator extends AbstractNodeCalculator {
-    private static int
-            MAX_SAFE_FALL_DISTANCE = 4,
-            MAX_SURVIVE_FALL_DISTANCE = 20,
-            MAX_FALL_SEARCH = 1024,
-            CESA_LIMIT = 16;
+    private static final int MAX_FALL_SEARCH = 1024;
+
+    private final int
+            maxSafeFallDistance,
+            maxSurviveFallDistance,
+            cesaLimit;
 
     public GroundNodeCalculator(IInstanceSpace instanceSpace) {
-        super(instanceSpace);
+        this(instanceSpace, PathingContext.global());
     }
 
-    public static void configureFrom(IConfigModel configModel) {
-        MAX_SAFE_FALL_DISTANCE = configModel.safeFallDistance();
-        MAX_SURVIVE_FALL_DISTANCE = configModel.surviveFallDistance();
-        CESA_LIMIT = configModel.cesaLimit();
+    public GroundNodeCalculator(IInstanceSpace instanceSpace, PathingContext context) {
+        super(instanceSpace);
+        this.maxSafeFallDistance = context.safeFallDistance;
+        this.maxSurviveFallDistance = context.surviveFallDistance;
+        this.cesaLimit = context.cesaLimit;
     }
 
     @Override
@@ -80,7 +82,7 @@ class GroundNodeCalculator extends AbstractNodeCalculator {
 
                     if (partialDisparity < 0 || impedesMovement(flags, capabilities)) {
                         if (!hasOrigin)
-                            return new Node(x0, y0, z0, Passibility.impassible, flagSampler.volatility() > 0);
+                            return flagSampler.node(x0, y0, z0, Passibility.impassible, flagSampler.volatility() > 0);
 
                         if (dx * dx + dz * dz <= 1) {
                             y -= dy + 1;
@@ -91,7 +93,7 @@ class GroundNodeCalculator extends AbstractNodeCalculator {
                         }
 
                         if (impedesMovement(flags = flagSampler.flagsAt(x, --y, z), capabilities) && (impedesMovement(flags = flagSampler.flagsAt(x, ++y, z), capabilities) || partY0 < 0))
-                            return new Node(x0, y0, z0, Passibility.impassible, flagSampler.volatility() > 0);
+                            return flagSampler.node(x0, y0, z0, Passibility.impassible, flagSampler.volatility() > 0);
                     }
                 }
                 float partY = topOffsetAt(flagSampler, x, y - 1, z);
@@ -102,7 +104,7 @@ class GroundNodeCalculator extends AbstractNodeCalculator {
                 {
                     boolean condition = !impedesMovement || unstable(flags);
                     for (int j = 0,
-                            jN = origin == null ? MAX_FALL_SEARCH : MAX_SURVIVE_FALL_DISTANCE;
+                            jN = origin == null ? MAX_FALL_SEARCH : this.maxSurviveFallDistance;
                          condition && !(swimable = swimable(flags)) && j <= jN;
                          j++, condition = unstable(flags)
                             )
@@ -110,7 +112,7 @@ class GroundNodeCalculator extends AbstractNodeCalculator {
                 }
 
                 if (swimable) {
-                    final int cesaLimit = y + CESA_LIMIT;
+                    final int cesaLimit = y + this.cesaLimit;
                     final byte flags00 = flags;
                     byte flags0;
                     do {
@@ -118,7 +120,7 @@ class GroundNodeCalculator extends AbstractNodeCalculator {
                         flags = flagSampler.flagsAt(x, ++y, z);
                     } while (swimable(flags) && unstable(flags) && y < cesaLimit);
                     if (y >= cesaLimit) {
-                        y -= CESA_LIMIT + 1;
+                        y -= this.cesaLimit + 1;
                         flags = flags00;
                     } else {
                         y--;
@@ -137,7 +139,7 @@ class GroundNodeCalculator extends AbstractNodeCalculator {
 
                 passibility = passibility.between(passibilityFrom(flagSampler.flagsAt(x, y, z), capabilities));
                 if (passibility.impassible(capabilities))
-                    return new Node(x0, y0, z0, Passibility.impassible, flagSampler.volatility() > 0);
+                    return flagSampler.node(x0, y0, z0, Passibility.impassible, flagSampler.volatility() > 0);
             }
 
         if (hasOrigin && !passibility.impassible(capabilities))
@@ -149,9 +151,7 @@ class GroundNodeCalculator extends AbstractNodeCalculator {
         if (passibility.impassible(capabilities))
             passibility = Passibility.impassible;
 
-        point = new Node(x0, minY + round(minPartY), z0);
-        point.passibility(passibility);
-        point.volatile_(flagSampler.volatility() > 0);
+        point = flagSampler.node(x0, minY + round(minPartY), z0, passibility, flagSampler.volatility() > 0);
 
         return point;
     }
@@ -165,7 +165,7 @@ class GroundNodeCalculator extends AbstractNodeCalculator {
         final int dy = y0 - minY;
         if (dy > 1)
             passibility = passibility.between(
-                    dy > MAX_SAFE_FALL_DISTANCE ?
+                    dy > this.maxSafeFallDistance ?
                             Passibility.dangerous :
                             Passibility.risky
             );
@@ -5,14 +5,16 @@ import com.extollit.gaming.ai.path.persistence.internal.*;
 import com.extollit.linalg.immutable.AxisAlignedBBox;
 import com.extollit.linalg.mutable.Vec3d;
 import com.extollit.linalg.mutable.Vec3i;
-import com.extollit.num.FloatRange;
 
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
-import java.util.HashSet;
-import java.util.Random;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 import static com.extollit.gaming.ai.path.PassibilityHelpers.impedesMovement;
 import static java.lang.Math.*;
@@ -31,21 +33,42 @@ import static java.lang.Math.*;
 public class HydrazinePathFinder implements IVersionedReadable, IVersionedWriteable {
     private static final AxisAlignedBBox FULL_BOUNDS = new AxisAlignedBBox(0, 0, 0, 1, 1, 1);
 
-    private static double DOT_THRESHOLD = 0.6;
-    private static FloatRange
-            PROBATIONARY_TIME_LIMIT = new FloatRange(36, 64),
-            PASSIBLE_POINT_TIME_LIMIT = new FloatRange(24, 48);
-
-    private static byte FAULT_COUNT_THRESHOLD = 3;
-    private static int FAULT_LIMIT = 23;
-
-    final SortedPointQueue queue = new SortedPointQueue();
+    private static final byte
+        UP = 0,
+        DOWN = 1,
+        WEST = 2,
+        EAST = 3,
+        NORTH = 4,
+        SOUTH = 5,
+        CARDINALS = 6;
+
+    private static final int[]
+        DX = { 0, 0, -1, +1, 0, 0 },
+        DY = { +1, -1, 0, 0, 0, 0 },
+        DZ = { 0, 0, 0, 0, -1, +1 };
+
+    private static final byte[]
+        CARDINAL_LOOKUP_ORDER = { WEST, EAST, NORTH, SOUTH, UP, DOWN },
+        VERTICAL_DIAGONALS = {
+            NORTH, UP, EAST, UP, SOUTH, UP, WEST, UP,
+            NORTH, DOWN, EAST, DOWN, SOUTH, DOWN, WEST, DOWN
+        },
+        HORIZONTAL_DIAGONALS = { WEST, NORTH, EAST, SOUTH, EAST, NORTH, WEST, SOUTH };
+
+
+    SortedPointQueue queue = new SortedPointQueue();
     final NodeMap nodeMap;
 
     private final Set<Vec3i> unreachableFromSource = new HashSet<>(3);
     private final IPathingEntity subject;
     private final IInstanceSpace instanceSpace;
+    private final PathingContext context;
+    private PathingContext appliedContext;
+    private SchedulingPriority schedulingPriority;
     private final Vec3i vec3i = new Vec3i(0, 0, 0);
+    private final Node[] neighbours = new Node[VERTICAL_DIAGONALS.length >> 1];
+    private final boolean[] impeding = new boolean[CARDINALS];
+    private final com.extollit.linalg.mutable.AxisAlignedBBox[] neighbourBounds = new com.extollit.linalg.mutable.AxisAlignedBBox[CARDINALS];
 
     private com.extollit.linalg.mutable.Vec3d sourcePosition, destinationPosition;
     private com.extollit.linalg.immutable.Vec3d targetPosition;
@@ -53,29 +76,57 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
 
     private INodeCalculator pathPointCalculator;
     private IPathProcessor pathProcessor;
+    private QueueStrategy queueStrategy = QueueStrategy.heap;
     private IPath currentPath;
     private IPathingEntity.Capabilities capabilities;
     private boolean flying, aqua, pathPointCalculatorChanged, trimmedToCurrent, bound;
     private PathOptions.TargetingStrategy targetingStrategy;
     private Node current, source, target, closest;
-    private int initComputeIterations, periodicComputeIterations;
+    private int initComputeIterations, periodicComputeIterations, expansions;
     private int faultCount, nextGraphResetFailureCount;
+    private long timeRemaining;
     private float searchRangeSquared, passiblePointPathTimeLimit, nextGraphCacheReset, actualSize;
     private Random random = new Random();
+    private Executor computeExecutor = ForkJoinPool.commonPool();
+    private CompletableFuture<IPath> pendingComputation;
+    private Future<IPath> computation;
+    private SectionGraph sectionGraph;
+    private final RoutePlanner route = new RoutePlanner();
+    private FlowField flowField;
+    private final FlowFollower flow = new FlowFollower();
+    private PassibilityCache passibilityCache;
+    private Landmarks landmarks;
+    private CapabilityClass capabilityClass;
+    private final JumpPoints jumpPoints;
+    private final AnytimeSearch anytime = new AnytimeSearch();
+    private final GoalSet goals = new GoalSet();
+
+    PathingScheduler.Ticket ticket;
 
     /**
-     * Configures the path-finding library.  All instances of this class derive configuration from here
+     * Configures the path-finding library.  All instances of this class created without a context derive
+     * configuration from here, including those that already exist from their next path-finding operation
      *
      * @param configModel source of the configuration to apply to all instances of this class
+     * @deprecated use {@link PathingContext#from(IConfigModel)} and pass the context to
+     *             {@link #HydrazinePathFinder(IPathingEntity, IInstanceSpace, PathingContext)} instead
      */
+    @Deprecated
     public static void configureFrom(IConfigModel configModel) {
-        FAULT_COUNT_THRESHOLD = configModel.faultCountThreshold();
-        FAULT_LIMIT = configModel.faultLimit();
-        PROBATIONARY_TIME_LIMIT = configModel.probationaryTimeLimit();
-        PASSIBLE_POINT_TIME_LIMIT = configModel.passiblePointTimeLimit();
-        DOT_THRESHOLD = configModel.dotThreshold();
+        PathingContext.global(PathingContext.from(configModel));
+    }
 
-        GroundNodeCalculator.configureFrom(configModel);
+    /**
+     * Create a new instance of the path-finder for a given entity and world configured by the global context.  The
+     * path-finder follows the global context, if it is replaced the path-finder is re-configured at the start of its
+     * next path-finding operation.
+     *
+     * @param entity the entity that uses this object for path-finding operations
+     * @param instanceSpace the instance space that the entity is contained within and should path-find in
+     * @see PathingContext#global()
+     */
+    public HydrazinePathFinder(IPathingEntity entity, IInstanceSpace instanceSpace) {
+        this(entity, instanceSpace, null, AreaOcclusionProviderFactory.INSTANCE);
     }
 
     /**
@@ -83,15 +134,25 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
      *
      * @param entity the entity that uses this object for path-finding operations
      * @param instanceSpace the instance space that the entity is contained within and should path-find in
+     * @param context configuration of the engine for the instance space
      */
-    public HydrazinePathFinder(IPathingEntity entity, IInstanceSpace instanceSpace) {
-        this(entity, instanceSpace, AreaOcclusionProviderFactory.INSTANCE);
+    public HydrazinePathFinder(IPathingEntity entity, IInstanceSpace instanceSpace, PathingContext context) {
+        this(entity, instanceSpace, context, AreaOcclusionProviderFactory.INSTANCE);
     }
 
     HydrazinePathFinder(IPathingEntity entity, IInstanceSpace instanceSpace, IOcclusionProviderFactory occlusionProviderFactory) {
+        this(entity, instanceSpace, null, occlusionProviderFactory);
+    }
+
+    HydrazinePathFinder(IPathingEntity entity, IInstanceSpace instanceSpace, PathingContext context, IOcclusionProviderFactory occlusionProviderFactory) {
         this.subject = entity;
         this.instanceSpace = instanceSpace;
+        this.context = context;
         this.nodeMap = new NodeMap(instanceSpace, occlusionProviderFactory);
+        this.jumpPoints = new JumpPoints(this, this.nodeMap);
+
+        for (int i = 0; i < CARDINALS; ++i)
+            this.neighbourBounds[i] = new com.extollit.linalg.mutable.AxisAlignedBBox(0, 0, 0, 1, 1, 1);
 
         applySubject();
         schedulingPriority(SchedulingPriority.medium);
@@ -114,7 +175,9 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
      * @param schedulingPriority priority to use for path-finding with this object's bound entity
      */
     public void schedulingPriority(SchedulingPriority schedulingPriority) {
-        schedulingPriority(schedulingPriority.initComputeIterations, schedulingPriority.periodicComputeIterations);
+        final PathingContext context = context();
+        this.schedulingPriority = schedulingPriority;
+        schedulingPriority(context.initComputeIterations(schedulingPriority), context.periodicComputeIterations(schedulingPriority));
     }
 
     void schedulingPriority(final int initComputeIterations, final int periodicComputeIterations) {
@@ -122,6 +185,26 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
         this.periodicComputeIterations = periodicComputeIterations;
     }
 
+    /**
+     * Retrieve the configuration of the engine that this path-finder was created with, or the current global context
+     * if it was created without one
+     *
+     * @return the pathing context of this path-finder
+     * @see PathingContext#global()
+     */
+    public PathingContext context() {
+        final PathingContext context = this.context;
+        return context != null ? context : PathingContext.global();
+    }
+
+    int schedulingWeight() {
+        return Math.max(1, this.periodicComputeIterations);
+    }
+
+    boolean triagePending() {
+        return this.destinationPosition != null && !this.queue.isEmpty();
+    }
+
     /**
      * If the last operation called on this path-finder was to track path-finding to some other entity then this will
      * provide the current destination the pathing entity is trying to reach, which will be within close proximity of the
@@ -150,15 +233,19 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
 
     /**
      * Begin path-finding to a destination entity and update the path as necessary as the destination entity changes
-     * it's location.  This state is retained until a call to one of the other path-finding initiation methods
+     * it's location.  This state is retained until a call to one of the other path-finding initiation methods.  If flow
+     * fields were applied to this path-finder then the path is read from the field shared by all path-finders tracking
+     * the same entity.
      *
      * @param target destination / target entity to track and path-find to
      * @return the best path available toward the destination, the complete path to the destination, or null if a path
      *          cannot be computed at all from the current location
      * @see #updatePathFor(IPathingEntity)
+     * @see #withFlowField(FlowField)
      */
     public IPath trackPathTo(IDynamicMovableObject target) {
         this.destinationEntity = target;
+        followFlowField(target);
         return initiatePathTo(target.coordinates(), PathOptions.BEST_EFFORT);
     }
 
@@ -189,11 +276,34 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
      * @return the complete path to the destination, or null if the destination is unreachable from the current location
      */
     public IPath computePathTo(double x, double y, double z) {
+        return computePathTo(x, y, z, PathOptions.NONE);
+    }
+
+    /**
+     * Completely computes a path to the specified location, this is the same as
+     * {@link #computePathTo(double, double, double)} except that the search may be configured by path options.  Since
+     * the complete path is always computed, the targeting strategy and hierarchical planning do not apply.  With an
+     * inflated {@link PathOptions#epsilon(float)} the first path found is returned and subsequent updates improve it.
+     *
+     * @param x x-coordinate of the destination
+     * @param y y-coordinate of the destination
+     * @param z z-coordinate of the destination
+     * @param pathOptions Options for setting-up the path-finding approach (independent of pathing entity capabilities)
+     * @return the complete path to the destination, or null if the destination is unreachable from the current location
+     */
+    public IPath computePathTo(double x, double y, double z, PathOptions pathOptions) {
+        cancelComputation();
+
         this.destinationEntity = null;
+        unfollowFlowField();
         this.targetingStrategy = PathOptions.TargetingStrategy.none;
+        this.route.clear();
 
         initializeOperation();
-        if (tooFarTo(x, y, z))
+        this.goals.apply(null);
+        applyJumpPoints(pathOptions.jumpPoints());
+        this.anytime.initialEpsilon(pathOptions.epsilon());
+        if (tooFarTo(x, y, z) || unreachable(x, y, z))
             return null;
 
         updateDestination(x, y, z);
@@ -201,7 +311,154 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
         if (!graphTimeout())
             resetTriage();
 
-        return triage(Integer.MAX_VALUE);
+        if (pathOptions.bidirectional())
+            return bidirectionalPath();
+
+        return triage(Integer.MAX_VALUE, false, 0);
+    }
+
+    private IPath bidirectionalPath() {
+        final Node target = this.target;
+        this.expansions = 0;
+        if (target == null)
+            return null;
+
+        final BidirectionalSearch search = new BidirectionalSearch(this, this.capabilities, this.pathPointCalculator.omnidirectional(), this.searchRangeSquared);
+        final Node[] nodes = search.search(this.source, target);
+        this.expansions = search.expansions();
+        if (nodes == null)
+            return null;
+
+        this.queue.clear();
+        final IPath path = PathObject.fromSequence(this.capabilities.speed(), context().directLineTimeLimit(), this.random, nodes);
+        if (this.pathProcessor != null)
+            this.pathProcessor.processPath(path);
+        return updatePath(path);
+    }
+
+    /**
+     * Completely computes a path to the specified location asynchronously using the compute executor of this
+     * path-finder.
+     *
+     * @param coordinates the target destination to path-find to
+     * @return a future of the complete path to the destination, which completes with null if the destination is
+     *          unreachable from the current location
+     * @see #computePathToAsync(double, double, double)
+     */
+    public CompletableFuture<IPath> computePathToAsync(com.extollit.linalg.immutable.Vec3d coordinates) {
+        return computePathToAsync(coordinates.x, coordinates.y, coordinates.z);
+    }
+
+    /**
+     * Completely computes a path to the specified location asynchronously using the compute executor of this
+     * path-finder.  This is the same algorithm as {@link #computePathTo(double, double, double)} except that it runs
+     * off of the calling thread against an immutable snapshot of the occlusion fields in the search area and of the
+     * pathing entity's current state.
+     *
+     * The snapshot is captured by this method on the calling thread, which must be the thread that owns the instance
+     * space.  Since the snapshot is immutable, block changes that occur after this method returns are not observed by
+     * the computation.  Note that {@link IInstanceSpace#blockObjectAt(int, int, int)} is still consulted by the
+     * computation for a few ambiguous blocks (e.g. doors), so it must tolerate reads from other threads.  Likewise, the
+     * graph node filter and path processor of this path-finder are applied by the computing thread.
+     *
+     * The computation is cancelled if the returned future is cancelled, if this path-finder is {@link #reset()} (e.g.
+     * because the entity is unloading) or if any other path-finding operation is initiated on this path-finder (i.e. the
+     * destination changes).  The path computed is not applied to this path-finder, it is the caller's responsibility
+     * to drive the pathing entity along the resulting path.
+     *
+     * @param x x-coordinate of the destination
+     * @param y y-coordinate of the destination
+     * @param z z-coordinate of the destination
+     * @return a future of the complete path to the destination, which completes with null if the destination is
+     *          unreachable from the current location
+     * @see #withComputeExecutor(Executor)
+     */
+    public CompletableFuture<IPath> computePathToAsync(final double x, final double y, final double z) {
+        cancelComputation();
+
+        final IPathingEntity subject = EntitySnapshot.of(this.subject);
+        final com.extollit.linalg.immutable.Vec3d sourcePos = subject.coordinates();
+        final float searchRange = subject.searchRange();
+        if (sourcePos.subOf(x, y, z).mg2() > searchRange * searchRange)
+            return CompletableFuture.completedFuture(null);
+
+        final int
+                padding = (int)ceil(searchRange) + (int)ceil(subject.width()) + 1,
+                sx = (int)floor(sourcePos.x), sy = (int)floor(sourcePos.y), sz = (int)floor(sourcePos.z),
+                dx = (int)floor(x), dy = (int)floor(y), dz = (int)floor(z);
+
+        final SnapshotOcclusionProvider snapshot = SnapshotOcclusionProvider.capture(
+                this.instanceSpace,
+                (min(sx, dx) - padding) >> 4, (min(sy, dy) - padding) >> 4, (min(sz, dz) - padding) >> 4,
+                (max(sx, dx) + padding) >> 4, (max(sy, dy) + padding) >> 4, (max(sz, dz) + padding) >> 4
+        );
+
+        final HydrazinePathFinder worker = worker(subject, snapshot);
+
+        final CompletableFuture<IPath> future = new CompletableFuture<>();
+        this.pendingComputation = future;
+        worker.computation = future;
+        try {
+            this.computeExecutor.execute(() -> {
+                if (future.isDone())
+                    return;
+
+                try {
+                    future.complete(worker.computePathTo(x, y, z));
+                } catch (Throwable throwable) {
+                    future.completeExceptionally(throwable);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Creates a path-finder for computing paths on behalf of this one off of the thread that owns the instance space.
+     * It searches over an immutable snapshot with the same graph node filter, path processor and queue strategy.
+     *
+     * @param subject an immutable copy of the pathing entity of this path-finder
+     * @param snapshot snapshot of the occlusion fields that the worker searches
+     * @return a new path-finder that shares no mutable state with this one
+     */
+    HydrazinePathFinder worker(IPathingEntity subject, SnapshotOcclusionProvider snapshot) {
+        final HydrazinePathFinder worker = new HydrazinePathFinder(subject, this.instanceSpace, context(), (instance, cx0, cz0, cxN, czN) -> snapshot);
+        worker.nodeMap.filter(this.nodeMap.filter());
+        worker.pathProcessor = this.pathProcessor;
+        worker.withQueueStrategy(this.queueStrategy);
+        return worker;
+    }
+
+    /**
+     * Applies the executor used for asynchronous path computations by this path-finder, by default this is the
+     * common fork-join pool.
+     *
+     * @param executor executor that runs asynchronous path computations
+     * @return this
+     * @see #computePathToAsync(double, double, double)
+     */
+    public HydrazinePathFinder withComputeExecutor(Executor executor) {
+        this.computeExecutor = executor;
+        return this;
+    }
+
+    /**
+     * Retrieve the executor used for asynchronous path computations by this path-finder
+     *
+     * @return current compute executor
+     */
+    public Executor computeExecutor() {
+        return this.computeExecutor;
+    }
+
+    private void cancelComputation() {
+        final CompletableFuture<IPath> pendingComputation = this.pendingComputation;
+        if (pendingComputation != null) {
+            pendingComputation.cancel(false);
+            this.pendingComputation = null;
+        }
     }
 
     /**
@@ -269,18 +526,134 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
      *          destination was unreachable with the given path options
      */
     public IPath initiatePathTo(double x, double y, double z, PathOptions pathOptions) {
+        if (!initiateOperation(x, y, z, pathOptions))
+            return null;
+
+        return scheduledTriage(this.initComputeIterations, false, 0);
+    }
+
+    /**
+     * Starts path-finding to the specified destination, this is the same as
+     * {@link #initiatePathTo(double, double, double, PathOptions)} except that the A* triage is bounded by a wall-clock
+     * deadline rather than by the iteration counts of the current scheduling priority.  Nodes are expanded until the
+     * deadline passes, at least one node is always expanded if any are available.  Use {@link #expansions()} and
+     * {@link #timeRemaining()} afterward to determine how much work was done.
+     *
+     * After an initial call to this method, the caller should make subsequent calls to
+     * {@link #updatePathFor(IPathingEntity, long)} until path-finding is completed or exhausted.
+     *
+     * @param x x-coordinate of the destination
+     * @param y y-coordinate of the destination
+     * @param z z-coordinate of the destination
+     * @param pathOptions Options for setting-up the path-finding approach (independent of pathing entity capabilities)
+     * @param deadline the time (relative to {@link System#nanoTime()}) after which no further nodes are expanded
+     * @return the best path available toward the destination, the complete path to the destination, or null if the
+     *          destination was unreachable with the given path options
+     */
+    public IPath initiatePathTo(double x, double y, double z, PathOptions pathOptions, long deadline) {
+        if (!initiateOperation(x, y, z, pathOptions))
+            return null;
+
+        return scheduledTriage(Integer.MAX_VALUE, true, deadline);
+    }
+
+    /**
+     * Starts path-finding to whichever of the specified destinations is nearest by path using the best-effort
+     * algorithm.
+     *
+     * After an initial call to this method, the caller should make subsequent calls to
+     * {@link #updatePathFor(IPathingEntity)} until path-finding is completed or exhausted.
+     *
+     * @param destinations the coordinates of each destination to start path-finding toward, there must be at least one
+     * @return the best path available toward the destinations, the complete path to one of the destinations, or null
+     *          if a path cannot be computed at all from the current location
+     * @see #initiatePathTo(Collection, PathOptions)
+     */
+    public IPath initiatePathTo(Collection<com.extollit.linalg.immutable.Vec3d> destinations) {
+        return initiatePathTo(destinations, PathOptions.BEST_EFFORT);
+    }
+
+    /**
+     * Starts path-finding to whichever of the specified destinations is nearest by path.  This runs a single search
+     * toward all the destinations at once, which is far cheaper than searching for each of them in turn.  The search
+     * is guided by the distance to the nearest destination and finishes as soon as any one of them is reached.  Use
+     * {@link IPath#goal()} on the returned path to determine which destination it leads to.
+     *
+     * After an initial call to this method, the caller should make subsequent calls to
+     * {@link #updatePathFor(IPathingEntity)} until path-finding is completed or exhausted.  Hierarchical planning and
+     * jump points do not apply to multi-goal searches.
+     *
+     * @param destinations the coordinates of each destination to start path-finding toward, there must be at least one
+     * @param pathOptions Options for setting-up the path-finding approach (independent of pathing entity capabilities)
+     * @return the best path available toward the destinations, the complete path to one of the destinations, or null
+     *          if all the destinations were unreachable with the given path options
+     * @throws IllegalArgumentException if there are no destinations
+     */
+    public IPath initiatePathTo(Collection<com.extollit.linalg.immutable.Vec3d> destinations, PathOptions pathOptions) {
+        final com.extollit.linalg.immutable.Vec3d[] goalPositions = destinations.toArray(new com.extollit.linalg.immutable.Vec3d[0]);
+        if (goalPositions.length == 0)
+            throw new IllegalArgumentException("At least one destination is required");
+
+        if (!initiateOperation(goalPositions, pathOptions))
+            return null;
+
+        return scheduledTriage(this.initComputeIterations, false, 0);
+    }
+
+    private boolean initiateOperation(double x, double y, double z, PathOptions pathOptions) {
+        prepareOperation(pathOptions, null);
+        if (this.targetingStrategy == PathOptions.TargetingStrategy.none && (tooFarTo(x, y, z) || unreachable(x, y, z)))
+            return false;
+
+        return startOperation(x, y, z, pathOptions, false);
+    }
+
+    private boolean initiateOperation(com.extollit.linalg.immutable.Vec3d[] goalPositions, PathOptions pathOptions) {
+        final boolean modified = prepareOperation(pathOptions, goalPositions);
+        final com.extollit.linalg.immutable.Vec3d sourcePosition = new com.extollit.linalg.immutable.Vec3d(this.sourcePosition);
+
+        com.extollit.linalg.immutable.Vec3d nearest = null;
+        double nearestDistance = Double.POSITIVE_INFINITY;
+        for (com.extollit.linalg.immutable.Vec3d position : goalPositions) {
+            final double distance = sourcePosition.subOf(position).mg2();
+            if (distance < nearestDistance && eligible(position)) {
+                nearestDistance = distance;
+                nearest = position;
+            }
+        }
+
+        if (nearest == null)
+            return false;
+
+        return startOperation(nearest.x, nearest.y, nearest.z, pathOptions, modified);
+    }
+
+    private boolean prepareOperation(PathOptions pathOptions, com.extollit.linalg.immutable.Vec3d[] goalPositions) {
+        cancelComputation();
+
         this.targetingStrategy = pathOptions.targetingStrategy();
 
         initializeOperation();
-        if (this.targetingStrategy == PathOptions.TargetingStrategy.none && tooFarTo(x, y, z))
-            return null;
+        final boolean modified = this.goals.apply(goalPositions);
+        applyJumpPoints(pathOptions.jumpPoints());
+        this.anytime.initialEpsilon(pathOptions.epsilon());
+        return modified;
+    }
+
+    private boolean startOperation(double x, double y, double z, PathOptions pathOptions, boolean goalsModified) {
+        final boolean
+            modified = updateDestination(x, y, z),
+            initiate = modified && this.queue.isEmpty() || goalsModified;
 
-        final boolean initiate = updateDestination(x, y, z) && this.queue.isEmpty();
+        if (!pathOptions.hierarchical() || this.goals.active() || this.sectionGraph == null)
+            this.route.clear();
+        else if (modified || !this.route.active())
+            planRoute();
 
         if (!graphTimeout() && (initiate || reachedTarget() || triageTimeout() || deviationToTargetUnacceptable(this.subject)))
             resetTriage();
 
-        return triage(this.initComputeIterations);
+        return true;
     }
 
     private boolean tooFarTo(double x, double y, double z) {
@@ -289,6 +662,30 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
         return sourcePos.subOf(x, y, z).mg2() > rangeSquared;
     }
 
+    private boolean unreachable(double x, double y, double z) {
+        final SectionGraph sectionGraph = this.sectionGraph;
+        return sectionGraph != null
+            && this.nodeMap.filter() == null
+            && sectionGraph.unreachable(CapabilityClass.of(this.subject), this.current.key, (int)floor(x), (int)floor(y), (int)floor(z));
+    }
+
+    private boolean eligible(com.extollit.linalg.immutable.Vec3d position) {
+        return this.targetingStrategy != PathOptions.TargetingStrategy.none
+            || !(tooFarTo(position.x, position.y, position.z) || unreachable(position.x, position.y, position.z));
+    }
+
+    private void applyJumpPoints(boolean enabled) {
+        final IPathingEntity subject = this.subject;
+        this.jumpPoints.tall(
+            enabled
+            && !this.goals.active()
+            && !this.pathPointCalculator.omnidirectional()
+            && this.nodeMap.filter() == null
+            && (int)floor(subject.width() + 1) == 1
+                ? (int)floor(subject.height() + 1) : 0
+        );
+    }
+
     private boolean tooFarTo(Coords target) {
         return tooFarTo(target.x, target.y, target.z);
     }
@@ -311,7 +708,47 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
      * @return the next and updated / refined path or null if the destination is unreachable.
      */
     public IPath updatePathFor(IPathingEntity pathingEntity) {
-        final IPath path = update(pathingEntity);
+        return advance(pathingEntity, update(pathingEntity));
+    }
+
+    /**
+     * Continues path-finding and drives the entity along its path, this is the same as
+     * {@link #updatePathFor(IPathingEntity)} except that the A* triage is bounded by a wall-clock deadline rather than
+     * by the iteration counts of the current scheduling priority.  Since the cost of expanding a node varies a great
+     * deal (e.g. when searching for the ground below a ledge) this is suitable for callers that must hold a hard
+     * time budget each tick.  Nodes are expanded until the deadline passes, at least one node is always expanded if any
+     * are available.  Use {@link #expansions()} and {@link #timeRemaining()} afterward to determine how much work was
+     * done.
+     *
+     * @param pathingEntity the pathing entity that will receive movement commands along the path
+     * @param deadline the time (relative to {@link System#nanoTime()}) after which no further nodes are expanded
+     * @return the next and updated / refined path or null if the destination is unreachable.
+     */
+    public IPath updatePathFor(IPathingEntity pathingEntity, long deadline) {
+        return advance(pathingEntity, update(pathingEntity, true, deadline));
+    }
+
+    /**
+     * Number of nodes expanded by the A* triage during the last path-finding operation
+     *
+     * @return count of nodes dequeued and processed by the last initiation, update or computation
+     */
+    public int expansions() {
+        return this.expansions;
+    }
+
+    /**
+     * Time that was left before the deadline when the last deadline-bounded path-finding operation finished.  This is
+     * negative if the deadline was overrun (e.g. by the single mandatory node expansion)
+     *
+     * @return nanoseconds remaining before the deadline of the last deadline-bounded operation, zero if the last
+     *          operation was not deadline-bounded
+     */
+    public long timeRemaining() {
+        return this.timeRemaining;
+    }
+
+    private IPath advance(IPathingEntity pathingEntity, IPath path) {
         if (path == null)
             return null;
 
@@ -346,6 +783,7 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
      */
     public HydrazinePathFinder withGraphNodeFilter(IGraphNodeFilter filter) {
         this.nodeMap.filter(filter);
+        applyPassibilityTable();
         return this;
     }
 
@@ -380,7 +818,177 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
         return this.pathProcessor;
     }
 
+    /**
+     * Apply a priority queue strategy to this object which determines the structure used to order open nodes during
+     * path-finding.  Changing the strategy resets this path-finder.
+     *
+     * @param queueStrategy strategy for ordering open nodes
+     * @return this
+     * @see #reset()
+     */
+    public HydrazinePathFinder withQueueStrategy(QueueStrategy queueStrategy) {
+        if (queueStrategy != this.queueStrategy) {
+            reset();
+            this.queueStrategy = queueStrategy;
+            this.queue = queueStrategy.createQueue();
+        }
+        return this;
+    }
+
+    /**
+     * Retrieve the current priority queue strategy
+     *
+     * @return current queue strategy, {@link QueueStrategy#heap} by default
+     */
+    public QueueStrategy queueStrategy() {
+        return this.queueStrategy;
+    }
+
+    /**
+     * Apply a section graph to this object which is used to plan coarse routes for hierarchical path-finding.  Since
+     * section graphs cache their data per capability class, path-finders in the same instance space should share one.
+     * Hierarchical path-finding requires a section graph, if none is applied then path-finding is direct regardless of
+     * {@link PathOptions#hierarchical(boolean)}.
+     *
+     * The section graph is also used to reject destinations in a different connected region than the pathing entity
+     * before any searching is done, this applies to {@link #computePathTo(double, double, double)} and to
+     * {@link PathOptions.TargetingStrategy#none}, but not when a graph node filter is applied since filters may alter
+     * connectivity.  The section graph must then be notified of block changes by
+     * {@link SectionGraph#onBlockChanged(int, int, int)}.
+     *
+     * @param sectionGraph section graph of the instance space this path-finder operates in
+     * @return this
+     * @see PathOptions#hierarchical(boolean)
+     */
+    public HydrazinePathFinder withSectionGraph(SectionGraph sectionGraph) {
+        if (sectionGraph != this.sectionGraph) {
+            this.sectionGraph = sectionGraph;
+            this.route.clear();
+        }
+        return this;
+    }
+
+    /**
+     * Retrieve the section graph used for hierarchical path-finding (if one was set)
+     *
+     * @return current section graph, null if not set
+     */
+    public SectionGraph sectionGraph() {
+        return this.sectionGraph;
+    }
+
+    /**
+     * Apply a set of flow fields to this object which is used when tracking a destination entity.  Rather than
+     * searching on its own, this path-finder then reads its path from a distance field that is shared with all other
+     * path-finders of the same capability class tracking the same destination entity, which is far cheaper when many
+     * entities chase the same target.  Path-finders in the same instance space should share one set of flow fields.
+     * This path-finder falls back to its own search wherever the field does not (yet) cover it.
+     *
+     * @param flowField flow fields of the instance space this path-finder operates in, null to stop using flow fields
+     * @return this
+     * @see #trackPathTo(IDynamicMovableObject)
+     */
+    public HydrazinePathFinder withFlowField(FlowField flowField) {
+        if (flowField != this.flowField) {
+            unfollowFlowField();
+            this.flowField = flowField;
+            if (this.destinationEntity != null)
+                followFlowField(this.destinationEntity);
+        }
+        return this;
+    }
+
+    /**
+     * Retrieve the flow fields used for tracking destination entities (if they were set)
+     *
+     * @return current flow fields, null if not set
+     */
+    public FlowField flowField() {
+        return this.flowField;
+    }
+
+    /**
+     * Apply a passibility cache to this object which shares node calculations with all other path-finders of the same
+     * capability class and graph node filter.  When many entities of a similar kind path-find over the same terrain, the
+     * calculations of one are reused by the rest.  Path-finders in the same instance space should share one cache.
+     *
+     * @param passibilityCache passibility cache of the instance space this path-finder operates in, null to compute all
+     *                         nodes privately
+     * @return this
+     */
+    public HydrazinePathFinder withPassibilityCache(PassibilityCache passibilityCache) {
+        if (passibilityCache != this.passibilityCache) {
+            this.passibilityCache = passibilityCache;
+            applyPassibilityTable();
+        }
+        return this;
+    }
+
+    /**
+     * Retrieve the passibility cache shared with other path-finders (if one was set)
+     *
+     * @return current passibility cache, null if not set
+     */
+    public PassibilityCache passibilityCache() {
+        return this.passibilityCache;
+    }
+
+    /**
+     * Apply landmark distance tables to this object which inform the A* triage around obstacles where the straight-line
+     * distance is badly uninformed, reducing the nodes expanded to reach a destination.  Path-finders in the same
+     * instance space should share one set of tables.
+     *
+     * @param landmarks landmark tables of the instance space this path-finder operates in, null to rely on the
+     *                  straight-line distance alone
+     * @return this
+     */
+    public HydrazinePathFinder withLandmarks(Landmarks landmarks) {
+        this.landmarks = landmarks;
+        return this;
+    }
+
+    /**
+     * Retrieve the landmark tables shared with other path-finders (if they were set)
+     *
+     * @return current landmark tables, null if not set
+     */
+    public Landmarks landmarks() {
+        return this.landmarks;
+    }
+
+    private void applyPassibilityTable() {
+        final PassibilityCache passibilityCache = this.passibilityCache;
+        if (passibilityCache == null) {
+            this.capabilityClass = null;
+            this.nodeMap.passibilityTable(null);
+        } else {
+            this.capabilityClass = CapabilityClass.of(this.subject);
+            this.nodeMap.passibilityTable(passibilityCache.tableFor(this.capabilityClass, this.nodeMap.filter()));
+        }
+    }
+
+    private void followFlowField(IDynamicMovableObject target) {
+        final com.extollit.linalg.immutable.Vec3d coordinates = this.subject.coordinates();
+        this.flow.follow(
+            this.flowField,
+            target,
+            CapabilityClass.of(this.subject),
+            new Coords((int)floor(coordinates.x), (int)floor(coordinates.y), (int)floor(coordinates.z))
+        );
+    }
+
+    private void unfollowFlowField() {
+        this.flow.unfollow();
+    }
+
     protected IPath update(IPathingEntity pathingEntity) {
+        return update(pathingEntity, false, 0);
+    }
+
+    private IPath update(IPathingEntity pathingEntity, boolean timed, long deadline) {
+        this.expansions = 0;
+        this.timeRemaining = timed ? deadline - System.nanoTime() : 0;
+
         if (this.destinationEntity != null)
             updateDestination(this.destinationEntity.coordinates());
 
@@ -390,22 +998,92 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
         updateSourcePosition();
         graphTimeout();
 
-        if (this.faultCount >= FAULT_LIMIT) {
+        if (this.faultCount >= context().faultLimit) {
             resetTriage();
             return null;
         } else if (reachedTarget()) {
+            final boolean routing = this.route.active();
             resetTriage();
-            return completedPath();
+            if (!routing || reachedTarget() && !this.route.planning()) {
+                refreshFlowField();
+                return completedPath();
+            }
         }
 
         if (triageTimeout() || deviationToTargetUnacceptable(pathingEntity))
             resetTriage();
 
-        return triage(this.periodicComputeIterations);
+        if (timed)
+            return scheduledTriage(Integer.MAX_VALUE, true, deadline);
+
+        final PathingScheduler.Ticket ticket = this.ticket;
+        return scheduledTriage(ticket == null ? this.periodicComputeIterations : ticket.allowance(), false, 0);
+    }
+
+    private IPath scheduledTriage(int iterations, boolean timed, long deadline) {
+        final FlowFollower flow = this.flow;
+        final boolean following = flow.following();
+        IPath path = null;
+        int refreshed = 0;
+
+        if (this.route.planning()) {
+            final int routed = advanceRoute(timed ? this.periodicComputeIterations : iterations);
+            if (!timed)
+                iterations = Math.max(1, iterations - routed);
+            refreshed += routed;
+        }
+
+        if (following) {
+            refreshed += flow.refresh(this.source.key, timed ? this.periodicComputeIterations : iterations);
+            path = flowPath();
+        }
+
+        if (path == null)
+            path = triage(iterations, timed, deadline);
+        else
+            this.expansions = 0;
+
+        if (path == null && this.route.planning() && this.current != null)
+            path = new IncompletePath(this.current);
+
+        this.expansions += refreshed;
+
+        final PathingScheduler.Ticket ticket = this.ticket;
+        if (ticket != null)
+            ticket.consume(this.expansions);
+        return path;
+    }
+
+    /**
+     * Continues computing the shared flow field (if any) with the periodic allowance of this path-finder after its own
+     * search reached the target, so that the field is completed by its followers even while none of them need it
+     */
+    private void refreshFlowField() {
+        final FlowFollower flow = this.flow;
+        if (!flow.following() || flow.complete())
+            return;
+
+        this.expansions += flow.refresh(this.source.key, this.periodicComputeIterations);
+
+        final PathingScheduler.Ticket ticket = this.ticket;
+        if (ticket != null)
+            ticket.consume(this.expansions);
+    }
+
+    private IPath flowPath() {
+        final Node[] steps = this.flow.stepsFrom(this.source.key);
+        if (steps == null)
+            return null;
+
+        final IPath path = PathObject.fromSequence(this.capabilities.speed(), context().directLineTimeLimit(), this.random, steps);
+        if (this.pathProcessor != null)
+            this.pathProcessor.processPath(path);
+        return updatePath(path);
     }
 
-    private IncompletePath completedPath() {
-        return new IncompletePath(this.current, true);
+    private IPath completedPath() {
+        final IPath path = new IncompletePath(this.current, true);
+        return this.current == this.target ? PathObject.reaching(path, this.goals.goal()) : path;
     }
 
     private boolean deviationToTargetUnacceptable(IPathingEntity pathingEntity) {
@@ -424,7 +1102,7 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
         dt.normalize();
         dd.normalize();
 
-        if (dt.dot(dd) < DOT_THRESHOLD)
+        if (dt.dot(dd) < context().dotThreshold)
             return true;
 
         if (this.bound && PathObject.active(this.currentPath))
@@ -454,12 +1132,12 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
 
         if (status) {
             if (++this.faultCount == 1)
-                this.nextGraphCacheReset = pathTimeAge() + PROBATIONARY_TIME_LIMIT.next(this.random);
+                this.nextGraphCacheReset = pathTimeAge() + context().probationaryTimeLimit.next(this.random);
 
             final INode culprit = currentPath.current();
             this.nodeMap.cullBranchAt(culprit.coordinates(), this.queue);
 
-            this.passiblePointPathTimeLimit += PASSIBLE_POINT_TIME_LIMIT.next(this.random);
+            this.passiblePointPathTimeLimit += context().passiblePointTimeLimit.next(this.random);
         }
 
         return status;
@@ -469,7 +1147,7 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
         final int failureCount = this.faultCount;
         if (failureCount >= this.nextGraphResetFailureCount
             && pathTimeAge() > this.nextGraphCacheReset) {
-            this.nextGraphResetFailureCount = failureCount + FAULT_COUNT_THRESHOLD;
+            this.nextGraphResetFailureCount = failureCount + context().faultCountThreshold;
             resetGraph();
             return true;
         }
@@ -508,11 +1186,50 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
         refinePassibility(source.key);
 
         setTargetFor(source);
+        resolveGoals();
 
         this.nodeMap.reset(this.queue);
+        applyLandmarks();
+        this.anytime.reset(this.queue, this.target, source);
         this.queue.add(source);
         this.closest = null;
-        this.passiblePointPathTimeLimit = PASSIBLE_POINT_TIME_LIMIT.next(this.random);
+        this.jumpPoints.reset();
+        this.passiblePointPathTimeLimit = context().passiblePointTimeLimit.next(this.random);
+    }
+
+    /**
+     * Resolves the nodes of all destinations of a multi-goal search, which must be called after the target has been set
+     */
+    private void resolveGoals() {
+        this.queue.goals(this.goals.resolve(
+            position -> eligible(position) ? edgeAtTarget(position.x, position.y, position.z) : null,
+            this.source,
+            this.target
+        ));
+    }
+
+    /**
+     * Determines whether a node is one of the destinations of a multi-goal search, if so it becomes the target
+     */
+    private boolean reachedGoal(Node node) {
+        final com.extollit.linalg.immutable.Vec3d position = this.goals.reached(node);
+        if (position == null)
+            return false;
+
+        updateDestination(position);
+        this.targetPosition = position;
+        this.target = node;
+        return true;
+    }
+
+    private void applyLandmarks() {
+        final Landmarks landmarks = this.landmarks;
+        if (landmarks == null || this.target == null || this.nodeMap.filter() != null)
+            this.queue.distanceBound(null);
+        else {
+            final CapabilityClass capabilityClass = this.capabilityClass != null ? this.capabilityClass : CapabilityClass.of(this.subject);
+            this.queue.distanceBound(landmarks.tableFor(capabilityClass, this.target.key));
+        }
     }
 
     protected final boolean refinePassibility(Coords sourcePoint) {
@@ -561,20 +1278,33 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
         return mutated;
     }
 
-    private INodeCalculator createPassibilityCalculator(IPathingEntity.Capabilities capabilities) {
+    static INodeCalculator createPassibilityCalculator(IInstanceSpace instanceSpace, PathingContext context, IPathingEntity.Capabilities capabilities) {
         final INodeCalculator calculator;
-        final boolean
-                flyer = capabilities.avian(),
-                swimmer = capabilities.swimmer(),
-                gilled = capabilities.aquatic();
 
-        if (flyer || (swimmer && gilled))
-            calculator = new FluidicNodeCalculator(this.instanceSpace);
+        if (CapabilityClass.fluidic(capabilities))
+            calculator = new FluidicNodeCalculator(instanceSpace);
         else
-            calculator = new GroundNodeCalculator(this.instanceSpace);
+            calculator = new GroundNodeCalculator(instanceSpace, context);
         return calculator;
     }
 
+    /**
+     * Re-configures this path-finder when it follows the global context and the global context was replaced since the
+     * last path-finding operation, the scheduling priority is re-applied.
+     */
+    private void applyContext(PathingContext context) {
+        final PathingContext previous = this.appliedContext;
+        if (context == previous)
+            return;
+
+        this.appliedContext = context;
+        if (previous == null)
+            return;
+
+        if (this.schedulingPriority != null)
+            schedulingPriority(this.schedulingPriority);
+    }
+
     private void applySubject() {
         final IPathingEntity subject = this.subject;
         final IPathingEntity.Capabilities capabilities = this.capabilities = subject.capabilities();
@@ -582,16 +1312,21 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
             flying = capabilities.avian(),
             aqua = capabilities.swimmer() && capabilities.aquatic();
 
+        final PathingContext context = context();
         final boolean initPathPointCalculator = this.pathPointCalculator == null;
-        if (initPathPointCalculator || flying != this.flying || aqua != this.aqua) {
+        if (initPathPointCalculator || flying != this.flying || aqua != this.aqua || context != this.appliedContext) {
             this.pathPointCalculatorChanged = !initPathPointCalculator;
-            this.nodeMap.calculator(this.pathPointCalculator = createPassibilityCalculator(capabilities));
+            this.nodeMap.calculator(this.pathPointCalculator = createPassibilityCalculator(this.instanceSpace, context, capabilities));
             this.flying = flying;
             this.aqua = aqua;
         }
+        applyContext(context);
 
         this.actualSize = this.subject.width();
         this.pathPointCalculator.applySubject(subject);
+        if (this.passibilityCache != null && !this.capabilityClass.matches(subject))
+            applyPassibilityTable();
+
         final float pathSearchRange = subject.searchRange();
         this.searchRangeSquared = pathSearchRange*pathSearchRange;
         this.bound = subject.bound();
@@ -603,6 +1338,12 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
 
         this.targetPosition = destinationPosition != null ? new com.extollit.linalg.immutable.Vec3d(destinationPosition) : null;
 
+        final Node waypoint = waypointFor(source);
+        if (waypoint != null && source.target(waypoint.key)) {
+            this.target = waypoint;
+            return true;
+        }
+
         if (null == (this.target = edgeAtDestination()))
             return false;
         else if (this.targetingStrategy == PathOptions.TargetingStrategy.bestEffort) {
@@ -633,8 +1374,47 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
         return false;
     }
 
+    /**
+     * Begins planning a route over the section graph toward the destination.  The route is planned incrementally by
+     * {@link #advanceRoute(int)} from the iterations of subsequent triages, in the meantime the search heads directly
+     * toward the destination and the pathing entity waits where it is if the destination is out of reach.
+     */
+    private void planRoute() {
+        this.route.plan(this.sectionGraph, CapabilityClass.of(this.subject), this.current.key, this.destinationPosition, this.subject.searchRange());
+    }
+
+    /**
+     * Advances planning of the route, the search is restarted toward the first waypoint once the route is planned.
+     *
+     * @param iterations iterations available to this triage
+     * @return number of iterations spent
+     */
+    private int advanceRoute(int iterations) {
+        final RoutePlanner route = this.route;
+        final int spent = route.advance(iterations);
+        if (route.routed() && this.source != null)
+            resetTriage();
+        return spent;
+    }
+
+    private Node waypointFor(Node source) {
+        final Coords waypoint = this.route.waypointFor(source.key, this.destinationPosition);
+        if (waypoint == null)
+            return null;
+
+        final Node node = this.nodeMap.cachedPassiblePointNear(waypoint.x, waypoint.y, waypoint.z);
+        return impassible(node) ? null : node;
+    }
+
     private void resetGraph() {
-        this.nodeMap.clear();
+        final NodeMap nodeMap = this.nodeMap;
+        this.queue.clear();
+        this.closest = null;
+        nodeMap.releasePins();
+        nodeMap.pin(this.currentPath);
+        nodeMap.clear();
+        if (this.route.active())
+            planRoute();
         resetTriage();
         this.nextGraphCacheReset = 0;
         this.pathPointCalculatorChanged = false;
@@ -724,7 +1504,7 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
 
                 final Coords coordinates = node.coordinates();
                 final Vec3d dl = new Vec3d(coordinates.x, coordinates.y, coordinates.z);
-                dl.sub(destinationPosition);
+                dl.sub(x, y, z);
                 if (dl.mg2() > 1)
                     return null;
 
@@ -844,8 +1624,11 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
      * this would be most suitable if the entity is going to stop path-finding and rest for awhile.
      */
     public void reset() {
+        cancelComputation();
+
         this.currentPath = null;
         this.queue.clear();
+        this.nodeMap.releasePins();
         this.nodeMap.reset();
         this.unreachableFromSource.clear();
         this.target =
@@ -857,22 +1640,88 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
         this.destinationPosition = null;
         this.destinationEntity = null;
         this.targetPosition = null;
+        this.route.clear();
+        this.goals.clear();
+        this.queue.goals(null);
+        unfollowFlowField();
 
         resetFaultTimings();
     }
 
+    /**
+     * Notifies this path-finder that a block has changed (i.e. has been placed, removed or a door was toggled) so that
+     * it may repair its graph incrementally.  Only the nodes that could be affected by the change are discarded and
+     * computed again, the rest of the graph and the search tree are retained.  If path-finding is in progress then the
+     * branches of the search tree that pass through the affected nodes are culled and the search continues from their
+     * surviving ancestors and neighbours, otherwise the search is restarted over the retained graph.
+     *
+     * Without notification a stale graph is only discovered when the pathing entity fails to make progress, which
+     * eventually escalates to discarding the entire graph.  Call this after
+     * {@link ColumnarOcclusionFieldList#onBlockChanged(int, int, int, IBlockDescription, int)} so that the occlusion
+     * fields already reflect the change.  Changes outside of the region this path-finder has explored since its graph
+     * was last cleared are rejected without visiting the graph.  The shared objects this path-finder uses (e.g. its
+     * section graph and passibility cache) are not notified by this method, a {@link PathingSpace} notifies them along
+     * with all of its path-finders.
+     *
+     * @param x x-coordinate of the block that changed
+     * @param y y-coordinate of the block that changed
+     * @param z z-coordinate of the block that changed
+     * @return true if the graph was affected by the change
+     * @see PathingSpace#onBlockChanged(int, int, int, IBlockDescription, int)
+     * @see PathingScheduler#onBlockChanged(int, int, int)
+     */
+    public boolean onBlockChanged(int x, int y, int z) {
+        final IPathingEntity subject = this.subject;
+        final int
+            reach = (int)floor(subject.width() + 1) + 1,
+            tall = (int)floor(subject.height() + 1),
+            fall = this.pathPointCalculator.omnidirectional() ? 1 : context().fallDistance();
+
+        final int
+            x0 = x - reach, y0 = y - tall - 1, z0 = z - reach,
+            xN = x + reach, yN = y + fall + 1, zN = z + reach;
+
+        final boolean searching = !this.queue.isEmpty();
+        final Set<Node> discarded = this.nodeMap.invalidate(x0, y0, z0, xN, yN, zN, this.queue);
+        if (discarded.isEmpty() && !this.nodeMap.explored(x0, y0, z0, xN, yN, zN))
+            return false;
+
+        this.anytime.discard(discarded);
+        if (this.destinationPosition != null && this.source != null && this.jumpPoints.cross(x0, y0, z0, xN, yN, zN)) {
+            resetTriage();
+            return true;
+        }
+        if (discarded.isEmpty())
+            return false;
+
+        final Node source = this.source;
+        if (this.destinationPosition != null && source != null) {
+            final Coords key = source.key;
+            if (!searching || discarded.contains(source) || discarded.contains(this.current) || discarded.contains(this.target) || this.goals.discarded(discarded))
+                resetTriage();
+            else if (source.visited() && !source.assigned()
+                    && key.x >= x0 - 1 && key.y >= y0 - 1 && key.z >= z0 - 1
+                    && key.x <= xN + 1 && key.y <= yN + 1 && key.z <= zN + 1) {
+                source.visited(false);
+                this.queue.add(source);
+            }
+        }
+
+        return true;
+    }
+
     private void resetFaultTimings() {
         final Random random = this.random;
 
         this.faultCount = 0;
-        this.nextGraphResetFailureCount = FAULT_COUNT_THRESHOLD;
-        this.passiblePointPathTimeLimit = PASSIBLE_POINT_TIME_LIMIT.next(random);
+        this.nextGraphResetFailureCount = context().faultCountThreshold;
+        this.passiblePointPathTimeLimit = context().passiblePointTimeLimit.next(random);
         this.nextGraphCacheReset = 0;
     }
 
     private IPath updatePath(IPath newPath) {
         if (newPath == null)
-            return this.currentPath = null;
+            return replacePath(null);
 
         final IPath currentPath = this.currentPath;
         if (currentPath != null) {
@@ -890,16 +1739,36 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
             if (last == null)
                 last = pointAtSource();
 
-            return this.currentPath = new IncompletePath(last);
+            return replacePath(PathObject.reaching(new IncompletePath(last), newPath.goal()));
+        }
+
+        return replacePath(newPath);
+    }
+
+    /**
+     * Replaces the current path, nodes pinned since the current path was last replaced are released except for those of
+     * the new path and the closest node, which this path-finder still refers to.  Paths that this path-finder has
+     * replaced may therefore have their nodes recycled by subsequent searches.
+     */
+    private IPath replacePath(IPath path) {
+        if (path != this.currentPath) {
+            final NodeMap nodeMap = this.nodeMap;
+            nodeMap.releasePins();
+            nodeMap.pin(path);
+            if (this.closest != null)
+                nodeMap.pin(this.closest);
         }
 
-        return this.currentPath = newPath;
+        return this.currentPath = path;
     }
 
-    private IPath triage(int iterations) {
+    private IPath triage(int iterations, boolean timed, long deadline) {
         final IPath currentPath = this.currentPath;
         final SortedPointQueue queue = this.queue;
 
+        this.expansions = 0;
+        this.timeRemaining = timed ? deadline - System.nanoTime() : 0;
+
         if (queue.isEmpty())
             if (currentPath == null)
                 return null;
@@ -913,8 +1782,13 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
 
         IPath nextPath = null;
         boolean trimmedToSource = this.trimmedToCurrent;
+        int expansions = 0;
 
+        final Future<IPath> computation = this.computation;
         while (!queue.isEmpty() && iterations-- > 0) {
+            if (computation != null && computation.isDone())
+                break;
+
             final Node source = this.current;
             if (!trimmedToSource && !queue.nextContains(source)) {
                 if (source != null) {
@@ -925,21 +1799,33 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
                 continue;
             }
 
+            if (this.anytime.improving() && this.anytime.settled(queue, this.target)) {
+                nextPath = createPath(this.target);
+                this.anytime.tighten(queue, this.target);
+                break;
+            }
+
             final Node
                 current = queue.dequeue(),
                 closest = this.closest;
 
+            expansions++;
+
             if ((
                     closest == null
                     || closest.orphaned()
                     || Node.squareDelta(current, this.target) < Node.squareDelta(closest, this.target)
-                ))
+                )) {
+                this.nodeMap.pin(current);
                 this.closest = current;
+            }
 
-            if (current == target) {
+            if (current == target || reachedGoal(current)) {
                 nextPath = createPath(current);
                 if (PathObject.active(nextPath)) {
-                    this.queue.clear();
+                    this.anytime.tighten(queue, this.target);
+                    if (this.anytime.improving())
+                        current.visited(true);
                     break;
                 }
 
@@ -950,6 +1836,18 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
                 }
             } else
                 processNode(current);
+
+            if (timed && System.nanoTime() - deadline >= 0)
+                break;
+        }
+
+        this.expansions = expansions;
+        if (timed)
+            this.timeRemaining = deadline - System.nanoTime();
+
+        if (this.anytime.improving() && nextPath == null && queue.isEmpty()) {
+            nextPath = createPath(this.target);
+            this.anytime.tighten(queue, this.target);
         }
 
         final Node closest = this.closest;
@@ -961,76 +1859,82 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
 
     private IPath createPath(Node head) {
         final IPathingEntity.Capabilities capabilities = this.capabilities;
-        final IPath path = PathObject.fromHead(capabilities.speed(), this.random, head);
+        final IPath path = this.jumpPoints.jumped()
+            ? PathObject.fromSequence(capabilities.speed(), context().directLineTimeLimit(), this.random, this.jumpPoints.stepsTo(head))
+            : PathObject.fromHead(capabilities.speed(), context().directLineTimeLimit(), this.random, head);
+        if (this.goals.goal() != -1 && head == this.target)
+            PathObject.reaching(path, this.goals.goal());
         if (this.pathProcessor != null)
             this.pathProcessor.processPath(path);
         return path;
     }
 
-    private void processNode(Node current) {
+    void processNode(Node current) {
         current.visited(true);
 
         final Coords coords = current.key;
-        final Node
-                west = cachedPassiblePointNear(coords.x - 1, coords.y, coords.z, coords),
-                east = cachedPassiblePointNear(coords.x + 1, coords.y, coords.z, coords),
-                north = cachedPassiblePointNear(coords.x, coords.y, coords.z - 1, coords),
-                south = cachedPassiblePointNear(coords.x, coords.y, coords.z + 1, coords);
-        final Node
-                up, down;
-
         final boolean omnidirectional = this.pathPointCalculator.omnidirectional();
-        if (omnidirectional) {
-            up = cachedPassiblePointNear(coords.x, coords.y + 1, coords.z, coords);
-            down = cachedPassiblePointNear(coords.x, coords.y - 1, coords.z, coords);
-        } else
-            up = down = null;
+        final boolean jumping = current != this.source && this.jumpPoints.from(coords);
+        final Node[] neighbours = this.neighbours;
+
+        for (int i = 0; i < CARDINALS; ++i) {
+            final byte direction = CARDINAL_LOOKUP_ORDER[i];
+            neighbours[direction] =
+                omnidirectional || DY[direction] == 0
+                    ? jumping ? jumpNear(coords, direction) : neighbourNear(coords, direction, direction)
+                    : null;
+        }
 
-        final boolean found = applyPointOptions(current, up, down, west, east, north, south);
+        final boolean found = applyPointOptions(current, neighbours, CARDINALS);
 
         if (!found) {
-            final com.extollit.linalg.mutable.AxisAlignedBBox
-                    southBounds = blockBounds(coords, 0, 0, +1),
-                    northBounds = blockBounds(coords, 0, 0, -1),
-                    eastBounds = blockBounds(coords, +1, 0, 0),
-                    westBounds = blockBounds(coords, -1, 0, 0);
-
-            final float actualSizeSquared = this.actualSize * this.actualSize;
-
-            final Node[] pointOptions;
-
-            if (omnidirectional) {
-                final com.extollit.linalg.mutable.AxisAlignedBBox
-                        upBounds = blockBounds(coords, 0, +1, 0),
-                        downBounds = blockBounds(coords, 0, -1, 0);
-
-                pointOptions = new Node[] {
-                        northBounds == null || upBounds == null || northBounds.mg2(upBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x, coords.y + 1, coords.z - 1, coords) : null,
-                        eastBounds == null  || upBounds == null || eastBounds.mg2(upBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x + 1, coords.y + 1, coords.z, coords) : null,
-                        southBounds == null || upBounds == null || southBounds.mg2(upBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x, coords.y + 1, coords.z + 1, coords) : null,
-                        westBounds == null  || upBounds == null || westBounds.mg2(upBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x - 1, coords.y + 1, coords.z, coords) : null,
-
-                        northBounds == null || downBounds == null || northBounds.mg2(downBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x, coords.y - 1, coords.z - 1, coords) : null,
-                        eastBounds == null  || downBounds == null || eastBounds.mg2(downBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x + 1, coords.y - 1, coords.z, coords) : null,
-                        southBounds == null || downBounds == null || southBounds.mg2(downBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x, coords.y - 1, coords.z + 1, coords) : null,
-                        westBounds == null  || downBounds == null || westBounds.mg2(downBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x - 1, coords.y - 1, coords.z, coords) : null
-                };
-
-                applyPointOptions(current, pointOptions);
-            } else
-                pointOptions = new Node[4];
+            final boolean[] impeding = this.impeding;
+            for (byte direction = 0; direction < CARDINALS; ++direction)
+                impeding[direction] = (omnidirectional || DY[direction] == 0) && blockBounds(coords, direction);
+
+            if (omnidirectional)
+                applyPointOptions(current, diagonalsNear(coords, VERTICAL_DIAGONALS), VERTICAL_DIAGONALS.length >> 1);
+
+            applyPointOptions(current, diagonalsNear(coords, HORIZONTAL_DIAGONALS), HORIZONTAL_DIAGONALS.length >> 1);
+        }
+    }
+
+    private Node neighbourNear(Coords coords, byte a, byte b) {
+        final int
+            dx = a == b ? DX[a] : DX[a] + DX[b],
+            dy = a == b ? DY[a] : DY[a] + DY[b],
+            dz = a == b ? DZ[a] : DZ[a] + DZ[b];
+
+        return cachedPassiblePointNear(coords.x + dx, coords.y + dy, coords.z + dz, coords);
+    }
+
+    private Node jumpNear(Coords coords, byte direction) {
+        final Node jump = this.jumpPoints.near(coords, DX[direction], DZ[direction], this.target.key);
+        return jump != null ? jump : neighbourNear(coords, direction, direction);
+    }
+
+    private Node[] diagonalsNear(Coords coords, byte[] diagonals) {
+        final Node[] neighbours = this.neighbours;
+        final boolean[] impeding = this.impeding;
+        final com.extollit.linalg.mutable.AxisAlignedBBox[] bounds = this.neighbourBounds;
+        final float actualSizeSquared = this.actualSize * this.actualSize;
 
-            pointOptions[0] = westBounds == null || northBounds == null || westBounds.mg2(northBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x - 1, coords.y, coords.z - 1, coords) : null;
-            pointOptions[1] = eastBounds == null || southBounds == null || eastBounds.mg2(southBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x + 1, coords.y, coords.z + 1, coords) : null;
-            pointOptions[2] = eastBounds == null || northBounds == null || eastBounds.mg2(northBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x + 1, coords.y, coords.z - 1, coords) : null;
-            pointOptions[3] = westBounds == null || southBounds == null || westBounds.mg2(southBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x - 1, coords.y, coords.z + 1, coords) : null;
+        for (int i = 0, j = 0; i < diagonals.length; i += 2, ++j) {
+            final byte
+                a = diagonals[i],
+                b = diagonals[i + 1];
 
-            applyPointOptions(current, pointOptions);
+            neighbours[j] = !impeding[a] || !impeding[b] || bounds[a].mg2(bounds[b]) >= actualSizeSquared ? neighbourNear(coords, a, b) : null;
         }
+
+        return neighbours;
     }
 
-    private com.extollit.linalg.mutable.AxisAlignedBBox blockBounds(Coords coords, int dx, int dy, int dz) {
+    private boolean blockBounds(Coords coords, byte direction) {
         final int
+            dx = DX[direction],
+            dy = DY[direction],
+            dz = DZ[direction],
             x = coords.x + dx,
             y = coords.y + dy,
             z = coords.z + dz;
@@ -1040,27 +1944,40 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
         if (fuzzyPassibility(flags)) {
             final IBlockObject block = instanceSpace.blockObjectAt(x, y, z);
             if (!block.isImpeding())
-                return null;
+                return false;
 
             bounds = block.bounds();
         } else if (impedesMovement(flags, this.capabilities))
             bounds = FULL_BOUNDS;
         else
-            return null;
+            return false;
 
-        final com.extollit.linalg.mutable.AxisAlignedBBox result = new com.extollit.linalg.mutable.AxisAlignedBBox(bounds);
+        final com.extollit.linalg.mutable.AxisAlignedBBox result = this.neighbourBounds[direction];
+        result.min.set(bounds.min);
+        result.max.set(bounds.max);
         result.add(dx, dy, dz);
-        return result;
+        return true;
     }
 
     boolean applyPointOptions(Node current, Node... pointOptions) {
+        return applyPointOptions(current, pointOptions, pointOptions.length);
+    }
+
+    private boolean applyPointOptions(Node current, Node[] pointOptions, int count) {
         boolean found = false;
-        for (Node alternative : pointOptions) {
-            if (impassible(alternative) || alternative.visited() || Node.squareDelta(alternative, this.target) >= this.searchRangeSquared)
+        for (int i = 0; i < count; ++i) {
+            final Node alternative = pointOptions[i];
+            if (impassible(alternative) || Node.squareDelta(alternative, this.goals.resolved() ? this.source : this.target) >= this.searchRangeSquared)
                 continue;
 
+            if (alternative.visited()) {
+                this.anytime.relink(this.queue, alternative, current, this.target);
+                continue;
+            }
+
             found = true;
-            alternative.sterilize();
+            if (!this.anytime.reopens(alternative))
+                alternative.sterilize();
             this.queue.appendTo(alternative, current, this.target.key);
         }
         return found;
@@ -1074,7 +1991,7 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
         return cachedPassiblePointNear(x0, y0, z0, null);
     }
 
-    private Node cachedPassiblePointNear(final int x0, final int y0, final int z0, final Coords origin) {
+    Node cachedPassiblePointNear(final int x0, final int y0, final int z0, final Coords origin) {
         final Node result = this.nodeMap.cachedPassiblePointNear(x0, y0, z0, origin);
         if (Node.passible(result) && origin != null && unreachableFromSource(origin, x0, y0, z0))
             return null;
@@ -1210,6 +2127,7 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
                     pathFinder.currentPath = null;
                     break;
             }
+            pathFinder.nodeMap.pin(pathFinder.currentPath);
         }
 
         @Override
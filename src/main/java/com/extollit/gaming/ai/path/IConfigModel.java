@@ -4,9 +4,10 @@ import com.extollit.gaming.ai.path.model.IPathingEntity;
 import com.extollit.num.FloatRange;
 
 /**
- * Data abstraction used for globally configuring (once per class-loader) the Hydrazine path-finding engine.  It contains
- * configurations for influencing the co-routine-like scheduling of the A* triage process, timeouts for cache invalidation
- * to aid entities toward their destinations, and some gravity-related limits for all pathing entities.
+ * Data abstraction used for configuring (once per instance space through a {@link PathingContext}) the Hydrazine
+ * path-finding engine.  It contains configurations for influencing the co-routine-like scheduling of the A* triage
+ * process, timeouts for cache invalidation to aid entities toward their destinations, and some gravity-related limits
+ * for all pathing entities.
  *
  * Some of the properties here use a term called "path time" which is a time value relative to the pathing entity's
  * dynamic movement speed.  A single unit of path time is the time it takes (in server ticks) for the pathing entity to
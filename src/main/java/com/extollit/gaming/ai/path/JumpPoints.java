@@ -0,0 +1,208 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.Coords;
+import com.extollit.gaming.ai.path.model.Node;
+import com.extollit.gaming.ai.path.model.NodeMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Expansion strategy of a path-finder that jumps across flat open ground rather than expanding every node along the
+ * way.  A jump scans straight ahead and stops where a side is no longer flat (where other routes may branch off), where
+ * the scan is aligned with the target or one block short of where the ground is no longer flat.  Flatness of a whole
+ * row is tested at once using the packed occlusion words.  The nodes skipped by jumps are not in the graph, they are
+ * filled in when a path is created.
+ *
+ * @see PathOptions#jumpPoints(boolean)
+ */
+final class JumpPoints {
+    private static final int MAX_LENGTH = 16;
+    private static final long
+        FLAT_FLOOR_ROW = 0x1111111111111111L,
+        OPEN_ROW_MASK = 0xBBBBBBBBBBBBBBBBL;
+
+    private final HydrazinePathFinder pathFinder;
+    private final NodeMap nodeMap;
+
+    private int tall;
+    private boolean jumped;
+
+    JumpPoints(HydrazinePathFinder pathFinder, NodeMap nodeMap) {
+        this.pathFinder = pathFinder;
+        this.nodeMap = nodeMap;
+    }
+
+    /**
+     * Enables or disables jumps for subsequent searches
+     *
+     * @param tall height of the pathing entity in blocks, zero to disable jumps
+     */
+    void tall(int tall) {
+        this.tall = tall;
+    }
+
+    /**
+     * Called when a search is restarted, the graph it builds has no jumps yet
+     */
+    void reset() {
+        this.jumped = false;
+    }
+
+    /**
+     * @return true if any jump was made since the search was last restarted
+     */
+    boolean jumped() {
+        return this.jumped;
+    }
+
+    /**
+     * Determines whether jumps are made from a node, which is when the ground is flat there
+     *
+     * @param coords coordinates of the node being expanded
+     * @return true if the neighbours of the node should be determined by {@link #near(Coords, int, int, Coords)}
+     */
+    boolean from(Coords coords) {
+        return this.tall > 0 && flatAt(coords.x, coords.y, coords.z);
+    }
+
+    /**
+     * Scans straight ahead across flat open ground in the specified horizontal direction
+     *
+     * @param coords coordinates of the node being expanded
+     * @param dx x-component of the direction of the scan
+     * @param dz z-component of the direction of the scan
+     * @param target coordinates of the target of the search
+     * @return the furthest node along a straight run, or null if the run is no longer than one block
+     */
+    Node near(Coords coords, int dx, int dz, Coords target) {
+        final int y = coords.y;
+
+        int x = coords.x, z = coords.z, length = 0, row = Integer.MIN_VALUE;
+        long ahead = 0, sides = 0;
+
+        while (length < MAX_LENGTH) {
+            final int
+                nx = x + dx,
+                nz = z + dz;
+
+            if (dx != 0) {
+                if (nx >> 4 != row) {
+                    row = nx >> 4;
+                    ahead = blockedRow(nx, y, z);
+                    sides = blockedRow(nx, y, z - 1) | blockedRow(nx, y, z + 1);
+                }
+            } else
+                ahead = blockedRow(nx, y, nz);
+
+            if (blocked(ahead, nx))
+                break;
+
+            x = nx;
+            z = nz;
+            length++;
+
+            final boolean aside = dx != 0
+                ? blocked(sides, x)
+                : blockedBeside(ahead, x, y, z);
+
+            if (aside || (dx != 0 ? x == target.x : z == target.z))
+                break;
+        }
+
+        if (length <= 1)
+            return null;
+
+        this.jumped = true;
+        return this.pathFinder.cachedPassiblePointNear(x, y, z, coords);
+    }
+
+    /**
+     * Fills in the nodes skipped by jumps along the parent chain of the specified node
+     *
+     * @param head last node of the path
+     * @return every node of the path in the order it should be visited
+     */
+    Node[] stepsTo(Node head) {
+        final List<Node> steps = new ArrayList<>();
+        for (Node node = head; node != null; node = node.up()) {
+            final Node parent = node.up();
+            steps.add(node);
+            if (parent == null)
+                continue;
+
+            final Coords
+                a = node.key,
+                b = parent.key;
+            final int
+                dx = Integer.signum(b.x - a.x),
+                dz = Integer.signum(b.z - a.z);
+
+            for (int x = a.x + dx, z = a.z + dz; x != b.x || z != b.z; x += dx, z += dz) {
+                final Node step = this.pathFinder.cachedPassiblePointNear(x, a.y, z, b);
+                if (step != null)
+                    steps.add(step);
+            }
+        }
+
+        Collections.reverse(steps);
+        return steps.toArray(new Node[0]);
+    }
+
+    /**
+     * Determines whether any jump in the graph skips across the specified box, the nodes it skips are not in the graph
+     * so invalidating the box does not discard them.
+     */
+    boolean cross(int x0, int y0, int z0, int xN, int yN, int zN) {
+        if (!this.jumped)
+            return false;
+
+        for (Node node : this.nodeMap.all()) {
+            final Node parent = node.up();
+            if (parent == null)
+                continue;
+
+            final Coords
+                a = node.key,
+                b = parent.key;
+
+            if (Math.abs(a.x - b.x) + Math.abs(a.z - b.z) > 1
+                    && a.y >= y0 && a.y <= yN
+                    && Math.max(a.x, b.x) >= x0 && Math.min(a.x, b.x) <= xN
+                    && Math.max(a.z, b.z) >= z0 && Math.min(a.z, b.z) <= zN)
+                return true;
+        }
+        return false;
+    }
+
+    private boolean flatAt(int x, int y, int z) {
+        return !blocked(blockedRow(x, y, z), x);
+    }
+
+    private boolean blockedBeside(long row, int x, int y, int z) {
+        final long
+            west = (x & 15) == 0 ? blockedRow(x - 1, y, z) : row,
+            east = (x & 15) == 15 ? blockedRow(x + 1, y, z) : row;
+
+        return blocked(west, x - 1) || blocked(east, x + 1);
+    }
+
+    private static boolean blocked(long row, int x) {
+        return ((row >>> ((x & 15) << 2)) & 0xF) != 0;
+    }
+
+    /**
+     * Computes which blocks of a row cannot be stood in on flat ground, a block can be if there is plain solid floor
+     * beneath it and open air (which may be fuzzy) for the whole height of the pathing entity.
+     *
+     * @return nibbles of the row that are non-zero where the block cannot be stood in
+     */
+    private long blockedRow(int x, int y, int z) {
+        final NodeMap nodeMap = this.nodeMap;
+        long blocked = nodeMap.rowAt(x, y - 1, z) ^ FLAT_FLOOR_ROW;
+        for (int dy = 0; dy < this.tall; ++dy)
+            blocked |= nodeMap.rowAt(x, y + dy, z) & OPEN_ROW_MASK;
+        return blocked;
+    }
+}
@@ -0,0 +1,488 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Landmark distance tables that inform the A* triage beyond the straight-line distance (the ALT heuristic).  The
+ * straight-line distance is badly uninformed around walls, in mazes and in cave systems, which is where searches
+ * expand the most nodes.  For each region of the instance space a few landmarks are chosen and the path distance from
+ * each landmark to every node in the region is computed ahead of time.  Since the distance from a landmark to the
+ * target can be no longer than the distance from that landmark to a node plus the distance from that node to the
+ * target, the difference of the two tabulated distances bounds the remaining distance of the node from below (the
+ * triangle inequality).
+ *
+ * Regions are 32 by 32 by 32 blocks, a table is computed for each region and {@link CapabilityClass} when a path-finder
+ * first searches for a destination within it.  Tables are computed on a background executor from an immutable
+ * snapshot of the occlusion fields around the region captured when the table is requested, so the region is not
+ * informed by landmarks until its table is complete.  Distances are only tabulated along paths that remain within a
+ * margin of 8 blocks around the region, which would over-estimate when the shortest path between two nodes leaves
+ * that margin.  Since such a path is at least as long as the distance from each of the two nodes to the edge of the
+ * margin, the bound is capped at the sum of these two distances.  Where a node or the destination is not tabulated,
+ * for instance because it lies beyond the margin of the region of the destination, the bound is zero and the triage
+ * falls back to the straight-line distance.
+ *
+ * Tables become stale when blocks change, so this must be notified of all block changes within the instance space.
+ * A change discards the tables of every region whose margin contains it, they are computed again on demand.  Graph
+ * node filters are not applied to tables, so path-finders with a filter do not consult them.
+ *
+ * @see HydrazinePathFinder#withLandmarks(Landmarks)
+ */
+public final class Landmarks {
+    private static final int
+        REGION_SHIFT = 5,
+        REGION_SIZE = 1 << REGION_SHIFT,
+        MARGIN = OcclusionField.DIMENSION_SIZE >> 1,
+        LANDMARKS = 4,
+        UNREACHABLE = Integer.MAX_VALUE,
+        HORIZONTAL_MOVES = 8;
+
+    private static final int[]
+        DX = { -1, +1, 0, 0, -1, +1, -1, +1, 0, 0, 0, +1, 0, -1, 0, +1, 0, -1 },
+        DY = { 0, 0, 0, 0, 0, 0, 0, 0, +1, -1, +1, +1, +1, +1, -1, -1, -1, -1 },
+        DZ = { 0, 0, -1, +1, -1, -1, +1, +1, 0, 0, -1, 0, +1, 0, -1, 0, +1, 0 };
+
+    private final IInstanceSpace instanceSpace;
+    private final PathingContext context;
+    private final Executor executor;
+    private final ConcurrentHashMap<CapabilityClass, ConcurrentHashMap<Long, Table>> tables = new ConcurrentHashMap<>();
+
+    /**
+     * Create landmark tables for an instance space configured by the global context that are computed by the common
+     * fork-join pool
+     *
+     * @param instanceSpace the instance space path-finders search in
+     * @see PathingContext#global()
+     */
+    public Landmarks(IInstanceSpace instanceSpace) {
+        this(instanceSpace, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create landmark tables for an instance space configured by the global context
+     *
+     * @param instanceSpace the instance space path-finders search in
+     * @param executor executor that computes tables in the background
+     * @see PathingContext#global()
+     */
+    public Landmarks(IInstanceSpace instanceSpace, Executor executor) {
+        this(instanceSpace, PathingContext.global(), executor);
+    }
+
+    /**
+     * Create landmark tables for an instance space
+     *
+     * @param instanceSpace the instance space path-finders search in
+     * @param context configuration of the engine for the instance space
+     * @param executor executor that computes tables in the background
+     */
+    public Landmarks(IInstanceSpace instanceSpace, PathingContext context, Executor executor) {
+        this.instanceSpace = instanceSpace;
+        this.context = context;
+        this.executor = executor;
+    }
+
+    /**
+     * Notifies the tables that a block has changed so that the tables of all regions it may affect are discarded.
+     * This should be called along with {@link HydrazinePathFinder#onBlockChanged(int, int, int)}.
+     *
+     * @param x x-coordinate of the block that changed
+     * @param y y-coordinate of the block that changed
+     * @param z z-coordinate of the block that changed
+     * @see PathingSpace#onBlockChanged(int, int, int, IBlockDescription, int)
+     */
+    public void onBlockChanged(int x, int y, int z) {
+        final int fall = this.context.fallDistance();
+        for (Map.Entry<CapabilityClass, ConcurrentHashMap<Long, Table>> entry : this.tables.entrySet()) {
+            final CapabilityClass capabilityClass = entry.getKey();
+            final Map<Long, Table> tables = entry.getValue();
+            if (tables.isEmpty())
+                continue;
+
+            final int reach = MARGIN + capabilityClass.discreteSize + 1;
+            for (int rz = (z - reach) >> REGION_SHIFT; rz <= (z + reach) >> REGION_SHIFT; ++rz)
+                for (int rx = (x - reach) >> REGION_SHIFT; rx <= (x + reach) >> REGION_SHIFT; ++rx)
+                    for (int ry = (y - MARGIN - fall - 1) >> REGION_SHIFT; ry <= (y + MARGIN + capabilityClass.tall + 1) >> REGION_SHIFT; ++ry)
+                        tables.remove(cellKey(rx, ry, rz));
+        }
+    }
+
+    /**
+     * Discards all tables, they are computed again on demand
+     */
+    public void clear() {
+        this.tables.clear();
+    }
+
+    int tableCount() {
+        int count = 0;
+        for (Map<Long, Table> tables : this.tables.values())
+            count += tables.size();
+
+        return count;
+    }
+
+    /**
+     * Retrieves the table of the region containing the specified location.  If there is no table for the region yet
+     * then a snapshot of the region is captured and its table is computed in the background, so this must be called
+     * from the thread that owns the instance space.
+     *
+     * @param capabilityClass class of the entities the table is for
+     * @param location location in the region, landmarks are chosen among the nodes reachable from it
+     * @return the table of the region if it has been computed, otherwise null
+     */
+    Table tableFor(CapabilityClass capabilityClass, Coords location) {
+        final Key key = new Key(location.x >> REGION_SHIFT, location.y >> REGION_SHIFT, location.z >> REGION_SHIFT, capabilityClass);
+        final ConcurrentHashMap<Long, Table> tables = this.tables.computeIfAbsent(capabilityClass, k -> new ConcurrentHashMap<>());
+        Table table = tables.get(key.region);
+        if (table == null) {
+            final Table created = new Table(key, location);
+            table = tables.putIfAbsent(key.region, created);
+            if (table == null)
+                schedule(table = created);
+        }
+        return table.ready ? table : null;
+    }
+
+    private void discard(Table table) {
+        final Map<Long, Table> tables = this.tables.get(table.key.capabilityClass);
+        if (tables != null)
+            tables.remove(table.key.region, table);
+    }
+
+    private void schedule(Table table) {
+        final SnapshotOcclusionProvider snapshot = SnapshotOcclusionProvider.capture(
+            this.instanceSpace,
+            table.x0 >> 4, (table.y0 - this.context.fallDistance()) >> 4, table.z0 >> 4,
+            table.xN >> 4, (table.yN + table.key.capabilityClass.tall) >> 4, table.zN >> 4
+        );
+        final INodeCalculator calculator = table.key.capabilityClass.createCalculator(this.instanceSpace, this.context);
+
+        try {
+            this.executor.execute(() -> {
+                try {
+                    table.build(calculator, new FlagSampler(snapshot));
+                } catch (RuntimeException e) {
+                    discard(table);
+                    throw e;
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            discard(table);
+        }
+    }
+
+    private static long cellKey(int x, int y, int z) {
+        return ((long)(x & 0x3FFFFFF) << 38) | ((long)(z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    private static long cellKey(Coords key) {
+        return cellKey(key.x, key.y, key.z);
+    }
+
+    private static int cost(Coords from, Coords to) {
+        final int
+            dx = to.x - from.x,
+            dy = to.y - from.y,
+            dz = to.z - from.z;
+
+        return (int)Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    /**
+     * Distances from the landmarks of one region to every node around the region, for one capability class.  This is
+     * immutable once built, so it may be read by many path-finders concurrently.
+     */
+    final class Table implements IDistanceBound {
+        final Key key;
+        final Coords seed;
+        final int x0, y0, z0, xN, yN, zN;
+
+        private long[] keys;
+        private int[] slots, distances;
+        private int landmarks;
+        private volatile boolean ready;
+
+        Table(Key key, Coords seed) {
+            this.key = key;
+            this.seed = seed;
+            this.x0 = (key.rx << REGION_SHIFT) - MARGIN;
+            this.z0 = (key.rz << REGION_SHIFT) - MARGIN;
+            this.xN = (key.rx << REGION_SHIFT) + REGION_SIZE - 1 + MARGIN;
+            this.zN = (key.rz << REGION_SHIFT) + REGION_SIZE - 1 + MARGIN;
+            this.y0 = (key.ry << REGION_SHIFT) - MARGIN;
+            this.yN = (key.ry << REGION_SHIFT) + REGION_SIZE - 1 + MARGIN;
+        }
+
+        /**
+         * Bounds the distance between two nodes from below.  The bound is zero when either node is not tabulated by
+         * this table, i.e. it lies outside the region and its margin or no node is passible there.  Tabulated distances
+         * only account for paths within the margin, so the bound never exceeds the least length of a path that leaves
+         * the margin from one node and enters it again to reach the other.
+         *
+         * @param from the node to bound the remaining distance of
+         * @param to the destination
+         * @return lower bound of the distance from one node to the other
+         */
+        @Override
+        public int distanceBound(Coords from, Coords to) {
+            final int
+                slot = slotOf(from),
+                targetSlot = slotOf(to);
+
+            if (slot < 0 || targetSlot < 0)
+                return 0;
+
+            final int[] distances = this.distances;
+            final int landmarks = this.landmarks;
+            int bound = 0;
+            for (int i = 0; i < landmarks; ++i) {
+                final int
+                    fromLandmark = distances[slot * landmarks + i],
+                    toLandmark = distances[targetSlot * landmarks + i];
+
+                if (fromLandmark != UNREACHABLE && toLandmark != UNREACHABLE)
+                    bound = Math.max(bound, toLandmark - fromLandmark);
+            }
+            return Math.min(bound, exit(from) + exit(to));
+        }
+
+        /**
+         * Computes the least number of moves that leave the region and its margin from a node.  Each move costs at
+         * least as much as its greatest displacement along any axis, so this is also the least distance.
+         */
+        private int exit(Coords coords) {
+            return 1 + Math.min(
+                Math.min(Math.min(coords.x - this.x0, this.xN - coords.x), Math.min(coords.z - this.z0, this.zN - coords.z)),
+                Math.min(coords.y - this.y0, this.yN - coords.y)
+            );
+        }
+
+        int landmarks() {
+            return this.landmarks;
+        }
+
+        private int slotOf(Coords coords) {
+            final long[] keys = this.keys;
+            final long key = cellKey(coords);
+            final int mask = keys.length - 1;
+            for (int i = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask; ; i = (i + 1) & mask) {
+                final int slot = this.slots[i];
+                if (slot < 0)
+                    return -1;
+                if (keys[i] == key)
+                    return slot;
+            }
+        }
+
+        private boolean inside(Coords key) {
+            return
+                key.x >= this.x0 && key.y >= this.y0 && key.z >= this.z0 &&
+                key.x <= this.xN && key.y <= this.yN && key.z <= this.zN;
+        }
+
+        /**
+         * Chooses the landmarks and computes the distances from each of them.  The first landmark is the node farthest
+         * from the seed and each subsequent landmark is the node farthest from all landmarks chosen so far, which
+         * spreads them toward the edges of the region where they bound the most nodes.
+         */
+        void build(INodeCalculator calculator, FlagSampler sampler) {
+            final Graph graph = new Graph(calculator, sampler, this.key.capabilityClass.capabilities());
+            final Node root = calculator.passibleNodeNear(this.seed.x, this.seed.y, this.seed.z, null, sampler);
+            final List<int[]> tables = new ArrayList<>(LANDMARKS);
+
+            if (!root.passibility().impassible(graph.capabilities) && inside(root.key)) {
+                final int[] nearest = graph.distancesFrom(graph.idOf(root.key));
+                while (tables.size() < LANDMARKS) {
+                    int farthest = -1, distance = 0;
+                    for (int id = 0; id < nearest.length; ++id)
+                        if (nearest[id] != UNREACHABLE && nearest[id] > distance) {
+                            distance = nearest[id];
+                            farthest = id;
+                        }
+
+                    if (farthest < 0)
+                        break;
+
+                    final int[] table = graph.distancesFrom(farthest);
+                    tables.add(table);
+                    for (int id = 0; id < nearest.length && id < table.length; ++id)
+                        if (nearest[id] != UNREACHABLE && table[id] < nearest[id])
+                            nearest[id] = table[id];
+                }
+            }
+
+            publish(graph, tables);
+        }
+
+        private void publish(Graph graph, List<int[]> tables) {
+            final int
+                landmarks = tables.size(),
+                size = graph.size;
+            final int[] distances = new int[size * landmarks];
+
+            for (int l = 0; l < landmarks; ++l) {
+                final int[] table = tables.get(l);
+                for (int id = 0; id < size; ++id)
+                    distances[id * landmarks + l] = id < table.length ? table[id] : UNREACHABLE;
+            }
+
+            this.keys = graph.keys;
+            this.slots = graph.ids;
+            this.distances = distances;
+            this.landmarks = landmarks;
+            this.ready = true;
+        }
+
+        /**
+         * The moves available to entities of the class within the bounds of a table, successors of each node are
+         * computed once and shared by the searches from all landmarks.  Nodes are numbered in the order they are
+         * discovered and the open-addressing map from cells to these numbers becomes the index of the table.
+         */
+        private final class Graph {
+            final INodeCalculator calculator;
+            final FlagSampler sampler;
+            final IPathingEntity.Capabilities capabilities;
+            final int moves;
+
+            long[] keys = new long[64];
+            int[] ids = new int[64];
+            Coords[] nodes = new Coords[32];
+            int[][] successors = new int[32][];
+            int size;
+
+            Graph(INodeCalculator calculator, FlagSampler sampler, IPathingEntity.Capabilities capabilities) {
+                this.calculator = calculator;
+                this.sampler = sampler;
+                this.capabilities = capabilities;
+                this.moves = calculator.omnidirectional() ? DX.length : HORIZONTAL_MOVES;
+                Arrays.fill(this.ids, -1);
+            }
+
+            /**
+             * Dijkstra's search from a node, using the same move lengths as the A* triage
+             *
+             * @return distance from the node to every node discovered so far indexed by node number, nodes beyond the
+             *          end of the array were discovered by later searches and are unreachable from this one
+             */
+            int[] distancesFrom(int origin) {
+                int[] distances = new int[Math.max(this.size, 16)];
+                final FlowField.CostHeap open = new FlowField.CostHeap();
+
+                Arrays.fill(distances, UNREACHABLE);
+                distances[origin] = 0;
+                open.push(0, origin);
+
+                while (!open.isEmpty()) {
+                    final long entry = open.pop();
+                    final int
+                        id = FlowField.CostHeap.idOf(entry),
+                        cost = FlowField.CostHeap.costOf(entry);
+                    if (cost > distances[id])
+                        continue;
+
+                    final Coords key = this.nodes[id];
+                    for (int next : successorsOf(id)) {
+                        if (next >= distances.length) {
+                            final int length = distances.length;
+                            distances = Arrays.copyOf(distances, Math.max(length << 1, next + 1));
+                            Arrays.fill(distances, length, distances.length, UNREACHABLE);
+                        }
+
+                        final int distance = cost + cost(key, this.nodes[next]);
+                        if (distance < distances[next]) {
+                            distances[next] = distance;
+                            open.push(distance, next);
+                        }
+                    }
+                }
+                return distances;
+            }
+
+            int idOf(Coords key) {
+                final long cell = cellKey(key);
+                int mask = this.keys.length - 1;
+                int i = Long.hashCode(cell * 0x9E3779B97F4A7C15L) & mask;
+                for (; this.ids[i] >= 0; i = (i + 1) & mask)
+                    if (this.keys[i] == cell)
+                        return this.ids[i];
+
+                final int id = this.size++;
+                if (id == this.nodes.length) {
+                    this.nodes = Arrays.copyOf(this.nodes, id << 1);
+                    this.successors = Arrays.copyOf(this.successors, id << 1);
+                }
+                this.nodes[id] = key;
+
+                if (this.size > this.keys.length >> 1) {
+                    grow();
+                    mask = this.keys.length - 1;
+                    i = Long.hashCode(cell * 0x9E3779B97F4A7C15L) & mask;
+                    while (this.ids[i] >= 0)
+                        i = (i + 1) & mask;
+                }
+                this.keys[i] = cell;
+                this.ids[i] = id;
+                return id;
+            }
+
+            private void grow() {
+                final long[] keys = this.keys;
+                final int[] ids = this.ids;
+                final int mask = (keys.length << 1) - 1;
+
+                this.keys = new long[keys.length << 1];
+                this.ids = new int[ids.length << 1];
+                Arrays.fill(this.ids, -1);
+                for (int j = 0; j < keys.length; ++j)
+                    if (ids[j] >= 0) {
+                        int i = Long.hashCode(keys[j] * 0x9E3779B97F4A7C15L) & mask;
+                        while (this.ids[i] >= 0)
+                            i = (i + 1) & mask;
+
+                        this.keys[i] = keys[j];
+                        this.ids[i] = ids[j];
+                    }
+            }
+
+            private int[] successorsOf(int id) {
+                int[] successors = this.successors[id];
+                if (successors != null)
+                    return successors;
+
+                final Coords key = this.nodes[id];
+                successors = new int[this.moves];
+                int count = 0;
+                for (int d = 0; d < this.moves; ++d) {
+                    final Node node = this.calculator.passibleNodeNear(key.x + DX[d], key.y + DY[d], key.z + DZ[d], key, this.sampler);
+                    final Coords next = node.key;
+                    if (node.passibility().impassible(this.capabilities) || !inside(next) || next.equals(key))
+                        continue;
+
+                    successors[count++] = idOf(next);
+                }
+
+                return this.successors[id] = Arrays.copyOf(successors, count);
+            }
+        }
+    }
+
+    static final class Key {
+        final int rx, ry, rz;
+        final long region;
+        final CapabilityClass capabilityClass;
+
+        Key(int rx, int ry, int rz, CapabilityClass capabilityClass) {
+            this.rx = rx;
+            this.ry = ry;
+            this.rz = rz;
+            this.region = cellKey(rx, ry, rz);
+            this.capabilityClass = capabilityClass;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.IBlockDescription;
+import com.extollit.gaming.ai.path.model.IGraphNodeFilter;
+import com.extollit.gaming.ai.path.model.PassibilityTable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Node calculations shared among all path-finders of the same capability class.  Entities of the same size and
+ * capabilities observe the same passibility, so rather than each path-finder computing the same nodes over the same
+ * terrain, the results of each calculation are stored in a {@link PassibilityTable} shared by all path-finders of the
+ * class.  Path-finders with different graph node filters do not share tables, since a filter alters the results.
+ *
+ * Tables may be read and written by many threads concurrently.  Cached results become stale when blocks change, so this
+ * must be notified of all block changes within the instance space, either directly or through
+ * {@link HydrazinePathFinder#onBlockChanged(int, int, int)} which invalidates the table of that path-finder.  Filters
+ * whose results vary over time (e.g. with daylight) should either not be shared or the cache should be cleared when
+ * their results change.  Tables hold a bounded number of sections and should be notified of unloaded columnar spaces
+ * through {@link #onColumnarSpaceUnloaded(int, int)}.
+ *
+ * @see HydrazinePathFinder#withPassibilityCache(PassibilityCache)
+ */
+public final class PassibilityCache {
+    private final ConcurrentHashMap<Signature, PassibilityTable> tables = new ConcurrentHashMap<>();
+    private final PathingContext context;
+
+    /**
+     * Create a new passibility cache for an instance space configured by the global context
+     *
+     * @see PathingContext#global()
+     */
+    public PassibilityCache() {
+        this(PathingContext.global());
+    }
+
+    /**
+     * Create a new passibility cache for an instance space
+     *
+     * @param context configuration of the engine for the instance space
+     */
+    public PassibilityCache(PathingContext context) {
+        this.context = context;
+    }
+
+    /**
+     * Notifies the cache that a block has changed so that all cached results that may depend on it are discarded.
+     *
+     * @param x x-coordinate of the block that changed
+     * @param y y-coordinate of the block that changed
+     * @param z z-coordinate of the block that changed
+     * @see PathingSpace#onBlockChanged(int, int, int, IBlockDescription, int)
+     */
+    public void onBlockChanged(int x, int y, int z) {
+        for (Map.Entry<Signature, PassibilityTable> entry : this.tables.entrySet()) {
+            final CapabilityClass capabilityClass = entry.getKey().capabilityClass;
+            final int
+                reach = capabilityClass.discreteSize + 1,
+                fall = capabilityClass.fluidic() ? 1 : this.context.fallDistance();
+
+            entry.getValue().invalidate(
+                x - reach, y - capabilityClass.tall - 1, z - reach,
+                x + reach, y + fall + 1, z + reach
+            );
+        }
+    }
+
+    /**
+     * Discards the cached results of a columnar space, this should be called when the columnar space is unloaded so
+     * that the tables do not grow with every columnar space ever visited.
+     *
+     * @param cx x chunk coordinate of the columnar space
+     * @param cz z chunk coordinate of the columnar space
+     */
+    public void onColumnarSpaceUnloaded(int cx, int cz) {
+        for (PassibilityTable table : this.tables.values())
+            table.evict(cx, cz);
+    }
+
+    /**
+     * Discards all cached results
+     */
+    public void clear() {
+        for (PassibilityTable table : this.tables.values())
+            table.clear();
+    }
+
+    PassibilityTable tableFor(CapabilityClass capabilityClass, IGraphNodeFilter filter) {
+        final Signature signature = new Signature(capabilityClass, filter);
+        PassibilityTable table = this.tables.get(signature);
+        if (table == null) {
+            final PassibilityTable existing = this.tables.putIfAbsent(signature, table = new PassibilityTable());
+            if (existing != null)
+                table = existing;
+        }
+        return table;
+    }
+
+    int tableCount() {
+        return this.tables.size();
+    }
+
+    private static final class Signature {
+        final CapabilityClass capabilityClass;
+        final IGraphNodeFilter filter;
+
+        Signature(CapabilityClass capabilityClass, IGraphNodeFilter filter) {
+            this.capabilityClass = capabilityClass;
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            final Signature signature = (Signature) o;
+            return this.filter == signature.filter && this.capabilityClass.equals(signature.capabilityClass);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * this.capabilityClass.hashCode() + System.identityHashCode(this.filter);
+        }
+    }
+}
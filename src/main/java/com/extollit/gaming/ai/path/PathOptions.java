@@ -55,6 +55,8 @@ public class PathOptions {
         NONE = new PathOptions().targetingStrategy(TargetingStrategy.none);
 
     private TargetingStrategy targetingStrategy = TargetingStrategy.none;
+    private boolean hierarchical, bidirectional, jumpPoints;
+    private float epsilon = 1;
 
     /**
      * Configure with the specified targeting strategy
@@ -72,4 +74,92 @@ public class PathOptions {
      * @return the configured targeting strategy
      */
     public TargetingStrategy targetingStrategy() { return this.targetingStrategy; }
+
+    /**
+     * Configure whether path-finding should first plan a coarse route over sections of the instance space and then
+     * only refine the sections along that route.  This is beneficial for distant destinations, particularly those that
+     * are farther away than a single path can span.  This requires a section graph that is shared among the
+     * path-finders of the instance space, it is ignored by path-finders that have none.
+     *
+     * @param hierarchical true to plan a coarse route first, false (the default) to path-find directly
+     * @return this (builder pattern)
+     * @see SectionGraph
+     * @see HydrazinePathFinder#withSectionGraph(SectionGraph)
+     */
+    public PathOptions hierarchical(boolean hierarchical) {
+        this.hierarchical = hierarchical;
+        return this;
+    }
+
+    /**
+     * Retrieve whether hierarchical path-finding is configured
+     * @return true if a coarse route is planned first
+     */
+    public boolean hierarchical() { return this.hierarchical; }
+
+    /**
+     * Configure whether complete path computations should search from both ends at once, forward from the pathing
+     * entity and backward from the destination, meeting in the middle.  This roughly halves the nodes expanded over long
+     * open routes, it only applies to {@link HydrazinePathFinder#computePathTo(double, double, double, PathOptions)}.
+     *
+     * @param bidirectional true to search from both ends, false (the default) to search forward only
+     * @return this (builder pattern)
+     */
+    public PathOptions bidirectional(boolean bidirectional) {
+        this.bidirectional = bidirectional;
+        return this;
+    }
+
+    /**
+     * Retrieve whether bidirectional search is configured
+     * @return true if complete path computations search from both ends
+     */
+    public boolean bidirectional() { return this.bidirectional; }
+
+    /**
+     * Configure whether walking entities may skip across runs of flat open ground instead of expanding every node along
+     * them (jump point search).  Each expansion scans straight ahead over packed occlusion words and only adds the node
+     * where the run ends, e.g. next to an obstacle, ledge, door or when aligned with the destination.  Resulting paths
+     * still step through every block.  This only applies to ground-based entities one block wide that are not using a
+     * graph node filter, it has no effect otherwise.
+     *
+     * @param jumpPoints true to jump across flat ground, false (the default) to expand every node
+     * @return this (builder pattern)
+     */
+    public PathOptions jumpPoints(boolean jumpPoints) {
+        this.jumpPoints = jumpPoints;
+        return this;
+    }
+
+    /**
+     * Retrieve whether jump point search is configured
+     * @return true if walking entities jump across flat ground
+     */
+    public boolean jumpPoints() { return this.jumpPoints; }
+
+    /**
+     * Configure the factor by which the estimated remaining distance to the destination is inflated (anytime repairing
+     * A*).  A factor greater than one finds a first path sooner by expanding fewer nodes, but that path may be longer
+     * than the shortest path by up to the factor.  Each time a path is found the factor is tightened toward one and
+     * subsequent updates continue the same search to improve the path until it is the shortest.  Estimates are capped
+     * at {@link com.extollit.gaming.ai.path.model.Node#MAX_PATH_DISTANCE} before they are inflated, so the factor has
+     * the same effect at any distance within that limit.
+     *
+     * @param epsilon heuristic inflation factor, one (the default) disables inflation
+     * @return this (builder pattern)
+     * @throws IllegalArgumentException if the factor is less than one
+     */
+    public PathOptions epsilon(float epsilon) {
+        if (!(epsilon >= 1))
+            throw new IllegalArgumentException("Epsilon must be at least one: " + epsilon);
+
+        this.epsilon = epsilon;
+        return this;
+    }
+
+    /**
+     * Retrieve the heuristic inflation factor
+     * @return factor by which estimates of the remaining distance are initially inflated, at least one
+     */
+    public float epsilon() { return this.epsilon; }
 }
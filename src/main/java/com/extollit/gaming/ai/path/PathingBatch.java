@@ -0,0 +1,225 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.*;
+import com.extollit.linalg.immutable.Vec3d;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import static java.lang.Math.*;
+
+/**
+ * Computes complete paths for many pathing entities at once, e.g. for a wave of entities that spawn together in the
+ * same tick.  Initiating path-finding for each entity separately loads the occlusion fields of each entity's search
+ * area and computes the nodes of terrain shared by all of them over and over again.  A batch instead captures a
+ * snapshot of the occlusion fields spanning the search areas of its requests and computes the paths concurrently on a
+ * fork-join pool, sharing node calculations among entities of the same capability class.  Requests that are far
+ * apart are split among several snapshots so that no snapshot spans more than 32 columnar spaces along either axis.
+ *
+ * Node calculations are shared through the passibility cache of each path-finder if it has one, otherwise through a
+ * cache private to the batch that is configured by the context of the path-finder.  The paths computed are not applied
+ * to the path-finders, it is the caller's responsibility to drive each pathing entity along its resulting path, as
+ * with {@link HydrazinePathFinder#computePathToAsync(double, double, double)}.
+ *
+ * This class is not thread-safe, requests must be added and computed from the thread that owns the instance space.
+ * Note that {@link IInstanceSpace#blockObjectAt(int, int, int)} is still consulted for a few ambiguous blocks (e.g.
+ * doors) by the threads of the pool, so it must tolerate reads from other threads.
+ *
+ * @see HydrazinePathFinder#computePathTo(double, double, double)
+ */
+public final class PathingBatch {
+    private static final int MAX_SNAPSHOT_SPAN = 32;
+
+    private final IInstanceSpace instanceSpace;
+    private final ForkJoinPool pool;
+    private final Map<HydrazinePathFinder, Vec3d> requests = new LinkedHashMap<>();
+
+    /**
+     * Create a new batch of path-finding requests that are computed by the common fork-join pool
+     *
+     * @param instanceSpace the instance space that all pathing entities of the batch path-find in
+     */
+    public PathingBatch(IInstanceSpace instanceSpace) {
+        this(instanceSpace, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a new batch of path-finding requests
+     *
+     * @param instanceSpace the instance space that all pathing entities of the batch path-find in
+     * @param pool the pool that computes the paths
+     */
+    public PathingBatch(IInstanceSpace instanceSpace, ForkJoinPool pool) {
+        this.instanceSpace = instanceSpace;
+        this.pool = pool;
+    }
+
+    /**
+     * Adds a request to compute a path for the entity of the specified path-finder to a destination.  If there is
+     * already a request for the path-finder then its destination is replaced.
+     *
+     * @param pathFinder path-finder of the pathing entity to compute a path for
+     * @param destination the target destination to path-find to
+     * @return this
+     */
+    public PathingBatch add(HydrazinePathFinder pathFinder, Vec3d destination) {
+        this.requests.put(pathFinder, destination);
+        return this;
+    }
+
+    /**
+     * Number of requests in this batch
+     *
+     * @return count of path-finders that have requested a path
+     */
+    public int size() {
+        return this.requests.size();
+    }
+
+    /**
+     * Computes the complete path of every request in this batch.  This blocks the calling thread, which must be the
+     * thread that owns the instance space, until all paths have been computed by the pool.  Only the snapshots are
+     * captured on the calling thread, so the time it is blocked depends on the size of the batch and the parallelism
+     * of the pool.  Requests are removed from the batch, so the batch may be re-used for subsequent waves.
+     *
+     * @return the complete path to the destination of each request keyed by path-finder in the order they were added,
+     *          a path is null if its destination is unreachable from the current location of its pathing entity
+     */
+    public Map<HydrazinePathFinder, IPath> compute() {
+        final Map<HydrazinePathFinder, Vec3d> requests = this.requests;
+        final Map<HydrazinePathFinder, IPath> results = new LinkedHashMap<>(requests.size() * 2);
+        if (requests.isEmpty())
+            return results;
+
+        final int count = requests.size();
+        final IPathingEntity[] subjects = new IPathingEntity[count];
+        final Window[] windows = new Window[count];
+        final List<Window> snapshots = new ArrayList<>();
+
+        int i = 0;
+        for (Map.Entry<HydrazinePathFinder, Vec3d> request : requests.entrySet()) {
+            final IPathingEntity subject = subjects[i] = EntitySnapshot.of(request.getKey().subject());
+            final Vec3d
+                sourcePos = subject.coordinates(),
+                destination = request.getValue();
+            final float searchRange = subject.searchRange();
+            final int padding = (int)ceil(searchRange) + (int)ceil(subject.width()) + 1;
+
+            if (sourcePos.subOf(destination).mg2() <= searchRange * searchRange) {
+                final Window window = new Window(
+                    ((int)floor(min(sourcePos.x, destination.x)) - padding) >> 4,
+                    ((int)floor(min(sourcePos.y, destination.y)) - padding) >> 4,
+                    ((int)floor(min(sourcePos.z, destination.z)) - padding) >> 4,
+                    ((int)floor(max(sourcePos.x, destination.x)) + padding) >> 4,
+                    ((int)floor(max(sourcePos.y, destination.y)) + padding) >> 4,
+                    ((int)floor(max(sourcePos.z, destination.z)) + padding) >> 4
+                );
+
+                Window merged = null;
+                for (Window snapshot : snapshots)
+                    if (snapshot.absorb(window)) {
+                        merged = snapshot;
+                        break;
+                    }
+
+                if (merged == null)
+                    snapshots.add(merged = window);
+
+                windows[i] = merged;
+            }
+            i++;
+        }
+
+        for (Window window : snapshots)
+            window.snapshot = SnapshotOcclusionProvider.capture(
+                this.instanceSpace,
+                window.cx0, window.cy0, window.cz0,
+                window.cxN, window.cyN, window.czN
+            );
+
+        final Map<PathingContext, PassibilityCache> sharedCaches = new IdentityHashMap<>();
+        final List<Callable<IPath>> tasks = new ArrayList<>(count);
+
+        i = 0;
+        for (Map.Entry<HydrazinePathFinder, Vec3d> request : requests.entrySet()) {
+            final Window window = windows[i];
+            final IPathingEntity subject = subjects[i++];
+            if (window == null)
+                continue;
+
+            final HydrazinePathFinder pathFinder = request.getKey();
+            PassibilityCache passibilityCache = pathFinder.passibilityCache();
+            if (passibilityCache == null)
+                passibilityCache = sharedCaches.computeIfAbsent(pathFinder.context(), PassibilityCache::new);
+
+            final HydrazinePathFinder worker = pathFinder
+                .worker(subject, window.snapshot)
+                .withPassibilityCache(passibilityCache);
+            final Vec3d destination = request.getValue();
+
+            tasks.add(() -> worker.computePathTo(destination));
+        }
+
+        final List<Future<IPath>> futures = this.pool.invokeAll(tasks);
+        final Iterator<Future<IPath>> future = futures.iterator();
+        i = 0;
+        for (HydrazinePathFinder pathFinder : requests.keySet()) {
+            try {
+                results.put(pathFinder, windows[i++] == null ? null : future.next().get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while computing paths", e);
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException)
+                    throw (RuntimeException) cause;
+                else if (cause instanceof Error)
+                    throw (Error) cause;
+                else
+                    throw new IllegalStateException(cause);
+            }
+        }
+
+        requests.clear();
+        return results;
+    }
+
+    /**
+     * Bounds of a snapshot in columnar space coordinates, which grows to absorb the search areas of nearby requests
+     */
+    private static final class Window {
+        int cx0, cy0, cz0, cxN, cyN, czN;
+        SnapshotOcclusionProvider snapshot;
+
+        Window(int cx0, int cy0, int cz0, int cxN, int cyN, int czN) {
+            this.cx0 = cx0;
+            this.cy0 = cy0;
+            this.cz0 = cz0;
+            this.cxN = cxN;
+            this.cyN = cyN;
+            this.czN = czN;
+        }
+
+        boolean absorb(Window other) {
+            final int
+                cx0 = min(this.cx0, other.cx0),
+                cz0 = min(this.cz0, other.cz0),
+                cxN = max(this.cxN, other.cxN),
+                czN = max(this.czN, other.czN);
+
+            if (cxN - cx0 >= MAX_SNAPSHOT_SPAN || czN - cz0 >= MAX_SNAPSHOT_SPAN)
+                return false;
+
+            this.cx0 = cx0;
+            this.cz0 = cz0;
+            this.cxN = cxN;
+            this.czN = czN;
+            this.cy0 = min(this.cy0, other.cy0);
+            this.cyN = max(this.cyN, other.cyN);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.IInstanceSpace;
+import com.extollit.gaming.ai.path.model.IPathingEntity;
+import com.extollit.num.FloatRange;
+
+/**
+ * Immutable configuration of the path-finding engine for one instance space (i.e. world or dimension).  A context
+ * carries the values of an {@link IConfigModel} and is passed to path-finders and to the node calculators they create,
+ * so that instance spaces configured differently may be path-found in on separate threads concurrently without any
+ * shared mutable state.
+ *
+ * Path-finders and the other per-instance-space objects (e.g. {@link FlowField}, {@link SectionGraph},
+ * {@link Landmarks} and {@link PassibilityCache}) that are not given a context use the global context that is current
+ * when they are created, which is the default configuration unless it was replaced by {@link #global(PathingContext)}.
+ * Objects that collaborate with each other in the same instance space should be created with the same context.
+ *
+ * @see HydrazinePathFinder#HydrazinePathFinder(IPathingEntity, IInstanceSpace, PathingContext)
+ */
+public final class PathingContext {
+    /**
+     * Default configuration of the engine
+     */
+    public static final PathingContext DEFAULT = new PathingContext(
+        4, 20, 16,
+        0.6,
+        new FloatRange(24, 48),
+        (byte)3,
+        23,
+        new FloatRange(36, 64),
+        new FloatRange(1, 2),
+        new int[] { 24, 12, 7, 3 },
+        new int[] { 18, 7, 3, 2 }
+    );
+
+    private static volatile PathingContext global = DEFAULT;
+
+    final int safeFallDistance, surviveFallDistance, cesaLimit;
+    final double dotThreshold;
+    final FloatRange passiblePointTimeLimit;
+    final byte faultCountThreshold;
+    final int faultLimit;
+    final FloatRange probationaryTimeLimit;
+    private final FloatRange directLineTimeLimit;
+    private final int[] initComputeIterations, periodicComputeIterations;
+
+    private PathingContext(
+            int safeFallDistance, int surviveFallDistance, int cesaLimit,
+            double dotThreshold,
+            FloatRange passiblePointTimeLimit,
+            byte faultCountThreshold,
+            int faultLimit,
+            FloatRange probationaryTimeLimit,
+            FloatRange directLineTimeLimit,
+            int[] initComputeIterations,
+            int[] periodicComputeIterations) {
+        this.safeFallDistance = safeFallDistance;
+        this.surviveFallDistance = surviveFallDistance;
+        this.cesaLimit = cesaLimit;
+        this.dotThreshold = dotThreshold;
+        this.passiblePointTimeLimit = passiblePointTimeLimit;
+        this.faultCountThreshold = faultCountThreshold;
+        this.faultLimit = faultLimit;
+        this.probationaryTimeLimit = probationaryTimeLimit;
+        this.directLineTimeLimit = directLineTimeLimit;
+        this.initComputeIterations = initComputeIterations;
+        this.periodicComputeIterations = periodicComputeIterations;
+    }
+
+    /**
+     * Creates a context from the values of a configuration model, the model is read once by this method
+     *
+     * @param configModel source of the configuration
+     * @return a new immutable context
+     */
+    public static PathingContext from(IConfigModel configModel) {
+        final SchedulingPriority[] priorities = SchedulingPriority.values();
+        final int[]
+            initComputeIterations = new int[priorities.length],
+            periodicComputeIterations = new int[priorities.length];
+
+        for (SchedulingPriority priority : priorities) {
+            final IConfigModel.Schedule schedule = configModel.scheduleFor(priority);
+            initComputeIterations[priority.ordinal()] = schedule.init;
+            periodicComputeIterations[priority.ordinal()] = schedule.period;
+        }
+
+        return new PathingContext(
+            configModel.safeFallDistance(),
+            configModel.surviveFallDistance(),
+            configModel.cesaLimit(),
+            configModel.dotThreshold(),
+            configModel.passiblePointTimeLimit(),
+            configModel.faultCountThreshold(),
+            configModel.faultLimit(),
+            configModel.probationaryTimeLimit(),
+            configModel.directLineTimeLimit(),
+            initComputeIterations,
+            periodicComputeIterations
+        );
+    }
+
+    /**
+     * Retrieves the global context, which is used by objects that are created without a context
+     *
+     * @return the current global context
+     */
+    public static PathingContext global() {
+        return global;
+    }
+
+    /**
+     * Replaces the global context.  Path-finders created without a context follow the global context, so those that
+     * already exist apply the new one from their next path-finding operation.  Other objects that were created without
+     * a context (passibility caches, flow fields, section graphs and landmarks) keep the global context of the time
+     * they were created, since the data they have cached was computed with it.
+     *
+     * @param context the new global context
+     */
+    public static void global(PathingContext context) {
+        if (context == null)
+            throw new NullPointerException();
+
+        global = context;
+    }
+
+    /**
+     * Minimum and maximum path time that an entity may remain stuck at a path point until a direct-line shortcut along
+     * its path is abandoned
+     *
+     * @return direct-line time limit measured in path time units
+     * @see IConfigModel#directLineTimeLimit()
+     */
+    public FloatRange directLineTimeLimit() {
+        return this.directLineTimeLimit;
+    }
+
+    int initComputeIterations(SchedulingPriority priority) {
+        return this.initComputeIterations[priority.ordinal()];
+    }
+
+    int periodicComputeIterations(SchedulingPriority priority) {
+        return this.periodicComputeIterations[priority.ordinal()];
+    }
+
+    /**
+     * Maximum distance that nodes computed relative to an origin may fall from the coordinates they were requested at
+     */
+    int fallDistance() {
+        return this.surviveFallDistance;
+    }
+}
@@ -0,0 +1,206 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.IPathingEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounds the total amount of A* triage work performed by many path-finders during a single server tick.  Without a
+ * scheduler each path-finder dedicates a fixed number of iterations per cycle according to its
+ * {@link SchedulingPriority}, so the total cost of path-finding grows linearly with the number of pathing entities.
+ * Path-finders registered with a scheduler instead draw their periodic iterations from a global per-tick budget that is
+ * distributed among them according to weight, fairness and starvation age.
+ *
+ * The scheduling priority of a registered path-finder is used as a relative weight rather than as a hard-coded
+ * iteration count.  Path-finders that receive no iterations for a tick (because the budget is over-subscribed)
+ * accumulate starvation age, which increases their share of subsequent budgets until they are serviced.  Iterations
+ * that go unused during a tick are carried forward to the next tick, up to a maximum of one tick's worth of budget.
+ *
+ * Initiating path-finding still dedicates the initial compute iterations of the path-finder's scheduling priority so
+ * that a path is immediately available, but those iterations are debited against the path-finder's subsequent
+ * allowance.  Complete path computations are not accounted for by the scheduler.
+ *
+ * Call {@link #tick()} once per server tick before updating pathing entities.  This class is not thread-safe, all
+ * methods must be called from the same thread that updates the path-finders registered with it.
+ *
+ * @see HydrazinePathFinder#updatePathFor(IPathingEntity)
+ * @see SchedulingPriority
+ */
+public final class PathingScheduler {
+    static final class Ticket {
+        final HydrazinePathFinder pathFinder;
+
+        int allowance, starvation;
+
+        private Ticket(HydrazinePathFinder pathFinder) {
+            this.pathFinder = pathFinder;
+        }
+
+        int allowance() {
+            return Math.max(this.allowance, 0);
+        }
+
+        void consume(int iterations) {
+            this.allowance -= iterations;
+        }
+    }
+
+    private final List<Ticket> tickets = new ArrayList<>();
+    private final int iterationsPerTick;
+
+    private int carry, cursor;
+
+    /**
+     * Create a new scheduler that distributes the specified number of A* iterations each tick
+     *
+     * @param iterationsPerTick total number of triage iterations shared among all registered path-finders each tick
+     */
+    public PathingScheduler(int iterationsPerTick) {
+        if (iterationsPerTick <= 0)
+            throw new IllegalArgumentException("Iterations per tick must be positive: " + iterationsPerTick);
+
+        this.iterationsPerTick = iterationsPerTick;
+    }
+
+    /**
+     * Notifies all path-finders registered with this scheduler that a block has changed so that they may repair their
+     * graphs incrementally.  Path-finders that have not explored the vicinity of the change reject it without visiting
+     * their graphs, so the cost of a change far from every path-finder is a bounds check per path-finder.  Path-finders
+     * attached to a {@link PathingSpace} are notified by the pathing space already.
+     *
+     * @param x x-coordinate of the block that changed
+     * @param y y-coordinate of the block that changed
+     * @param z z-coordinate of the block that changed
+     * @return number of path-finders whose graph was affected by the change
+     * @see HydrazinePathFinder#onBlockChanged(int, int, int)
+     */
+    public int onBlockChanged(int x, int y, int z) {
+        int affected = 0;
+        for (Ticket ticket : this.tickets)
+            if (ticket.pathFinder.onBlockChanged(x, y, z))
+                affected++;
+
+        return affected;
+    }
+
+    /**
+     * Registers a path-finder with this scheduler, subsequent periodic updates of the path-finder draw from the global
+     * budget of this scheduler rather than from the fixed iteration count of its scheduling priority.
+     *
+     * @param pathFinder the path-finder to schedule
+     * @throws IllegalStateException if the path-finder is already registered with a scheduler
+     */
+    public void register(HydrazinePathFinder pathFinder) {
+        if (pathFinder.ticket != null)
+            throw new IllegalStateException("Path-finder is already registered with a scheduler");
+
+        final Ticket ticket = new Ticket(pathFinder);
+        this.tickets.add(ticket);
+        pathFinder.ticket = ticket;
+    }
+
+    /**
+     * Removes a path-finder from this scheduler, this should be called when the associated pathing entity is unloaded.
+     * The path-finder reverts to using the fixed iteration counts of its scheduling priority.
+     *
+     * @param pathFinder the path-finder to stop scheduling
+     * @return true if the path-finder was registered with this scheduler, false otherwise
+     */
+    public boolean unregister(HydrazinePathFinder pathFinder) {
+        final Ticket ticket = pathFinder.ticket;
+        if (ticket == null || !this.tickets.remove(ticket))
+            return false;
+
+        pathFinder.ticket = null;
+        return true;
+    }
+
+    /**
+     * Number of path-finders currently registered with this scheduler
+     *
+     * @return count of registered path-finders
+     */
+    public int size() {
+        return this.tickets.size();
+    }
+
+    /**
+     * Number of iterations carried forward from the previous tick that will be added to the next tick's budget
+     *
+     * @return unused iterations from the previous tick
+     */
+    public int carriedIterations() {
+        return this.carry;
+    }
+
+    /**
+     * Distributes this tick's budget among all registered path-finders that have outstanding triage work.  This
+     * reclaims iterations left unused since the last call and carries them forward, together with the iterations
+     * carried from the previous tick they are capped to one tick's worth of budget so that allowances of path-finders
+     * that are not updated every tick do not accumulate.
+     */
+    public void tick() {
+        final List<Ticket> tickets = this.tickets;
+        final int count = tickets.size();
+
+        int unused = this.carry;
+        long totalWeight = 0;
+        int pending = 0;
+
+        for (Ticket ticket : tickets) {
+            if (ticket.allowance > 0) {
+                unused += ticket.allowance;
+                ticket.allowance = 0;
+            }
+
+            if (ticket.pathFinder.triagePending()) {
+                totalWeight += weightOf(ticket);
+                pending++;
+            } else
+                ticket.starvation = 0;
+        }
+
+        final int budget = this.iterationsPerTick + Math.min(unused, this.iterationsPerTick);
+        if (pending == 0) {
+            this.carry = Math.min(budget, this.iterationsPerTick);
+            return;
+        }
+
+        int remaining = budget;
+        for (Ticket ticket : tickets)
+            if (ticket.pathFinder.triagePending()) {
+                final int share = (int) (budget * weightOf(ticket) / totalWeight);
+                ticket.allowance += share;
+                remaining -= share;
+            }
+
+        for (int c = 0, i = this.cursor; c < count && remaining > 0; ++c, i = (i + 1) % count) {
+            final Ticket ticket = tickets.get(i);
+            if (ticket.pathFinder.triagePending()) {
+                ticket.allowance++;
+                remaining--;
+                this.cursor = (i + 1) % count;
+            }
+        }
+
+        for (Ticket ticket : tickets)
+            if (ticket.pathFinder.triagePending()) {
+                if (ticket.allowance > 0)
+                    ticket.starvation = 0;
+                else
+                    ticket.starvation++;
+            }
+
+        this.carry = Math.min(remaining, this.iterationsPerTick);
+    }
+
+    int allowanceOf(HydrazinePathFinder pathFinder) {
+        final Ticket ticket = pathFinder.ticket;
+        return ticket == null ? 0 : ticket.allowance;
+    }
+
+    private static long weightOf(Ticket ticket) {
+        return (long) ticket.pathFinder.schedulingWeight() * (1 + ticket.starvation);
+    }
+}
@@ -0,0 +1,182 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Path-finding state shared by all path-finders of one instance space (i.e. world or dimension).  A pathing space owns
+ * the section graph, flow fields, passibility cache and landmark tables of the instance space, applies them to the
+ * path-finders attached to it and is the single point at which the host reports block changes.  Each of these objects
+ * caches data derived from the terrain and serves stale data if it misses a change, so rather than notifying each of
+ * them (and every path-finder) separately the host calls {@link #onBlockChanged(int, int, int, IBlockDescription, int)}
+ * which notifies the occlusion fields of the containing columnar space first and then everything else in turn.
+ *
+ * All objects of a pathing space are created with the same context.  This class is not thread-safe, all methods must
+ * be called from the thread that owns the instance space.
+ *
+ * @see HydrazinePathFinder#onBlockChanged(int, int, int)
+ */
+public final class PathingSpace {
+    private final IInstanceSpace instanceSpace;
+    private final SectionGraph sectionGraph;
+    private final FlowField flowField;
+    private final PassibilityCache passibilityCache;
+    private final Landmarks landmarks;
+    private final List<HydrazinePathFinder> pathFinders = new ArrayList<>();
+
+    /**
+     * Create a new pathing space for an instance space configured by the global context, landmark tables are computed
+     * by the common fork-join pool
+     *
+     * @param instanceSpace the instance space path-finders search in
+     * @see PathingContext#global()
+     */
+    public PathingSpace(IInstanceSpace instanceSpace) {
+        this(instanceSpace, PathingContext.global(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a new pathing space for an instance space
+     *
+     * @param instanceSpace the instance space path-finders search in
+     * @param context configuration of the engine for the instance space
+     * @param executor executor that computes landmark tables in the background
+     */
+    public PathingSpace(IInstanceSpace instanceSpace, PathingContext context, Executor executor) {
+        this.instanceSpace = instanceSpace;
+        this.sectionGraph = new SectionGraph(instanceSpace, context);
+        this.flowField = new FlowField(instanceSpace, context);
+        this.passibilityCache = new PassibilityCache(context);
+        this.landmarks = new Landmarks(instanceSpace, context, executor);
+    }
+
+    /**
+     * Applies the shared objects of this pathing space to a path-finder and notifies it of subsequent block changes.
+     * This should be called when the associated pathing entity is loaded into the instance space.
+     *
+     * @param pathFinder the path-finder to attach, which must search in the instance space of this pathing space
+     * @return the path-finder
+     * @throws IllegalStateException if the path-finder is already attached to this pathing space
+     */
+    public HydrazinePathFinder attach(HydrazinePathFinder pathFinder) {
+        if (this.pathFinders.contains(pathFinder))
+            throw new IllegalStateException("Path-finder is already attached to this pathing space");
+
+        this.pathFinders.add(pathFinder);
+        return pathFinder
+            .withSectionGraph(this.sectionGraph)
+            .withFlowField(this.flowField)
+            .withPassibilityCache(this.passibilityCache)
+            .withLandmarks(this.landmarks);
+    }
+
+    /**
+     * Stops notifying a path-finder of block changes and removes the shared objects of this pathing space from it, this
+     * should be called when the associated pathing entity is unloaded.
+     *
+     * @param pathFinder the path-finder to detach
+     * @return true if the path-finder was attached to this pathing space, false otherwise
+     */
+    public boolean detach(HydrazinePathFinder pathFinder) {
+        if (!this.pathFinders.remove(pathFinder))
+            return false;
+
+        pathFinder
+            .withSectionGraph(null)
+            .withFlowField(null)
+            .withPassibilityCache(null)
+            .withLandmarks(null);
+        return true;
+    }
+
+    /**
+     * Number of path-finders currently attached to this pathing space
+     *
+     * @return count of attached path-finders
+     */
+    public int size() {
+        return this.pathFinders.size();
+    }
+
+    /**
+     * Notifies the occlusion fields of the columnar space containing a block, then all shared objects of this pathing
+     * space and then every attached path-finder that the block has changed (i.e. has been placed, removed or a door
+     * was toggled).  This replaces calling
+     * {@link ColumnarOcclusionFieldList#onBlockChanged(int, int, int, IBlockDescription, int)} and the
+     * <code>onBlockChanged</code> methods of each of these objects separately.
+     *
+     * @param x x-coordinate of the block that changed
+     * @param y y-coordinate of the block that changed
+     * @param z z-coordinate of the block that changed
+     * @param description the new block at the coordinates
+     * @param metaData meta-data of the new block
+     * @return number of attached path-finders whose graph was affected by the change
+     */
+    public int onBlockChanged(int x, int y, int z, IBlockDescription description, int metaData) {
+        final IColumnarSpace columnarSpace = this.instanceSpace.columnarSpaceAt(x >> 4, z >> 4);
+        if (columnarSpace != null)
+            columnarSpace.occlusionFields().onBlockChanged(x, y, z, description, metaData);
+
+        this.passibilityCache.onBlockChanged(x, y, z);
+        this.sectionGraph.onBlockChanged(x, y, z);
+        this.flowField.onBlockChanged(x, y, z);
+        this.landmarks.onBlockChanged(x, y, z);
+
+        int affected = 0;
+        for (HydrazinePathFinder pathFinder : this.pathFinders)
+            if (pathFinder.onBlockChanged(x, y, z))
+                affected++;
+
+        return affected;
+    }
+
+    /**
+     * Discards data cached for a columnar space, this should be called when the columnar space is unloaded
+     *
+     * @param cx x chunk coordinate of the columnar space
+     * @param cz z chunk coordinate of the columnar space
+     */
+    public void onColumnarSpaceUnloaded(int cx, int cz) {
+        this.passibilityCache.onColumnarSpaceUnloaded(cx, cz);
+    }
+
+    /**
+     * Retrieve the section graph shared by path-finders of this pathing space
+     *
+     * @return the shared section graph
+     */
+    public SectionGraph sectionGraph() {
+        return this.sectionGraph;
+    }
+
+    /**
+     * Retrieve the flow fields shared by path-finders of this pathing space
+     *
+     * @return the shared flow fields
+     */
+    public FlowField flowField() {
+        return this.flowField;
+    }
+
+    /**
+     * Retrieve the passibility cache shared by path-finders of this pathing space
+     *
+     * @return the shared passibility cache
+     */
+    public PassibilityCache passibilityCache() {
+        return this.passibilityCache;
+    }
+
+    /**
+     * Retrieve the landmark tables shared by path-finders of this pathing space
+     *
+     * @return the shared landmark tables
+     */
+    public Landmarks landmarks() {
+        return this.landmarks;
+    }
+}
@@ -0,0 +1,35 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.BucketPointQueue;
+import com.extollit.gaming.ai.path.model.SortedPointQueue;
+
+/**
+ * Determines the priority queue structure used by a path-finding engine instance to order open nodes during the A*
+ * triage.  Both strategies order nodes first by passibility and then by journey (total estimated path length).
+ *
+ * @see HydrazinePathFinder#withQueueStrategy(QueueStrategy)
+ */
+public enum QueueStrategy {
+    /**
+     * Binary heap with logarithmic push and pop, this is the default strategy.
+     */
+    heap {
+        @Override
+        SortedPointQueue createQueue() {
+            return new SortedPointQueue();
+        }
+    },
+
+    /**
+     * Two-level bucket queue keyed by passibility and journey with constant time push and pop.  This strategy is most
+     * beneficial for long searches over open terrain where the queue grows large.
+     */
+    bucket {
+        @Override
+        SortedPointQueue createQueue() {
+            return new BucketPointQueue();
+        }
+    };
+
+    abstract SortedPointQueue createQueue();
+}
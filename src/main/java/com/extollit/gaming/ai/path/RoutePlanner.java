@@ -0,0 +1,143 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.Coords;
+import com.extollit.gaming.ai.path.model.Node;
+import com.extollit.linalg.mutable.Vec3d;
+
+import static java.lang.Math.floor;
+
+/**
+ * Coarse route of a path-finder over the section graph for hierarchical path-finding.  The route is planned
+ * incrementally from the iterations of the path-finder's triages, once it is planned the search of the path-finder
+ * heads for one waypoint after another rather than directly toward the destination.
+ *
+ * @see PathOptions#hierarchical(boolean)
+ */
+final class RoutePlanner {
+    /**
+     * Iterations of the triage that are spent to build one section of the section graph
+     */
+    private static final int SECTION_ITERATIONS = 16;
+
+    /**
+     * Distance beyond which the search heads for a waypoint rather than toward the destination
+     */
+    private static final int HORIZON = Node.MAX_PATH_DISTANCE / 3;
+
+    private static final Coords[] NO_ROUTE = new Coords[0];
+
+    private Coords[] route;
+    private SectionGraph.RoutePlan plan;
+    private int index;
+
+    /**
+     * Begins planning a route over the section graph toward the destination.  In the meantime the search heads directly
+     * toward the destination.
+     *
+     * @param sectionGraph section graph of the instance space the path-finder operates in
+     * @param capabilityClass class of the pathing entity
+     * @param source coordinates the route starts at
+     * @param destination coordinates the route leads to
+     * @param searchRange search range of the pathing entity
+     */
+    void plan(SectionGraph sectionGraph, CapabilityClass capabilityClass, Coords source, Vec3d destination, float searchRange) {
+        this.plan = sectionGraph.plan(
+            capabilityClass,
+            source,
+            (int)floor(destination.x),
+            (int)floor(destination.y),
+            (int)floor(destination.z),
+            searchRange
+        );
+        this.route = NO_ROUTE;
+        this.index = 0;
+    }
+
+    /**
+     * Discards the route and any plan in progress, subsequent searches head directly toward the destination
+     */
+    void clear() {
+        this.route = null;
+        this.plan = null;
+    }
+
+    /**
+     * @return true if a route has been planned or is being planned
+     */
+    boolean active() {
+        return this.route != null;
+    }
+
+    /**
+     * @return true if the route is still being planned
+     */
+    boolean planning() {
+        return this.plan != null;
+    }
+
+    /**
+     * @return true if the route has been planned and has at least one waypoint
+     */
+    boolean routed() {
+        return this.plan == null && this.route != null && this.route.length > 0;
+    }
+
+    /**
+     * Advances planning of the route, building at most one section of the section graph per
+     * {@link #SECTION_ITERATIONS} iterations (but at least one).
+     *
+     * @param iterations iterations available to this triage
+     * @return number of iterations spent
+     */
+    int advance(int iterations) {
+        final SectionGraph.RoutePlan plan = this.plan;
+        final int built = plan.advance(Math.max(1, iterations / SECTION_ITERATIONS));
+        if (plan.done()) {
+            final Coords[] route = plan.route();
+            this.plan = null;
+            this.route = route == null ? NO_ROUTE : route;
+            this.index = 0;
+        }
+        return built * SECTION_ITERATIONS;
+    }
+
+    /**
+     * Determines the waypoint the search should head for from a source, this is the furthest waypoint of the route that
+     * is within the horizon of the source.  Waypoints are never revisited once passed.
+     *
+     * @param source coordinates of the current source of the search
+     * @param destination final destination of the search
+     * @return the waypoint to head for, or null if the search should head directly toward the destination
+     */
+    Coords waypointFor(Coords source, Vec3d destination) {
+        final Coords[] route = this.route;
+        if (route == null)
+            return null;
+
+        int i = this.index;
+        while (i < route.length && withinHorizon(source, route[i].x, route[i].y, route[i].z))
+            i++;
+
+        if (i == route.length) {
+            if (i == this.index || withinHorizon(source, destination.x, destination.y, destination.z)) {
+                this.index = i;
+                return null;
+            }
+        }
+
+        if (i > this.index)
+            i--;
+
+        this.index = i;
+        return route[i];
+    }
+
+    private static boolean withinHorizon(Coords source, double x, double y, double z) {
+        final double
+            dx = x - source.x,
+            dy = y - source.y,
+            dz = z - source.z;
+
+        return dx * dx + dy * dy + dz * dz <= HORIZON * HORIZON;
+    }
+}
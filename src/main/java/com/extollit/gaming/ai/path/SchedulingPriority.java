@@ -4,7 +4,11 @@ package com.extollit.gaming.ai.path;
  * Preset scheduling priorities for the co-routine-like behavior of the engine's A* triage process.  This determines
  * how many iterations (per cycle) a path-finding engine instance for an entity dedicates to the A* algorithm.
  *
+ * When a path-finding engine is registered with a {@link PathingScheduler} the subsequent compute iterations of its
+ * priority are instead used as a relative weight for sharing the scheduler's global per-tick budget.
+ *
  * @see IConfigModel.Schedule
+ * @see PathingScheduler
  */
 public enum SchedulingPriority {
     /**
@@ -41,7 +45,11 @@ public enum SchedulingPriority {
      */
     low     (3, 2);
 
-    protected int initComputeIterations, periodicComputeIterations;
+    /**
+     * Default compute iterations of this priority, the iterations used by path-finders are those of their
+     * {@link PathingContext}
+     */
+    protected final int initComputeIterations, periodicComputeIterations;
 
     SchedulingPriority(int initComputeIterations, int periodicComputeIterations) {
         this.initComputeIterations = initComputeIterations;
@@ -49,16 +57,17 @@ public enum SchedulingPriority {
     }
 
     /**
-     * Used to configure the co-routine-like compute cycles for each of these priority ratings.
+     * Used to configure the co-routine-like compute cycles for each of these priority ratings.  This replaces the
+     * global context, so it configures all other aspects of the engine from the model as well.  Path-finders created
+     * without a context, including those that already exist, apply the new configuration from their next path-finding
+     * operation.
      *
      * @param IConfigModel source containing the appropriate configuration parameters
      * @see IConfigModel#scheduleFor(SchedulingPriority)
+     * @deprecated use {@link PathingContext#from(IConfigModel)} and pass the context to path-finders instead
      */
+    @Deprecated
     public static void configureFrom(IConfigModel IConfigModel) {
-        for (SchedulingPriority priority : SchedulingPriority.values()) {
-            final IConfigModel.Schedule schedule = IConfigModel.scheduleFor(priority);
-            priority.initComputeIterations = schedule.init;
-            priority.periodicComputeIterations = schedule.period;
-        }
+        PathingContext.global(PathingContext.from(IConfigModel));
     }
 }
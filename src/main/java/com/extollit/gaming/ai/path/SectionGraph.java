@@ -0,0 +1,871 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.*;
+
+import java.util.*;
+
+/**
+ * Coarse abstraction of an instance space used for hierarchical path-finding over long distances.  Each 16x16x16
+ * section of the instance space is partitioned into regions, which are connected sets of nodes passible to some class
+ * of pathing entity.  Regions are linked by portals, which are moves that cross from a node of one section into a node
+ * of an adjacent section.  A route is first planned over regions and portals, which is cheap because there are very few
+ * of them, and then only the sections along the route need to be refined at block level.
+ *
+ * Sections (their regions and portals) are computed lazily and cached separately for each {@link CapabilityClass},
+ * so all path-finders of the same class in the same instance space may share one object of this class.  A cached
+ * section is invalidated whenever a block changes in or around it, which is detected from the section revisions
+ * maintained by {@link ColumnarOcclusionFieldList#onBlockChanged(int, int, int, IBlockDescription, int)}.
+ *
+ * Regions are further labelled with the connected component they belong to using union-find over their portals, which
+ * allows destinations in a different component than the pathing entity to be rejected without searching at all.  A
+ * component is only conclusive once it is closed (i.e. all regions reachable from it have been labelled and none lead
+ * into unloaded terrain), labelling stops at a fixed number of sections, beyond which a component remains open.
+ * Labelling is incremental, each query builds no more than a few sections toward labelling a component and a
+ * destination is considered reachable until the labels are complete.
+ * A component remembers the sections it spans and is discarded and labelled again as soon as any of them has been
+ * revised, which is checked whenever the component is consulted, so a wall opened far from both the source and the
+ * destination is not missed even if the graph was never notified of it.  Notifying the graph of block changes by
+ * {@link #onBlockChanged(int, int, int)} merely discards the components around them sooner.
+ *
+ * Graph node filters are not applied to the abstraction, they only apply during refinement.  Objects of this class are
+ * not thread-safe, they must be used by the thread that owns the instance space.
+ *
+ * @see HydrazinePathFinder#withSectionGraph(SectionGraph)
+ * @see PathOptions#hierarchical(boolean)
+ */
+public final class SectionGraph {
+    private static final int
+        SECTION_SIZE = OcclusionField.DIMENSION_SIZE,
+        SECTION_MASK = SECTION_SIZE - 1,
+        SECTION_VOLUME = SECTION_SIZE * SECTION_SIZE * SECTION_SIZE,
+        MAX_EXPANSIONS = 4096,
+        MAX_CACHED_SECTIONS = 8192,
+        MAX_COMPONENT_SECTIONS = 64,
+        LABEL_SECTIONS = 8;
+
+    private static final int[]
+        DX = { -1, +1, 0, 0, 0, 0 },
+        DY = { 0, 0, 0, 0, +1, -1 },
+        DZ = { 0, 0, -1, +1, 0, 0 };
+
+    private static final Coords[] NO_WAYPOINTS = new Coords[0];
+
+    private final IInstanceSpace instanceSpace;
+    private final PathingContext context;
+    private final IOcclusionProviderFactory occlusionProviderFactory;
+    private final Map<CapabilityClass, Layer> layers = new HashMap<>();
+
+    /**
+     * Create a new section graph for an instance space configured by the global context
+     *
+     * @param instanceSpace the instance space to abstract
+     * @see PathingContext#global()
+     */
+    public SectionGraph(IInstanceSpace instanceSpace) {
+        this(instanceSpace, PathingContext.global());
+    }
+
+    /**
+     * Create a new section graph for an instance space
+     *
+     * @param instanceSpace the instance space to abstract
+     * @param context configuration of the engine for the instance space
+     */
+    public SectionGraph(IInstanceSpace instanceSpace, PathingContext context) {
+        this(instanceSpace, context, AreaOcclusionProviderFactory.INSTANCE);
+    }
+
+    SectionGraph(IInstanceSpace instanceSpace, PathingContext context, IOcclusionProviderFactory occlusionProviderFactory) {
+        this.instanceSpace = instanceSpace;
+        this.context = context;
+        this.occlusionProviderFactory = occlusionProviderFactory;
+    }
+
+    /**
+     * Discards all cached sections of all capability classes
+     */
+    public void clear() {
+        this.layers.clear();
+    }
+
+    /**
+     * Notifies the graph that a block has changed so that the cached sections and connected components around it are
+     * discarded right away.  Sections and components are also rebuilt when their revisions change without this
+     * notification, but only once they are next consulted.
+     *
+     * @param x x-coordinate of the block that changed
+     * @param y y-coordinate of the block that changed
+     * @param z z-coordinate of the block that changed
+     * @see PathingSpace#onBlockChanged(int, int, int, IBlockDescription, int)
+     */
+    public void onBlockChanged(int x, int y, int z) {
+        final int
+            cx = x >> 4,
+            cy = y >> 4,
+            cz = z >> 4;
+
+        for (Layer layer : this.layers.values())
+            for (int sz = cz - 2; sz <= cz + 2; ++sz)
+                for (int sx = cx - 2; sx <= cx + 2; ++sx)
+                    for (int sy = cy - layer.fallSections - 1; sy <= cy + 2; ++sy) {
+                        final long key = sectionKey(sx, sy, sz);
+                        final boolean adjacent = Math.abs(sx - cx) <= 1 && Math.abs(sz - cz) <= 1 && Math.abs(sy - cy) <= 1;
+                        final Section section = adjacent ? layer.sections.remove(key) : layer.sections.get(key);
+                        if (section != null)
+                            section.invalidateComponents();
+                    }
+    }
+
+    int cachedSections(CapabilityClass capabilityClass) {
+        final Layer layer = this.layers.get(capabilityClass);
+        return layer == null ? 0 : layer.sections.size();
+    }
+
+    /**
+     * Plans a route over regions from a source node toward a destination.  This plans the entire route at once, see
+     * {@link #plan(CapabilityClass, Coords, int, int, int, float)} to spread planning over several calls.
+     *
+     * @param capabilityClass class of the pathing entity that will follow the route
+     * @param source coordinates of the node the route starts at
+     * @param x x-coordinate of the destination
+     * @param y y-coordinate of the destination
+     * @param z z-coordinate of the destination
+     * @param range portals farther than this from the source are not considered
+     * @return the portals (entry points into each successive region) to pass through, empty if the destination is in
+     *          the same region as the source, or null if no route was found
+     */
+    Coords[] route(CapabilityClass capabilityClass, Coords source, int x, int y, int z, float range) {
+        final RoutePlan plan = plan(capabilityClass, source, x, y, z, range);
+        plan.advance(Integer.MAX_VALUE);
+        return plan.route();
+    }
+
+    /**
+     * Begins planning a route over regions from a source node toward a destination.  No work is done until the plan is
+     * advanced by {@link RoutePlan#advance(int)}, which bounds the number of sections built per call so that planning
+     * may be interleaved with searching.
+     *
+     * @param capabilityClass class of the pathing entity that will follow the route
+     * @param source coordinates of the node the route starts at
+     * @param x x-coordinate of the destination
+     * @param y y-coordinate of the destination
+     * @param z z-coordinate of the destination
+     * @param range portals farther than this from the source are not considered
+     * @return a new route plan
+     */
+    RoutePlan plan(CapabilityClass capabilityClass, Coords source, int x, int y, int z, float range) {
+        return new RoutePlan(layerFor(capabilityClass), source, new Coords(x, y, z), range);
+    }
+
+    /**
+     * Determines whether a destination is definitely unreachable from a source node, which is the case when the
+     * regions of both are known and the closed connected component of either one does not contain the other.  This
+     * costs no more than locating both regions once their components are labelled, otherwise it builds a bounded
+     * number of sections toward labelling them and considers the destination reachable until they are.
+     *
+     * @param capabilityClass class of the pathing entity
+     * @param source coordinates of the node the pathing entity is at
+     * @param x x-coordinate of the destination
+     * @param y y-coordinate of the destination
+     * @param z z-coordinate of the destination
+     * @return true if the destination is definitely unreachable, false if it may be reachable
+     */
+    boolean unreachable(CapabilityClass capabilityClass, Coords source, int x, int y, int z) {
+        final Layer layer = layerFor(capabilityClass);
+        final Map<Long, Section> memo = new HashMap<>();
+        final Region
+            start = layer.regionNear(source.x, source.y, source.z, memo),
+            goal = layer.regionNear(x, y, z, memo);
+
+        if (start == null || goal == null || start == goal)
+            return false;
+
+        if (layer.separated(start, goal))
+            return true;
+
+        final Region unlabelled = labelled(start) ? labelled(goal) ? null : goal : start;
+        return unlabelled != null && layer.label(unlabelled, LABEL_SECTIONS) && layer.separated(start, goal);
+    }
+
+    private static boolean labelled(Region region) {
+        final Component component = find(region.component);
+        return component != null && component.labelled;
+    }
+
+    private Layer layerFor(CapabilityClass capabilityClass) {
+        Layer layer = this.layers.get(capabilityClass);
+        if (layer == null)
+            this.layers.put(capabilityClass, layer = new Layer(capabilityClass));
+
+        return layer;
+    }
+
+    private static Component find(Component component) {
+        if (component == null)
+            return null;
+
+        Component root = component;
+        while (root.parent != root)
+            root = root.parent;
+
+        while (component != root) {
+            final Component next = component.parent;
+            component.parent = root;
+            component = next;
+        }
+
+        return root.valid ? root : null;
+    }
+
+    private static Coords[] waypoints(Visit visit) {
+        final List<Coords> waypoints = new ArrayList<>();
+        for (; visit.previous != null; visit = visit.previous)
+            waypoints.add(visit.entry);
+
+        Collections.reverse(waypoints);
+        return waypoints.toArray(NO_WAYPOINTS);
+    }
+
+    private static double squareDistance(Coords a, Coords b) {
+        final double
+            dx = a.x - b.x,
+            dy = a.y - b.y,
+            dz = a.z - b.z;
+
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private static double distance(Coords a, Coords b) {
+        return Math.sqrt(squareDistance(a, b));
+    }
+
+    private static long sectionKey(int cx, int cy, int cz) {
+        return ((long)(cx & 0x3FFFFFF) << 38) | ((long)(cz & 0x3FFFFFF) << 12) | (cy & 0xFFF);
+    }
+
+    private static int cellIndex(int x, int y, int z) {
+        return ((y & SECTION_MASK) << 8) | ((z & SECTION_MASK) << 4) | (x & SECTION_MASK);
+    }
+
+    /**
+     * A route over regions that is planned incrementally.  Sections visited by the plan are retained by it until it is
+     * done, so a plan that spans several calls works from the sections as they were when it first visited them.
+     */
+    final class RoutePlan {
+        private final Layer layer;
+        private final Coords source, destination;
+        private final double rangeSquared;
+        private final Map<Long, Section> memo = new HashMap<>();
+        private final Map<Region, Double> costs = new HashMap<>();
+        private final Set<Region> closed = new HashSet<>();
+        private final PriorityQueue<Visit> open = new PriorityQueue<>();
+
+        private Region goal;
+        private int expansions;
+        private boolean started, done;
+        private Coords[] route;
+
+        private RoutePlan(Layer layer, Coords source, Coords destination, float range) {
+            this.layer = layer;
+            this.source = source;
+            this.destination = destination;
+            this.rangeSquared = (double)range * range;
+        }
+
+        /**
+         * Continues planning the route until it is done or until at least the specified number of sections have been
+         * built.  Sections that were already cached are free, an expansion that is started is always completed so the
+         * budget may be slightly exceeded.
+         *
+         * @param sections maximum number of sections to build before yielding
+         * @return the number of sections that were built
+         */
+        int advance(int sections) {
+            final Layer layer = this.layer;
+            final int builds0 = layer.builds;
+
+            if (!this.started) {
+                this.started = true;
+
+                final Region start = layer.regionNear(this.source.x, this.source.y, this.source.z, this.memo);
+                this.goal = layer.regionNear(this.destination.x, this.destination.y, this.destination.z, this.memo);
+
+                if (start == null || this.goal == null)
+                    return finish(null, builds0);
+
+                if (start == this.goal)
+                    return finish(NO_WAYPOINTS, builds0);
+
+                this.open.add(new Visit(start, this.source, 0, distance(this.source, this.destination), null));
+                this.costs.put(start, 0.0);
+            }
+
+            final Coords destination = this.destination;
+            final PriorityQueue<Visit> open = this.open;
+            final Set<Region> closed = this.closed;
+            final Map<Region, Double> costs = this.costs;
+
+            while (!this.done && layer.builds - builds0 < sections) {
+                if (open.isEmpty() || this.expansions >= MAX_EXPANSIONS)
+                    return finish(null, builds0);
+
+                final Visit visit = open.poll();
+                if (!closed.add(visit.region))
+                    continue;
+
+                if (visit.region == this.goal)
+                    return finish(waypoints(visit), builds0);
+
+                this.expansions++;
+                for (Portal portal : visit.region.portals) {
+                    final Coords outside = portal.outside;
+                    if (squareDistance(this.source, outside) > this.rangeSquared)
+                        continue;
+
+                    final Region next = layer.regionAt(outside.x, outside.y, outside.z, this.memo);
+                    if (next == null || closed.contains(next))
+                        continue;
+
+                    final double cost = visit.cost + distance(visit.entry, portal.inside) + distance(portal.inside, outside);
+                    final Double known = costs.get(next);
+                    if (known != null && known <= cost)
+                        continue;
+
+                    costs.put(next, cost);
+                    open.add(new Visit(next, outside, cost, cost + distance(outside, destination), visit));
+                }
+            }
+
+            return layer.builds - builds0;
+        }
+
+        private int finish(Coords[] route, int builds0) {
+            this.route = route;
+            this.done = true;
+            this.memo.clear();
+            this.costs.clear();
+            this.closed.clear();
+            this.open.clear();
+            return this.layer.builds - builds0;
+        }
+
+        /**
+         * Determines whether planning has finished, successfully or not
+         *
+         * @return true if the plan needs no more advancing
+         */
+        boolean done() {
+            return this.done;
+        }
+
+        /**
+         * Retrieves the planned route once the plan is done
+         *
+         * @return the portals to pass through, empty if the destination is in the same region as the source, or null
+         *          if no route was found or planning is not done yet
+         */
+        Coords[] route() {
+            return this.route;
+        }
+    }
+
+    private final class Layer {
+        private final Map<Long, Section> sections = new HashMap<>();
+        private int builds;
+        private Labelling labelling;
+        private final INodeCalculator calculator;
+        private final IPathingEntity.Capabilities capabilities;
+        private final boolean omnidirectional;
+        private final int fallSections;
+
+        Layer(CapabilityClass capabilityClass) {
+            this.calculator = capabilityClass.createCalculator(SectionGraph.this.instanceSpace, SectionGraph.this.context);
+            this.capabilities = capabilityClass.capabilities();
+            this.omnidirectional = this.calculator.omnidirectional();
+            this.fallSections = this.omnidirectional ? 1 : (SectionGraph.this.context.fallDistance() >> 4) + 1;
+        }
+
+        Region regionAt(int x, int y, int z, Map<Long, Section> memo) {
+            return sectionAt(x >> 4, y >> 4, z >> 4, memo).regionAt(x, y, z);
+        }
+
+        Region regionNear(int x, int y, int z, Map<Long, Section> memo) {
+            final Region region = regionAt(x, y, z, memo);
+            if (region != null)
+                return region;
+
+            final FlagSampler sampler = samplerAround(x >> 4, z >> 4);
+            final Node node = this.calculator.passibleNodeNear(x, y, z, null, sampler);
+            if (node.passibility().impassible(this.capabilities))
+                return null;
+
+            final Coords key = node.key;
+            return regionAt(key.x, key.y, key.z, memo);
+        }
+
+        Section sectionAt(int cx, int cy, int cz, Map<Long, Section> memo) {
+            final Long key = sectionKey(cx, cy, cz);
+            Section section = memo.get(key);
+            if (section != null)
+                return section;
+
+            final long[] revisions = revisionsAround(cx, cy, cz);
+            section = this.sections.get(key);
+            if (section == null || !Arrays.equals(section.revisions, revisions)) {
+                if (section != null)
+                    section.invalidateComponents();
+
+                if (this.sections.size() >= MAX_CACHED_SECTIONS) {
+                    for (Section evicted : this.sections.values())
+                        evicted.invalidateComponents();
+
+                    this.sections.clear();
+                }
+
+                this.sections.put(key, section = build(cx, cy, cz, revisions));
+                this.builds++;
+            }
+
+            memo.put(key, section);
+            return section;
+        }
+
+        /**
+         * Determines whether the closed connected component of one region is known not to contain the other region.  A
+         * component that spans a section revised since it was labelled is discarded rather than consulted.
+         */
+        boolean separated(Region start, Region goal) {
+            final Component component = find(start.component);
+            if (conclusive(component))
+                return find(goal.component) != component;
+
+            final Component other = find(goal.component);
+            return conclusive(other) && find(start.component) != other;
+        }
+
+        private boolean conclusive(Component component) {
+            if (component == null || !component.conclusive())
+                return false;
+
+            for (Section section : component.sections)
+                if (!current(section)) {
+                    component.valid = false;
+                    return false;
+                }
+
+            return true;
+        }
+
+        /**
+         * Determines whether a section is still cached and none of the occlusion fields around it have been revised
+         * since it was built
+         */
+        private boolean current(Section section) {
+            if (this.sections.get(sectionKey(section.cx, section.cy, section.cz)) != section)
+                return false;
+
+            final long[] revisions = section.revisions;
+            int i = 0;
+            for (int z = section.cz - 1; z <= section.cz + 1; ++z)
+                for (int x = section.cx - 1; x <= section.cx + 1; ++x) {
+                    final IColumnarSpace columnarSpace = SectionGraph.this.instanceSpace.columnarSpaceAt(x, z);
+                    for (int y = section.cy - 1; y <= section.cy + 1; ++y)
+                        if (revisions[i++] != (columnarSpace == null ? 0 : columnarSpace.occlusionFields().revisionAt(y)))
+                            return false;
+                }
+
+            return true;
+        }
+
+        /**
+         * Continues labelling connected components, a component is labelled from the specified region unless another
+         * labelling is already in progress, which is continued first
+         *
+         * @param region region to label the component of
+         * @param sections maximum number of sections to build
+         * @return true if the labelling in progress has finished
+         */
+        boolean label(Region region, int sections) {
+            Labelling labelling = this.labelling;
+            if (labelling == null) {
+                if (find(region.component) != null)
+                    return true;
+
+                this.labelling = labelling = new Labelling(region);
+            }
+
+            if (!labelling.advance(sections))
+                return false;
+
+            this.labelling = null;
+            return true;
+        }
+
+        /**
+         * Collects the regions of neighbouring sections that have portals into a section, since portals are one-way
+         * (e.g. falls) these are not otherwise reachable from the regions of the section
+         */
+        private void scanIncoming(Section section, Labelling labelling, Map<Long, Section> memo) {
+            for (int d = -1; d < 4; ++d) {
+                final int
+                    cx = section.cx + (d < 0 ? 0 : DX[d]),
+                    cz = section.cz + (d < 0 ? 0 : DZ[d]);
+
+                final IColumnarSpace columnarSpace = SectionGraph.this.instanceSpace.columnarSpaceAt(cx, cz);
+                if (columnarSpace == null) {
+                    labelling.component.open = true;
+                    continue;
+                }
+
+                final ColumnarOcclusionFieldList fieldList = columnarSpace.occlusionFields();
+                for (int cy = section.cy - 1; cy <= section.cy + this.fallSections; ++cy) {
+                    if (cy < fieldList.minSectionIndex() || cy > fieldList.maxSectionIndex() || (d < 0 && cy == section.cy))
+                        continue;
+
+                    final Section neighbour = boundedSectionAt(cx, cy, cz, labelling, memo);
+                    if (neighbour == null || neighbour.regions == null)
+                        continue;
+
+                    for (Region source : neighbour.regions)
+                        for (Portal portal : source.portals) {
+                            final Coords outside = portal.outside;
+                            if (outside.x >> 4 != section.cx || outside.y >> 4 != section.cy || outside.z >> 4 != section.cz)
+                                continue;
+
+                            final Region target = section.regionAt(outside.x, outside.y, outside.z);
+                            if (target != null)
+                                labelling.incoming.computeIfAbsent(target, k -> new ArrayList<>(1)).add(source);
+                        }
+                }
+            }
+        }
+
+        private Section boundedSectionAt(int cx, int cy, int cz, Labelling labelling, Map<Long, Section> memo) {
+            final Long key = sectionKey(cx, cy, cz);
+            final Map<Long, Section> touched = labelling.touched;
+            if (touched.size() >= MAX_COMPONENT_SECTIONS && !touched.containsKey(key)) {
+                labelling.component.open = true;
+                return null;
+            }
+
+            final Section section = sectionAt(cx, cy, cz, memo);
+            touched.put(key, section);
+            return section;
+        }
+
+        private void join(Component component, Region region, Deque<Region> frontier) {
+            if (region == null) {
+                component.open = true;
+                return;
+            }
+
+            final Component other = find(region.component);
+            if (other == component)
+                return;
+
+            if (other != null)
+                union(component, other);
+            else {
+                region.component = component;
+                frontier.add(region);
+            }
+        }
+
+        /**
+         * Labelling of one connected component that is spread over several calls.  Regions reachable through portals
+         * are labelled breadth-first, when a region already labelled with another component is reached the two
+         * components are merged.  The component is discarded if any section it touched changed before it is finished.
+         */
+        private final class Labelling {
+            final Component component = new Component();
+            final Map<Long, Section> touched = new HashMap<>();
+            final Map<Region, List<Region>> incoming = new HashMap<>();
+            final Set<Section> scanned = new HashSet<>();
+            final Deque<Region> frontier = new ArrayDeque<>();
+
+            Labelling(Region start) {
+                start.component = this.component;
+                this.frontier.add(start);
+                this.touched.put(sectionKey(start.section.cx, start.section.cy, start.section.cz), start.section);
+            }
+
+            /**
+             * Continues labelling the component
+             *
+             * @param sections maximum number of sections to build
+             * @return true if labelling has finished (or was abandoned because the component was invalidated)
+             */
+            boolean advance(int sections) {
+                final Component component = this.component;
+                final Deque<Region> frontier = this.frontier;
+                final Map<Long, Section> memo = new HashMap<>();
+                final int builds0 = Layer.this.builds;
+
+                while (!frontier.isEmpty() && Layer.this.builds - builds0 < sections) {
+                    if (find(component) == null)
+                        return true;
+
+                    final Region region = frontier.poll();
+                    if (this.scanned.add(region.section))
+                        scanIncoming(region.section, this, memo);
+
+                    for (Portal portal : region.portals) {
+                        final Coords outside = portal.outside;
+                        final Section section = boundedSectionAt(outside.x >> 4, outside.y >> 4, outside.z >> 4, this, memo);
+                        if (section != null)
+                            join(component, section.regionAt(outside.x, outside.y, outside.z), frontier);
+                    }
+
+                    final List<Region> sources = this.incoming.get(region);
+                    if (sources != null)
+                        for (Region source : sources)
+                            join(component, source, frontier);
+                }
+
+                if (!frontier.isEmpty())
+                    return false;
+
+                if (find(component) != null) {
+                    component.sections.addAll(this.touched.values());
+                    if (current())
+                        component.labelled = true;
+                    else
+                        component.valid = false;
+                }
+                return true;
+            }
+
+            private boolean current() {
+                for (Section section : this.touched.values())
+                    if (!Layer.this.current(section))
+                        return false;
+
+                return true;
+            }
+        }
+
+        private FlagSampler samplerAround(int cx, int cz) {
+            return new FlagSampler(
+                SectionGraph.this.occlusionProviderFactory.fromInstanceSpace(SectionGraph.this.instanceSpace, cx - 1, cz - 1, cx + 1, cz + 1)
+            );
+        }
+
+        private Section build(int cx, int cy, int cz, long[] revisions) {
+            final Section section = new Section(cx, cy, cz, revisions);
+            final IColumnarSpace columnarSpace = SectionGraph.this.instanceSpace.columnarSpaceAt(cx, cz);
+            if (columnarSpace == null || cy < columnarSpace.occlusionFields().minSectionIndex() || cy > columnarSpace.occlusionFields().maxSectionIndex())
+                return section;
+
+            final FlagSampler sampler = samplerAround(cx, cz);
+            final boolean[] passible = new boolean[SECTION_VOLUME];
+            final int
+                x0 = cx << 4,
+                y0 = cy << 4,
+                z0 = cz << 4;
+
+            int count = 0;
+            for (int z = z0; z < z0 + SECTION_SIZE; ++z)
+                for (int x = x0; x < x0 + SECTION_SIZE; ++x)
+                    for (int y = y0 + SECTION_MASK; y >= y0; --y) {
+                        final Node node = this.calculator.passibleNodeNear(x, y, z, null, sampler);
+                        final Coords key = node.key;
+                        if (!node.passibility().impassible(this.capabilities) && inside(key, x0, y0, z0)) {
+                            final int index = cellIndex(key.x, key.y, key.z);
+                            if (!passible[index]) {
+                                passible[index] = true;
+                                count++;
+                            }
+                        }
+
+                        if (!this.omnidirectional && key.y < y)
+                            y = key.y;
+                    }
+
+            if (count == 0)
+                return section;
+
+            final int[] parents = new int[SECTION_VOLUME];
+            for (int i = 0; i < SECTION_VOLUME; ++i)
+                parents[i] = i;
+
+            final List<int[]> crossings = new ArrayList<>();
+            final int moves = this.omnidirectional ? DX.length : 4;
+            for (int index = 0; index < SECTION_VOLUME; ++index) {
+                if (!passible[index])
+                    continue;
+
+                final Coords origin = new Coords(x0 + (index & SECTION_MASK), y0 + (index >> 8), z0 + ((index >> 4) & SECTION_MASK));
+                for (int d = 0; d < moves; ++d) {
+                    final Node node = this.calculator.passibleNodeNear(origin.x + DX[d], origin.y + DY[d], origin.z + DZ[d], origin, sampler);
+                    if (node.passibility().impassible(this.capabilities))
+                        continue;
+
+                    final Coords key = node.key;
+                    if (inside(key, x0, y0, z0)) {
+                        final int other = cellIndex(key.x, key.y, key.z);
+                        if (passible[other])
+                            union(parents, index, other);
+                    } else
+                        crossings.add(new int[] { index, key.x, key.y, key.z });
+                }
+            }
+
+            final short[] labels = new short[SECTION_VOLUME];
+            final List<Region> regions = new ArrayList<>();
+            for (int index = 0; index < SECTION_VOLUME; ++index) {
+                if (!passible[index])
+                    continue;
+
+                final int root = find(parents, index);
+                if (labels[root] == 0) {
+                    regions.add(new Region(section));
+                    labels[root] = (short)regions.size();
+                }
+                labels[index] = labels[root];
+            }
+
+            for (int[] crossing : crossings) {
+                final int index = crossing[0];
+                regions.get(labels[index] - 1).portals.add(new Portal(
+                    new Coords(x0 + (index & SECTION_MASK), y0 + (index >> 8), z0 + ((index >> 4) & SECTION_MASK)),
+                    new Coords(crossing[1], crossing[2], crossing[3])
+                ));
+            }
+
+            section.labels = labels;
+            section.regions = regions.toArray(new Region[0]);
+            return section;
+        }
+
+        private long[] revisionsAround(int cx, int cy, int cz) {
+            final long[] revisions = new long[27];
+            int i = 0;
+            for (int z = cz - 1; z <= cz + 1; ++z)
+                for (int x = cx - 1; x <= cx + 1; ++x) {
+                    final IColumnarSpace columnarSpace = SectionGraph.this.instanceSpace.columnarSpaceAt(x, z);
+                    for (int y = cy - 1; y <= cy + 1; ++y)
+                        revisions[i++] = columnarSpace == null ? 0 : columnarSpace.occlusionFields().revisionAt(y);
+                }
+
+            return revisions;
+        }
+    }
+
+    private static boolean inside(Coords key, int x0, int y0, int z0) {
+        return
+            key.x >= x0 && key.x < x0 + SECTION_SIZE &&
+            key.y >= y0 && key.y < y0 + SECTION_SIZE &&
+            key.z >= z0 && key.z < z0 + SECTION_SIZE;
+    }
+
+    private static void union(Component a, Component b) {
+        a.open |= b.open;
+        a.sections.addAll(b.sections);
+        b.sections.clear();
+        b.parent = a;
+    }
+
+    private static int find(int[] parents, int index) {
+        while (parents[index] != index)
+            index = parents[index] = parents[parents[index]];
+
+        return index;
+    }
+
+    private static void union(int[] parents, int a, int b) {
+        final int
+            ra = find(parents, a),
+            rb = find(parents, b);
+
+        if (ra != rb)
+            parents[Math.max(ra, rb)] = Math.min(ra, rb);
+    }
+
+    private static final class Section {
+        final int cx, cy, cz;
+        final long[] revisions;
+        short[] labels;
+        Region[] regions;
+
+        Section(int cx, int cy, int cz, long[] revisions) {
+            this.cx = cx;
+            this.cy = cy;
+            this.cz = cz;
+            this.revisions = revisions;
+        }
+
+        Region regionAt(int x, int y, int z) {
+            final short[] labels = this.labels;
+            if (labels == null)
+                return null;
+
+            final short label = labels[cellIndex(x, y, z)];
+            return label == 0 ? null : this.regions[label - 1];
+        }
+
+        void invalidateComponents() {
+            final Region[] regions = this.regions;
+            if (regions == null)
+                return;
+
+            for (Region region : regions) {
+                final Component component = find(region.component);
+                if (component != null)
+                    component.valid = false;
+            }
+        }
+    }
+
+    private static final class Region {
+        final Section section;
+        final List<Portal> portals = new ArrayList<>();
+        Component component;
+
+        Region(Section section) {
+            this.section = section;
+        }
+    }
+
+    /**
+     * A connected component of regions, components are merged by linking one to the other, so only the root of a
+     * component is authoritative.  The root also collects the sections touched while labelling the component.
+     */
+    private static final class Component {
+        final Set<Section> sections = new HashSet<>();
+        Component parent = this;
+        boolean open, labelled, valid = true;
+
+        boolean conclusive() {
+            return this.valid && this.labelled && !this.open;
+        }
+    }
+
+    private static final class Portal {
+        final Coords inside, outside;
+
+        Portal(Coords inside, Coords outside) {
+            this.inside = inside;
+            this.outside = outside;
+        }
+    }
+
+    private static final class Visit implements Comparable<Visit> {
+        final Region region;
+        final Coords entry;
+        final double cost, estimate;
+        final Visit previous;
+
+        Visit(Region region, Coords entry, double cost, double estimate, Visit previous) {
+            this.region = region;
+            this.entry = entry;
+            this.cost = cost;
+            this.estimate = estimate;
+            this.previous = previous;
+        }
+
+        @Override
+        public int compareTo(Visit other) {
+            return Double.compare(this.estimate, other.estimate);
+        }
+    }
+}
@@ -3,6 +3,15 @@ package com.extollit.gaming.ai.path.model;
 public class AreaOcclusionProvider implements IOcclusionProvider {
     private final IColumnarSpace[][] columnarSpaces;
 
+    private static final int
+            EXTENT = OcclusionField.DIMENSION_EXTENT,
+            MIDDLE = OcclusionField.DIMENSION_SIZE >> 1;
+
+    private static final int[][] BORDERS = {
+            { 0, 0 }, { EXTENT, 0 }, { 0, EXTENT }, { EXTENT, EXTENT },
+            { 0, MIDDLE }, { EXTENT, MIDDLE }, { MIDDLE, 0 }, { MIDDLE, EXTENT }
+    };
+
     private final int cx0, cz0, cxN, czN;
 
     public AreaOcclusionProvider(IColumnarSpace[][] columnarSpaces, int cx0, int cz0) {
@@ -21,14 +30,14 @@ public class AreaOcclusionProvider implements IOcclusionProvider {
             cz = z >> 4,
             cy = y >> 4;
 
-        if (cx >= cx0 && cx <= cxN && cz >= cz0 && cz <= czN && cy >= 0 && cy < OcclusionField.DIMENSION_SIZE) {
+        if (cx >= cx0 && cx <= cxN && cz >= cz0 && cz <= czN) {
             final int
 
                 czz = cz - cz0,
                 cxx = cx - cx0;
 
             final IColumnarSpace columnarSpace = columnarSpaces[czz][cxx];
-            if (columnarSpace != null) {
+            if (columnarSpace != null && contains(columnarSpace, cy)) {
                 final OcclusionField field = columnarSpace.occlusionFields().occlusionFieldAt(cx, cy, cz);
 
                 if (!field.areaInitFull())
@@ -41,6 +50,52 @@ public class AreaOcclusionProvider implements IOcclusionProvider {
         return 0;
     }
 
+    @Override
+    public long rowAt(int x, int y, int z) {
+        final int
+            cx = x >> 4,
+            cz = z >> 4,
+            cy = y >> 4;
+
+        if (cx >= cx0 && cx <= cxN && cz >= cz0 && cz <= czN) {
+            final IColumnarSpace columnarSpace = this.columnarSpaces[cz - cz0][cx - cx0];
+            if (columnarSpace != null && contains(columnarSpace, cy)) {
+                final OcclusionField field = columnarSpace.occlusionFields().occlusionFieldAt(cx, cy, cz);
+
+                if (!field.areaInitFull())
+                    return IOcclusionProvider.super.rowAt(x, y, z);
+
+                return field.rowAt(x & OcclusionField.DIMENSION_MASK, y & OcclusionField.DIMENSION_MASK, z & OcclusionField.DIMENSION_MASK);
+            }
+        }
+
+        return 0;
+    }
+
+    OcclusionField areaInitFieldAt(int cx, int cy, int cz) {
+        if (cx < cx0 || cx > cxN || cz < cz0 || cz > czN)
+            return null;
+
+        final IColumnarSpace columnarSpace = this.columnarSpaces[cz - cz0][cx - cx0];
+        if (columnarSpace == null || !contains(columnarSpace, cy))
+            return null;
+
+        final OcclusionField field = columnarSpace.occlusionFields().occlusionFieldAt(cx, cy, cz);
+        final int
+                x0 = cx << 4,
+                y0 = cy << 4,
+                z0 = cz << 4;
+
+        for (int[] border : BORDERS)
+            if (!field.areaInitFull())
+                areaInit(field, x0 + border[0], y0, z0 + border[1]);
+
+        if (!field.areaInitFull())
+            areaInit(field, x0 + MIDDLE, y0 + EXTENT, z0 + MIDDLE);
+
+        return field;
+    }
+
     private void areaInit(OcclusionField field, int x, int y, int z) {
         final IColumnarSpace[][] columnarSpaces = this.columnarSpaces;
         final int
@@ -127,12 +182,17 @@ public class AreaOcclusionProvider implements IOcclusionProvider {
         }
 
         if (yy == OcclusionField.DIMENSION_EXTENT && !field.areaInitAt(OcclusionField.AreaInit.up)) {
-            field.areaInitUp(centerColumnarSpace, cy, cy < OcclusionField.DIMENSION_EXTENT ? centerColumnarSpace.occlusionFields().occlusionFieldAt(cx, cy + 1, cz) : null);
+            field.areaInitUp(centerColumnarSpace, cy, cy < centerColumnarSpace.occlusionFields().maxSectionIndex() ? centerColumnarSpace.occlusionFields().occlusionFieldAt(cx, cy + 1, cz) : null);
         } else if (yy == 0 && !field.areaInitAt(OcclusionField.AreaInit.down)) {
-            field.areaInitDown(centerColumnarSpace, cy, cy > 0 ? centerColumnarSpace.occlusionFields().occlusionFieldAt(cx, cy - 1, cz) : null);
+            field.areaInitDown(centerColumnarSpace, cy, cy > centerColumnarSpace.occlusionFields().minSectionIndex() ? centerColumnarSpace.occlusionFields().occlusionFieldAt(cx, cy - 1, cz) : null);
         }
     }
 
+    private static boolean contains(IColumnarSpace columnarSpace, int cy) {
+        final ColumnarOcclusionFieldList fieldList = columnarSpace.occlusionFields();
+        return cy >= fieldList.minSectionIndex() && cy <= fieldList.maxSectionIndex();
+    }
+
     @Override
     public String visualizeAt(int y) {
         return OcclusionField.visualizeAt(this, y, cx0 << 4, cz0 << 4, (cxN + 1) << 4, (czN + 1) << 4);
@@ -0,0 +1,238 @@
+package com.extollit.gaming.ai.path.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Two-level bucket queue of open nodes for the A* triage.  Since there are only four levels of passibility and the
+ * journey of a node is a byte, nodes are distributed among 1024 buckets keyed by (passibility, journey) and an
+ * occupancy bitmap is used to locate the best non-empty bucket.  This makes push, pop and re-prioritization constant
+ * time operations rather than logarithmic as they are in the binary heap of {@link SortedPointQueue}.
+ *
+ * The journey of a node is treated as unsigned (0..254) here.  When the heuristic is inflated the priority of a node
+ * (see {@link #priority(Node)}) is divided by the heuristic weight to fit the same buckets, which preserves the order
+ * of nodes at the cost of some more ties.  Nodes in the same bucket are dequeued in last-in first-out order.  The index of an assigned node is its position within its bucket, so a single bucket
+ * can hold at most {@link Node#MAX_INDICES} nodes, when a bucket is full the worst nodes in the queue are culled to
+ * make room, the same as the binary heap does when it is full.
+ */
+public final class BucketPointQueue extends SortedPointQueue {
+    private static final int
+        JOURNEY_BUCKETS = 1 << 8,
+        BUCKET_COUNT = 4 * JOURNEY_BUCKETS,
+        BUCKET_CAPACITY = Node.MAX_INDICES;
+
+    private final Node[][] buckets = new Node[BUCKET_COUNT][];
+    private final int[] counts = new int[BUCKET_COUNT];
+    private final long[] occupancy = new long[BUCKET_COUNT >> 6];
+
+    private int size;
+
+    private int bucketOf(Passibility passibility, int priority) {
+        final float weight = heuristicWeight();
+        final int journey = weight == 1 ? priority : Math.min(JOURNEY_BUCKETS - 1, (int)(priority / weight));
+        return (passibility.ordinal() << 8) | journey;
+    }
+
+    private int bucketOf(Node point) {
+        return bucketOf(point.passibility(), priority(point));
+    }
+
+    @Override
+    boolean fastAdd(Node point) {
+        final int bucket = bucketOf(point);
+        final int count = this.counts[bucket];
+        if (count >= BUCKET_CAPACITY || !point.index(count))
+            return false;
+
+        Node[] nodes = this.buckets[bucket];
+        if (nodes == null)
+            nodes = this.buckets[bucket] = new Node[8];
+        else if (count == nodes.length) {
+            final Node[] grown = new Node[Math.min(count << 1, BUCKET_CAPACITY)];
+            System.arraycopy(nodes, 0, grown, 0, count);
+            nodes = this.buckets[bucket] = grown;
+        }
+
+        nodes[count] = point;
+        this.counts[bucket] = count + 1;
+        this.occupancy[bucket >> 6] |= 1L << bucket;
+        this.size++;
+        return true;
+    }
+
+    private void removeAt(int bucket, int index) {
+        final Node[] nodes = this.buckets[bucket];
+        final int last = --this.counts[bucket];
+
+        if (index != last) {
+            final Node moved = nodes[last];
+            nodes[index] = moved;
+            moved.index(index);
+        }
+        nodes[last] = null;
+
+        if (last == 0)
+            this.occupancy[bucket >> 6] &= ~(1L << bucket);
+
+        this.size--;
+    }
+
+    private int firstBucket() {
+        final long[] occupancy = this.occupancy;
+        for (int i = 0; i < occupancy.length; ++i) {
+            final long word = occupancy[i];
+            if (word != 0)
+                return (i << 6) | Long.numberOfTrailingZeros(word);
+        }
+
+        throw new IndexOutOfBoundsException("Queue is empty");
+    }
+
+    private int lastBucket() {
+        final long[] occupancy = this.occupancy;
+        for (int i = occupancy.length - 1; i >= 0; --i) {
+            final long word = occupancy[i];
+            if (word != 0)
+                return (i << 6) | (63 - Long.numberOfLeadingZeros(word));
+        }
+
+        return -1;
+    }
+
+    private int bucketContaining(Node point, int priority0) {
+        final int index = point.index();
+        final Passibility[] passibilities = Passibility.values();
+
+        for (int c = -1; c < passibilities.length; ++c) {
+            final int bucket = bucketOf(c < 0 ? point.passibility() : passibilities[c], priority0);
+            if (index < this.counts[bucket] && this.buckets[bucket][index] == point)
+                return bucket;
+        }
+
+        for (int bucket = 0; bucket < BUCKET_COUNT; ++bucket)
+            if (index < this.counts[bucket] && this.buckets[bucket][index] == point)
+                return bucket;
+
+        throw new IllegalStateException("Point is assigned but not in this queue: " + point);
+    }
+
+    @Override
+    void reposition(Node point, int priority0) {
+        final int
+            bucket = bucketContaining(point, priority0),
+            target = bucketOf(point);
+
+        if (bucket == target)
+            return;
+
+        removeAt(bucket, point.index());
+        point.unassign();
+        add(point);
+    }
+
+    @Override
+    void cull(int amount) {
+        while (amount > 0 && this.size > 0) {
+            final int bucket = lastBucket();
+            final Node point = this.buckets[bucket][this.counts[bucket] - 1];
+            removeAt(bucket, this.counts[bucket] - 1);
+            point.unassign();
+            amount--;
+        }
+    }
+
+    @Override
+    public void clear() {
+        final long[] occupancy = this.occupancy;
+        for (int i = 0; i < occupancy.length; ++i) {
+            long word = occupancy[i];
+            while (word != 0) {
+                final int bucket = (i << 6) | Long.numberOfTrailingZeros(word);
+                final Node[] nodes = this.buckets[bucket];
+                for (int c = this.counts[bucket] - 1; c >= 0; --c) {
+                    nodes[c].unassign();
+                    nodes[c] = null;
+                }
+                this.counts[bucket] = 0;
+                word &= word - 1;
+            }
+            occupancy[i] = 0;
+        }
+        this.size = 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public Node top() {
+        final int bucket = firstBucket();
+        return this.buckets[bucket][this.counts[bucket] - 1];
+    }
+
+    @Override
+    public Node dequeue() {
+        final int bucket = firstBucket();
+        final int index = this.counts[bucket] - 1;
+        final Node point = this.buckets[bucket][index];
+        removeAt(bucket, index);
+        point.unassign();
+        return point;
+    }
+
+    @Override
+    public List<Node> view() {
+        final List<Node> list = new ArrayList<>(this.size);
+        drainTo(list, false);
+        return Collections.unmodifiableList(list);
+    }
+
+    private void drainTo(List<Node> list, boolean remove) {
+        final long[] occupancy = this.occupancy;
+        for (int i = 0; i < occupancy.length; ++i) {
+            long word = occupancy[i];
+            while (word != 0) {
+                final int bucket = (i << 6) | Long.numberOfTrailingZeros(word);
+                final Node[] nodes = this.buckets[bucket];
+                for (int c = this.counts[bucket] - 1; c >= 0; --c) {
+                    list.add(nodes[c]);
+                    if (remove)
+                        nodes[c] = null;
+                }
+                if (remove)
+                    this.counts[bucket] = 0;
+                word &= word - 1;
+            }
+            if (remove)
+                occupancy[i] = 0;
+        }
+        if (remove)
+            this.size = 0;
+    }
+
+    @Override
+    List<Node> members() {
+        final List<Node> list = this.list;
+        list.clear();
+        drainTo(list, true);
+        return list;
+    }
+
+    @Override
+    void restore() {
+        final List<Node> list = this.list;
+        for (Node point : list) {
+            point.unassign();
+            add(point);
+        }
+        list.clear();
+    }
+}
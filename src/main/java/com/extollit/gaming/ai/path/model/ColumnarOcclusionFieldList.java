@@ -1,7 +1,9 @@
 package com.extollit.gaming.ai.path.model;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A one-dimensional store for occlusion fields aligned along the y-axis distributed according to chunk coordinates.
@@ -21,12 +23,16 @@ public class ColumnarOcclusionFieldList {
      */
     public final IColumnarSpace container;
 
-    private final int maxHeight;
-    private final int minHeight;
-
     private static final int DEFAULT_MAX_HEIGHT = 320;
     private static final int DEFAULT_MIN_HEIGHT = -64;
-    private final Map<Integer, OcclusionField> fields = new HashMap<>();
+    private static final AtomicLong REVISIONS = new AtomicLong();
+    private static final VarHandle
+            FIELDS = MethodHandles.arrayElementVarHandle(OcclusionField[].class),
+            REVISION = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int minChunkIndex;
+    private final OcclusionField[] fields;
+    private final long[] revisions;
 
     /**
      * Construct a new object bound to the specified columnar space container, this is what {@link #container} will be
@@ -35,15 +41,44 @@ public class ColumnarOcclusionFieldList {
      * @param container columnar space that owns this object
      */
     public ColumnarOcclusionFieldList(IColumnarSpace container) {
-        this.container = container;
-        this.minHeight = DEFAULT_MIN_HEIGHT;
-        this.maxHeight = DEFAULT_MAX_HEIGHT;
+        this(container, DEFAULT_MIN_HEIGHT, DEFAULT_MAX_HEIGHT);
     }
 
+    /**
+     * Construct a new object bound to the specified columnar space container that stores the sections spanning the
+     * specified range of heights.  All columnar spaces of an instance space should span the same heights since
+     * neighboring sections are stitched together.
+     *
+     * @param container columnar space that owns this object
+     * @param minY lowest y-coordinate of the columnar space (inclusive)
+     * @param maxY highest y-coordinate of the columnar space (exclusive)
+     */
     public ColumnarOcclusionFieldList(IColumnarSpace container, int minY, int maxY) {
         this.container = container;
-        this.minHeight = minY;
-        this.maxHeight = maxY;
+        this.minChunkIndex = Math.floorDiv(minY, 16);
+
+        final int sections = Math.floorDiv(maxY - 1, 16) - this.minChunkIndex + 1;
+        this.fields = new OcclusionField[sections];
+        this.revisions = new long[sections];
+        Arrays.fill(this.revisions, REVISIONS.incrementAndGet());
+    }
+
+    /**
+     * Retrieves the y-chunk index of the lowest section that this object stores an occlusion field for
+     *
+     * @return lowest y-chunk index (inclusive)
+     */
+    public int minSectionIndex() {
+        return this.minChunkIndex;
+    }
+
+    /**
+     * Retrieves the y-chunk index of the highest section that this object stores an occlusion field for
+     *
+     * @return highest y-chunk index (inclusive)
+     */
+    public int maxSectionIndex() {
+        return this.minChunkIndex + this.fields.length - 1;
     }
 
     /**
@@ -53,7 +88,13 @@ public class ColumnarOcclusionFieldList {
      */
     @SuppressWarnings("unused")
     public void reset() {
-        this.fields.clear();
+        // Revisions change before the fields are discarded so that a concurrent publish(...) cannot miss the reset
+        final long revision = REVISIONS.incrementAndGet();
+        for (int i = 0; i < this.revisions.length; ++i)
+            REVISION.setVolatile(this.revisions, i, revision);
+
+        for (int i = 0; i < this.fields.length; ++i)
+            FIELDS.setVolatile(this.fields, i, (OcclusionField)null);
     }
 
     /**
@@ -72,38 +113,89 @@ public class ColumnarOcclusionFieldList {
      */
     @SuppressWarnings("unused")
     public void onBlockChanged(int x, int y, int z, IBlockDescription description, int metaData) {
-        int cy = y >> 4; // Determine the Y-chunk index
-        OcclusionField field = fields.get(cy);
+        final int chunkIndex = (y >> 4) - this.minChunkIndex;
+        if (chunkIndex < 0 || chunkIndex >= revisions.length)
+            return;
+
+        REVISION.setVolatile(this.revisions, chunkIndex, REVISIONS.incrementAndGet());
+
+        final OcclusionField field = (OcclusionField) FIELDS.getVolatile(this.fields, chunkIndex);
         if (field != null) {
             field.set(this.container, x, y, z, description); // Update the occlusion field
         }
     }
 
+    /**
+     * Retrieves the revision of the section at the specified y-chunk index.  The revision changes whenever a block in the
+     * section changes or this object is reset, so caches derived from a section may record its revision and compare it
+     * later to detect that they are stale.  Revisions are unique across all objects of this class, so a cache cannot be
+     * fooled by a columnar space that was unloaded and reloaded.
+     *
+     * @param cy y-chunk index of the section
+     * @return current revision of the section, zero if the index is out of bounds
+     */
+    public long revisionAt(int cy) {
+        final int chunkIndex = cy - this.minChunkIndex;
+        if (chunkIndex < 0 || chunkIndex >= revisions.length)
+            return 0;
+
+        return (long) REVISION.getVolatile(this.revisions, chunkIndex);
+    }
+
+    /**
+     * Retrieves the occlusion field of the section at the specified y-chunk index, lazily creating and loading it if
+     * necessary.  This may be called concurrently, if two threads race to create the same section then both load it
+     * but only one field is kept and returned to both of them.
+     */
     public OcclusionField occlusionFieldAt(int cx, int cy, int cz) {
-        int minChunkIndex = Math.floorDiv(minHeight, 16);
-        int maxChunkIndex = Math.floorDiv(maxHeight - 1, 16);
+        final int chunkIndex = cy - this.minChunkIndex;
+        final OcclusionField[] fields = this.fields;
 
-        // Validate cy
-        if (cy < minChunkIndex || cy > maxChunkIndex) {
+        if (chunkIndex < 0 || chunkIndex >= fields.length)
             throw new IndexOutOfBoundsException("Chunk index out of bounds: cy=" + cy);
-        }
 
-        int chunkIndex = cy - minChunkIndex;
+        final OcclusionField field = (OcclusionField) FIELDS.getAcquire(fields, chunkIndex);
+        if (field != null)
+            return field;
 
-        // Retrieve or create field
-        return fields.computeIfAbsent(chunkIndex, idx -> createOcclusionField(cx, cy, cz));
+        final OcclusionField
+            created = createOcclusionField(cx, cy, cz),
+            witness = (OcclusionField) FIELDS.compareAndExchange(fields, chunkIndex, (OcclusionField)null, created);
+
+        return witness != null ? witness : created;
     }
 
     public OcclusionField optOcclusionFieldAt(int cy) {
-        int minChunkIndex = Math.floorDiv(minHeight, 16);
-        int maxChunkIndex = Math.floorDiv(maxHeight - 1, 16);
+        final int chunkIndex = cy - this.minChunkIndex;
+        final OcclusionField[] fields = this.fields;
 
-        if (cy < minChunkIndex || cy > maxChunkIndex) {
-            return null; // Out-of-bounds
-        }
+        if (chunkIndex < 0 || chunkIndex >= fields.length)
+            return null;
+
+        return (OcclusionField) FIELDS.getAcquire(fields, chunkIndex);
+    }
+
+    /**
+     * Publishes an occlusion field that was built off the thread that owns the columnar space in place of the field
+     * expected at the specified y-chunk index.  The caller must verify the revisions of every section the field was
+     * built from after this returns, and withdraw the field if any of them changed, since block changes that occurred
+     * before publication were not applied to it.
+     *
+     * @return true if the expected field was replaced by the specified field
+     * @see #withdraw(int, OcclusionField)
+     */
+    boolean publish(int cy, OcclusionField expected, OcclusionField field) {
+        final int chunkIndex = cy - this.minChunkIndex;
+        return chunkIndex >= 0 && chunkIndex < this.fields.length && FIELDS.compareAndSet(this.fields, chunkIndex, expected, field);
+    }
 
-        int chunkIndex = cy - minChunkIndex;
-        return fields.get(chunkIndex);
+    /**
+     * Withdraws an occlusion field that was published, it will be lazily re-created on demand
+     */
+    void withdraw(int cy, OcclusionField field) {
+        final int chunkIndex = cy - this.minChunkIndex;
+        if (chunkIndex >= 0 && chunkIndex < this.fields.length)
+            FIELDS.compareAndSet(this.fields, chunkIndex, field, (OcclusionField)null);
     }
 
     public static OcclusionField optOcclusionFieldAt(IInstanceSpace instance, int cx, int cy, int cz) {
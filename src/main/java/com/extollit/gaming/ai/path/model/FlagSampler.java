@@ -1,13 +1,24 @@
 package com.extollit.gaming.ai.path.model;
 
 public class FlagSampler {
-    private final IOcclusionProvider op;
+    private IOcclusionProvider op;
+    private NodePool pool;
     private int volatileCount;
 
     public FlagSampler(IOcclusionProvider op) {
         this.op = op;
     }
 
+    FlagSampler(NodePool pool) {
+        this.pool = pool;
+    }
+
+    FlagSampler reset(IOcclusionProvider op) {
+        this.op = op;
+        this.volatileCount = 0;
+        return this;
+    }
+
     public byte flagsAt(int x, int y, int z) {
         byte flags = this.op.elementAt(x, y, z);
         if (volatileIn(flags))
@@ -20,4 +31,34 @@ public class FlagSampler {
     }
 
     public int volatility() { return this.volatileCount; }
+
+    /**
+     * Obtains a grounded node for the result of a sample, this may be a recycled instance when the sampler belongs to a
+     * node map.
+     *
+     * @see #node(int, int, int, Passibility, boolean, Gravitation)
+     */
+    public Node node(int x, int y, int z, Passibility passibility, boolean volatility) {
+        return node(x, y, z, passibility, volatility, Gravitation.grounded);
+    }
+
+    /**
+     * Obtains a node for the result of a sample, this may be a recycled instance when the sampler belongs to a node map.
+     * Node calculators should obtain the nodes they return from here rather than constructing them directly.
+     *
+     * @param x x-coordinate of the node
+     * @param y y-coordinate of the node
+     * @param z z-coordinate of the node
+     * @param passibility initial passibility of the node
+     * @param volatility whether the node is volatile
+     * @param gravitation initial gravitation of the node
+     * @return an unlinked and unassigned node at the specified coordinates
+     */
+    public Node node(int x, int y, int z, Passibility passibility, boolean volatility, Gravitation gravitation) {
+        final NodePool pool = this.pool;
+        if (pool == null)
+            return new Node(x, y, z, passibility, volatility, gravitation);
+
+        return pool.acquire(x, y, z, passibility, volatility, gravitation);
+    }
 }
@@ -21,6 +21,16 @@ public enum Gravitation {
 
     private static final Gravitation[] VALUES = values();
 
+    /**
+     * Retrieves the gravitation rating with the specified ordinal without copying the values array
+     *
+     * @param index ordinal of the gravitation rating
+     * @return the gravitation rating with the specified ordinal
+     */
+    public static Gravitation of(int index) {
+        return VALUES[index];
+    }
+
     /**
      * Determines the greatest gravitation restriction between this and the passed parameter.  For example, if
      * this is {@link #buoyant} and the parameter is {@link #grounded} then the result is <em>grounded</em>.  Also,
@@ -0,0 +1,19 @@
+package com.extollit.gaming.ai.path.model;
+
+/**
+ * Provides a lower bound of the path distance between two locations which is used to inform the A* triage beyond
+ * the straight-line distance, e.g. around walls or through mazes where the straight-line distance is badly
+ * uninformed.  The bound is measured in the same units as {@link Node#length()}.
+ *
+ * @see SortedPointQueue#distanceBound(IDistanceBound)
+ */
+public interface IDistanceBound {
+    /**
+     * Computes a lower bound of the length of any path from one location to another
+     *
+     * @param from coordinates of the node the path starts at
+     * @param to coordinates of the node the path ends at
+     * @return a lower bound of the path length, or zero if no bound is known
+     */
+    int distanceBound(Coords from, Coords to);
+}
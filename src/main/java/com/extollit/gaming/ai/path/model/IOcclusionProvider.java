@@ -25,6 +25,28 @@ public interface IOcclusionProvider {
      */
     byte elementAt(int x, int y, int z);
 
+    /**
+     * Returns the nibbles of the sixteen blocks in the x-aligned row containing the specified coordinates packed into a
+     * single word.  The row starts at the x-coordinate rounded down to a multiple of sixteen and the nibble of each
+     * block is at bit offset <code>(x &amp; 15) * 4</code>, which is the same layout {@link OcclusionField} uses
+     * internally.  This permits testing a run of blocks with a few bitwise operations.
+     *
+     * The default implementation composes the word from {@link #elementAt(int, int, int)}, implementations backed by
+     * occlusion fields should override it to return the word directly.
+     *
+     * @param x absolute (relative to the instance) x-coordinate of any block in the row
+     * @param y absolute (relative to the instance) y-coordinate
+     * @param z absolute (relative to the instance) z-coordinate
+     * @return sixteen nibbles describing the blocks in the row, see {@link #elementAt(int, int, int)}
+     */
+    default long rowAt(int x, int y, int z) {
+        final int x0 = x & ~OcclusionField.DIMENSION_MASK;
+        long row = 0;
+        for (int dx = OcclusionField.DIMENSION_EXTENT; dx >= 0; --dx)
+            row = (row << 4) | (elementAt(x0 + dx, y, z) & 0xF);
+        return row;
+    }
+
     /**
      * Provides a visualization of an x/z plane of the occlusion field at the specified y coordinate using ASCII art.
      *
@@ -124,4 +124,15 @@ public interface IPath extends Iterable<INode> {
      * @see IPathingEntity#moveTo(Vec3d, Passibility, Gravitation)
      */
     void update(IPathingEntity pathingEntity);
+
+    /**
+     * Which of the destinations of a multi-goal search this path leads to.
+     *
+     * @return index of the destination in the collection that path-finding was initiated with, or -1 if this path was
+     *          not computed by a multi-goal search or does not (yet) lead to any of its destinations
+     * @see com.extollit.gaming.ai.path.HydrazinePathFinder#initiatePathTo(java.util.Collection, com.extollit.gaming.ai.path.PathOptions)
+     */
+    default int goal() {
+        return -1;
+    }
 }
@@ -0,0 +1,35 @@
+package com.extollit.gaming.ai.path.model;
+
+/**
+ * Optional bulk view of the blocks of a columnar space.  Most engines store each 16x16x16 section of a column as a
+ * palette of distinct blocks and a packed array of palette indices, so an implementation of {@link IColumnarSpace}
+ * that also implements this interface lets occlusion fields be loaded from that representation directly.  The flags of
+ * each palette entry are then computed once per section rather than once per block, and the section is filled in a
+ * tight loop without calling {@link IColumnarSpace#blockAt(int, int, int)} for every block.
+ *
+ * Implementing this interface is entirely optional, the engine falls back to
+ * {@link IColumnarSpace#blockAt(int, int, int)} for columnar spaces that do not implement it and for sections whose
+ * palette is not available.
+ *
+ * @see OcclusionField#loadFrom(IColumnarSpace, int, int, int)
+ */
+public interface ISectionSource {
+    /**
+     * Retrieves the palette of the section at the specified y-chunk index, which is the list of distinct blocks referred
+     * to by {@link #paletteIndicesAt(int, int[])}.  The palette may contain blocks that do not occur in the section.
+     *
+     * @param cy y-chunk index of the section
+     * @return basic descriptions of the blocks in the section, or null if the section is not available in bulk form
+     */
+    IBlockDescription[] paletteAt(int cy);
+
+    /**
+     * Copies the palette index of every block in the section at the specified y-chunk index into an array.  The index
+     * of the block at relative coordinates (x, y, z) in the section is stored at <code>(y &lt;&lt; 8) | (z &lt;&lt; 4) | x</code>.
+     * This is only called after {@link #paletteAt(int)} returned a palette for the same section.
+     *
+     * @param cy y-chunk index of the section
+     * @param indices array of 4096 elements to copy the palette indices into
+     */
+    void paletteIndicesAt(int cy, int[] indices);
+}
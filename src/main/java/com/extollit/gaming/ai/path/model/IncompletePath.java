@@ -7,6 +7,7 @@ public final class IncompletePath implements IPath {
     final INode node;
 
     private boolean truncated;
+    int goal = -1;
 
     public IncompletePath(INode node) {
         this(node, false);
@@ -89,6 +90,11 @@ public final class IncompletePath implements IPath {
     @Override
     public void update(IPathingEntity pathingEntity) {}
 
+    @Override
+    public int goal() {
+        return this.goal;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -6,8 +6,11 @@ import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.text.MessageFormat;
+import java.util.ArrayDeque;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.Objects;
+import java.util.Set;
 
 public class Node implements INode {
     private static final byte
@@ -21,7 +24,8 @@ public class Node implements INode {
         Remain_BitOffs = (byte)(Length_BitOffs + BitWidth_128),
         Visited_BitOffs = (byte)(Remain_BitOffs + BitWidth_128),
         Gravitation_BitOffs = (byte)(Visited_BitOffs + 1),
-        LengthDirty_BitOffs = (byte)(Gravitation_BitOffs + 2);
+        LengthDirty_BitOffs = (byte)(Gravitation_BitOffs + 2),
+        Pinned_BitOffs = (byte)(LengthDirty_BitOffs + 1);
 
     public static final short MAX_PATH_DISTANCE = (1 << BitWidth_128) - 1;
 
@@ -35,7 +39,7 @@ public class Node implements INode {
 
     private int word;
     private Node previous;
-    private NodeLinkedList children;
+    private NodeLinkedList children, link;
 
     Node(Coords key) {
         this.key = key;
@@ -50,7 +54,7 @@ public class Node implements INode {
     }
     Node(Coords key, Passibility passibility, boolean volatility, Gravitation gravitation) {
         this.key = key;
-        this.word = (Mask_512 << Index_BitOffs) | ((gravitation.ordinal() & Mask_Gravitation) << Gravitation_BitOffs) | (passibility.ordinal() & Mask_Passibility) | ((volatility ? 1 : 0) << Volatile_BitOffs);
+        this.word = initialWord(passibility, volatility, gravitation);
     }
 
     public Node(int x, int y, int z) {
@@ -71,8 +75,12 @@ public class Node implements INode {
     @Override
     public Coords coordinates() { return this.key; }
 
+    private static int initialWord(Passibility passibility, boolean volatility, Gravitation gravitation) {
+        return (Mask_512 << Index_BitOffs) | ((gravitation.ordinal() & Mask_Gravitation) << Gravitation_BitOffs) | (passibility.ordinal() & Mask_Passibility) | ((volatility ? 1 : 0) << Volatile_BitOffs);
+    }
+
     private static int wordReset(Node copy) {
-        return (copy.word & (Mask_Passibility | (1 << Volatile_BitOffs) | (Mask_Gravitation << Gravitation_BitOffs))) | ((Mask_512 << Index_BitOffs) | (1 << LengthDirty_BitOffs));
+        return (copy.word & (Mask_Passibility | (1 << Volatile_BitOffs) | (Mask_Gravitation << Gravitation_BitOffs) | (1 << Pinned_BitOffs))) | ((Mask_512 << Index_BitOffs) | (1 << LengthDirty_BitOffs));
     }
 
     public final byte length() {
@@ -108,7 +116,7 @@ public class Node implements INode {
     }
     @Override
     public final Gravitation gravitation() {
-        return Gravitation.values()[(this.word >> Gravitation_BitOffs) & Mask_Gravitation];
+        return Gravitation.of((this.word >> Gravitation_BitOffs) & Mask_Gravitation);
     }
     public final void gravitation(Gravitation gravitation) {
         this.word = (this.word & ~(Mask_Gravitation << Gravitation_BitOffs)) | (gravitation.ordinal() << Gravitation_BitOffs);
@@ -139,6 +147,16 @@ public class Node implements INode {
         reset();
     }
 
+    /**
+     * Reinitializes this node for reuse in a new graph generation as though it were newly constructed.  Links to
+     * other nodes are dropped without notifying them since they belong to the retired generation.
+     */
+    final void recycle(Passibility passibility, boolean volatility, Gravitation gravitation) {
+        this.word = initialWord(passibility, volatility, gravitation);
+        this.previous = null;
+        this.children = null;
+    }
+
     final short index() {
         short index = (short) ((this.word >> Index_BitOffs) & Mask_512);
         return index == Mask_512 ? -1 : index;
@@ -160,6 +178,29 @@ public class Node implements INode {
     public final void visited(boolean flag) {
         this.word = (this.word & ~(1 << Visited_BitOffs)) | ((flag ? 1 << Visited_BitOffs : 0));
     }
+    /**
+     * Whether this node may be referenced from outside of the graph that computed it (e.g. by a path), pinned nodes are
+     * never recycled by a {@link NodePool}
+     */
+    public final boolean pinned() {
+        return ((this.word >> Pinned_BitOffs) & 1) == 1;
+    }
+
+    /**
+     * Marks this node as referenced from outside of the graph that computed it until it is {@link #unpin() unpinned}
+     */
+    public final void pin() {
+        this.word |= 1 << Pinned_BitOffs;
+    }
+
+    /**
+     * Marks this node as no longer referenced from outside of the graph, so that it may be recycled once its graph
+     * generation is retired
+     */
+    public final void unpin() {
+        this.word &= ~(1 << Pinned_BitOffs);
+    }
+
     public final boolean volatile_() {
         return ((this.word >> Volatile_BitOffs) & 1) == 1;
     }
@@ -206,7 +247,8 @@ public class Node implements INode {
 
     public void sterilize() {
         if (this.children != null) {
-            for (Node child : this.children) {
+            for (NodeLinkedList e = this.children; e != null; e = e.next()) {
+                final Node child = e.self;
                 assert child.previous == this;
                 child.previous = null;
             }
@@ -216,6 +258,22 @@ public class Node implements INode {
 
     boolean infecund() { return this.children == null; }
 
+    /**
+     * Adds this node and all of its descendants to the specified set, stopping at nodes that are already contained
+     */
+    void addBranchTo(Set<Node> branch) {
+        final Deque<Node> stack = new ArrayDeque<>();
+        stack.push(this);
+        while (!stack.isEmpty()) {
+            final Node node = stack.pop();
+            if (!branch.add(node))
+                continue;
+
+            for (NodeLinkedList e = node.children; e != null; e = e.next())
+                stack.push(e.self);
+        }
+    }
+
     private void removeChild(Node child) {
         if (this.children != null)
             this.children = this.children.remove(child);
@@ -251,13 +309,24 @@ public class Node implements INode {
 
     private void addChild(Node child) {
         if (this.children == null)
-            this.children = new NodeLinkedList(child);
+            this.children = child.link().detach();
         else
-            this.children.add(child);
+            this.children.add(child.link());
 
         assert NodeLinkedList.contains(this.children, child);
     }
 
+    /**
+     * Each node is the child of at most one parent at a time, so a node owns the single list element that links it into
+     * the children of its parent.  This avoids allocating a new element each time the node is re-parented.
+     */
+    private NodeLinkedList link() {
+        if (this.link == null)
+            this.link = new NodeLinkedList(this);
+
+        return this.link;
+    }
+
     Iterable<Node> children() { return this.children == null ? Collections.<Node>emptyList() : this.children; }
 
     public static int squareDelta(Node left, Node right) {
@@ -276,7 +345,7 @@ public class Node implements INode {
          return dx*dx + dy*dy + dz*dz;
     }
 
-    private boolean cyclic(Node parent) {
+    boolean cyclic(Node parent) {
         Node p = parent;
         while (p != null)
             if (p == this || p.key.equals(this.key))
@@ -350,9 +419,9 @@ public class Node implements INode {
 
             byte count = in.readByte();
             if (count-- > 0) {
-                final NodeLinkedList children = node.children = new NodeLinkedList(in.readRef());
+                final NodeLinkedList children = node.children = in.readRef().link().detach();
                 while (count-- > 0)
-                    children.add(in.readRef());
+                    children.add(in.readRef().link());
             }
         }
 
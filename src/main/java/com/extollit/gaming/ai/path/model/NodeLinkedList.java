@@ -15,6 +15,15 @@ public final class NodeLinkedList implements Iterable<Node> {
         this.self = self;
     }
 
+    NodeLinkedList next() {
+        return this.next;
+    }
+
+    NodeLinkedList detach() {
+        this.next = null;
+        return this;
+    }
+
     public int size() {
         NodeLinkedList curr = this;
         int count = 0;
@@ -82,6 +91,7 @@ public final class NodeLinkedList implements Iterable<Node> {
                 else
                     last.next = tail;
 
+                e.next = null;
                 return head;
             }
             last = e;
@@ -92,20 +102,43 @@ public final class NodeLinkedList implements Iterable<Node> {
     }
 
     public boolean add(Node child) {
+        final NodeLinkedList last = tailUnless(child);
+        if (last == null)
+            return false;
+
+        last.next = new NodeLinkedList(child);
+        return true;
+    }
+
+    /**
+     * Appends an existing single element to the end of this list unless its node is already a member.  The element
+     * must not be a member of any other list.
+     *
+     * @param element the element to append, its successor is discarded
+     * @return true if the element was appended, false if its node is already a member of this list
+     */
+    boolean add(NodeLinkedList element) {
+        final NodeLinkedList last = tailUnless(element.self);
+        if (last == null)
+            return false;
+
+        last.next = element.detach();
+        return true;
+    }
+
+    private NodeLinkedList tailUnless(Node child) {
         NodeLinkedList
             e = this,
             last;
 
         do {
             if (e.self == child)
-                return false;
+                return null;
 
             last = e;
         } while ((e = e.next) != null);
 
-        last.next = new NodeLinkedList(child);
-
-        return true;
+        return last;
     }
 
     public static boolean contains(NodeLinkedList list, Node other) {
@@ -5,10 +5,18 @@ import com.extollit.gaming.ai.path.persistence.internal.*;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
 
 public final class NodeMap {
-    private final SparseSpatialMap<Node> it = new SparseSpatialMap<>();
+    private final NodePool pool = new NodePool();
+    private final FlagSampler sampler = new FlagSampler(this.pool);
+    private SparseSpatialMap<Node> it = new SparseSpatialMap<>();
+    private final List<Node> pinned = new ArrayList<>();
     private final IInstanceSpace instanceSpace;
     private final IOcclusionProviderFactory occlusionProviderFactory;
 
@@ -16,6 +24,9 @@ public final class NodeMap {
     private IGraphNodeFilter filter;
     private IOcclusionProvider occlusionProvider;
     private int cx0, cxN, cz0, czN;
+    private PassibilityTable passibilityTable;
+    private PassibilityTable.Segment segment;
+    private int segmentX, segmentY, segmentZ;
 
     public NodeMap(IInstanceSpace instanceSpace, IOcclusionProviderFactory occlusionProviderFactory) {
         this(instanceSpace, null, occlusionProviderFactory);
@@ -35,6 +46,25 @@ public final class NodeMap {
         return this.filter;
     }
 
+    /**
+     * Applies a table of node calculations shared with other graphs of the same class of pathing entities, calculations
+     * are looked up in the table before computing them and computed results are stored in the table for others.  The
+     * table must only be shared by graphs whose calculator and filter produce identical results.
+     *
+     * @param passibilityTable shared table of node calculations, null to compute all nodes privately
+     */
+    public void passibilityTable(PassibilityTable passibilityTable) {
+        if (passibilityTable != this.passibilityTable) {
+            this.passibilityTable = passibilityTable;
+            this.segment = null;
+            clear();
+        }
+    }
+
+    public PassibilityTable passibilityTable() {
+        return this.passibilityTable;
+    }
+
     public void calculator(INodeCalculator calculator) {
         this.calculator = calculator;
         clear();
@@ -69,13 +99,120 @@ public final class NodeMap {
         this.it.remove(x, y, z);
     }
 
+    /**
+     * Repairs the graph following a change to blocks within the specified bounds rather than discarding all of it.
+     * Every node computed at coordinates within the bounds is discarded so that it is computed again when it is next
+     * requested.  Branches of the search tree descending from a discarded node are culled from the queue and reset,
+     * then the surviving nodes bordering the bounds that were already visited are re-opened.  This allows the search
+     * to route through passages that have opened as well as around those that have closed.  Only the coordinates within
+     * the bounds are probed, so the cost depends on the size of the bounds rather than on the size of the graph.
+     *
+     * @param queue the queue of open nodes that searches this graph
+     * @return the nodes that were discarded, nodes in this set are no longer part of this graph
+     */
+    public Set<Node> invalidate(int x0, int y0, int z0, int xN, int yN, int zN, SortedPointQueue queue) {
+        final PassibilityTable passibilityTable = this.passibilityTable;
+        if (passibilityTable != null)
+            passibilityTable.invalidate(x0, y0, z0, xN, yN, zN);
+
+        final List<Node> removed = this.it.removeInside(x0, y0, z0, xN, yN, zN);
+        if (removed.isEmpty())
+            return Collections.emptySet();
+
+        final Set<Node>
+            discarded = Collections.newSetFromMap(new IdentityHashMap<>()),
+            culled = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        discarded.addAll(removed);
+        for (Node node : discarded)
+            node.addBranchTo(culled);
+
+        queue.removeAll(culled);
+
+        final List<Node> parents = new ArrayList<>();
+        for (Node node : culled) {
+            final Node parent = node.up();
+            if (parent != null && !culled.contains(parent))
+                parents.add(parent);
+        }
+
+        for (Node node : culled) {
+            node.isolate();
+            node.reset();
+        }
+
+        for (Node parent : parents)
+            reopen(parent, queue);
+
+        final List<Node> bordering = new ArrayList<>();
+        this.it.collectInside(x0 - 1, y0 - 1, z0 - 1, xN + 1, yN + 1, zN + 1, bordering);
+        for (Node node : bordering)
+            if (!node.orphaned())
+                reopen(node, queue);
+
+        return discarded;
+    }
+
+    private static void reopen(Node node, SortedPointQueue queue) {
+        if (node.visited() && !node.assigned()) {
+            node.visited(false);
+            queue.add(node);
+        }
+    }
+
     public final void reset() {
         clear();
         this.occlusionProvider = null;
     }
 
+    /**
+     * Clears all nodes from the graph, the nodes are retained for recycling by subsequent node calculations at the
+     * same coordinates, so they must not be referenced by the caller after this call.
+     */
     public final void clear() {
-        this.it.clear();
+        this.it = this.pool.retire(this.it);
+    }
+
+    /**
+     * Pins a node so that it is not recycled when its graph generation is retired, until {@link #releasePins()} is
+     * called.  This must be called for every node that is referenced from outside of the graph (e.g. by a path).
+     *
+     * @param node node to pin
+     */
+    public void pin(Node node) {
+        if (!node.pinned()) {
+            node.pin();
+            this.pinned.add(node);
+        }
+    }
+
+    /**
+     * Pins every node of a path, including nodes beyond its truncation
+     *
+     * @param path path to pin, may be null
+     */
+    public void pin(IPath path) {
+        if (path instanceof PathObject) {
+            for (Node node : ((PathObject) path).nodes)
+                if (node != null)
+                    pin(node);
+        } else if (path instanceof IncompletePath) {
+            final INode node = ((IncompletePath) path).node;
+            if (node instanceof Node)
+                pin((Node) node);
+        }
+    }
+
+    /**
+     * Releases all nodes pinned since the last call, those that have been retired become eligible for recycling.  The
+     * caller must pin again any node it still refers to.
+     */
+    public void releasePins() {
+        final List<Node> pinned = this.pinned;
+        for (int i = 0, size = pinned.size(); i < size; ++i)
+            pinned.get(i).unpin();
+
+        pinned.clear();
     }
 
     public boolean needsOcclusionProvider() {
@@ -86,6 +223,10 @@ public final class NodeMap {
         return this.occlusionProvider.elementAt(x, y, z);
     }
 
+    public long rowAt(int x, int y, int z) {
+        return this.occlusionProvider.rowAt(x, y, z);
+    }
+
     public void updateFieldWindow(int x0, int z0, int xN, int zN, boolean cull) {
         final int
                 cx0 = x0 >> 4,
@@ -113,6 +254,15 @@ public final class NodeMap {
         }
     }
 
+    /**
+     * Determines whether this graph may have nodes within the specified bounds (inclusive)
+     *
+     * @return false if no node has been computed within the bounds since the graph was last cleared
+     */
+    public boolean explored(int x0, int y0, int z0, int xN, int yN, int zN) {
+        return this.it.intersects(x0, y0, z0, xN, yN, zN);
+    }
+
     public Collection<Node> all() {
         return this.it.values();
     }
@@ -128,8 +278,10 @@ public final class NodeMap {
         if (point == null) {
             point = passibleNodeNear(x, y, z, null);
             final Coords key = point.key;
-            if (key.x != x || key.y != y || key.z != z)
-                point = new Node(x, y, z, Passibility.impassible, false);
+            if (key.x != x || key.y != y || key.z != z) {
+                discard(point);
+                point = this.sampler.node(x, y, z, Passibility.impassible, false);
+            }
 
             this.it.put(x, y, z, point);
         }
@@ -153,6 +305,7 @@ public final class NodeMap {
             if (point.key.equals(point0.key)) {
                 point0.passibility(point.passibility());
                 point0.volatile_(point.volatile_());
+                discard(point);
                 point = point0;
             } else
                 point0.isolate();
@@ -163,8 +316,10 @@ public final class NodeMap {
             final Node existing = nodeMap.get(key.x, key.y, key.z);
             if (existing == null)
                 nodeMap.put(key.x, key.y, key.z, point);
-            else
+            else {
+                discard(point);
                 point = existing;
+            }
         }
 
         if (point != point0)
@@ -174,7 +329,25 @@ public final class NodeMap {
     }
 
     private Node passibleNodeNear(int x, int y, int z, Coords origin) {
-        final Node node = this.calculator.passibleNodeNear(x, y, z, origin, new FlagSampler(this.occlusionProvider));
+        final PassibilityTable passibilityTable = this.passibilityTable;
+        final int key = passibilityTable == null ? 0 : PassibilityTable.keyOf(x, y, z, origin);
+        PassibilityTable.Segment segment = null;
+        int revision = 0;
+
+        if (key != 0) {
+            segment = segmentAt(passibilityTable, x >> 4, y >> 4, z >> 4);
+            revision = segment.revision();
+            final int value = segment.get(key);
+            if (value != PassibilityTable.MISSING)
+                return this.sampler.node(
+                    x, PassibilityTable.yOf(value), z,
+                    PassibilityTable.passibilityOf(value),
+                    false,
+                    PassibilityTable.gravitationOf(value)
+                );
+        }
+
+        final Node node = this.calculator.passibleNodeNear(x, y, z, origin, this.sampler.reset(this.occlusionProvider));
         final IGraphNodeFilter filter = this.filter;
         if (filter != null) {
             final Passibility newPassibility = filter.mapPassibility(node);
@@ -182,9 +355,29 @@ public final class NodeMap {
                 node.passibility(newPassibility);
         }
 
+        if (segment != null && !node.volatile_())
+            segment.put(key, PassibilityTable.valueOf(node), revision);
+
         return node;
     }
 
+    private PassibilityTable.Segment segmentAt(PassibilityTable passibilityTable, int cx, int cy, int cz) {
+        PassibilityTable.Segment segment = this.segment;
+        if (segment == null || cx != this.segmentX || cy != this.segmentY || cz != this.segmentZ || segment.retired()) {
+            this.segment = segment = passibilityTable.segmentAt(cx, cy, cz);
+            this.segmentX = cx;
+            this.segmentY = cy;
+            this.segmentZ = cz;
+        }
+        return segment;
+    }
+
+    private void discard(Node node) {
+        final Coords key = node.key;
+        if (node.orphaned() && node.infecund() && this.it.get(key.x, key.y, key.z) != node)
+            this.pool.release(node);
+    }
+
     public boolean remove(int x, int y, int z) {
         final Node existing = this.it.remove(x, y, z);
         if (existing != null) {
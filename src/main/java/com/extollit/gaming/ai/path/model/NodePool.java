@@ -0,0 +1,60 @@
+package com.extollit.gaming.ai.path.model;
+
+/**
+ * Recycles nodes of a retired graph generation.  When a {@link NodeMap} is cleared its nodes are not dropped, instead
+ * they are retained here keyed by their coordinates and handed out again when a node calculator requests a node at the
+ * same coordinates.  Entities that re-path through the same area therefore allocate very few new nodes.
+ *
+ * Only the most recently retired generation is retained, nodes that were not reclaimed by the time of the next
+ * retirement are released to the garbage collector.  Nodes that are {@link Node#pinned() pinned} because a path or the
+ * path-finder may still refer to them are not handed out again while they remain pinned, see
+ * {@link NodeMap#pin(Node)}.
+ */
+final class NodePool {
+    private SparseSpatialMap<Node> free = new SparseSpatialMap<>();
+
+    /**
+     * Acquires a node at the specified coordinates, either a recycled node or a new one.  The node is reinitialized
+     * with no parent or children and an unassigned queue index.
+     */
+    Node acquire(int x, int y, int z, Passibility passibility, boolean volatility, Gravitation gravitation) {
+        final Node node = this.free.remove(x, y, z);
+        if (node != null) {
+            final Coords key = node.key;
+            if (key.x == x && key.y == y && key.z == z && !node.pinned()) {
+                node.recycle(passibility, volatility, gravitation);
+                return node;
+            }
+        }
+
+        return new Node(x, y, z, passibility, volatility, gravitation);
+    }
+
+    /**
+     * Returns a single node that was acquired from this pool but is no longer referenced by the graph
+     */
+    void release(Node node) {
+        if (node.pinned())
+            return;
+
+        final Coords key = node.key;
+        this.free.put(key.x, key.y, key.z, node);
+    }
+
+    /**
+     * Retires an entire graph generation to this pool in exchange for an empty map that replaces it.
+     *
+     * @param retired the map of nodes that is being cleared, which must not be used by the caller after this call
+     * @return an empty map to use in place of the retired one
+     */
+    SparseSpatialMap<Node> retire(SparseSpatialMap<Node> retired) {
+        final SparseSpatialMap<Node> empty = this.free;
+        empty.clear();
+        this.free = retired;
+        return empty;
+    }
+
+    void clear() {
+        this.free.clear();
+    }
+}
@@ -1,5 +1,11 @@
 package com.extollit.gaming.ai.path.model;
 
+/**
+ * Compressed flags of a 16x16x16 section of blocks.  An occlusion field may be read by any number of threads while
+ * another thread applies block changes to it, the words of a field are copied on write and published atomically so
+ * readers never observe a partially applied change.  Writers, including area-initialization, are serialized by the
+ * monitor of the field they modify.  A field must be loaded before it is shared with other threads.
+ */
 public class OcclusionField implements IOcclusionProvider {
     public enum AreaInit {
         north   (0, -1),
@@ -93,12 +99,41 @@ public class OcclusionField implements IOcclusionProvider {
     private static final short
             FULLY_AREA_INIT = 0x3FF;
 
-    private long [] words;
+    private static final byte
+            POSITIONAL_FLAGS = -1;
+
+    private static final int
+            ELEMENTS = DIMENSION_SQUARE_SIZE * DIMENSION_SIZE,
+            FULL_LENGTH = ELEMENTS * ELEMENT_LENGTH / WORD_LENGTH,
+            PALETTE_INDICES_SHR = 6,
+            MAX_PALETTE_SIZE = 4;
+
+    /**
+     * Published words, these are never modified once published.  Writers modify a private copy of the words (see
+     * {@link #writable()}) and publish it, so readers never observe a partial update and need no synchronization.
+     *
+     * Words are stored in one of three forms distinguished by the length of the array: null for a uniform section
+     * (see {@link #singleton}), {@link #FULL_LENGTH} words packing the 4-bit flags of every element, or palette form.
+     * A section with no more than {@link #MAX_PALETTE_SIZE} distinct flags is published in palette form, which packs a
+     * 1-bit (two flags at most) or 2-bit index per element into a palette of flags stored as 4-bit entries in the last
+     * word, so the array is 65 or 129 words long and the number of index bits is its length shifted right by
+     * {@link #PALETTE_INDICES_SHR}.  Writers always work on the full form, see {@link #expand(long[])} and
+     * {@link #compact(long[])}.
+     */
+    private volatile long [] words;
+    private long [] writing;
     private byte singleton;
-    private short areaInit;
+    private volatile short areaInit;
 
     public OcclusionField() {}
 
+    OcclusionField(OcclusionField other) {
+        this.areaInit = other.areaInit;
+        this.singleton = other.singleton;
+        final long[] words = other.words;
+        this.words = words == null ? null : words.clone();
+    }
+
     public boolean areaInitFull() {
         return this.areaInit == FULLY_AREA_INIT;
     }
@@ -111,8 +146,17 @@ public class OcclusionField implements IOcclusionProvider {
     }
 
     public void loadFrom(IColumnarSpace columnarSpace, int cx, int cy, int cz) {
+        if (columnarSpace instanceof ISectionSource) {
+            final ISectionSource sectionSource = (ISectionSource) columnarSpace;
+            final IBlockDescription[] palette = sectionSource.paletteAt(cy);
+            if (palette != null) {
+                loadFrom(columnarSpace, sectionSource, palette, cx, cy, cz);
+                return;
+            }
+        }
+
         this.singleton = 0;
-        this.words = new long[DIMENSION_SQUARE_SIZE * DIMENSION_SIZE * ELEMENT_LENGTH / WORD_LENGTH];
+        final long[] words = new long[FULL_LENGTH];
 
         boolean compress = true;
         byte lastFlags = this.singleton;
@@ -122,8 +166,6 @@ public class OcclusionField implements IOcclusionProvider {
                 y0 = cy << DIMENSION_ORDER, yN = y0 + DIMENSION_SIZE,
                 z0 = cz << DIMENSION_ORDER;
 
-        final long[] words = this.words;
-
         final int yNi = yN - 1;
         for (int y = yNi, i = LAST_INDEX; y >= y0; --y)
             for (int z = DIMENSION_EXTENT; z >= 0; --z)
@@ -146,24 +188,250 @@ public class OcclusionField implements IOcclusionProvider {
                     words[i--] = word;
                 }
 
-        if (compress) {
+        compressOrAreaInit(compress, lastFlags, words);
+    }
+
+    private void loadFrom(IColumnarSpace columnarSpace, ISectionSource sectionSource, IBlockDescription[] palette, int cx, int cy, int cz) {
+        final int
+                x0 = cx << DIMENSION_ORDER,
+                y0 = cy << DIMENSION_ORDER, yN = y0 + DIMENSION_SIZE,
+                z0 = cz << DIMENSION_ORDER;
+
+        // Flags of doors depend on the state of each door block, so those are computed per-block (POSITIONAL_FLAGS)
+        final byte[] paletteFlags = new byte[palette.length];
+        final boolean[] paletteFenceLike = new boolean[palette.length];
+        for (int p = 0; p < palette.length; ++p) {
+            final IBlockDescription blockDescription = palette[p];
+            paletteFlags[p] = blockDescription.isDoor() ? POSITIONAL_FLAGS : flagsFor(columnarSpace, x0, y0, z0, blockDescription);
+            paletteFenceLike[p] = blockDescription.isFenceLike();
+        }
+
+        if (palette.length == 1 && paletteFlags[0] != POSITIONAL_FLAGS) {
+            this.singleton = paletteFlags[0];
             this.words = null;
+            return;
+        }
+
+        final int[] indices = new int[DIMENSION_SQUARE_SIZE * DIMENSION_SIZE];
+        sectionSource.paletteIndicesAt(cy, indices);
+
+        this.singleton = 0;
+        final long[] words = new long[FULL_LENGTH];
+
+        boolean compress = true;
+        byte lastFlags = this.singleton;
+
+        final int yNi = yN - 1;
+        for (int y = yNi, i = LAST_INDEX; y >= y0; --y)
+            for (int z = DIMENSION_EXTENT; z >= 0; --z)
+                for (int x = DIMENSION_SIZE - ELEMENTS_PER_WORD; x >= 0; x -= ELEMENTS_PER_WORD) {
+                    final int row = ((y - y0) * DIMENSION_SQUARE_SIZE) + (z * DIMENSION_SIZE) + x;
+                    long word = 0;
+                    for (int b = WORD_LAST_OFFSET; b >= 0; --b) {
+                        final int p = indices[row + b];
+                        byte flags = paletteFlags[p];
+                        if (flags == POSITIONAL_FLAGS)
+                            flags = flagsFor(columnarSpace, x0 + x + b, y, z0 + z, palette[p]);
+
+                        compress &= (lastFlags == flags) || (i == LAST_INDEX && b == WORD_LAST_OFFSET);
+                        lastFlags = flags;
+                        word <<= (1 << ELEMENT_LENGTH_SHL);
+                        word |= (long)flags;
+
+                        if (paletteFenceLike[p] && y < yNi) {
+                            final int indexUp = i + (DIMENSION_SQUARE_SIZE >> COORDINATE_TO_INDEX_SHR);
+                            words[indexUp] = modifyWord(words[indexUp], b, flags);
+                        }
+                    }
+                    words[i--] = word;
+                }
+
+        compressOrAreaInit(compress, lastFlags, words);
+    }
+
+    private void compressOrAreaInit(boolean compress, byte lastFlags, long[] words) {
+        if (compress) {
             this.singleton = lastFlags;
-        } else
-            areaInit();
+            this.words = null;
+        } else {
+            areaInit(words);
+            this.words = compact(words);
+        }
     }
 
     private boolean fenceOrDoorLike(byte flags) {
         return (Element.earth.in(flags) && Logic.fuzzy.in(flags)) || (Logic.doorway.in(flags));
     }
 
-    private void decompress() {
+    private long[] decompressed() {
         long word = singletonWord();
-        final long[] words = this.words = new long[DIMENSION_SQUARE_SIZE * DIMENSION_SIZE * ELEMENT_LENGTH / WORD_LENGTH];
+        final long[] words = new long[FULL_LENGTH];
         for (int i = 0; i < words.length; ++i)
             words[i] = word;
 
-        this.singleton = 0;
+        return words;
+    }
+
+    /**
+     * Words as seen by the writer holding the monitor of this field, including its modifications not yet published
+     */
+    private long[] current() {
+        final long[] writing = this.writing;
+        return writing != null ? writing : this.words;
+    }
+
+    /**
+     * Private copy of the words that the writer holding the monitor of this field may modify, a singleton field is
+     * decompressed into the copy
+     */
+    private long[] writable() {
+        long[] writing = this.writing;
+        if (writing == null) {
+            final long[] words = this.words;
+            if (words == null)
+                writing = decompressed();
+            else {
+                writing = expand(words);
+                if (writing == words)
+                    writing = words.clone();
+            }
+            this.writing = writing;
+        }
+        return writing;
+    }
+
+    /**
+     * Publishes the modifications of the writer holding the monitor of this field to readers
+     */
+    private void publish() {
+        final long[] writing = this.writing;
+        if (writing != null) {
+            this.writing = null;
+            this.words = compact(writing);
+        }
+    }
+
+    /**
+     * Published words of this field in full form for reading, the result must not be modified
+     */
+    private long[] fullWords() {
+        final long[] words = this.words;
+        return words == null ? null : expand(words);
+    }
+
+    /**
+     * Converts words in palette form to full form, words that are already in full form are returned as-is
+     */
+    private static long[] expand(long[] words) {
+        if (words.length == FULL_LENGTH)
+            return words;
+
+        final long[] full = new long[FULL_LENGTH];
+        for (int i = 0; i < FULL_LENGTH; ++i)
+            full[i] = paletteRowAt(words, i * ELEMENTS_PER_WORD);
+
+        return full;
+    }
+
+    /**
+     * Converts words in full form to palette form if the section has few enough distinct flags, otherwise the words are
+     * returned as-is
+     */
+    private static long[] compact(long[] words) {
+        int present = 0;
+        for (long word : words) {
+            for (int b = 0; b < ELEMENTS_PER_WORD; ++b) {
+                present |= 1 << (int)(word & ELEMENT_MASK);
+                word >>>= ELEMENT_LENGTH;
+            }
+            if (Integer.bitCount(present) > MAX_PALETTE_SIZE)
+                return words;
+        }
+
+        final int bits = Integer.bitCount(present) <= 2 ? 1 : 2;
+        final long[] compacted = new long[((ELEMENTS * bits) >> PALETTE_INDICES_SHR) + 1];
+        final byte[] indices = new byte[1 << ELEMENT_LENGTH];
+        long palette = 0;
+        for (int flags = 0, p = 0; flags < indices.length; ++flags)
+            if ((present & (1 << flags)) != 0) {
+                indices[flags] = (byte) p;
+                palette |= (long) flags << (p++ << ELEMENT_LENGTH_SHL);
+            }
+        compacted[compacted.length - 1] = palette;
+
+        for (int i = 0, position = 0; i < words.length; ++i) {
+            long word = words[i];
+            for (int b = 0; b < ELEMENTS_PER_WORD; ++b, position += bits) {
+                compacted[position >> PALETTE_INDICES_SHR] |= (long) indices[(int)(word & ELEMENT_MASK)] << (position & (WORD_LENGTH - 1));
+                word >>>= ELEMENT_LENGTH;
+            }
+        }
+        return compacted;
+    }
+
+    /**
+     * Decodes a row of elements in palette form into a word in full form.  The indices of the row are contiguous in
+     * one word, they are spread into the low bits of each 4-bit element at once and each index bit then selects between
+     * palette entries broadcast to every element.
+     *
+     * @param words words in palette form
+     * @param element index of the first element of the row, a multiple of {@link #ELEMENTS_PER_WORD}
+     */
+    private static long paletteRowAt(long[] words, int element) {
+        final int
+            bits = words.length >> PALETTE_INDICES_SHR,
+            position = element * bits;
+        final long
+            palette = words[words.length - 1],
+            indices = words[position >> PALETTE_INDICES_SHR] >>> (position & (WORD_LENGTH - 1));
+
+        long spread;
+        if (bits == 1) {
+            spread = indices & 0xFFFFL;
+            spread = (spread | (spread << 24)) & 0x000000FF000000FFL;
+            spread = (spread | (spread << 12)) & 0x000F000F000F000FL;
+            spread = (spread | (spread << 6)) & 0x0303030303030303L;
+            spread = (spread | (spread << 3)) & 0x1111111111111111L;
+        } else {
+            spread = indices & 0xFFFFFFFFL;
+            spread = (spread | (spread << 16)) & 0x0000FFFF0000FFFFL;
+            spread = (spread | (spread << 8)) & 0x00FF00FF00FF00FFL;
+            spread = (spread | (spread << 4)) & 0x0F0F0F0F0F0F0F0FL;
+            spread = (spread | (spread << 2)) & 0x3333333333333333L;
+        }
+
+        final long
+            low = (spread & 0x1111111111111111L) * ELEMENT_MASK,
+            high = ((spread >>> 1) & 0x1111111111111111L) * ELEMENT_MASK;
+
+        return (broadcast(palette, 0) & ~high & ~low)
+            | (broadcast(palette, 1) & ~high & low)
+            | (broadcast(palette, 2) & high & ~low)
+            | (broadcast(palette, 3) & high & low);
+    }
+
+    /**
+     * Repeats a palette entry in every element of a word
+     */
+    private static long broadcast(long palette, int p) {
+        return ((palette >>> (p << ELEMENT_LENGTH_SHL)) & ELEMENT_MASK) * 0x1111111111111111L;
+    }
+
+    private static byte paletteElementAt(long[] words, int element) {
+        final int
+            bits = words.length >> PALETTE_INDICES_SHR,
+            position = element * bits,
+            p = (int)(words[position >> PALETTE_INDICES_SHR] >>> (position & (WORD_LENGTH - 1))) & ((1 << bits) - 1);
+
+        return (byte)((words[words.length - 1] >>> (p << ELEMENT_LENGTH_SHL)) & ELEMENT_MASK);
+    }
+
+    /**
+     * Number of words backing the published state of this field, zero for a uniform section
+     */
+    int storageLength() {
+        final long[] words = this.words;
+        return words == null ? 0 : words.length;
     }
 
     private long singletonWord() {
@@ -176,11 +444,7 @@ public class OcclusionField implements IOcclusionProvider {
         return word;
     }
 
-    private void areaInit() {
-        final long[] words = this.words;
-        if (words == null)
-            return;
-
+    private void areaInit(final long[] words) {
         for (int y = 0, index = DIMENSION_SIZE >> COORDINATE_TO_INDEX_SHR; y < DIMENSION_SIZE; ++y) {
             for (int z = 1; z < DIMENSION_EXTENT; ++z)
                 for (int x = 0; x < DIMENSION_SIZE; x += ELEMENTS_PER_WORD)
@@ -212,44 +476,72 @@ public class OcclusionField implements IOcclusionProvider {
     }
 
     void areaInitNorth(OcclusionField other) {
-        areaInitZPlane(other, false);
-        this.areaInit = AreaInit.north.to(this.areaInit);
+        synchronized (this) {
+            areaInitZPlane(other, false);
+            publish();
+            this.areaInit = AreaInit.north.to(this.areaInit);
+        }
     }
     void areaInitSouth(OcclusionField other) {
-        areaInitZPlane(other, true);
-        this.areaInit = AreaInit.south.to(this.areaInit);
+        synchronized (this) {
+            areaInitZPlane(other, true);
+            publish();
+            this.areaInit = AreaInit.south.to(this.areaInit);
+        }
     }
     void areaInitWest(OcclusionField other) {
-        areaInitXPlane(other, false);
-        this.areaInit = AreaInit.west.to(this.areaInit);
+        synchronized (this) {
+            areaInitXPlane(other, false);
+            publish();
+            this.areaInit = AreaInit.west.to(this.areaInit);
+        }
     }
     void areaInitEast(OcclusionField other) {
-        areaInitXPlane(other, true);
-        this.areaInit = AreaInit.east.to(this.areaInit);
+        synchronized (this) {
+            areaInitXPlane(other, true);
+            publish();
+            this.areaInit = AreaInit.east.to(this.areaInit);
+        }
     }
     void areaInitNorthEast(OcclusionField horizontal, OcclusionField depth) {
-        areaInitVerticalEdge(horizontal, depth, true, false);
-        this.areaInit = AreaInit.northEast.to(this.areaInit);
+        synchronized (this) {
+            areaInitVerticalEdge(horizontal, depth, true, false);
+            publish();
+            this.areaInit = AreaInit.northEast.to(this.areaInit);
+        }
     }
     void areaInitSouthEast(OcclusionField horizontal, OcclusionField depth) {
-        areaInitVerticalEdge(horizontal, depth, true, true);
-        this.areaInit = AreaInit.southEast.to(this.areaInit);
+        synchronized (this) {
+            areaInitVerticalEdge(horizontal, depth, true, true);
+            publish();
+            this.areaInit = AreaInit.southEast.to(this.areaInit);
+        }
     }
     void areaInitNorthWest(OcclusionField horizontal, OcclusionField depth) {
-        areaInitVerticalEdge(horizontal, depth, false, false);
-        this.areaInit = AreaInit.northWest.to(this.areaInit);
+        synchronized (this) {
+            areaInitVerticalEdge(horizontal, depth, false, false);
+            publish();
+            this.areaInit = AreaInit.northWest.to(this.areaInit);
+        }
     }
     void areaInitSouthWest(OcclusionField horizontal, OcclusionField depth) {
-        areaInitVerticalEdge(horizontal, depth, false, true);
-        this.areaInit = AreaInit.southWest.to(this.areaInit);
+        synchronized (this) {
+            areaInitVerticalEdge(horizontal, depth, false, true);
+            publish();
+            this.areaInit = AreaInit.southWest.to(this.areaInit);
+        }
     }
     void areaInitUp(IColumnarSpace columnarSpace, int cy, OcclusionField other) {
         resolveTruncatedFencesAndDoors(columnarSpace, cy, other, true);
-        this.areaInit = AreaInit.up.to(this.areaInit);
+        synchronized (this) {
+            this.areaInit = AreaInit.up.to(this.areaInit);
+        }
     }
     void areaInitDown(IColumnarSpace columnarSpace, int cy, OcclusionField other) {
         resolveTruncatedFencesAndDoors(columnarSpace, cy, other, false);
-        this.areaInit = AreaInit.down.to(this.areaInit);
+        synchronized (this) {
+            this.areaInit = AreaInit.down.to(this.areaInit);
+        }
     }
 
     private void resolveTruncatedFencesAndDoors(IColumnarSpace columnarSpace, int cy, OcclusionField other, final boolean end) {
@@ -271,45 +563,50 @@ public class OcclusionField implements IOcclusionProvider {
 
         final int y = (cy << DIMENSION_ORDER) - 1;
 
-        final long[] words = subject.words;
+        final long[] words = subject.fullWords();
         final byte singleton = subject.singleton;
         long word = 0;
 
-        for (int z = 0; z < DIMENSION_SIZE; ++z)
-            for (int x = 0; x < DIMENSION_SIZE; x += ELEMENTS_PER_WORD) {
-                if (words != null)
-                    word = words[i++];
-                for (int b = 0; b < ELEMENTS_PER_WORD; ++b) {
-                    final int xx = x + b;
-                    final byte flags;
-
+        // Only the object is modified, so only its monitor is held and never together with the monitor of another field
+        synchronized (object) {
+            for (int z = 0; z < DIMENSION_SIZE; ++z)
+                for (int x = 0; x < DIMENSION_SIZE; x += ELEMENTS_PER_WORD) {
                     if (words != null)
-                        flags = (byte)(word & ELEMENT_MASK);
-                    else
-                        flags = singleton;
-
-                    final boolean
-                        fenceLike = Element.earth.in(flags) && Logic.fuzzy.in(flags),
-                        doorLike = Logic.doorway.in(flags);
-
-                    if (fenceLike || doorLike) {
-                        final IBlockDescription block = columnarSpace.blockAt(xx, y, z);
-                        if (fenceLike && block.isFenceLike() || doorLike && block.isDoor())
-                            object.set(xx, 0, z, flags);
-                    }
+                        word = words[i++];
+                    for (int b = 0; b < ELEMENTS_PER_WORD; ++b) {
+                        final int xx = x + b;
+                        final byte flags;
+
+                        if (words != null)
+                            flags = (byte)(word & ELEMENT_MASK);
+                        else
+                            flags = singleton;
 
-                    word >>= 1 << ELEMENT_LENGTH_SHL;
+                        final boolean
+                            fenceLike = Element.earth.in(flags) && Logic.fuzzy.in(flags),
+                            doorLike = Logic.doorway.in(flags);
+
+                        if (fenceLike || doorLike) {
+                            final IBlockDescription block = columnarSpace.blockAt(xx, y, z);
+                            if (fenceLike && block.isFenceLike() || doorLike && block.isDoor())
+                                object.set(xx, 0, z, flags);
+                        }
+
+                        word >>= 1 << ELEMENT_LENGTH_SHL;
+                    }
                 }
-            }
+
+            object.publish();
+        }
     }
 
     private void areaInitZPlane(OcclusionField neighbor, final boolean end) {
-        long[] words = this.words;
+        long[] words = this.words == null ? null : writable();
         final int
             z0 = end ? DIMENSION_EXTENT : 0,
             disposition = ((z0 / (DIMENSION_EXTENT)) << 1) - 1;
         final long
-                neighborWords[] = neighbor.words,
+                neighborWords[] = neighbor.fullWords(),
                 singletonWord = words == null ? singletonWord() : 0,
                 neighborSingletonWord = neighborWords == null ? neighbor.singletonWord() : 0;
         for (int y = 0,
@@ -359,8 +656,7 @@ public class OcclusionField implements IOcclusionProvider {
                     word = areaWordFor(word, b, northWord, eastWord, southWord, westWord);
                 }
                 if (words == null && word != singletonWord) {
-                    decompress();
-                    words = this.words;
+                    words = writable();
                 }
 
                 if (words != null)
@@ -377,14 +673,14 @@ public class OcclusionField implements IOcclusionProvider {
     }
 
     private void areaInitXPlane(OcclusionField neighbor, final boolean end) {
-        long[] words = this.words;
+        long[] words = this.words == null ? null : writable();
         final int
             x0 = end ? DIMENSION_EXTENT : 0,
             disposition = ((x0 / (DIMENSION_EXTENT)) << 1) - 1,
             offset = ((disposition + 1) >> 1) * WORD_LAST_OFFSET;
 
         final long
-            neighborWords[] = neighbor.words,
+            neighborWords[] = neighbor.fullWords(),
             singletonWord = words == null ? singletonWord() : 0,
                 neighborSingletonWord = neighborWords == null ? neighbor.singletonWord() : 0;
         for (int y = 0,
@@ -427,8 +723,7 @@ public class OcclusionField implements IOcclusionProvider {
                 word = areaWordFor(word, offset, northWord, eastWord, southWord, westWord);
 
                 if (words == null && word != singletonWord) {
-                    decompress();
-                    words = this.words;
+                    words = writable();
                 }
 
                 if (words != null)
@@ -446,7 +741,7 @@ public class OcclusionField implements IOcclusionProvider {
     }
 
     private void areaInitVerticalEdge(OcclusionField horizNeighbor, OcclusionField depthNeighbor, final boolean horizEnd, final boolean depthEnd) {
-        long[] words = this.words;
+        long[] words = this.words == null ? null : writable();
         final int
                 x0 = horizEnd ? DIMENSION_EXTENT : 0,
                 z0 = depthEnd ? DIMENSION_EXTENT : 0,
@@ -455,8 +750,8 @@ public class OcclusionField implements IOcclusionProvider {
                 offset = ((xd + 1) >> 1) * WORD_LAST_OFFSET;
 
         final long
-                horizNeighborWords[] = horizNeighbor.words,
-                depthNeighborWords[] = depthNeighbor.words,
+                horizNeighborWords[] = horizNeighbor.fullWords(),
+                depthNeighborWords[] = depthNeighbor.fullWords(),
                 singletonWord = words == null ? singletonWord() : 0,
                 horizNeighborSingletonWord = horizNeighborWords == null ? horizNeighbor.singletonWord() : 0,
                 depthNeighborSingletonWord = depthNeighborWords == null ? depthNeighbor.singletonWord() : 0;
@@ -502,8 +797,7 @@ public class OcclusionField implements IOcclusionProvider {
             word = areaWordFor(word, offset, northWord, eastWord, southWord, westWord);
 
             if (words == null && word != singletonWord) {
-                decompress();
-                words = this.words;
+                words = writable();
             }
 
             if (words != null)
@@ -626,68 +920,68 @@ public class OcclusionField implements IOcclusionProvider {
 
         final byte flags = flagsFor(columnarSpace, x, y, z, blockDescription);
 
-        if (set(dx, dy, dz, flags))
-        {
-            final boolean
-                    dzb = dz > 0 && dz < DIMENSION_EXTENT,
-                    dxb = dx > 0 && dx < DIMENSION_EXTENT,
-                    dyb = dy > 0 && dy < DIMENSION_EXTENT;
+        synchronized (this) {
+            if (set(dx, dy, dz, flags))
+            {
+                final boolean
+                        dzb = dz > 0 && dz < DIMENSION_EXTENT,
+                        dxb = dx > 0 && dx < DIMENSION_EXTENT,
+                        dyb = dy > 0 && dy < DIMENSION_EXTENT;
 
-            if (dzb && dxb && dyb)
-                areaComputeAt(dx, dy, dz);
-            else
-                greaterAreaComputeAt(columnarSpace, x, y, z);
+                if (dzb && dxb && dyb)
+                    areaComputeAt(dx, dy, dz);
+                else
+                    greaterAreaComputeAt(columnarSpace, x, y, z);
 
-            if (dx > 1 && dzb)
-                areaComputeAt(dx - 1, dy, dz);
-            else
-                greaterAreaComputeAt(columnarSpace, x - 1, y, z);
+                if (dx > 1 && dzb)
+                    areaComputeAt(dx - 1, dy, dz);
+                else
+                    greaterAreaComputeAt(columnarSpace, x - 1, y, z);
 
-            if (dx < DIMENSION_EXTENT - 1 && dzb)
-                areaComputeAt(dx + 1, dy, dz);
-            else
-                greaterAreaComputeAt(columnarSpace, x + 1, y, z);
+                if (dx < DIMENSION_EXTENT - 1 && dzb)
+                    areaComputeAt(dx + 1, dy, dz);
+                else
+                    greaterAreaComputeAt(columnarSpace, x + 1, y, z);
 
-            if (dz > 1 && dxb)
-                areaComputeAt(dx, dy, dz - 1);
-            else
-                greaterAreaComputeAt(columnarSpace, x, y, z - 1);
+                if (dz > 1 && dxb)
+                    areaComputeAt(dx, dy, dz - 1);
+                else
+                    greaterAreaComputeAt(columnarSpace, x, y, z - 1);
 
-            if (dz < DIMENSION_EXTENT - 1 && dxb)
-                areaComputeAt(dx, dy, dz + 1);
-            else
-                greaterAreaComputeAt(columnarSpace, x, y, z + 1);
-
-            if (dy > 0 && dy < DIMENSION_EXTENT)
-                fencesAndDoorsComputeAt(columnarSpace, dx, y, dz, true);
-            else if (y > 0 && y < (DIMENSION_SIZE << 4) - 2)
-                greaterFencesAndDoorsComputeAt(columnarSpace, x, y, z, true);
-
-            if (dy > 1)
-                fencesAndDoorsComputeAt(columnarSpace, dx, y - 1, dz, false);
-            else if (y > 1)
-                greaterFencesAndDoorsComputeAt(columnarSpace, x, y - 1, z, false);
-
-            if (dy < DIMENSION_EXTENT - 1)
-                fencesAndDoorsComputeAt(columnarSpace, dx, y + 1, dz, false);
-            else if (y < (DIMENSION_SIZE << 4) - 2)
-                greaterFencesAndDoorsComputeAt(columnarSpace, x, y + 1, z, false);
+                if (dz < DIMENSION_EXTENT - 1 && dxb)
+                    areaComputeAt(dx, dy, dz + 1);
+                else
+                    greaterAreaComputeAt(columnarSpace, x, y, z + 1);
+
+                if (dy > 0 && dy < DIMENSION_EXTENT)
+                    fencesAndDoorsComputeAt(columnarSpace, dx, y, dz, true);
+                else if (y > 0 && y < (DIMENSION_SIZE << 4) - 2)
+                    greaterFencesAndDoorsComputeAt(columnarSpace, x, y, z, true);
+
+                if (dy > 1)
+                    fencesAndDoorsComputeAt(columnarSpace, dx, y - 1, dz, false);
+                else if (y > 1)
+                    greaterFencesAndDoorsComputeAt(columnarSpace, x, y - 1, z, false);
+
+                if (dy < DIMENSION_EXTENT - 1)
+                    fencesAndDoorsComputeAt(columnarSpace, dx, y + 1, dz, false);
+                else if (y < (DIMENSION_SIZE << 4) - 2)
+                    greaterFencesAndDoorsComputeAt(columnarSpace, x, y + 1, z, false);
+            }
+
+            publish();
         }
     }
 
     private boolean set(int dx, int dy, int dz, byte flags) {
-        if (this.words == null && flags != this.singleton)
-            decompress();
-
-        if (this.words != null) {
-            final int index = index(dx, dy, dz);
-            final long word = this.words[index];
-            this.words[index] = modifyWord(word, dx % ELEMENTS_PER_WORD, flags);
+        if (current() == null && flags == this.singleton)
+            return false;
 
-            return true;
-        }
+        final long[] words = writable();
+        final int index = index(dx, dy, dz);
+        words[index] = modifyWord(words[index], dx % ELEMENTS_PER_WORD, flags);
 
-        return false;
+        return true;
     }
 
     private int index(int dx, int dy, int dz) {
@@ -695,7 +989,7 @@ public class OcclusionField implements IOcclusionProvider {
     }
 
     private void areaComputeAt(int dx, int dy, int dz) {
-        final long[] words = this.words;
+        final long[] words = writable();
         final int
                 offset = dx % ELEMENTS_PER_WORD,
                 index = index(dx, dy, dz);
@@ -710,7 +1004,7 @@ public class OcclusionField implements IOcclusionProvider {
     }
 
     private void fencesAndDoorsComputeAt(IColumnarSpace columnarSpace, int dx, int y, int dz, boolean handlingFenceTops) {
-        final long[] words = this.words;
+        final long[] words = writable();
         final int
                 dy = y & DIMENSION_MASK,
                 offset = dx % ELEMENTS_PER_WORD,
@@ -747,15 +1041,21 @@ public class OcclusionField implements IOcclusionProvider {
             west = ColumnarOcclusionFieldList.optOcclusionFieldAt(instance, (x - 1) >> DIMENSION_ORDER, cy, cz);
 
         byte
-            centerFlags = center.elementAt(dx, dy, dz),
-            northFlags = north == null ? 0 : north.elementAt(dx, dy, (dz - 1) & DIMENSION_MASK),
-            southFlags = south == null ? 0 : south.elementAt(dx, dy, (dz + 1) & DIMENSION_MASK),
-            westFlags = west == null ? 0 : west.elementAt((dx - 1) & DIMENSION_MASK, dy, dz),
-            eastFlags = east == null ? 0 : east.elementAt((dx + 1) & DIMENSION_MASK, dy, dz);
+            centerFlags = flagsAt(center, dx, dy, dz),
+            northFlags = north == null ? 0 : flagsAt(north, dx, dy, (dz - 1) & DIMENSION_MASK),
+            southFlags = south == null ? 0 : flagsAt(south, dx, dy, (dz + 1) & DIMENSION_MASK),
+            westFlags = west == null ? 0 : flagsAt(west, (dx - 1) & DIMENSION_MASK, dy, dz),
+            eastFlags = east == null ? 0 : flagsAt(east, (dx + 1) & DIMENSION_MASK, dy, dz);
 
         final byte flags = areaFlagsFor(centerFlags, northFlags, eastFlags, southFlags, westFlags);
 
-        center.set(dx, dy, dz, flags);
+        if (center == this)
+            set(dx, dy, dz, flags);
+        else
+            synchronized (center) {
+                center.set(dx, dy, dz, flags);
+                center.publish();
+            }
     }
 
     private void greaterFencesAndDoorsComputeAt(IColumnarSpace columnarSpace, int x, int y, int z, boolean handlingFenceTops) {
@@ -780,26 +1080,57 @@ public class OcclusionField implements IOcclusionProvider {
                 down = ColumnarOcclusionFieldList.optOcclusionFieldAt(instance, cx, (y - 1) >> DIMENSION_ORDER, cz);
 
         byte
-                centerFlags = center.elementAt(dx, dy, dz),
-                upFlags = up == null ? 0 : up.elementAt(dx, (dy + 1) & DIMENSION_MASK, dz),
-                downFlags = down == null ? 0 : down.elementAt(dx, (dy - 1) & DIMENSION_MASK, dz);
+                centerFlags = flagsAt(center, dx, dy, dz),
+                upFlags = up == null ? 0 : flagsAt(up, dx, (dy + 1) & DIMENSION_MASK, dz),
+                downFlags = down == null ? 0 : flagsAt(down, dx, (dy - 1) & DIMENSION_MASK, dz);
 
         final byte flags = fenceAndDoorAreaFlagsFor(columnarSpace, dx, y, dz, centerFlags, upFlags, downFlags, handlingFenceTops);
 
-        center.set(dx, dy, dz, flags);
+        if (center == this)
+            set(dx, dy, dz, flags);
+        else
+            synchronized (center) {
+                center.set(dx, dy, dz, flags);
+                center.publish();
+            }
     }
 
     @Override
     public byte elementAt(int x, int y, int z) {
+        return elementAt(this.words, x, y, z);
+    }
+
+    private byte elementAt(long[] words, int x, int y, int z) {
         byte element;
-        if (this.words != null) {
-            long word = this.words[index(x, y, z)];
+        if (words == null)
+            element = this.singleton;
+        else if (words.length == FULL_LENGTH) {
+            long word = words[index(x, y, z)];
             element = elementAt(word, x % ELEMENTS_PER_WORD);
         } else
-            element = this.singleton;
+            element = paletteElementAt(words, y * DIMENSION_SQUARE_SIZE + z * DIMENSION_SIZE + x);
         return element;
     }
 
+    /**
+     * Retrieves flags for the writer holding the monitor of this field, which observes its own unpublished
+     * modifications to this field but only the published state of other fields
+     */
+    private byte flagsAt(OcclusionField field, int x, int y, int z) {
+        return field == this ? elementAt(current(), x, y, z) : field.elementAt(x, y, z);
+    }
+
+    @Override
+    public long rowAt(int x, int y, int z) {
+        final long[] words = this.words;
+        if (words == null)
+            return singletonWord();
+        else if (words.length == FULL_LENGTH)
+            return words[index(0, y, z)];
+
+        return paletteRowAt(words, y * DIMENSION_SQUARE_SIZE + z * DIMENSION_SIZE);
+    }
+
     private byte elementAt(long word, final int offset) {
         byte element;
         element = (byte) (word >> (offset << ELEMENT_LENGTH_SHL));
@@ -0,0 +1,222 @@
+package com.extollit.gaming.ai.path.model;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Builds the occlusion fields of columnar spaces in the background when they are loaded, so that path-finding does
+ * not have to load sections and stitch them to their neighbors (area-initialization) in the middle of a triage.
+ * Without pre-warming, occlusion fields are built lazily by {@link ColumnarOcclusionFieldList#occlusionFieldAt(int, int, int)}
+ * the first time the engine samples them.
+ *
+ * Each section of a pre-warmed columnar space is loaded and area-initialized privately by a worker of the executor and
+ * only then published to the {@link ColumnarOcclusionFieldList} of the columnar space, so the engine never observes a
+ * field that is partially built.  A field is withdrawn again if a block changed in the section, or in the sections it
+ * was stitched to, while it was being built, in which case the section is lazily built on demand as before.  Sections
+ * that have already been fully area-initialized are left as they are.
+ *
+ * The number of columnar spaces waiting to be pre-warmed is bounded, requests beyond the bound are dropped and those
+ * columnar spaces are built lazily.  Workers read blocks through {@link IColumnarSpace#blockAt(int, int, int)} (or
+ * {@link ISectionSource}) and {@link IInstanceSpace#blockObjectAt(int, int, int)} for doors, so these must tolerate
+ * reads from other threads.
+ *
+ * @see ColumnarOcclusionFieldList
+ */
+public final class OcclusionFieldPrewarmer {
+    private static final int DEFAULT_MAX_PENDING = 256;
+
+    private static final int[][] STITCHED = { { 1, 1 }, { 0, 1 }, { 2, 1 }, { 1, 0 }, { 1, 2 } };
+
+    private final IInstanceSpace instance;
+    private final Executor executor;
+    private final int maxPending;
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Create a new pre-warmer for an instance space that builds occlusion fields on the common fork-join pool
+     *
+     * @param instance the instance space containing the columnar spaces to pre-warm
+     */
+    public OcclusionFieldPrewarmer(IInstanceSpace instance) {
+        this(instance, ForkJoinPool.commonPool(), DEFAULT_MAX_PENDING);
+    }
+
+    /**
+     * Create a new pre-warmer for an instance space
+     *
+     * @param instance the instance space containing the columnar spaces to pre-warm
+     * @param executor executor that builds occlusion fields in the background, its number of threads bounds how many
+     *                 columnar spaces are built concurrently
+     * @param maxPending maximum number of columnar spaces that may be waiting to be pre-warmed at once
+     */
+    public OcclusionFieldPrewarmer(IInstanceSpace instance, Executor executor, int maxPending) {
+        if (maxPending <= 0)
+            throw new IllegalArgumentException("Maximum pending columnar spaces must be positive: " + maxPending);
+
+        this.instance = instance;
+        this.executor = executor;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Enqueues a columnar space to have its occlusion fields built in the background.  This should be called by the
+     * implementor after a chunk is loaded (and after {@link ColumnarOcclusionFieldList#reset()} if it is called then),
+     * from the thread that owns the instance space since the columnar space and its neighbors are retrieved by this
+     * method.
+     *
+     * @param cx x chunk coordinate of the columnar space
+     * @param cz z chunk coordinate of the columnar space
+     * @return true if the columnar space was enqueued, false if it is not loaded, is already waiting to be pre-warmed
+     *          or too many columnar spaces are waiting already
+     */
+    public boolean prewarm(int cx, int cz) {
+        if (this.pending.size() >= this.maxPending)
+            return false;
+
+        final IColumnarSpace[][] columnarSpaces = new IColumnarSpace[3][3];
+        for (int dz = -1; dz <= +1; ++dz)
+            for (int dx = -1; dx <= +1; ++dx)
+                columnarSpaces[dz + 1][dx + 1] = this.instance.columnarSpaceAt(cx + dx, cz + dz);
+
+        if (columnarSpaces[1][1] == null)
+            return false;
+
+        final Long key = ((long)cx << 32) | (cz & 0xFFFFFFFFL);
+        if (!this.pending.add(key))
+            return false;
+
+        try {
+            this.executor.execute(() -> {
+                try {
+                    build(columnarSpaces, cx, cz);
+                } finally {
+                    this.pending.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.pending.remove(key);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Number of columnar spaces waiting to be pre-warmed or being pre-warmed
+     *
+     * @return count of pending columnar spaces
+     */
+    public int pending() {
+        return this.pending.size();
+    }
+
+    private static void build(IColumnarSpace[][] columnarSpaces, int cx, int cz) {
+        final IColumnarSpace[][] privateSpaces = new IColumnarSpace[3][3];
+        for (int i = 0; i < 3; ++i)
+            for (int j = 0; j < 3; ++j)
+                if (columnarSpaces[i][j] != null)
+                    privateSpaces[i][j] = new PrivateColumnarSpace(columnarSpaces[i][j], i != 1 || j != 1);
+
+        final ColumnarOcclusionFieldList fieldList = columnarSpaces[1][1].occlusionFields();
+        final int
+            cy0 = fieldList.minSectionIndex(),
+            cyN = fieldList.maxSectionIndex();
+
+        final long[][] revisions = new long[STITCHED.length][cyN - cy0 + 1];
+        for (int n = 0; n < STITCHED.length; ++n) {
+            final IColumnarSpace columnarSpace = columnarSpaces[STITCHED[n][0]][STITCHED[n][1]];
+            if (columnarSpace != null)
+                for (int cy = cy0; cy <= cyN; ++cy)
+                    revisions[n][cy - cy0] = columnarSpace.occlusionFields().revisionAt(cy);
+        }
+
+        final AreaOcclusionProvider areaOcclusionProvider = new AreaOcclusionProvider(privateSpaces, cx - 1, cz - 1);
+
+        for (int cy = cy0; cy <= cyN; ++cy) {
+            final OcclusionField existing = fieldList.optOcclusionFieldAt(cy);
+            if (existing != null && existing.areaInitFull())
+                continue;
+
+            final OcclusionField field = areaOcclusionProvider.areaInitFieldAt(cx, cy, cz);
+            if (field == null || !fieldList.publish(cy, existing, field))
+                continue;
+
+            if (!unchanged(columnarSpaces, revisions, cy))
+                fieldList.withdraw(cy, field);
+        }
+    }
+
+    private static boolean unchanged(IColumnarSpace[][] columnarSpaces, long[][] revisions, int cy) {
+        final ColumnarOcclusionFieldList center = columnarSpaces[1][1].occlusionFields();
+        final int
+            cy0 = center.minSectionIndex(),
+            cyN = center.maxSectionIndex();
+
+        for (int cyy = Math.max(cy - 1, cy0); cyy <= Math.min(cy + 1, cyN); ++cyy)
+            if (center.revisionAt(cyy) != revisions[0][cyy - cy0])
+                return false;
+
+        for (int n = 1; n < STITCHED.length; ++n) {
+            final IColumnarSpace columnarSpace = columnarSpaces[STITCHED[n][0]][STITCHED[n][1]];
+            if (columnarSpace != null && columnarSpace.occlusionFields().revisionAt(cy) != revisions[n][cy - cy0])
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * View of a columnar space with occlusion fields that are private to one pre-warming operation, fields of
+     * neighboring columnar spaces that have already been published are shared since they are only read from.  The
+     * private fields span the same sections as the fields of the columnar space.
+     */
+    private static final class PrivateColumnarSpace implements IColumnarSpace {
+        private final IColumnarSpace columnarSpace;
+        private final ColumnarOcclusionFieldList occlusionFields;
+
+        private PrivateColumnarSpace(final IColumnarSpace columnarSpace, final boolean sharePublished) {
+            final ColumnarOcclusionFieldList fieldList = columnarSpace.occlusionFields();
+            this.columnarSpace = columnarSpace;
+            this.occlusionFields = new ColumnarOcclusionFieldList(
+                    this,
+                    fieldList.minSectionIndex() << 4,
+                    (fieldList.maxSectionIndex() + 1) << 4
+            ) {
+                @Override
+                protected OcclusionField createOcclusionField(int cx, int cy, int cz) {
+                    if (sharePublished) {
+                        final OcclusionField published = columnarSpace.occlusionFields().optOcclusionFieldAt(cy);
+                        if (published != null)
+                            return published;
+                    }
+
+                    final OcclusionField field = new OcclusionField();
+                    field.loadFrom(columnarSpace, cx, cy, cz);
+                    return field;
+                }
+            };
+        }
+
+        @Override
+        public IBlockDescription blockAt(int x, int y, int z) {
+            return this.columnarSpace.blockAt(x, y, z);
+        }
+
+        @Override
+        public int metaDataAt(int x, int y, int z) {
+            return this.columnarSpace.metaDataAt(x, y, z);
+        }
+
+        @Override
+        public ColumnarOcclusionFieldList occlusionFields() {
+            return this.occlusionFields;
+        }
+
+        @Override
+        public IInstanceSpace instance() {
+            return this.columnarSpace.instance();
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.extollit.gaming.ai.path.model;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Caches the results of node calculations for one class of pathing entities so that they may be shared by all
+ * path-finders of that class.  A result is the snapped y-coordinate, passibility and gravitation computed for a
+ * coordinate when moving there from an adjacent origin, so results are keyed by both the coordinate and the direction of
+ * the origin.  Calculations without an origin and volatile results (e.g. doorways) are not cached.
+ *
+ * Results are partitioned into segments of one 16x16x16 section each.  Reads from a segment are optimistic and never
+ * block nor allocate, writes are serialized per segment, so a table may be read and written by many threads
+ * concurrently.  Each segment carries a revision that advances whenever it is cleared, a calculation reads the revision
+ * before it samples the world and its result is rejected if the segment was cleared in the meantime, so a result
+ * computed before a block change is never cached after it.
+ *
+ * Segments of a columnar space are discarded when it is unloaded, and the oldest segments are discarded when the table
+ * holds more than a bounded number of them.  A discarded segment is retired: it holds no results and rejects writes, so
+ * holders of a reference to a segment should check {@link Segment#retired()} and retrieve the segment again.
+ *
+ * @see NodeMap#passibilityTable(PassibilityTable)
+ */
+public final class PassibilityTable {
+    /**
+     * Returned by lookups when no result has been cached
+     */
+    public static final int MISSING = Integer.MIN_VALUE;
+
+    private static final int
+        SECTION_MASK = OcclusionField.DIMENSION_SIZE - 1,
+        ORIGINS = 27,
+        PASSIBILITY_MASK = 3,
+        GRAVITATION_SHL = 2,
+        GRAVITATION_MASK = 3,
+        Y_SHL = 4,
+        DEFAULT_MAX_SEGMENTS = 8192;
+
+    private final ConcurrentHashMap<Long, Segment> segments = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Segment> created = new ConcurrentLinkedQueue<>();
+    private final int maxSegments;
+
+    /**
+     * Create a new table holding a default maximum number of segments
+     */
+    public PassibilityTable() {
+        this(DEFAULT_MAX_SEGMENTS);
+    }
+
+    /**
+     * Create a new table
+     *
+     * @param maxSegments maximum number of segments (sections) retained, the oldest segments are discarded beyond this
+     */
+    public PassibilityTable(int maxSegments) {
+        if (maxSegments <= 0)
+            throw new IllegalArgumentException("Maximum segments must be positive: " + maxSegments);
+
+        this.maxSegments = maxSegments;
+    }
+
+    /**
+     * Retrieves the segment of this table for a section, creating it if necessary
+     *
+     * @param cx x-coordinate of the section (i.e. block x-coordinate shifted right by 4)
+     * @param cy y-coordinate of the section
+     * @param cz z-coordinate of the section
+     * @return the segment of this table that caches results for coordinates within the section
+     */
+    public Segment segmentAt(int cx, int cy, int cz) {
+        final Long key = sectionKey(cx, cy, cz);
+        Segment segment = this.segments.get(key);
+        if (segment == null) {
+            final Segment existing = this.segments.putIfAbsent(key, segment = new Segment(key));
+            if (existing != null)
+                segment = existing;
+            else {
+                this.created.offer(segment);
+                trim();
+            }
+        }
+        return segment;
+    }
+
+    private void trim() {
+        while (this.segments.size() > this.maxSegments) {
+            final Segment oldest = this.created.poll();
+            if (oldest == null)
+                break;
+
+            if (this.segments.remove(oldest.key, oldest))
+                oldest.retire();
+        }
+    }
+
+    /**
+     * Discards all segments of a columnar space, this should be called when the columnar space is unloaded
+     *
+     * @param cx x chunk coordinate of the columnar space
+     * @param cz z chunk coordinate of the columnar space
+     */
+    public void evict(int cx, int cz) {
+        final long column = sectionKey(cx, 0, cz);
+        for (Segment segment : this.segments.values())
+            if ((segment.key & ~0xFFFL) == column && this.segments.remove(segment.key, segment)) {
+                this.created.remove(segment);
+                segment.retire();
+            }
+    }
+
+    int segmentCount() {
+        return this.segments.size();
+    }
+
+    /**
+     * Clears all cached results of all sections intersecting the specified bounds
+     */
+    public void invalidate(int x0, int y0, int z0, int xN, int yN, int zN) {
+        for (int cx = x0 >> 4; cx <= xN >> 4; ++cx)
+            for (int cz = z0 >> 4; cz <= zN >> 4; ++cz)
+                for (int cy = y0 >> 4; cy <= yN >> 4; ++cy) {
+                    final Segment segment = this.segments.get(sectionKey(cx, cy, cz));
+                    if (segment != null)
+                        segment.clear();
+                }
+    }
+
+    /**
+     * Clears all cached results
+     */
+    public void clear() {
+        for (Segment segment : this.segments.values())
+            segment.clear();
+    }
+
+    /**
+     * Determines the key of a calculation within its segment
+     *
+     * @param x x-coordinate of the node calculated
+     * @param y y-coordinate of the node calculated
+     * @param z z-coordinate of the node calculated
+     * @param origin coordinates of the node moved from
+     * @return the key of the calculation, or zero if the calculation cannot be cached
+     */
+    public static int keyOf(int x, int y, int z, Coords origin) {
+        if (origin == null)
+            return 0;
+
+        final int
+            dx = x - origin.x + 1,
+            dy = y - origin.y + 1,
+            dz = z - origin.z + 1;
+
+        if (dx < 0 || dx > 2 || dy < 0 || dy > 2 || dz < 0 || dz > 2)
+            return 0;
+
+        final int local = ((y & SECTION_MASK) << 8) | ((z & SECTION_MASK) << 4) | (x & SECTION_MASK);
+        return (local * ORIGINS + (dy * 9 + dz * 3 + dx)) + 1;
+    }
+
+    /**
+     * Packs the result of a calculation (the snapped y-coordinate, passibility and gravitation of the node) into a
+     * value suitable for caching
+     *
+     * @param node the node computed
+     * @return the packed result
+     */
+    public static int valueOf(Node node) {
+        return (node.key.y << Y_SHL) | (node.gravitation().ordinal() << GRAVITATION_SHL) | node.passibility().ordinal();
+    }
+
+    public static int yOf(int value) {
+        return value >> Y_SHL;
+    }
+
+    public static Passibility passibilityOf(int value) {
+        return Passibility.of(value & PASSIBILITY_MASK);
+    }
+
+    public static Gravitation gravitationOf(int value) {
+        return Gravitation.of((value >> GRAVITATION_SHL) & GRAVITATION_MASK);
+    }
+
+    private static long sectionKey(int cx, int cy, int cz) {
+        return ((long)(cx & 0x3FFFFFF) << 38) | ((long)(cz & 0x3FFFFFF) << 12) | (cy & 0xFFF);
+    }
+
+    /**
+     * Cached results for coordinates within one section, this is an open-addressing hash table of primitive keys and
+     * values guarded by a stamped lock
+     */
+    public static final class Segment {
+        private static final int INITIAL_CAPACITY = 64;
+        private static final float LOAD_FACTOR = 0.6f;
+        private static final int RETIRED = -1;
+
+        private final StampedLock lock = new StampedLock();
+        private final long key;
+        private volatile int revision;
+        private int[] keys, values;
+        private int size, threshold;
+
+        Segment(long key) {
+            this.key = key;
+            allocate(INITIAL_CAPACITY);
+        }
+
+        /**
+         * Current revision of this segment, this must be read before sampling the world for a calculation whose result
+         * is then cached with {@link #put(int, int, int)}
+         *
+         * @return revision of the segment, which advances whenever it is cleared
+         */
+        public int revision() {
+            return this.revision;
+        }
+
+        /**
+         * Determines whether this segment was discarded from its table, in which case it is always empty
+         *
+         * @return true if the segment should be retrieved from the table again
+         */
+        public boolean retired() {
+            return this.revision == RETIRED;
+        }
+
+        /**
+         * Looks up a cached result, this does not block unless a write is in progress
+         *
+         * @param key the key of the calculation, see {@link #keyOf(int, int, int, Coords)}
+         * @return the cached result, or {@link #MISSING} if there is none
+         */
+        public int get(int key) {
+            final StampedLock lock = this.lock;
+            long stamp = lock.tryOptimisticRead();
+            int value = find(key);
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    value = find(key);
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return value;
+        }
+
+        /**
+         * Caches a result unless the segment was cleared since the calculation began
+         *
+         * @param key the key of the calculation, see {@link #keyOf(int, int, int, Coords)}
+         * @param value the result, see {@link #valueOf(Node)}
+         * @param revision revision of the segment read before the calculation began, see {@link #revision()}
+         * @return true if the result was cached, false if it was rejected as stale
+         */
+        public boolean put(int key, int value, int revision) {
+            final long stamp = this.lock.writeLock();
+            try {
+                if (revision != this.revision || revision == RETIRED)
+                    return false;
+
+                if (this.size >= this.threshold)
+                    rehash(this.keys.length << 1);
+
+                final int[] keys = this.keys;
+                final int mask = keys.length - 1;
+                int i = mix(key) & mask;
+                while (keys[i] != 0 && keys[i] != key)
+                    i = (i + 1) & mask;
+
+                if (keys[i] == 0) {
+                    keys[i] = key;
+                    this.size++;
+                }
+                this.values[i] = value;
+                return true;
+            } finally {
+                this.lock.unlockWrite(stamp);
+            }
+        }
+
+        void clear() {
+            final long stamp = this.lock.writeLock();
+            try {
+                if (this.revision != RETIRED && ++this.revision == RETIRED)
+                    this.revision = 0;
+
+                if (this.size > 0)
+                    allocate(INITIAL_CAPACITY);
+            } finally {
+                this.lock.unlockWrite(stamp);
+            }
+        }
+
+        void retire() {
+            final long stamp = this.lock.writeLock();
+            try {
+                this.revision = RETIRED;
+                if (this.size > 0)
+                    allocate(INITIAL_CAPACITY);
+            } finally {
+                this.lock.unlockWrite(stamp);
+            }
+        }
+
+        int size() {
+            return this.size;
+        }
+
+        private int find(int key) {
+            final int[]
+                keys = this.keys,
+                values = this.values;
+
+            // Under an optimistic read these may belong to different generations, the caller validates afterward
+            if (keys.length != values.length)
+                return MISSING;
+
+            final int mask = keys.length - 1;
+            int i = mix(key) & mask;
+            for (int probes = 0; probes <= mask; ++probes, i = (i + 1) & mask) {
+                final int k = keys[i];
+                if (k == key)
+                    return values[i];
+                if (k == 0)
+                    break;
+            }
+            return MISSING;
+        }
+
+        private void rehash(int capacity) {
+            final int[]
+                keys = this.keys,
+                values = this.values;
+
+            allocate(capacity);
+            final int[] newKeys = this.keys;
+            final int mask = capacity - 1;
+            for (int j = 0; j < keys.length; ++j) {
+                final int key = keys[j];
+                if (key == 0)
+                    continue;
+
+                int i = mix(key) & mask;
+                while (newKeys[i] != 0)
+                    i = (i + 1) & mask;
+
+                newKeys[i] = key;
+                this.values[i] = values[j];
+                this.size++;
+            }
+        }
+
+        private void allocate(int capacity) {
+            this.keys = new int[capacity];
+            this.values = new int[capacity];
+            this.size = 0;
+            this.threshold = (int)(capacity * LOAD_FACTOR);
+        }
+
+        private static int mix(int key) {
+            final int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
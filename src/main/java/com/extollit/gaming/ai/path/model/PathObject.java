@@ -1,6 +1,7 @@
 package com.extollit.gaming.ai.path.model;
 
 import com.extollit.gaming.ai.path.IConfigModel;
+import com.extollit.gaming.ai.path.PathingContext;
 import com.extollit.gaming.ai.path.persistence.internal.*;
 import com.extollit.linalg.mutable.Vec3d;
 import com.extollit.num.FloatRange;
@@ -17,23 +18,31 @@ import static java.lang.Math.*;
 
 public final class PathObject implements IPath {
     private static final double PATHPOINT_SNAP_MARGIN_SQ = 0.25;
-    private static FloatRange DIRECT_LINE_TIME_LIMIT = new FloatRange(1, 2);
-
     final Node[] nodes;
     private final float speed;
     private final Random random;
+    private final FloatRange directLineTimeLimit;
 
     public int i;
 
     private int
         taxiUntil = 0,
         adjacentIndex = 0,
-        length;
+        length,
+        goal = -1;
 
     private float nextDirectLineTimeout, lastMutationTime = -1;
 
+    /**
+     * Configures the global path-finding context from a configuration model.  Path-finders created without a context,
+     * including those that already exist, apply the new configuration from their next path-finding operation.
+     *
+     * @param configModel source of the configuration
+     * @deprecated use {@link PathingContext#from(IConfigModel)} and pass the context to path-finders instead
+     */
+    @Deprecated
     public static void configureFrom(IConfigModel configModel) {
-        DIRECT_LINE_TIME_LIMIT = configModel.directLineTimeLimit();
+        PathingContext.global(PathingContext.from(configModel));
     }
 
     PathObject(float speed, Node... nodes) {
@@ -41,14 +50,33 @@ public final class PathObject implements IPath {
     }
 
     protected PathObject(float speed, Random random, Node... nodes) {
+        this(speed, PathingContext.global().directLineTimeLimit(), random, nodes);
+    }
+
+    protected PathObject(float speed, FloatRange directLineTimeLimit, Random random, Node... nodes) {
         this.nodes = nodes;
         this.length = nodes.length;
         this.speed = speed;
         this.random = random;
-        this.nextDirectLineTimeout = DIRECT_LINE_TIME_LIMIT.next(random);
+        this.directLineTimeLimit = directLineTimeLimit;
+        this.nextDirectLineTimeout = directLineTimeLimit.next(random);
     }
 
     public static IPath fromHead(float speed, Random random, Node head) {
+        return fromHead(speed, PathingContext.global().directLineTimeLimit(), random, head);
+    }
+
+    /**
+     * Creates a path from the last node of a search back through its parents to the first node
+     *
+     * @param speed speed of the pathing entity that will follow the path
+     * @param directLineTimeLimit path time an entity may be stuck before direct-line shortcuts along the path are abandoned
+     * @param random random number generator used for fuzzy-logic operations while following the path
+     * @param head the last node of the path
+     * @return a path through the nodes, which is already complete if there is only one node
+     * @see PathingContext#directLineTimeLimit()
+     */
+    public static IPath fromHead(float speed, FloatRange directLineTimeLimit, Random random, Node head) {
         int i = 1;
 
         for (Node p = head; p.up() != null; p = p.up())
@@ -63,7 +91,38 @@ public final class PathObject implements IPath {
         if (result.length <= 1)
             return new IncompletePath(result[0]);
         else
-            return new PathObject(speed, random, result);
+            return new PathObject(speed, directLineTimeLimit, random, result);
+    }
+
+    /**
+     * Creates a path through a sequence of nodes that were not necessarily linked by a search (e.g. steps read from a
+     * flow field)
+     *
+     * @param speed speed of the pathing entity that will follow the path
+     * @param random random number generator used for fuzzy-logic operations while following the path
+     * @param nodes the nodes in the order they should be visited, there must be at least one
+     * @return a path through the nodes, which is already complete if there is only one node
+     */
+    public static IPath fromSequence(float speed, Random random, Node... nodes) {
+        return fromSequence(speed, PathingContext.global().directLineTimeLimit(), random, nodes);
+    }
+
+    /**
+     * Creates a path through a sequence of nodes that were not necessarily linked by a search (e.g. steps read from a
+     * flow field)
+     *
+     * @param speed speed of the pathing entity that will follow the path
+     * @param directLineTimeLimit path time an entity may be stuck before direct-line shortcuts along the path are abandoned
+     * @param random random number generator used for fuzzy-logic operations while following the path
+     * @param nodes the nodes in the order they should be visited, there must be at least one
+     * @return a path through the nodes, which is already complete if there is only one node
+     * @see PathingContext#directLineTimeLimit()
+     */
+    public static IPath fromSequence(float speed, FloatRange directLineTimeLimit, Random random, Node... nodes) {
+        if (nodes.length <= 1)
+            return new IncompletePath(nodes[0]);
+        else
+            return new PathObject(speed, directLineTimeLimit, random, nodes);
     }
 
     @Override
@@ -111,6 +170,28 @@ public final class PathObject implements IPath {
 
     public static boolean active(IPath path) { return path != null && !path.done(); }
 
+    /**
+     * Records which of the destinations of a multi-goal search a path leads to
+     *
+     * @param path a path created by this class or an incomplete path
+     * @param goal index of the destination the path leads to
+     * @return the same path
+     * @see IPath#goal()
+     */
+    public static IPath reaching(IPath path, int goal) {
+        if (path instanceof PathObject)
+            ((PathObject) path).goal = goal;
+        else if (path instanceof IncompletePath)
+            ((IncompletePath) path).goal = goal;
+
+        return path;
+    }
+
+    @Override
+    public int goal() {
+        return this.goal;
+    }
+
     @Override
     public final boolean done() { return this.i >= this.length; }
 
@@ -161,7 +242,7 @@ public final class PathObject implements IPath {
                 else
                     this.taxiUntil++;
 
-                this.nextDirectLineTimeout += DIRECT_LINE_TIME_LIMIT.next(this.random);
+                this.nextDirectLineTimeout += this.directLineTimeLimit.next(this.random);
             }
 
             final INode node = done() ? last() : current();
@@ -170,8 +251,8 @@ public final class PathObject implements IPath {
         } finally {
             if (mutated || this.lastMutationTime < 0) {
                 this.lastMutationTime = subject.age() * this.speed;
-                if (this.nextDirectLineTimeout > DIRECT_LINE_TIME_LIMIT.max)
-                    this.nextDirectLineTimeout = DIRECT_LINE_TIME_LIMIT.next(this.random);
+                if (this.nextDirectLineTimeout > this.directLineTimeLimit.max)
+                    this.nextDirectLineTimeout = this.directLineTimeLimit.next(this.random);
             }
         }
     }
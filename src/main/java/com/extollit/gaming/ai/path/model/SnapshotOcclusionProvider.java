@@ -0,0 +1,110 @@
+package com.extollit.gaming.ai.path.model;
+
+/**
+ * An immutable copy of the occlusion fields within a window of columnar spaces.  This is used for path-finding off of
+ * the server thread: the snapshot is captured on the thread that owns the instance space and can then be read
+ * concurrently by any number of other threads without observing subsequent block changes.
+ *
+ * All captured occlusion fields are fully area-initialized prior to copying, so reading from a snapshot never mutates
+ * any state.  Areas outside of the captured window (or belonging to columnar spaces that were not loaded at capture
+ * time) are reported as empty, which the engine considers impassible.
+ *
+ * @see AreaOcclusionProvider
+ */
+public final class SnapshotOcclusionProvider implements IOcclusionProvider {
+    private final OcclusionField[][][] fields;
+    private final int cx0, cy0, cz0, cxN, cyN, czN;
+
+    private SnapshotOcclusionProvider(OcclusionField[][][] fields, int cx0, int cy0, int cz0, int cxN, int cyN, int czN) {
+        this.fields = fields;
+        this.cx0 = cx0;
+        this.cy0 = cy0;
+        this.cz0 = cz0;
+        this.cxN = cxN;
+        this.cyN = cyN;
+        this.czN = czN;
+    }
+
+    /**
+     * Captures a snapshot of the occlusion fields in the specified window.  This must be called from the thread that
+     * owns the instance space (e.g. the server thread) since occlusion fields not yet loaded are loaded and initialized
+     * by this operation.
+     *
+     * @param instance the instance space to capture occlusion fields from
+     * @param cx0 lower-bound x chunk coordinate of the window (inclusive)
+     * @param cy0 lower-bound y chunk coordinate of the window (inclusive)
+     * @param cz0 lower-bound z chunk coordinate of the window (inclusive)
+     * @param cxN upper-bound x chunk coordinate of the window (inclusive)
+     * @param cyN upper-bound y chunk coordinate of the window (inclusive)
+     * @param czN upper-bound z chunk coordinate of the window (inclusive)
+     * @return an immutable snapshot of the occlusion fields in the window
+     */
+    public static SnapshotOcclusionProvider capture(IInstanceSpace instance, int cx0, int cy0, int cz0, int cxN, int cyN, int czN) {
+        final IColumnarSpace[][] columnarSpaces = new IColumnarSpace[czN - cz0 + 3][cxN - cx0 + 3];
+        int
+            minSectionIndex = Integer.MAX_VALUE,
+            maxSectionIndex = Integer.MIN_VALUE;
+
+        for (int cz = cz0 - 1; cz <= czN + 1; ++cz)
+            for (int cx = cx0 - 1; cx <= cxN + 1; ++cx) {
+                final IColumnarSpace columnarSpace = columnarSpaces[cz - cz0 + 1][cx - cx0 + 1] = instance.columnarSpaceAt(cx, cz);
+                if (columnarSpace != null) {
+                    minSectionIndex = Math.min(minSectionIndex, columnarSpace.occlusionFields().minSectionIndex());
+                    maxSectionIndex = Math.max(maxSectionIndex, columnarSpace.occlusionFields().maxSectionIndex());
+                }
+            }
+
+        cy0 = Math.max(cy0, minSectionIndex);
+        cyN = Math.min(cyN, maxSectionIndex);
+
+        final AreaOcclusionProvider areaOcclusionProvider = new AreaOcclusionProvider(columnarSpaces, cx0 - 1, cz0 - 1);
+        final OcclusionField[][][] fields = new OcclusionField[czN - cz0 + 1][cxN - cx0 + 1][Math.max(cyN - cy0 + 1, 0)];
+
+        for (int cz = cz0; cz <= czN; ++cz)
+            for (int cx = cx0; cx <= cxN; ++cx)
+                for (int cy = cy0; cy <= cyN; ++cy) {
+                    final OcclusionField field = areaOcclusionProvider.areaInitFieldAt(cx, cy, cz);
+                    if (field != null)
+                        fields[cz - cz0][cx - cx0][cy - cy0] = new OcclusionField(field);
+                }
+
+        return new SnapshotOcclusionProvider(fields, cx0, cy0, cz0, cxN, cyN, czN);
+    }
+
+    @Override
+    public byte elementAt(int x, int y, int z) {
+        final int
+                cx = x >> 4,
+                cy = y >> 4,
+                cz = z >> 4;
+
+        if (cx >= cx0 && cx <= cxN && cy >= cy0 && cy <= cyN && cz >= cz0 && cz <= czN) {
+            final OcclusionField field = this.fields[cz - cz0][cx - cx0][cy - cy0];
+            if (field != null)
+                return field.elementAt(x & OcclusionField.DIMENSION_MASK, y & OcclusionField.DIMENSION_MASK, z & OcclusionField.DIMENSION_MASK);
+        }
+
+        return 0;
+    }
+
+    @Override
+    public long rowAt(int x, int y, int z) {
+        final int
+                cx = x >> 4,
+                cy = y >> 4,
+                cz = z >> 4;
+
+        if (cx >= cx0 && cx <= cxN && cy >= cy0 && cy <= cyN && cz >= cz0 && cz <= czN) {
+            final OcclusionField field = this.fields[cz - cz0][cx - cx0][cy - cy0];
+            if (field != null)
+                return field.rowAt(x & OcclusionField.DIMENSION_MASK, y & OcclusionField.DIMENSION_MASK, z & OcclusionField.DIMENSION_MASK);
+        }
+
+        return 0;
+    }
+
+    @Override
+    public String visualizeAt(int y) {
+        return OcclusionField.visualizeAt(this, y, cx0 << 4, cz0 << 4, (cxN + 1) << 4, (czN + 1) << 4);
+    }
+}
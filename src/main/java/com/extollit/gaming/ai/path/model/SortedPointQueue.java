@@ -10,10 +10,22 @@ import java.util.*;
 
 import static com.extollit.gaming.ai.path.model.Node.squareDelta;
 
-public final class SortedPointQueue implements LinkableReader<SortedPointQueue, Node>, LinkableWriter<SortedPointQueue, Node> {
-    private static final float CULL_THRESHOLD = 0.1f;
-
-    private final ArrayList<Node> list = new ArrayList<>(8);
+/**
+ * Priority queue of open nodes for the A* triage ordered first by passibility and then by priority, which is the
+ * journey (total estimated path length) of a node with its remaining distance multiplied by the heuristic weight.
+ * This implementation is a binary heap, sub-classes may replace the underlying structure by overriding the structural
+ * methods.
+ *
+ * @see BucketPointQueue
+ */
+public class SortedPointQueue implements LinkableReader<SortedPointQueue, Node>, LinkableWriter<SortedPointQueue, Node> {
+    static final float CULL_THRESHOLD = 0.1f;
+
+    final ArrayList<Node> list = new ArrayList<>(8);
+
+    private float heuristicWeight = 1;
+    private IDistanceBound distanceBound;
+    private Coords[] goals;
 
     boolean fastAdd(Node point) {
         if (!point.index(this.list.size()))
@@ -24,16 +36,34 @@ public final class SortedPointQueue implements LinkableReader<SortedPointQueue,
         return true;
     }
 
-    public final void clear() {
+    public void clear() {
         for (Node point : this.list)
             point.unassign();
         this.list.clear();
     }
 
-    public final boolean isEmpty() {
+    public boolean isEmpty() {
         return this.list.isEmpty();
     }
 
+    /**
+     * Prepares the list of all nodes in this queue for a bulk operation that may modify the journey of these nodes and
+     * remove some of them.  The structure of this queue is only consistent again after a subsequent call to
+     * {@link #restore()}
+     *
+     * @return list of all nodes in this queue
+     */
+    List<Node> members() {
+        return this.list;
+    }
+
+    /**
+     * Restores the structure of this queue from the member list following a bulk operation
+     *
+     * @see #members()
+     */
+    void restore() {}
+
     public Node trimFrom(Node source) {
         if (source.orphaned())
             return source;
@@ -50,7 +80,7 @@ public final class SortedPointQueue implements LinkableReader<SortedPointQueue,
             ddZ = sourceKey.z - root0Key.z;
         }
 
-        final List<Node> list = this.list;
+        final List<Node> list = members();
 
         final byte length0 = source.length();
         final Stack<Node> path = new Stack<>();
@@ -103,6 +133,7 @@ public final class SortedPointQueue implements LinkableReader<SortedPointQueue,
             }
         }
 
+        restore();
         treeTransitional.finish(this);
 
         return root0;
@@ -120,7 +151,7 @@ public final class SortedPointQueue implements LinkableReader<SortedPointQueue,
     }
 
     void cullBranch(Node ancestor) {
-        final List<Node> list = this.list;
+        final List<Node> list = members();
         final Stack<Node> stack = new Stack<>();
 
         ListIterator<Node> i = list.listIterator();
@@ -142,6 +173,7 @@ public final class SortedPointQueue implements LinkableReader<SortedPointQueue,
             }
             stack.clear();
         }
+        restore();
 
         for (Node node : culled) {
             node.reset();
@@ -149,6 +181,25 @@ public final class SortedPointQueue implements LinkableReader<SortedPointQueue,
         }
     }
 
+    /**
+     * Removes every member of this queue that is contained in the specified set
+     *
+     * @param nodes nodes to remove from this queue, which may include nodes that are not members
+     */
+    void removeAll(Set<Node> nodes) {
+        final List<Node> list = members();
+        final ListIterator<Node> i = list.listIterator();
+        while (i.hasNext()) {
+            final Node head = i.next();
+            if (nodes.contains(head)) {
+                i.remove();
+                head.unassign();
+            } else
+                head.index(i.previousIndex());
+        }
+        restore();
+    }
+
     public List<Node> view() { return Collections.unmodifiableList(this.list); }
 
     public Node top() {
@@ -168,20 +219,20 @@ public final class SortedPointQueue implements LinkableReader<SortedPointQueue,
         return point;
     }
     public boolean nextContains(Node ancestor) {
-        return this.list.get(0).contains(ancestor);
+        return top().contains(ancestor);
     }
 
     private void sortBack(int index) {
         final ArrayList<Node> list = this.list;
         final Node originalPoint = list.get(index);
-        final int distanceRemaining = originalPoint.journey();
+        final int distanceRemaining = priority(originalPoint);
         final Passibility originalPassibility = originalPoint.passibility();
         while (index > 0) {
             final int i = (index - 1) >> 1;
             final Node point = list.get(i);
 
             final Passibility passibility = point.passibility();
-            if ((distanceRemaining >= point.journey() && originalPassibility == passibility) || originalPassibility.worseThan(passibility))
+            if ((distanceRemaining >= priority(point) && originalPassibility == passibility) || originalPassibility.worseThan(passibility))
                 break;
 
             list.set(index, point);
@@ -197,7 +248,7 @@ public final class SortedPointQueue implements LinkableReader<SortedPointQueue,
     private void sortForward(int index) {
         final ArrayList<Node> list = this.list;
         Node originalPoint = list.get(index);
-        final int distanceRemaining = originalPoint.journey();
+        final int distanceRemaining = priority(originalPoint);
         final Passibility originalPassibility = originalPoint.passibility();
 
         do {
@@ -208,7 +259,7 @@ public final class SortedPointQueue implements LinkableReader<SortedPointQueue,
                 break;
 
             final Node pointAlpha = list.get(i);
-            final int distAlpha = pointAlpha.journey();
+            final int distAlpha = priority(pointAlpha);
             final Passibility passibilityAlpha = pointAlpha.passibility();
             final Node pointBeta;
             final int distBeta;
@@ -220,7 +271,7 @@ public final class SortedPointQueue implements LinkableReader<SortedPointQueue,
                 passibilityBeta = Passibility.passible;
             } else {
                 pointBeta = list.get(j);
-                distBeta = pointBeta.journey();
+                distBeta = priority(pointBeta);
                 passibilityBeta = pointBeta.passibility();
             }
 
@@ -249,7 +300,115 @@ public final class SortedPointQueue implements LinkableReader<SortedPointQueue,
     }
 
     public boolean appendTo(Node point, Node parent, Coords targetPoint) {
-        return appendTo(point, parent, (int)Math.sqrt(squareDelta(point, targetPoint)));
+        return appendTo(point, parent, estimate(point, targetPoint));
+    }
+
+    /**
+     * Re-parents a node that was already expanded if the specified parent offers it a shorter path.  This happens when
+     * the heuristic is inflated since nodes may then be expanded before their shortest path is known.  The node is not
+     * queued again, it is up to the caller to re-open it later.
+     *
+     * The remaining distance of the node is estimated without the heuristic weight like any other, the weight only
+     * applies when nodes are compared (see {@link #priority(Node)}).
+     *
+     * @param point an expanded node
+     * @param parent candidate parent node
+     * @param targetPoint coordinates of the target used to estimate the remaining distance of the node
+     * @return true if the node was re-parented
+     */
+    public boolean relink(Node point, Node parent, Coords targetPoint) {
+        final int delta = (int)Math.sqrt(squareDelta(parent, point));
+        if (parent.length() + delta >= point.length() || point.passibility().betterThan(parent.passibility()) || point.cyclic(parent))
+            return false;
+
+        return point.appendTo(parent, delta, estimate(point, targetPoint));
+    }
+
+    /**
+     * Inflates the estimated remaining distance of nodes by the specified factor (weighted A*) and re-estimates all
+     * members of this queue accordingly.  A factor greater than one expands fewer nodes before reaching the target at
+     * the expense of a path that may be longer than the shortest path by up to that factor.  Nodes store their
+     * remaining distance without the factor, so it is applied equally at any distance up to
+     * {@link Node#MAX_PATH_DISTANCE} rather than saturating that limit sooner.
+     *
+     * @param weight factor to multiply estimates of the remaining distance by, one for an admissible heuristic
+     * @param targetPoint coordinates of the target used to re-estimate the remaining distance of the members
+     */
+    public void heuristicWeight(float weight, Coords targetPoint) {
+        this.heuristicWeight = weight;
+
+        final List<Node> list = members();
+        final Node[] points = list.toArray(new Node[0]);
+        list.clear();
+        restore();
+
+        for (Node point : points) {
+            point.unassign();
+            point.remaining(estimate(point, targetPoint));
+            add(point);
+        }
+    }
+
+    public float heuristicWeight() {
+        return this.heuristicWeight;
+    }
+
+    /**
+     * Computes the key this queue orders nodes of equal passibility by, which is the length of a node plus its
+     * remaining distance multiplied by the heuristic weight.  This ranges beyond the 8-bit journey of a node when the
+     * heuristic is inflated.
+     *
+     * @param point node to compute the priority of
+     * @return priority of the node, lower is better
+     */
+    public int priority(Node point) {
+        final float weight = this.heuristicWeight;
+        return weight == 1
+            ? point.journey() & 0xFF
+            : point.length() + (int)(point.remaining() * weight);
+    }
+
+    /**
+     * Applies a lower bound of the remaining distance that is consulted in addition to the straight-line distance when
+     * estimating the remaining distance of nodes appended to this queue.
+     *
+     * @param distanceBound the bound to consult, or null to use the straight-line distance only
+     */
+    public void distanceBound(IDistanceBound distanceBound) {
+        this.distanceBound = distanceBound;
+    }
+
+    public IDistanceBound distanceBound() {
+        return this.distanceBound;
+    }
+
+    /**
+     * Applies additional goals to estimate the remaining distance of nodes appended to this queue toward, the estimate
+     * is then the least distance to the target or any of these goals (multi-goal search).
+     *
+     * @param goals coordinates of the other goals, or null to estimate the remaining distance to the target alone
+     */
+    public void goals(Coords[] goals) {
+        this.goals = goals;
+    }
+
+    private int distanceBetween(Node point, Coords targetPoint) {
+        final int distance = (int)Math.sqrt(squareDelta(point, targetPoint));
+        final IDistanceBound distanceBound = this.distanceBound;
+        if (distanceBound != null)
+            return Math.max(distance, Math.min(Node.MAX_PATH_DISTANCE, distanceBound.distanceBound(point.key, targetPoint)));
+
+        return distance;
+    }
+
+    private int estimate(Node point, Coords targetPoint) {
+        int distance = distanceBetween(point, targetPoint);
+        final Coords[] goals = this.goals;
+        if (goals != null)
+            for (Coords goal : goals)
+                distance = Math.min(distance, distanceBetween(point, goal));
+
+        return distance;
     }
 
     public boolean appendTo(Node point, Node parent, final int remaining) {
@@ -257,9 +416,9 @@ public final class SortedPointQueue implements LinkableReader<SortedPointQueue,
 
         final byte length = point.length();
         if (!point.assigned() || (parent.length() + squareDelta < length*length && !point.passibility().betterThan(parent.passibility()))) {
-            final byte distance0 = point.journey();
+            final int priority0 = priority(point);
             if (point.appendTo(parent, (int)Math.sqrt(squareDelta), remaining))
-                return resort(point, distance0);
+                return resort(point, priority0);
             else
                 point.orphan();
         }
@@ -268,25 +427,36 @@ public final class SortedPointQueue implements LinkableReader<SortedPointQueue,
     }
 
     public boolean addLength(Node point, int diff) {
-        final byte journey0 = point.journey();
+        final int priority0 = priority(point);
         point.addLength(diff);
-        return resort(point, journey0);
+        return resort(point, priority0);
     }
 
-    private boolean resort(Node point, byte journey0) {
-        final int journey = point.journey();
+    private boolean resort(Node point, int priority0) {
         if (point.assigned()) {
-            if (journey < journey0)
-                sortBack(point.index());
-            else
-                sortForward(point.index());
-
+            reposition(point, priority0);
             return true;
         } else
             add(point);
         return false;
     }
 
+    /**
+     * Moves a node within the heap after its journey changed.  Journeys are the sum of two 7-bit quantities (length and
+     * remaining distance) so they range up to 254 and must not be compared as signed bytes, which would rank any node
+     * whose journey exceeds 127 ahead of all others.  Priorities are compared as integers instead, which also leaves
+     * room for the heuristic weight (see {@link #priority(Node)}).
+     *
+     * @param point the node whose journey changed
+     * @param priority0 priority of the node before its journey changed
+     */
+    void reposition(Node point, int priority0) {
+        if (priority(point) < priority0)
+            sortBack(point.index());
+        else
+            sortForward(point.index());
+    }
+
     public void add(Node point) {
         if (point.assigned())
             throw new IllegalStateException("Point is already assigned");
@@ -294,18 +464,16 @@ public final class SortedPointQueue implements LinkableReader<SortedPointQueue,
         if (fastAdd(point))
             return;
 
-        final ArrayList<Node> list = this.list;
-        final int size = size();
-
-        final ListIterator<Node> i = list.listIterator(size);
-        for (int amount = (int)Math.ceil((float)size * CULL_THRESHOLD); amount > 0 && i.hasPrevious(); --amount) {
-            i.previous().unassign();
-            i.remove();
-        }
-
+        cull((int)Math.ceil((float)size() * CULL_THRESHOLD));
         fastAdd(point);
     }
 
+    void cull(int amount) {
+        final ArrayList<Node> list = this.list;
+        for (int i = list.size() - 1; amount > 0 && i >= 0; --amount, --i)
+            list.remove(i).unassign();
+    }
+
     public int size() {
         return this.list.size();
     }
@@ -313,7 +481,7 @@ public final class SortedPointQueue implements LinkableReader<SortedPointQueue,
     public final Set<Node> roots() {
         final Set<Node> roots = new HashSet<>(1);
 
-        for (Node node : this.list) {
+        for (Node node : view()) {
             final Node root = node.root();
             if (!roots.contains(root))
                 roots.add(root);
@@ -324,7 +492,7 @@ public final class SortedPointQueue implements LinkableReader<SortedPointQueue,
 
     @Override
     public String toString() {
-        return this.list.toString();
+        return view().toString();
     }
 
     @Override
@@ -334,12 +502,12 @@ public final class SortedPointQueue implements LinkableReader<SortedPointQueue,
 
         SortedPointQueue that = (SortedPointQueue) o;
 
-        return list.equals(that.list);
+        return view().equals(that.view());
     }
 
     @Override
     public int hashCode() {
-        return list.hashCode();
+        return view().hashCode();
     }
 
     @Override
@@ -348,11 +516,12 @@ public final class SortedPointQueue implements LinkableReader<SortedPointQueue,
         int count = in.readInt();
         while (count-- > 0)
             list.add(in.readRef());
+        object.restore();
     }
 
     @Override
     public void writeLinkages(SortedPointQueue object, ReferableObjectOutput<Node> out) throws IOException {
-        final ArrayList<Node> list = object.list;
+        final List<Node> list = object.view();
         out.writeInt(list.size());
         for (Node node : list)
             out.writeRef(node);
@@ -1,209 +1,384 @@
 package com.extollit.gaming.ai.path.model;
 
-import com.extollit.collect.FilterIterable;
-import com.extollit.collect.FlattenIterable;
-
 import java.util.*;
 
+/**
+ * Open-addressing hash table of values keyed by block coordinates.  Coordinates are packed into a single primitive
+ * long (26 bits for x, 26 bits for z and 12 bits for y) and collisions are resolved by linear probing, so lookups
+ * neither allocate nor box.  Removals use backward-shift deletion, so there are no tombstones.
+ *
+ * The packed key supports x and z coordinates within +/- 2^25 and y coordinates within +/- 2^11, coordinates outside
+ * of these ranges alias.
+ *
+ * The map also tracks the bounds of all keys put into it since it was last cleared, these only ever grow until the map
+ * is cleared so they may be larger than the bounds of the keys currently in the map.
+ */
 class SparseSpatialMap<T extends INode> {
-    private static final float
-        OUTER_LOAD_FACTOR = 0.9f;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final float LOAD_FACTOR = 0.6f;
 
-    private static final class CoarseKey {
-        private int x, y, z;
-        private int hashCode;
+    private static final int
+        X_SHL = 38,
+        Z_SHL = 12,
+        CELL_SHR = 3;
 
-        private CoarseKey(int x, int y, int z) {
-            set(x, y, z);
-        }
+    private static final long
+        XZ_MASK = (1L << 26) - 1,
+        Y_MASK = (1L << 12) - 1;
 
-        CoarseKey() {}
+    private long[] keys;
+    private Object[] values;
+    private int size, mask, threshold;
+    private int minX, minY, minZ, maxX, maxY, maxZ;
 
-        CoarseKey(CoarseKey original) {
-            this.x = original.x;
-            this.y = original.y;
-            this.z = original.z;
-            this.hashCode = original.hashCode;
-        }
-
-        CoarseKey dup() {
-            return new CoarseKey(this);
-        }
+    public SparseSpatialMap() {
+        allocate(INITIAL_CAPACITY);
+        resetBounds();
+    }
 
-        void set(int x, int y, int z) {
-            this.x = x >>= 3;
-            this.y = y >>= 3;
-            this.z = z >>= 3;
+    private void resetBounds() {
+        this.minX = this.minY = this.minZ = Integer.MAX_VALUE;
+        this.maxX = this.maxY = this.maxZ = Integer.MIN_VALUE;
+    }
 
-            int result = 1;
-            result = 31 * result + z;
-            result = 31 * result + y;
-            result = 31 * result + x;
-            this.hashCode = result;
-        }
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+        this.threshold = (int)(capacity * LOAD_FACTOR);
+    }
 
-        @Override
-        public final boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            final CoarseKey coarseKey = (CoarseKey) o;
-            return x == coarseKey.x &&
-                y == coarseKey.y &&
-                z == coarseKey.z;
-        }
+    private static long pack(int x, int y, int z) {
+        return ((x & XZ_MASK) << X_SHL) | ((z & XZ_MASK) << Z_SHL) | (y & Y_MASK);
+    }
 
-        @Override
-        public final int hashCode() { return this.hashCode; }
+    private static int unpackX(long key) {
+        return (int)(key >> X_SHL);
     }
 
-    private final HashMap<CoarseKey, TreeMap<Integer, T>> space;
-    private final CoarseKey coarseKey = new CoarseKey();
+    private static int unpackY(long key) {
+        return (int)((key << (Long.SIZE - Z_SHL)) >> (Long.SIZE - Z_SHL));
+    }
 
-    private int size;
-    private int kx0, ky0, kz0;
-    private TreeMap<Integer, T> inner0;
+    private static int unpackZ(long key) {
+        return (int)((key << (Long.SIZE - X_SHL)) >> (Long.SIZE - X_SHL + Z_SHL));
+    }
 
-    public SparseSpatialMap() {
-        this.space = new HashMap<>(4, OUTER_LOAD_FACTOR);
+    private static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int)key;
     }
 
-    private int relativeKey(int x, int y, int z) {
-        return (x & 0xFF) | (y & 0xFF) << 8 | (z & 0xFF) << 16;
+    private int slotOf(long key) {
+        final long[] keys = this.keys;
+        final Object[] values = this.values;
+        final int mask = this.mask;
+
+        int slot = mix(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key)
+                return slot;
+
+            slot = (slot + 1) & mask;
+        }
+
+        return ~slot;
     }
 
     public boolean has(int x, int y, int z) {
-        final Map<Integer, T> inner = acquireInner(x, y, z);
-        if (inner != null) {
-            final int relativeKey = relativeKey(x, y, z);
-            return inner.containsKey(relativeKey);
-        }
-        return false;
+        return slotOf(pack(x, y, z)) >= 0;
     }
 
     public boolean has(T value) {
         if (value == null)
             throw new NullPointerException();
 
-        for (Map<Integer, T> inner : this.space.values())
-            if (inner.containsValue(value))
+        for (Object candidate : this.values)
+            if (candidate != null && candidate.equals(value))
                 return true;
 
         return false;
     }
 
+    @SuppressWarnings("unchecked")
     public T get(int x, int y, int z) {
-        final Map<Integer, T> inner = acquireInner(x, y, z);
-        if (inner != null) {
-            final int relativeKey = relativeKey(x, y, z);
-            return inner.get(relativeKey);
-        }
-        return null;
+        final int slot = slotOf(pack(x, y, z));
+        return slot >= 0 ? (T)this.values[slot] : null;
     }
 
+    @SuppressWarnings("unchecked")
     public T put(int x, int y, int z, T value) {
         if (value == null)
             throw new NullPointerException();
 
-        this.kx0 = x;
-        this.ky0 = y;
-        this.kz0 = z;
+        final long key = pack(x, y, z);
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            final T value0 = (T)this.values[slot];
+            this.values[slot] = value;
+            return value0;
+        }
 
-        final CoarseKey coarseKey = this.coarseKey;
-        coarseKey.set(x, y, z);
+        if (this.size >= this.threshold) {
+            rehash(this.keys.length << 1);
+            slot = slotOf(key);
+        }
+
+        slot = ~slot;
+        this.keys[slot] = key;
+        this.values[slot] = value;
+        this.size++;
+
+        if (x < this.minX) this.minX = x;
+        if (y < this.minY) this.minY = y;
+        if (z < this.minZ) this.minZ = z;
+        if (x > this.maxX) this.maxX = x;
+        if (y > this.maxY) this.maxY = y;
+        if (z > this.maxZ) this.maxZ = z;
+        return null;
+    }
 
-        TreeMap<Integer, T> inner = this.inner0 = this.space.get(coarseKey);
-        if (inner == null)
-            this.space.put(coarseKey.dup(), inner = this.inner0 = new TreeMap<Integer, T>());
+    private void rehash(int capacity) {
+        final long[] keys = this.keys;
+        final Object[] values = this.values;
+
+        allocate(capacity);
+        for (int c = 0; c < values.length; ++c) {
+            final Object value = values[c];
+            if (value != null) {
+                final int slot = ~slotOf(keys[c]);
+                this.keys[slot] = keys[c];
+                this.values[slot] = value;
+            }
+        }
+    }
 
-        final T value0 = inner.put(relativeKey(x, y, z), value);
-        if (value0 == null)
-            this.size++;
+    @SuppressWarnings("unchecked")
+    public T remove(int x, int y, int z) {
+        final int slot = slotOf(pack(x, y, z));
+        if (slot < 0)
+            return null;
 
+        final T value0 = (T)this.values[slot];
+        removeAt(slot);
         return value0;
     }
 
-    public T remove(int x, int y, int z) {
-        final CoarseKey coarseKey = this.coarseKey;
-
-        final Map<Integer, T> inner;
-        if (this.inner0 != null && x == this.kx0 && y == this.ky0 && z == this.kz0)
-            inner = this.inner0;
-        else {
-            this.kx0 = x;
-            this.ky0 = y;
-            this.kz0 = z;
-
-            coarseKey.set(x, y, z);
-            inner = this.inner0 = this.space.get(coarseKey);
+    private void removeAt(int slot) {
+        final long[] keys = this.keys;
+        final Object[] values = this.values;
+        final int mask = this.mask;
+
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            final Object value = values[next];
+            if (value == null)
+                break;
+
+            final int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = keys[next];
+                values[slot] = value;
+                slot = next;
+            }
         }
 
-        if (inner != null) try {
-            final int relativeKey = relativeKey(x, y, z);
-            final T value0 = inner.remove(relativeKey);
-            if (value0 != null)
+        values[slot] = null;
+        this.size--;
+    }
+
+    public void clear() {
+        if (this.size > 0) {
+            Arrays.fill(this.values, null);
+            this.size = 0;
+        }
+        resetBounds();
+    }
+
+    /**
+     * Determines whether any key put into this map since it was last cleared may lie within the specified bounds
+     * (inclusive), this is conservative since the tracked bounds do not shrink when values are removed.
+     *
+     * @return false if there are definitely no keys within the bounds
+     */
+    public boolean intersects(int x0, int y0, int z0, int xN, int yN, int zN) {
+        return this.size > 0
+            && x0 <= this.maxX && y0 <= this.maxY && z0 <= this.maxZ
+            && xN >= this.minX && yN >= this.minY && zN >= this.minZ;
+    }
+
+    /**
+     * Removes all values outside of the specified bounds, which are compared against the coarse cell (eight blocks
+     * along each axis) containing each key rather than the key itself.
+     *
+     * @return the values that were removed
+     */
+    @SuppressWarnings("unchecked")
+    public Iterable<T> cullOutside(int x0, int y0, int z0, int xN, int yN, int zN) {
+        final List<T> cullees = new ArrayList<>();
+        final long[] keys = this.keys;
+        final Object[] values = this.values;
+
+        for (int c = 0; c < values.length; ++c) {
+            final Object value = values[c];
+            if (value == null)
+                continue;
+
+            final long key = keys[c];
+            final int
+                x = unpackX(key) >> CELL_SHR,
+                y = unpackY(key) >> CELL_SHR,
+                z = unpackZ(key) >> CELL_SHR;
+
+            if (x < x0 || y < y0 || z < z0 || x > xN || y > yN || z > zN) {
+                cullees.add((T)value);
+                values[c] = null;
                 this.size--;
-            return value0;
-        } finally {
-            if (inner.isEmpty()) {
-                this.space.remove(coarseKey);
-                this.inner0 = null;
             }
         }
-        return null;
+
+        if (!cullees.isEmpty())
+            rehash(keys.length);
+
+        return cullees;
     }
 
-    public void clear() {
-        this.space.clear();
-        this.size = 0;
-        this.inner0 = null;
+    /**
+     * Adds all values whose keys lie within the specified bounds (inclusive) to a collection.  When the bounds span
+     * fewer keys than there are values in this map only the keys within the bounds are probed, so small regions of a
+     * large map are found without visiting every slot.
+     *
+     * @param into collection to add the values to, a value stored under several keys is added once for each key
+     */
+    @SuppressWarnings("unchecked")
+    public void collectInside(int x0, int y0, int z0, int xN, int yN, int zN, Collection<? super T> into) {
+        if (!intersects(x0, y0, z0, xN, yN, zN))
+            return;
+
+        x0 = Math.max(x0, this.minX);
+        y0 = Math.max(y0, this.minY);
+        z0 = Math.max(z0, this.minZ);
+        xN = Math.min(xN, this.maxX);
+        yN = Math.min(yN, this.maxY);
+        zN = Math.min(zN, this.maxZ);
+
+        if (volume(x0, y0, z0, xN, yN, zN) <= this.size) {
+            for (int y = y0; y <= yN; ++y)
+                for (int z = z0; z <= zN; ++z)
+                    for (int x = x0; x <= xN; ++x) {
+                        final T value = get(x, y, z);
+                        if (value != null)
+                            into.add(value);
+                    }
+        } else {
+            final long[] keys = this.keys;
+            final Object[] values = this.values;
+
+            for (int c = 0; c < values.length; ++c) {
+                final Object value = values[c];
+                if (value != null && inside(keys[c], x0, y0, z0, xN, yN, zN))
+                    into.add((T)value);
+            }
+        }
     }
 
-    public Iterable<T> cullOutside(int x0, int y0, int z0, int xN, int yN, int zN) {
-        final int size0 = this.size;
-        final List<Collection<T>> cullees = new LinkedList<Collection<T>>();
-
-        final Iterator<Map.Entry<CoarseKey, TreeMap<Integer, T>>> i = this.space.entrySet().iterator();
-        while (i.hasNext()) {
-            final Map.Entry<CoarseKey, TreeMap<Integer, T>> entry = i.next();
-            final CoarseKey key = entry.getKey();
-            final TreeMap<Integer, T> subMap = entry.getValue();
-            if (key.x < x0 || key.y < y0 || key.z < z0 || key.x > xN || key.y > yN || key.z > zN) {
-                i.remove();
-                cullees.add(subMap.values());
-                size -= subMap.size();
+    /**
+     * Removes all values whose keys lie within the specified bounds (inclusive).  Like
+     * {@link #collectInside(int, int, int, int, int, int, Collection)} only the keys within the bounds are probed when
+     * there are fewer of them than values in this map, and the values are removed in place without rehashing.
+     *
+     * @return the values that were removed
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> removeInside(int x0, int y0, int z0, int xN, int yN, int zN) {
+        if (!intersects(x0, y0, z0, xN, yN, zN))
+            return Collections.emptyList();
+
+        x0 = Math.max(x0, this.minX);
+        y0 = Math.max(y0, this.minY);
+        z0 = Math.max(z0, this.minZ);
+        xN = Math.min(xN, this.maxX);
+        yN = Math.min(yN, this.maxY);
+        zN = Math.min(zN, this.maxZ);
+
+        final List<T> removed = new ArrayList<>();
+        if (volume(x0, y0, z0, xN, yN, zN) <= this.size) {
+            for (int y = y0; y <= yN; ++y)
+                for (int z = z0; z <= zN; ++z)
+                    for (int x = x0; x <= xN; ++x) {
+                        final T value = remove(x, y, z);
+                        if (value != null)
+                            removed.add(value);
+                    }
+        } else {
+            final long[] keys = this.keys;
+            final Object[] values = this.values;
+            final long[] doomed = new long[this.size];
+            int count = 0;
+
+            for (int c = 0; c < values.length; ++c)
+                if (values[c] != null && inside(keys[c], x0, y0, z0, xN, yN, zN))
+                    doomed[count++] = keys[c];
+
+            for (int c = 0; c < count; ++c) {
+                final int slot = slotOf(doomed[c]);
+                removed.add((T)values[slot]);
+                removeAt(slot);
             }
         }
 
-        if (size0 != size)
-            this.inner0 = null;
+        return removed;
+    }
 
-        return new FlattenIterable<T>(cullees);
+    private static long volume(int x0, int y0, int z0, int xN, int yN, int zN) {
+        return (long)(xN - x0 + 1) * (yN - y0 + 1) * (zN - z0 + 1);
     }
 
-    private abstract class AbstractIterator<V> extends FilterIterable.Iter<V> implements Iterator<V> {
-        private Iterator<Map.Entry<CoarseKey, TreeMap<Integer, T>>> oi;
-        private Iterator<Map.Entry<Integer, T>> ii;
+    private static boolean inside(long key, int x0, int y0, int z0, int xN, int yN, int zN) {
+        final int
+            x = unpackX(key),
+            y = unpackY(key),
+            z = unpackZ(key);
+
+        return x >= x0 && y >= y0 && z >= z0 && x <= xN && y <= yN && z <= zN;
+    }
 
-        public AbstractIterator () {
-            this.oi = SparseSpatialMap.this.space.entrySet().iterator();
+    private abstract class AbstractIterator<V> implements Iterator<V> {
+        private final Object[] values = SparseSpatialMap.this.values;
+        private int slot = -1;
+
+        AbstractIterator() {
+            advance();
+        }
+
+        private void advance() {
+            final Object[] values = this.values;
+            do
+                ++this.slot;
+            while (this.slot < values.length && values[this.slot] == null);
         }
 
         @Override
-        protected V findNext() {
-            final Iterator<Map.Entry<CoarseKey, TreeMap<Integer, T>>> oi = this.oi;
-            Iterator<Map.Entry<Integer, T>> ii = this.ii;
-
-            while (ii == null || !ii.hasNext()) {
-                if (oi.hasNext()) {
-                    final Map.Entry<CoarseKey, TreeMap<Integer, T>> entry = oi.next();
-                    ii = this.ii = entry.getValue().entrySet().iterator();
-                } else
-                    return null;
-            }
+        public boolean hasNext() {
+            return this.slot < this.values.length;
+        }
 
-            final Map.Entry<Integer, T> entry = ii.next();
-            return map(entry.getValue());
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            final T value = (T)this.values[this.slot];
+            advance();
+            return map(value);
         }
+
         protected abstract V map(T value);
     }
 
@@ -229,6 +404,7 @@ class SparseSpatialMap<T extends INode> {
     public Set<Coords> keySet() {
         return new KeySet();
     }
+
     private final class ValueCollection extends AbstractCollection<T> {
         private final class Iter extends AbstractIterator<T> {
             @Override
@@ -251,17 +427,4 @@ class SparseSpatialMap<T extends INode> {
     public Collection<T> values() {
         return new ValueCollection();
     }
-
-    private Map<Integer, T> acquireInner(int x, int y, int z) {
-        if (this.inner0 != null && this.kx0 == x && this.ky0 == y && this.kz0 == z)
-            return this.inner0;
-
-        this.kx0 = x;
-        this.ky0 = y;
-        this.kz0 = z;
-
-        final CoarseKey coarseKey = this.coarseKey;
-        coarseKey.set(x, y, z);
-        return this.inner0 = this.space.get(coarseKey);
-    }
 }
@@ -25,7 +25,7 @@ public abstract class AbstractHydrazinePathFinderTests {
 
     @Mock protected IPathingEntity.Capabilities capabilities;
 
-    @Mock private IOcclusionProviderFactory occlusionProviderFactory;
+    @Mock protected IOcclusionProviderFactory occlusionProviderFactory;
 
     @Before
     public void setup() {
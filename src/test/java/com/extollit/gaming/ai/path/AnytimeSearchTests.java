@@ -0,0 +1,78 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.Coords;
+import com.extollit.gaming.ai.path.model.IPath;
+import org.junit.Test;
+
+import static com.extollit.gaming.ai.path.TestingPaths.*;
+import static org.junit.Assert.*;
+
+public class AnytimeSearchTests {
+    private static final PathOptions INFLATED = new PathOptions().epsilon(2);
+
+    private static HydrazinePathFinder pathFinder(SyntheticWorld world) {
+        final HydrazinePathFinder pathFinder = TestingPaths.pathFinder(world, 0.5, 1, 0.5);
+        pathFinder.schedulingPriority(SchedulingPriority.extreme);
+        return pathFinder;
+    }
+
+    private static void assertEndsAt(IPath path, int x, int z) {
+        assertNotNull(path);
+        assertTrue(endsAt(path, x, z));
+        assertEquals(1, path.last().coordinates().y);
+    }
+
+    @Test
+    public void firstPathSooner() {
+        final SyntheticWorld world = new SyntheticWorld(0x7);
+        final HydrazinePathFinder
+            plain = pathFinder(world),
+            inflated = pathFinder(world);
+
+        assertEndsAt(plain.computePathTo(50.5, 1, 30.5), 50, 30);
+        assertEndsAt(inflated.computePathTo(50.5, 1, 30.5, INFLATED), 50, 30);
+        assertTrue(inflated.expansions() < plain.expansions());
+    }
+
+    @Test
+    public void firstPathSoonerFarAway() {
+        final SyntheticWorld world = new SyntheticWorld(0x7);
+        final HydrazinePathFinder
+            plain = pathFinder(world),
+            inflated = pathFinder(world);
+
+        assertEndsAt(plain.computePathTo(80.5, 1, 20.5), 80, 20);
+        assertEndsAt(inflated.computePathTo(80.5, 1, 20.5, INFLATED), 80, 20);
+        assertTrue(inflated.expansions() < plain.expansions());
+    }
+
+    @Test
+    public void improvesOverUpdates() {
+        final HydrazinePathFinder pathFinder = pathFinder(new SyntheticWorld(0x7));
+        IPath path = pathFinder.computePathTo(50.5, 1, 30.5, INFLATED);
+        assertEndsAt(path, 50, 30);
+        assertFalse(pathFinder.queue.isEmpty());
+        final int first = path.length();
+
+        for (int i = 0; i < 400 && !pathFinder.queue.isEmpty(); ++i) {
+            path = pathFinder.update(pathFinder.subject());
+            assertEndsAt(path, 50, 30);
+            assertEquals(new Coords(0, 1, 0), path.at(0).coordinates());
+        }
+
+        assertTrue(pathFinder.queue.isEmpty());
+        assertTrue(path.length() < first);
+    }
+
+    @Test
+    public void uninflatedFinishes() {
+        final HydrazinePathFinder pathFinder = pathFinder(new SyntheticWorld(0x7));
+        assertEndsAt(pathFinder.computePathTo(20.5, 1, 10.5), 20, 10);
+        assertTrue(pathFinder.queue.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void deflated() {
+        new PathOptions().epsilon(0.5f);
+    }
+}
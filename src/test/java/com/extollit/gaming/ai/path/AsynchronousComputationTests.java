@@ -0,0 +1,113 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.*;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class AsynchronousComputationTests extends AbstractHydrazinePathFinderTests {
+    @Mock private IColumnarSpace columnarSpace;
+
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        super.setup();
+
+        final ColumnarOcclusionFieldList occlusionFields = new ColumnarOcclusionFieldList(columnarSpace);
+        when(columnarSpace.instance()).thenReturn(instanceSpace);
+        when(columnarSpace.occlusionFields()).thenReturn(occlusionFields);
+        when(columnarSpace.blockAt(anyInt(), anyInt(), anyInt())).thenReturn(TestingBlocks.air);
+        when(columnarSpace.blockAt(anyInt(), eq(0), anyInt())).thenReturn(TestingBlocks.stone);
+        when(instanceSpace.columnarSpaceAt(anyInt(), anyInt())).thenReturn(columnarSpace);
+        when(instanceSpace.blockObjectAt(anyInt(), anyInt(), anyInt())).thenReturn(TestingBlocks.air);
+        when(instanceSpace.blockObjectAt(anyInt(), eq(0), anyInt())).thenReturn(TestingBlocks.stone);
+
+        pos(0.5, 1, 0.5);
+        pathFinder.withComputeExecutor(tasks::add);
+    }
+
+    private void runTasks() {
+        for (Runnable task : tasks)
+            task.run();
+        tasks.clear();
+    }
+
+    @Test
+    public void computesPath() throws Exception {
+        final CompletableFuture<IPath> future = pathFinder.computePathToAsync(3, 1, 12);
+        assertFalse(future.isDone());
+        assertEquals(1, tasks.size());
+
+        runTasks();
+
+        final IPath path = future.get(0, TimeUnit.SECONDS);
+        assertNotNull(path);
+        assertEquals(new Coords(0, 1, 0), path.at(0).coordinates());
+        assertEquals(new Coords(3, 1, 12), path.last().coordinates());
+    }
+
+    @Test
+    public void commonPool() throws Exception {
+        pathFinder.withComputeExecutor(ForkJoinPool.commonPool());
+
+        final IPath path = pathFinder.computePathToAsync(-7, 1, 5).get(30, TimeUnit.SECONDS);
+        assertNotNull(path);
+        assertEquals(new Coords(-7, 1, 5), path.last().coordinates());
+    }
+
+    @Test
+    public void tooFar() throws Exception {
+        final CompletableFuture<IPath> future = pathFinder.computePathToAsync(100, 1, 100);
+        assertTrue(future.isDone());
+        assertNull(future.get());
+        assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    public void cancelledByReset() {
+        final CompletableFuture<IPath> future = pathFinder.computePathToAsync(3, 1, 12);
+        pathFinder.reset();
+        assertTrue(future.isCancelled());
+
+        runTasks();
+        assertTrue(future.isCancelled());
+    }
+
+    @Test
+    public void cancelledByDestinationChange() {
+        final CompletableFuture<IPath> first = pathFinder.computePathToAsync(3, 1, 12);
+        final CompletableFuture<IPath> second = pathFinder.computePathToAsync(5, 1, 5);
+        assertTrue(first.isCancelled());
+        assertFalse(second.isDone());
+
+        pathFinder.initiatePathTo(2, 1, 2);
+        assertTrue(second.isCancelled());
+    }
+
+    @Test
+    public void snapshotIsolated() throws Exception {
+        final CompletableFuture<IPath> future = pathFinder.computePathToAsync(0, 1, 6);
+
+        when(instanceSpace.columnarSpaceAt(anyInt(), anyInt())).thenReturn(null);
+        runTasks();
+
+        final IPath path = future.get(0, TimeUnit.SECONDS);
+        assertNotNull(path);
+        assertEquals(new Coords(0, 1, 6), path.last().coordinates());
+    }
+}
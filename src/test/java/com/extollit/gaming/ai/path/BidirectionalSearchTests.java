@@ -0,0 +1,127 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.Coords;
+import com.extollit.gaming.ai.path.model.IPath;
+import com.extollit.gaming.ai.path.model.Passibility;
+import com.extollit.linalg.immutable.Vec3d;
+import org.junit.Test;
+
+import static com.extollit.gaming.ai.path.TestingPaths.*;
+import static org.junit.Assert.*;
+
+public class BidirectionalSearchTests {
+    private static final PathOptions BIDIRECTIONAL = new PathOptions().bidirectional(true);
+
+    /**
+     * Pathing entities that are not cautious will drop from ledges
+     */
+    private static HydrazinePathFinder daring(SyntheticWorld world, double x, double y, double z) {
+        return new HydrazinePathFinder(new SyntheticWorld.Entity(96, new Vec3d(x, y, z)) {
+            @Override
+            public boolean cautious() {
+                return false;
+            }
+        }, world);
+    }
+
+    /**
+     * Raises a two block high plateau from which pathing entities can drop but which they cannot climb
+     */
+    private static SyntheticWorld plateau() {
+        final SyntheticWorld world = new SyntheticWorld(-1);
+        for (int x = -8; x <= 8; ++x)
+            for (int z = -8; z <= 8; ++z)
+                for (int y = 1; y <= 2; ++y)
+                    world.setBlock(x, y, z, TestingBlocks.stone);
+
+        return world;
+    }
+
+    @Test
+    public void fewerExpansions() {
+        final SyntheticWorld world = new SyntheticWorld(0x7);
+        final HydrazinePathFinder
+            forward = pathFinder(world, 0.5, 1, 0.5),
+            bidirectional = pathFinder(world, 0.5, 1, 0.5);
+
+        final IPath expected = forward.computePathTo(60.5, 1, 20.5);
+        assertNotNull(expected);
+        assertEquals(new Coords(60, 1, 20), expected.last().coordinates());
+
+        final IPath path = bidirectional.computePathTo(60.5, 1, 20.5, BIDIRECTIONAL);
+        assertFollowable(path, 60, 1, 20);
+        assertTrue(bidirectional.expansions() < forward.expansions());
+    }
+
+    @Test
+    public void dropsFromLedge() {
+        final HydrazinePathFinder pathFinder = daring(plateau(), 0.5, 3, 0.5);
+        final IPath path = pathFinder.computePathTo(20.5, 1, 0.5, BIDIRECTIONAL);
+        assertFollowable(path, 20, 1, 0);
+        assertEquals(3, path.at(0).coordinates().y);
+    }
+
+    @Test
+    public void cannotClimbLedge() {
+        final HydrazinePathFinder pathFinder = daring(plateau(), 20.5, 1, 0.5);
+        assertNull(pathFinder.computePathTo(0.5, 3, 0.5, BIDIRECTIONAL));
+    }
+
+    @Test
+    public void climbsSteps() {
+        final SyntheticWorld world = new SyntheticWorld(-1);
+        for (int step = 1; step <= 4; ++step)
+            for (int x = 4 + step; x <= 20; ++x)
+                for (int z = -2; z <= 2; ++z)
+                    world.setBlock(x, step, z, TestingBlocks.stone);
+
+        final HydrazinePathFinder up = pathFinder(world, 0.5, 1, 0.5);
+        assertFollowable(up.computePathTo(16.5, 5, 0.5, BIDIRECTIONAL), 16, 5, 0);
+
+        final HydrazinePathFinder down = pathFinder(world, 16.5, 5, 0.5);
+        assertFollowable(down.computePathTo(0.5, 1, 0.5, BIDIRECTIONAL), 0, 1, 0);
+    }
+
+    @Test
+    public void samePlace() {
+        final HydrazinePathFinder pathFinder = daring(new SyntheticWorld(-1), 0.5, 1, 0.5);
+        final IPath path = pathFinder.computePathTo(0.5, 1, 0.5, BIDIRECTIONAL);
+        assertNotNull(path);
+        assertEquals(new Coords(0, 1, 0), path.last().coordinates());
+    }
+
+    @Test
+    public void climbsLadder() {
+        final SyntheticWorld world = new SyntheticWorld(-1);
+        for (int y = 1; y <= 4; ++y) {
+            for (int x = 6; x <= 20; ++x)
+                for (int z = -2; z <= 2; ++z)
+                    world.setBlock(x, y, z, TestingBlocks.stone);
+
+            if (y < 4)
+                world.setBlock(5, y, 0, TestingBlocks.ladder);
+        }
+
+        final HydrazinePathFinder up = new HydrazinePathFinder(new SyntheticWorld.Entity(96, new Vec3d(0.5, 1, 0.5)) {
+            @Override
+            public boolean climber() {
+                return true;
+            }
+        }, world);
+        final IPath path = up.computePathTo(12.5, 5, 0.5, BIDIRECTIONAL);
+        assertFollowable(path, 12, 5, 0);
+        assertTrue(contains(path, 5, 0));
+    }
+
+    @Test
+    public void avoidsWorsePassibility() {
+        final HydrazinePathFinder pathFinder = daring(new SyntheticWorld(-1), 0.5, 1, 0.5)
+            .withGraphNodeFilter(node -> node.coordinates().x == 10 && node.coordinates().z != 6 ? Passibility.risky : null);
+
+        final IPath path = pathFinder.computePathTo(20.5, 1, 0.5, BIDIRECTIONAL);
+        assertFollowable(path, 20, 1, 0);
+        for (int i = 0; i < path.length(); ++i)
+            assertEquals(Passibility.passible, path.at(i).passibility());
+    }
+
+}
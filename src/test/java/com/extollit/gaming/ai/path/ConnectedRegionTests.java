@@ -0,0 +1,150 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.Coords;
+import com.extollit.linalg.immutable.Vec3d;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ConnectedRegionTests {
+    private static final int BOX_MIN = 20, BOX_MAX = 28, BOX_ROOF = 4;
+
+    private SyntheticWorld world;
+    private SectionGraph graph;
+    private CapabilityClass walker;
+
+    /**
+     * Seals a room with stone walls and a roof, the room is three blocks high inside
+     */
+    @Before
+    public void setup() {
+        this.world = new SyntheticWorld(-1);
+        seal(BOX_MIN, BOX_MAX, BOX_MIN, BOX_MAX);
+
+        this.graph = new SectionGraph(this.world);
+        this.walker = CapabilityClass.of(new SyntheticWorld.Entity(64, new Vec3d(0.5, 1, 0.5)));
+    }
+
+    private void seal(int x0, int xN, int z0, int zN) {
+        for (int x = x0; x <= xN; ++x)
+            for (int z = z0; z <= zN; ++z) {
+                final boolean wall = x == x0 || x == xN || z == z0 || z == zN;
+                for (int y = wall ? 1 : BOX_ROOF; y <= BOX_ROOF; ++y)
+                    this.world.setBlock(x, y, z, TestingBlocks.stone);
+            }
+    }
+
+    /**
+     * Queries the graph until its labels are conclusive, each query labels no more than a few sections
+     */
+    private boolean unreachable(Coords source, int x, int y, int z) {
+        for (int i = 0; i < 32; ++i)
+            if (this.graph.unreachable(this.walker, source, x, y, z))
+                return true;
+
+        return false;
+    }
+
+    private void door() {
+        for (int y = 1; y <= 2; ++y) {
+            this.world.setBlock(BOX_MIN, y, 24, TestingBlocks.air);
+            this.graph.onBlockChanged(BOX_MIN, y, 24);
+        }
+    }
+
+    @Test
+    public void sealedDestination() {
+        assertTrue(unreachable(new Coords(0, 1, 0), 24, 1, 24));
+    }
+
+    @Test
+    public void sealedSource() {
+        assertTrue(unreachable(new Coords(24, 1, 24), 0, 1, 0));
+    }
+
+    @Test
+    public void reachableUntilLabelled() {
+        assertFalse(this.graph.unreachable(this.walker, new Coords(0, 1, 0), 24, 1, 24));
+        assertTrue(unreachable(new Coords(0, 1, 0), 24, 1, 24));
+    }
+
+    @Test
+    public void sameComponent() {
+        assertFalse(unreachable(new Coords(0, 1, 0), 40, 1, 12));
+        assertFalse(unreachable(new Coords(22, 1, 22), 26, 1, 26));
+    }
+
+    @Test
+    public void belowZero() {
+        for (int x = BOX_MIN; x <= BOX_MAX; ++x)
+            for (int z = BOX_MIN; z <= BOX_MAX; ++z) {
+                final boolean wall = x == BOX_MIN || x == BOX_MAX || z == BOX_MIN || z == BOX_MAX;
+                for (int y = -40; y <= (wall ? -37 : -40); ++y)
+                    this.world.setBlock(x, y, z, TestingBlocks.stone);
+            }
+
+        assertFalse(unreachable(new Coords(22, -39, 22), 26, -39, 26));
+        assertTrue(unreachable(new Coords(0, 1, 0), 24, -39, 24));
+    }
+
+    @Test
+    public void openedRoom() {
+        assertTrue(unreachable(new Coords(0, 1, 0), 24, 1, 24));
+        door();
+        assertFalse(unreachable(new Coords(0, 1, 0), 24, 1, 24));
+    }
+
+    @Test
+    public void sealedRoom() {
+        door();
+        assertFalse(unreachable(new Coords(24, 1, 24), 0, 1, 0));
+
+        for (int y = 1; y <= 2; ++y) {
+            this.world.setBlock(BOX_MIN, y, 24, TestingBlocks.stone);
+            this.graph.onBlockChanged(BOX_MIN, y, 24);
+        }
+        assertTrue(unreachable(new Coords(24, 1, 24), 0, 1, 0));
+    }
+
+    /**
+     * The hall spans four sections and is opened at its far end, more than a section away from the sections of both the
+     * source and the destination, and the graph itself is never notified of the change
+     */
+    @Test
+    public void openedFarWall() {
+        seal(4, 60, 36, 44);
+
+        final SyntheticWorld.Entity entity = new SyntheticWorld.Entity(64, new Vec3d(8.5, 1, 20.5));
+        final HydrazinePathFinder pathFinder = new HydrazinePathFinder(entity, this.world).withSectionGraph(this.graph);
+        pathFinder.schedulingPriority(SchedulingPriority.extreme);
+        assertTrue(unreachable(new Coords(8, 1, 20), 8, 1, 40));
+        assertNull(pathFinder.computePathTo(8.5, 1, 40.5));
+
+        for (int y = 1; y <= 2; ++y) {
+            this.world.setBlock(60, y, 40, TestingBlocks.air);
+            pathFinder.onBlockChanged(60, y, 40);
+        }
+
+        assertNotNull(pathFinder.computePathTo(8.5, 1, 40.5));
+    }
+
+    @Test
+    public void pathFinderRejects() {
+        final SyntheticWorld.Entity entity = new SyntheticWorld.Entity(64, new Vec3d(0.5, 1, 0.5));
+        final HydrazinePathFinder pathFinder = new HydrazinePathFinder(entity, this.world).withSectionGraph(this.graph);
+        pathFinder.schedulingPriority(SchedulingPriority.extreme);
+        assertTrue(unreachable(new Coords(0, 1, 0), 24, 1, 24));
+
+        assertNull(pathFinder.computePathTo(24.5, 1, 24.5));
+        assertEquals(0, pathFinder.expansions());
+
+        assertNull(pathFinder.initiatePathTo(24.5, 1, 24.5, PathOptions.NONE));
+        assertEquals(0, pathFinder.expansions());
+
+        assertNotNull(pathFinder.initiatePathTo(24.5, 1, 24.5));
+
+        door();
+        assertNotNull(pathFinder.computePathTo(24.5, 1, 24.5));
+    }
+}
@@ -0,0 +1,115 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.IPath;
+import com.extollit.gaming.ai.path.model.Node;
+import com.extollit.linalg.immutable.Vec3d;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class ExpansionAllocationTests {
+    private static final int
+        WARM_UP_PASSES = 8,
+        MEASURED_PASSES = 8,
+        REPATHING_CYCLES = 4;
+
+    private com.sun.management.ThreadMXBean threads;
+
+    @Before
+    public void setup() {
+        final java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+
+        this.threads = (com.sun.management.ThreadMXBean) threads;
+        assumeTrue(this.threads.isThreadAllocatedMemorySupported());
+        this.threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    public void groundExpansionAllocatesNothing() {
+        assertEquals(0, expansionAllocations(new SyntheticWorld.Entity(64, new Vec3d(0.5, 1, 0.5))));
+    }
+
+    @Test
+    public void omnidirectionalExpansionAllocatesNothing() {
+        assertEquals(0, expansionAllocations(new SyntheticWorld.Entity(64, new Vec3d(0.5, 1, 0.5)) {
+            @Override
+            public boolean avian() {
+                return true;
+            }
+        }));
+    }
+
+    @Test
+    public void repathingAllocatesNoNodes() {
+        final HydrazinePathFinder pathFinder = new HydrazinePathFinder(new SyntheticWorld.Entity(64, new Vec3d(0.5, 1, 0.5)), new SyntheticWorld(15));
+        pathFinder.schedulingPriority(SchedulingPriority.extreme);
+
+        Set<Node> previous = null;
+        for (int c = 0; c < REPATHING_CYCLES; ++c) {
+            assertNotNull(pathFinder.initiatePathTo(24, 1, 6));
+
+            final Set<Node> graph = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Node node : pathFinder.nodeMap.all())
+                graph.add(node);
+
+            if (previous != null)
+                assertEquals(previous, graph);
+
+            previous = graph;
+            pathFinder.reset();
+        }
+    }
+
+    private long expansionAllocations(SyntheticWorld.Entity entity) {
+        final HydrazinePathFinder pathFinder = new HydrazinePathFinder(entity, new SyntheticWorld(15));
+        pathFinder.schedulingPriority(SchedulingPriority.extreme);
+
+        final IPath path = pathFinder.computePathTo(24, 1, 6);
+        assertNotNull(path);
+
+        final List<Node> expanded = new ArrayList<>();
+        for (Node node : pathFinder.nodeMap.all())
+            if (node.visited())
+                expanded.add(node);
+
+        assertFalse(expanded.isEmpty());
+
+        final Node[] nodes = expanded.toArray(new Node[0]);
+        for (int c = 0; c < WARM_UP_PASSES; ++c)
+            expandAll(pathFinder, nodes);
+
+        // The JVM allocates sporadically on this thread while tiered compilation settles (e.g. re-linking call sites and
+        // resolving the string constants of newly compiled methods), genuine allocations on the expansion path recur on
+        // every pass, so only the quietest pass is considered
+        long least = Long.MAX_VALUE;
+        for (int c = 0; c < MEASURED_PASSES; ++c) {
+            final long
+                calibration = allocatedBytes(),
+                before = allocatedBytes();
+            expandAll(pathFinder, nodes);
+            final long after = allocatedBytes();
+
+            least = Math.min(least, Math.max(0, (after - before) - (before - calibration)));
+        }
+        return least;
+    }
+
+    private static void expandAll(HydrazinePathFinder pathFinder, Node[] nodes) {
+        for (Node node : nodes)
+            pathFinder.processNode(node);
+    }
+
+    private long allocatedBytes() {
+        return this.threads.getCurrentThreadAllocatedBytes();
+    }
+}
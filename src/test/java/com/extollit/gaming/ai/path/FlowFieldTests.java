@@ -0,0 +1,212 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.Coords;
+import com.extollit.gaming.ai.path.model.Gravitation;
+import com.extollit.gaming.ai.path.model.IPath;
+import com.extollit.gaming.ai.path.model.Node;
+import com.extollit.gaming.ai.path.model.Passibility;
+import com.extollit.linalg.immutable.Vec3d;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.extollit.gaming.ai.path.TestingPaths.*;
+import static org.junit.Assert.*;
+
+public class FlowFieldTests {
+    private SyntheticWorld world;
+    private FlowField flowField;
+    private SyntheticWorld.Entity target;
+
+    @Before
+    public void setup() {
+        this.world = new SyntheticWorld(-1);
+        this.flowField = new FlowField(this.world);
+        this.target = new SyntheticWorld.Entity(64, new Vec3d(20.5, 1, 4.5));
+    }
+
+    private HydrazinePathFinder follower(SyntheticWorld.Entity entity) {
+        return new HydrazinePathFinder(entity, this.world).withFlowField(this.flowField);
+    }
+
+    private FlowField.Field fieldOf(HydrazinePathFinder follower) {
+        return this.flowField.fieldFor(this.target, CapabilityClass.of(follower.subject()));
+    }
+
+    private IPath settle(HydrazinePathFinder follower) {
+        final FlowField.Field field = fieldOf(follower);
+        IPath path = null;
+        for (int i = 0; i < 4096 && !field.complete(); ++i)
+            path = follower.updatePathFor(follower.subject());
+
+        assertTrue(field.complete());
+        return path;
+    }
+
+    private IPath fieldPath(double x, double z) {
+        final HydrazinePathFinder reader = follower(walker(x, z));
+        reader.trackPathTo(this.target);
+
+        final IPath path = reader.updatePathFor(reader.subject());
+        assertEquals(0, reader.expansions());
+        reader.reset();
+        return path;
+    }
+
+    private static SyntheticWorld.Entity walker(double x, double z) {
+        return new SyntheticWorld.Entity(64, new Vec3d(x, 1, z));
+    }
+
+    private static SyntheticWorld.Entity flyer(double x, double z) {
+        return new SyntheticWorld.Entity(64, new Vec3d(x, 1, z)) {
+            @Override
+            public boolean avian() {
+                return true;
+            }
+        };
+    }
+
+    @Test
+    public void sharedPerCapabilityClass() {
+        final HydrazinePathFinder
+            a = follower(walker(0.5, 0.5)),
+            b = follower(walker(0.5, 8.5)),
+            c = follower(flyer(4.5, 0.5));
+
+        a.trackPathTo(this.target);
+        b.trackPathTo(this.target);
+        assertEquals(1, this.flowField.fieldCount());
+
+        c.trackPathTo(this.target);
+        assertEquals(2, this.flowField.fieldCount());
+
+        a.reset();
+        assertEquals(2, this.flowField.fieldCount());
+        b.reset();
+        c.computePathTo(8, 1, 0);
+        assertEquals(0, this.flowField.fieldCount());
+    }
+
+    @Test
+    public void followersReadPathsFromField() {
+        final HydrazinePathFinder
+            a = follower(walker(0.5, 0.5)),
+            b = follower(walker(0.5, 8.5));
+
+        a.trackPathTo(this.target);
+        b.trackPathTo(this.target);
+
+        settle(a);
+
+        final IPath path = b.updatePathFor(b.subject());
+        assertTrue(endsAt(path, 20, 4));
+        assertEquals(0, b.expansions());
+    }
+
+    @Test
+    public void followersReachTarget() {
+        final SyntheticWorld.Entity[] entities = {
+            walker(0.5, 0.5),
+            walker(0.5, 8.5),
+            walker(6.5, -6.5)
+        };
+        final HydrazinePathFinder[] followers = new HydrazinePathFinder[entities.length];
+        for (int i = 0; i < entities.length; ++i)
+            (followers[i] = follower(entities[i])).trackPathTo(this.target);
+
+        for (int tick = 0; tick < 200; ++tick)
+            for (int i = 0; i < entities.length; ++i) {
+                followers[i].updatePathFor(entities[i]);
+                entities[i].tick();
+            }
+
+        for (SyntheticWorld.Entity entity : entities)
+            assertTrue(entity.coordinates().subOf(this.target.coordinates()).mg2() <= 2);
+    }
+
+    @Test
+    public void refreshesAsTargetMoves() {
+        final HydrazinePathFinder a = follower(walker(0.5, 0.5));
+        a.trackPathTo(this.target);
+        settle(a);
+
+        this.target.moveTo(new Vec3d(14.5, 1, -10.5), Passibility.passible, Gravitation.grounded);
+        settle(a);
+
+        assertTrue(endsAt(fieldPath(0.5, 0.5), 14, -11));
+    }
+
+    @Test
+    public void repairedAsTargetMoves() {
+        final FlowField.Field field = this.flowField.fieldFor(this.target, CapabilityClass.of(walker(0, 0)));
+        field.follow(this, 0, 1, 0);
+        final int built = field.refresh(Integer.MAX_VALUE);
+        assertTrue(field.complete());
+
+        this.target.moveTo(new Vec3d(18.5, 1, 6.5), Passibility.passible, Gravitation.grounded);
+        final int repaired = field.refresh(Integer.MAX_VALUE);
+        assertTrue(field.complete());
+        assertTrue(repaired < built);
+
+        final FlowField.Field fresh = new FlowField(this.world).fieldFor(this.target, CapabilityClass.of(walker(0, 0)));
+        fresh.follow(this, 0, 1, 0);
+        fresh.refresh(Integer.MAX_VALUE);
+        assertSameSteps(fresh, field, 0, 0);
+        assertSameSteps(fresh, field, 10, -8);
+        assertSameSteps(fresh, field, 30, 12);
+    }
+
+    @Test
+    public void extendedAsFollowerLeaves() {
+        final FlowField.Field field = this.flowField.fieldFor(this.target, CapabilityClass.of(walker(0, 0)));
+        field.follow(this, 0, 1, 0);
+        final int built = field.refresh(Integer.MAX_VALUE);
+        assertNull(field.stepsFrom(new Coords(-30, 1, 0), Node.MAX_PATH_DISTANCE));
+
+        field.follow(this, -30, 1, 0);
+        final int extended = field.refresh(Integer.MAX_VALUE);
+        assertTrue(field.complete());
+        assertTrue(extended < built);
+
+        final FlowField.Field fresh = new FlowField(this.world).fieldFor(this.target, CapabilityClass.of(walker(0, 0)));
+        fresh.follow(this, -30, 1, 0);
+        fresh.refresh(Integer.MAX_VALUE);
+        assertSameSteps(fresh, field, -30, 0);
+        assertSameSteps(fresh, field, 0, 0);
+    }
+
+    private static void assertSameSteps(FlowField.Field expected, FlowField.Field actual, int x, int z) {
+        final Coords source = new Coords(x, 1, z);
+        final Node[]
+            expectedSteps = expected.stepsFrom(source, Node.MAX_PATH_DISTANCE),
+            actualSteps = actual.stepsFrom(source, Node.MAX_PATH_DISTANCE);
+
+        assertNotNull(actualSteps);
+        assertEquals(expectedSteps.length, actualSteps.length);
+        assertEquals(expectedSteps[expectedSteps.length - 1].key, actualSteps[actualSteps.length - 1].key);
+    }
+
+    @Test
+    public void blockChangesRecompute() {
+        final HydrazinePathFinder a = follower(walker(0.5, 0.5));
+        this.target = new SyntheticWorld.Entity(64, new Vec3d(8.5, 1, 0.5));
+        a.trackPathTo(this.target);
+        settle(a);
+        assertTrue(stepsContain(fieldOf(a).stepsFrom(new Coords(0, 1, 0), Node.MAX_PATH_DISTANCE), 4, 0));
+
+        for (int y = 1; y <= 2; ++y) {
+            this.world.setBlock(4, y, 0, TestingBlocks.stone);
+            this.flowField.onBlockChanged(4, y, 0);
+        }
+
+        settle(a);
+        assertFalse(stepsContain(fieldOf(a).stepsFrom(new Coords(0, 1, 0), Node.MAX_PATH_DISTANCE), 4, 0));
+    }
+
+    private static boolean stepsContain(Node[] steps, int x, int z) {
+        for (Node step : steps)
+            if (step.key.x == x && step.key.z == z)
+                return true;
+
+        return false;
+    }
+}
@@ -698,4 +698,94 @@ public class HydrazinePathFinderTests extends AbstractHydrazinePathFinderTests {
 
         assertPath(path, new Coords(0, 0, 0), new Coords(0, 0, 1), new Coords(0, 0, 2));
     }
+
+    @Test
+    public void expiredDeadlineExpandsOnce() {
+        defaultGround();
+
+        final IPath path = pathFinder.initiatePathTo(0, 0, 30, PathOptions.BEST_EFFORT, System.nanoTime());
+
+        assertNotNull(path);
+        assertEquals(1, pathFinder.expansions());
+        assertTrue(pathFinder.timeRemaining() <= 0);
+
+        pathFinder.updatePathFor(pathingEntity, System.nanoTime());
+        assertEquals(1, pathFinder.expansions());
+    }
+
+    @Test
+    public void generousDeadlineCompletes() {
+        defaultGround();
+
+        final IPath path = pathFinder.initiatePathTo(0, 0, 25, PathOptions.BEST_EFFORT, System.nanoTime() + 60_000_000_000L);
+
+        assertNotNull(path);
+        assertEquals(new Coords(0, 0, 25), path.last().coordinates());
+        assertTrue(pathFinder.expansions() > SchedulingPriority.high.initComputeIterations);
+        assertTrue(pathFinder.timeRemaining() > 0);
+    }
+
+    @Test
+    public void bucketQueueStrategy() {
+        defaultGround();
+        solid(0, 0, 3);
+        solid(0, 1, 3);
+
+        pathFinder.withQueueStrategy(QueueStrategy.bucket);
+        assertEquals(QueueStrategy.bucket, pathFinder.queueStrategy());
+
+        final IPath path = pathFinder.computePathTo(0, 0, 6);
+
+        assertNotNull(path);
+        assertEquals(new Coords(0, 0, 6), path.last().coordinates());
+        assertEquals(9, path.length());
+    }
+
+    @Test
+    public void currentPathSurvivesRetiredGraph() {
+        defaultGround();
+
+        final IPath path = pathFinder.computePathTo(0, 0, 6);
+        assertNotNull(path);
+
+        final int length = path.length();
+        final Coords[] coordinates = new Coords[length];
+        final Passibility[] passibilities = new Passibility[length];
+        for (int i = 0; i < length; ++i) {
+            coordinates[i] = path.at(i).coordinates();
+            passibilities[i] = path.at(i).passibility();
+        }
+
+        pathFinder.nodeMap.clear();
+        lava(1, -1, 3);
+        lava(-1, -1, 3);
+
+        assertNotNull(pathFinder.computePathTo(0, 0, 6));
+
+        assertEquals(length, path.length());
+        for (int i = 0; i < length; ++i) {
+            final Node node = (Node) path.at(i);
+            assertEquals(coordinates[i], node.coordinates());
+            assertEquals(passibilities[i], node.passibility());
+            if (i > 0)
+                assertSame(path.at(i - 1), node.up());
+
+            for (Node other : pathFinder.nodeMap.all())
+                assertNotSame(node, other);
+        }
+    }
+
+    @Test
+    public void replacedPathRecycled() {
+        defaultGround();
+
+        final IPath path = pathFinder.computePathTo(0, 0, 6);
+        assertNotNull(path);
+        final INode last = path.last();
+
+        pathFinder.reset();
+        final IPath next = pathFinder.computePathTo(0, 0, 6);
+        assertNotNull(next);
+        assertSame(last, next.last());
+    }
 }
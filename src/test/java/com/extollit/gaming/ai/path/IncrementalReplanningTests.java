@@ -0,0 +1,113 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.Coords;
+import com.extollit.gaming.ai.path.model.IPath;
+import com.extollit.gaming.ai.path.model.Node;
+import com.extollit.linalg.immutable.Vec3d;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.extollit.gaming.ai.path.TestingPaths.*;
+import static org.junit.Assert.*;
+
+public class IncrementalReplanningTests {
+    private SyntheticWorld world;
+    private SyntheticWorld.Entity entity;
+    private HydrazinePathFinder pathFinder;
+
+    @Before
+    public void setup() {
+        this.world = new SyntheticWorld(-1);
+        this.entity = new SyntheticWorld.Entity(64, new Vec3d(0.5, 1, 0.5));
+        this.pathFinder = new HydrazinePathFinder(this.entity, this.world);
+        this.pathFinder.schedulingPriority(SchedulingPriority.extreme);
+    }
+
+    private void column(int x, int z, boolean solid) {
+        for (int y = 1; y <= 2; ++y) {
+            this.world.setBlock(x, y, z, solid ? TestingBlocks.stone : TestingBlocks.air);
+            this.pathFinder.onBlockChanged(x, y, z);
+        }
+    }
+
+    private IPath complete(IPath path, int x, int z) {
+        for (int i = 0; i < 64 && !endsAt(path, x, z); ++i)
+            path = this.pathFinder.update(this.entity);
+
+        assertTrue(endsAt(path, x, z));
+        return path;
+    }
+
+    private Node nodeAt(int x, int y, int z) {
+        for (Node node : this.pathFinder.nodeMap.all())
+            if (node.key.equals(new Coords(x, y, z)))
+                return node;
+
+        return null;
+    }
+
+    @Test
+    public void routesAroundPlacedBlock() {
+        IPath path = complete(this.pathFinder.initiatePathTo(12.5, 1, 0.5), 12, 0);
+        assertTrue(contains(path, 6, 0));
+
+        final Node retained = nodeAt(1, 1, 0);
+        assertNotNull(retained);
+
+        column(6, 0, true);
+
+        path = complete(this.pathFinder.update(this.entity), 12, 0);
+        assertFalse(contains(path, 6, 0));
+        assertSame(retained, nodeAt(1, 1, 0));
+    }
+
+    @Test
+    public void repairsSearchInProgress() {
+        this.pathFinder.schedulingPriority(4, 4);
+        final IPath path = this.pathFinder.initiatePathTo(30.5, 1, 0.5);
+        assertNotNull(path);
+        assertFalse(endsAt(path, 30, 0));
+        assertNotNull(nodeAt(3, 1, 0));
+
+        column(3, 0, true);
+
+        this.pathFinder.schedulingPriority(SchedulingPriority.extreme);
+        assertFalse(contains(complete(this.pathFinder.update(this.entity), 30, 0), 3, 0));
+    }
+
+    @Test
+    public void routesThroughOpenedPassage() {
+        for (int z = -4; z <= 4; ++z)
+            column(5, z, true);
+
+        IPath path = complete(this.pathFinder.initiatePathTo(10.5, 1, 0.5), 10, 0);
+        assertFalse(contains(path, 5, 0));
+
+        column(5, 0, false);
+
+        path = complete(this.pathFinder.update(this.entity), 10, 0);
+        assertTrue(contains(path, 5, 0));
+    }
+
+    @Test
+    public void distantChangeUnaffected() {
+        complete(this.pathFinder.initiatePathTo(12.5, 1, 0.5), 12, 0);
+
+        this.world.setBlock(0, 1, 60, TestingBlocks.stone);
+        assertFalse(this.pathFinder.onBlockChanged(0, 1, 60));
+    }
+
+    @Test
+    public void schedulerForwards() {
+        final PathingScheduler scheduler = new PathingScheduler(100);
+        final HydrazinePathFinder other = new HydrazinePathFinder(new SyntheticWorld.Entity(64, new Vec3d(0.5, 1, 40.5)), this.world);
+        scheduler.register(this.pathFinder);
+        scheduler.register(other);
+
+        complete(this.pathFinder.initiatePathTo(12.5, 1, 0.5), 12, 0);
+        other.initiatePathTo(12.5, 1, 40.5);
+
+        this.world.setBlock(6, 1, 0, TestingBlocks.stone);
+        assertEquals(1, scheduler.onBlockChanged(6, 1, 0));
+    }
+}
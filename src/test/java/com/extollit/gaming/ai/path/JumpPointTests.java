@@ -0,0 +1,66 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.IPath;
+import com.extollit.gaming.ai.path.model.Passibility;
+import org.junit.Test;
+
+import static com.extollit.gaming.ai.path.TestingPaths.*;
+import static org.junit.Assert.*;
+
+public class JumpPointTests {
+    private static final PathOptions JUMP_POINTS = new PathOptions().jumpPoints(true);
+
+    private static void assertPassible(IPath path, int x, int z) {
+        assertFollowable(path, x, 1, z);
+        for (int i = 0; i < path.length(); ++i)
+            assertEquals(Passibility.passible, path.at(i).passibility());
+    }
+
+    @Test
+    public void fewerExpansions() {
+        final SyntheticWorld world = new SyntheticWorld(-1);
+        final HydrazinePathFinder
+            plain = pathFinder(world, 0.5, 1, 0.5),
+            jumping = pathFinder(world, 0.5, 1, 0.5);
+
+        assertPassible(plain.computePathTo(40.5, 1, 30.5), 40, 30);
+        assertPassible(jumping.computePathTo(40.5, 1, 30.5, JUMP_POINTS), 40, 30);
+        assertTrue(jumping.expansions() * 2 < plain.expansions());
+    }
+
+    @Test
+    public void obstacles() {
+        final HydrazinePathFinder pathFinder = pathFinder(new SyntheticWorld(0x7), 0.5, 1, 0.5);
+        assertPassible(pathFinder.computePathTo(60.5, 1, 20.5, JUMP_POINTS), 60, 20);
+    }
+
+    @Test
+    public void aroundWall() {
+        final SyntheticWorld world = new SyntheticWorld(-1);
+        for (int z = -6; z <= 6; ++z)
+            for (int y = 1; y <= 2; ++y)
+                world.setBlock(10, y, z, TestingBlocks.stone);
+
+        final IPath path = pathFinder(world, 0.5, 1, 0.5).computePathTo(20.5, 1, 0.5, JUMP_POINTS);
+        assertPassible(path, 20, 0);
+        for (int z = -6; z <= 6; ++z)
+            assertFalse(contains(path, 10, z));
+    }
+
+    @Test
+    public void skippedBlockChanged() {
+        final SyntheticWorld world = new SyntheticWorld(-1);
+        final HydrazinePathFinder pathFinder = pathFinder(world, 0.5, 1, 0.5);
+        pathFinder.schedulingPriority(SchedulingPriority.extreme);
+
+        assertTrue(contains(pathFinder.computePathTo(30.5, 1, 0.5, JUMP_POINTS), 7, 0));
+
+        world.setBlock(7, 2, 0, TestingBlocks.stone);
+        world.setBlock(7, 1, 0, TestingBlocks.stone);
+        assertTrue(pathFinder.onBlockChanged(7, 1, 0));
+
+        final IPath path = pathFinder.computePathTo(30.5, 1, 0.5, JUMP_POINTS);
+        assertPassible(path, 30, 0);
+        assertFalse(contains(path, 7, 0));
+    }
+}
@@ -0,0 +1,128 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.Coords;
+import com.extollit.gaming.ai.path.model.IPath;
+import com.extollit.linalg.immutable.Vec3d;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LandmarkTests {
+    private SyntheticWorld world;
+    private Landmarks landmarks;
+
+    @Before
+    public void setup() {
+        this.world = new SyntheticWorld(-1);
+        for (int z = -7; z <= 30; ++z)
+            for (int y = 1; y <= 3; ++y)
+                this.world.setBlock(10, y, z, TestingBlocks.stone);
+
+        this.landmarks = new Landmarks(this.world, Runnable::run);
+    }
+
+    private HydrazinePathFinder pathFinder() {
+        final HydrazinePathFinder pathFinder = new HydrazinePathFinder(new SyntheticWorld.Entity(96, new Vec3d(0.5, 1, 0.5)), this.world);
+        pathFinder.schedulingPriority(SchedulingPriority.extreme);
+        return pathFinder;
+    }
+
+    private Landmarks.Table table(Coords location) {
+        final HydrazinePathFinder pathFinder = pathFinder();
+        return this.landmarks.tableFor(CapabilityClass.of(pathFinder.subject()), location);
+    }
+
+    private Landmarks.Table table() {
+        return table(new Coords(12, 1, 0));
+    }
+
+    @Test
+    public void fewerExpansions() {
+        final HydrazinePathFinder
+            plain = pathFinder(),
+            informed = pathFinder().withLandmarks(this.landmarks);
+
+        assertNotNull(table());
+
+        final IPath expected = plain.computePathTo(12.5, 1, 0.5);
+        assertNotNull(expected);
+        assertEquals(new Coords(12, 1, 0), expected.last().coordinates());
+
+        final IPath path = informed.computePathTo(12.5, 1, 0.5);
+        assertNotNull(path);
+        assertEquals(new Coords(12, 1, 0), path.last().coordinates());
+        assertTrue(informed.expansions() < plain.expansions());
+    }
+
+    @Test
+    public void admissible() {
+        final Landmarks.Table table = table();
+        assertNotNull(table);
+        assertTrue(table.landmarks() > 0);
+
+        final IPath path = pathFinder().computePathTo(12.5, 1, 0.5);
+        assertNotNull(path);
+
+        final Coords
+            source = new Coords(0, 1, 0),
+            target = new Coords(12, 1, 0);
+
+        assertTrue(table.distanceBound(source, target) > 12);
+        assertTrue(table.distanceBound(source, target) <= path.length());
+        assertEquals(0, table.distanceBound(target, target));
+    }
+
+    /**
+     * Extends the wall past the edge of the margin so the shortest path around it leaves the margin, within the margin
+     * the only way around the wall is around its other end which is much longer
+     */
+    @Test
+    public void admissibleBeyondMargin() {
+        for (int z = -20; z <= -8; ++z)
+            for (int y = 1; y <= 3; ++y)
+                this.world.setBlock(10, y, z, TestingBlocks.stone);
+
+        final Landmarks.Table table = table();
+        assertNotNull(table);
+
+        final IPath path = pathFinder().computePathTo(12.5, 1, 0.5);
+        assertNotNull(path);
+        assertTrue(path.at(path.length() / 2).coordinates().z < -8);
+        assertTrue(table.distanceBound(new Coords(0, 1, 0), new Coords(12, 1, 0)) <= path.length());
+    }
+
+    @Test
+    public void blockChanged() {
+        assertNotNull(table());
+        assertEquals(1, this.landmarks.tableCount());
+
+        this.landmarks.onBlockChanged(200, 1, 200);
+        assertEquals(1, this.landmarks.tableCount());
+
+        this.landmarks.onBlockChanged(5, 1, 5);
+        assertEquals(0, this.landmarks.tableCount());
+    }
+
+    @Test
+    public void perVerticalBand() {
+        final Landmarks.Table table = table();
+        assertNotNull(table);
+        assertSame(table, table(new Coords(12, 30, 0)));
+
+        assertNotNull(table(new Coords(12, 40, 0)));
+        assertNotSame(table, table(new Coords(12, 40, 0)));
+        assertEquals(2, this.landmarks.tableCount());
+    }
+
+    @Test
+    public void untabulatedFallsBack() {
+        final Landmarks.Table table = table();
+        assertNotNull(table);
+
+        final Coords target = new Coords(12, 1, 0);
+        assertEquals(0, table.distanceBound(new Coords(0, 60, 0), target));
+        assertEquals(0, table.distanceBound(new Coords(0, 1, 0), new Coords(0, 60, 0)));
+        assertEquals(0, table.distanceBound(new Coords(100, 1, 0), target));
+    }
+}
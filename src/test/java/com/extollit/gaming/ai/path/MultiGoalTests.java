@@ -0,0 +1,80 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.Coords;
+import com.extollit.gaming.ai.path.model.IPath;
+import com.extollit.linalg.immutable.Vec3d;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class MultiGoalTests {
+    private SyntheticWorld world;
+    private HydrazinePathFinder pathFinder;
+
+    @Before
+    public void setup() {
+        this.world = new SyntheticWorld(-1);
+        for (int z = -6; z <= 6; ++z)
+            for (int y = 1; y <= 3; ++y)
+                this.world.setBlock(3, y, z, TestingBlocks.stone);
+
+        this.pathFinder = new HydrazinePathFinder(new SyntheticWorld.Entity(96, new Vec3d(0.5, 1, 0.5)), this.world);
+        this.pathFinder.schedulingPriority(SchedulingPriority.extreme);
+    }
+
+    private IPath complete(IPath path) {
+        for (int i = 0; i < 100 && path != null && !this.pathFinder.queue.isEmpty(); ++i)
+            path = this.pathFinder.update(this.pathFinder.subject());
+
+        return path;
+    }
+
+    @Test
+    public void nearestByPath() {
+        final IPath path = complete(this.pathFinder.initiatePathTo(Arrays.asList(
+            new Vec3d(6.5, 1, 0.5),
+            new Vec3d(0.5, 1, -9.5)
+        )));
+
+        assertNotNull(path);
+        assertEquals(new Coords(0, 1, -10), path.last().coordinates());
+        assertEquals(1, path.goal());
+    }
+
+    @Test
+    public void nearestByDistance() {
+        final IPath path = complete(this.pathFinder.initiatePathTo(Arrays.asList(
+            new Vec3d(-12.5, 1, 0.5),
+            new Vec3d(-5.5, 1, 4.5),
+            new Vec3d(0.5, 1, 15.5)
+        )));
+
+        assertNotNull(path);
+        assertEquals(new Coords(-6, 1, 4), path.last().coordinates());
+        assertEquals(1, path.goal());
+    }
+
+    @Test
+    public void singleDestination() {
+        final IPath path = complete(this.pathFinder.initiatePathTo(new Vec3d(-5.5, 1, 4.5)));
+        assertNotNull(path);
+        assertEquals(-1, path.goal());
+    }
+
+    @Test
+    public void allTooFar() {
+        assertNull(this.pathFinder.initiatePathTo(Arrays.asList(
+            new Vec3d(500.5, 1, 0.5),
+            new Vec3d(0.5, 1, -500.5)
+        ), PathOptions.NONE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void noDestinations() {
+        this.pathFinder.initiatePathTo(Collections.<Vec3d>emptyList());
+    }
+}
@@ -0,0 +1,141 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.*;
+import com.extollit.linalg.immutable.Vec3d;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.extollit.gaming.ai.path.TestingPaths.*;
+import static org.junit.Assert.*;
+
+public class PassibilityCacheTests {
+    private SyntheticWorld world;
+    private PassibilityCache cache;
+    private int samples;
+
+    @Before
+    public void setup() {
+        this.world = new SyntheticWorld(-1);
+        this.cache = new PassibilityCache();
+    }
+
+    private HydrazinePathFinder pathFinder(SyntheticWorld.Entity entity) {
+        final IOcclusionProviderFactory counting = (instance, cx0, cz0, cxN, czN) -> {
+            final IOcclusionProvider delegate = AreaOcclusionProviderFactory.INSTANCE.fromInstanceSpace(instance, cx0, cz0, cxN, czN);
+            return new IOcclusionProvider() {
+                @Override
+                public byte elementAt(int x, int y, int z) {
+                    PassibilityCacheTests.this.samples++;
+                    return delegate.elementAt(x, y, z);
+                }
+
+                @Override
+                public String visualizeAt(int y) {
+                    return delegate.visualizeAt(y);
+                }
+            };
+        };
+        final HydrazinePathFinder pathFinder = new HydrazinePathFinder(entity, this.world, counting);
+        pathFinder.schedulingPriority(SchedulingPriority.extreme);
+        return pathFinder;
+    }
+
+    private static SyntheticWorld.Entity walker() {
+        return new SyntheticWorld.Entity(64, new Vec3d(0.5, 1, 0.5));
+    }
+
+    private static IPath complete(HydrazinePathFinder pathFinder, double x, double z) {
+        final int
+            bx = (int)Math.floor(x),
+            bz = (int)Math.floor(z);
+
+        IPath path = pathFinder.initiatePathTo(x, 1, z);
+        for (int i = 0; i < 64 && !endsAt(path, bx, bz); ++i)
+            path = pathFinder.update(pathFinder.subject());
+
+        assertTrue(endsAt(path, bx, bz));
+        return path;
+    }
+
+    private static void assertSamePath(IPath expected, IPath actual) {
+        assertEquals(expected.length(), actual.length());
+        for (int i = 0; i < expected.length(); ++i)
+            assertEquals(expected.at(i).coordinates(), actual.at(i).coordinates());
+    }
+
+    @Test
+    public void sharedAmongClass() {
+        final HydrazinePathFinder
+            a = pathFinder(walker()).withPassibilityCache(this.cache),
+            b = pathFinder(walker()).withPassibilityCache(this.cache);
+
+        assertSame(a.nodeMap.passibilityTable(), b.nodeMap.passibilityTable());
+        assertEquals(1, this.cache.tableCount());
+
+        final IPath expected = complete(a, 20.5, 4.5);
+        final int computed = this.samples;
+
+        this.samples = 0;
+        assertSamePath(expected, complete(b, 20.5, 4.5));
+        assertTrue(this.samples * 4 < computed);
+    }
+
+    @Test
+    public void sameAsUncached() {
+        final IPath expected = complete(pathFinder(walker()), 20.5, -7.5);
+
+        complete(pathFinder(walker()).withPassibilityCache(this.cache), 20.5, -7.5);
+        assertSamePath(expected, complete(pathFinder(walker()).withPassibilityCache(this.cache), 20.5, -7.5));
+    }
+
+    @Test
+    public void separateTables() {
+        final IGraphNodeFilter filter = node -> null;
+        final SyntheticWorld.Entity flyer = new SyntheticWorld.Entity(64, new Vec3d(0.5, 1, 0.5)) {
+            @Override
+            public boolean avian() {
+                return true;
+            }
+        };
+
+        final HydrazinePathFinder
+            a = pathFinder(walker()).withPassibilityCache(this.cache),
+            b = pathFinder(flyer).withPassibilityCache(this.cache),
+            c = pathFinder(walker()).withPassibilityCache(this.cache).withGraphNodeFilter(filter);
+
+        assertEquals(3, this.cache.tableCount());
+        assertNotSame(a.nodeMap.passibilityTable(), b.nodeMap.passibilityTable());
+        assertNotSame(a.nodeMap.passibilityTable(), c.nodeMap.passibilityTable());
+
+        c.withGraphNodeFilter(null);
+        assertSame(a.nodeMap.passibilityTable(), c.nodeMap.passibilityTable());
+
+        a.withPassibilityCache(null);
+        assertNull(a.nodeMap.passibilityTable());
+    }
+
+    @Test
+    public void blockChangeInvalidates() {
+        assertTrue(contains(complete(pathFinder(walker()).withPassibilityCache(this.cache), 12.5, 0.5), 6, 0));
+
+        for (int y = 1; y <= 2; ++y) {
+            this.world.setBlock(6, y, 0, TestingBlocks.stone);
+            this.cache.onBlockChanged(6, y, 0);
+        }
+
+        assertFalse(contains(complete(pathFinder(walker()).withPassibilityCache(this.cache), 12.5, 0.5), 6, 0));
+    }
+
+    @Test
+    public void pathFinderInvalidates() {
+        final HydrazinePathFinder a = pathFinder(walker()).withPassibilityCache(this.cache);
+        assertTrue(contains(complete(a, 12.5, 0.5), 6, 0));
+
+        for (int y = 1; y <= 2; ++y) {
+            this.world.setBlock(6, y, 0, TestingBlocks.stone);
+            a.onBlockChanged(6, y, 0);
+        }
+
+        assertFalse(contains(complete(pathFinder(walker()).withPassibilityCache(this.cache), 12.5, 0.5), 6, 0));
+    }
+}
@@ -0,0 +1,138 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.Coords;
+import com.extollit.gaming.ai.path.model.IPath;
+import com.extollit.linalg.immutable.Vec3d;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class PathingBatchTests {
+    private SyntheticWorld world;
+    private PathingBatch batch;
+
+    @Before
+    public void setup() {
+        this.world = new SyntheticWorld(0x7);
+        this.batch = new PathingBatch(this.world);
+    }
+
+    private HydrazinePathFinder pathFinder(double x, double z) {
+        return new HydrazinePathFinder(new SyntheticWorld.Entity(96, new Vec3d(x, 1, z)), this.world);
+    }
+
+    @Test
+    public void sameAsIndividually() {
+        final HydrazinePathFinder[] pathFinders = {
+            pathFinder(0.5, 0.5),
+            pathFinder(10.5, -20.5),
+            pathFinder(-30.5, 5.5)
+        };
+        final Vec3d[] destinations = {
+            new Vec3d(40.5, 1, 20.5),
+            new Vec3d(-10.5, 1, 10.5),
+            new Vec3d(-5.5, 1, -25.5)
+        };
+
+        for (int i = 0; i < pathFinders.length; ++i)
+            this.batch.add(pathFinders[i], destinations[i]);
+
+        assertEquals(pathFinders.length, this.batch.size());
+        final Map<HydrazinePathFinder, IPath> results = this.batch.compute();
+        assertEquals(pathFinders.length, results.size());
+
+        for (int i = 0; i < pathFinders.length; ++i) {
+            final IPath
+                expected = pathFinder(pathFinders[i].subject().coordinates().x, pathFinders[i].subject().coordinates().z).computePathTo(destinations[i]),
+                path = results.get(pathFinders[i]);
+
+            assertNotNull(expected);
+            assertNotNull(path);
+            assertEquals(expected.last().coordinates(), path.last().coordinates());
+            assertEquals(new Coords((int)Math.floor(destinations[i].x), 1, (int)Math.floor(destinations[i].z)), path.last().coordinates());
+        }
+    }
+
+    @Test
+    public void unreachable() {
+        final HydrazinePathFinder
+            near = pathFinder(0.5, 0.5),
+            far = pathFinder(0.5, 0.5);
+
+        this.batch
+            .add(near, new Vec3d(5.5, 1, 5.5))
+            .add(far, new Vec3d(500.5, 1, 0.5));
+
+        final Map<HydrazinePathFinder, IPath> results = this.batch.compute();
+        assertNotNull(results.get(near));
+        assertTrue(results.containsKey(far));
+        assertNull(results.get(far));
+    }
+
+    @Test
+    public void reusable() {
+        final HydrazinePathFinder pathFinder = pathFinder(0.5, 0.5);
+        this.batch.add(pathFinder, new Vec3d(5.5, 1, 5.5));
+        this.batch.compute();
+        assertEquals(0, this.batch.size());
+
+        final PassibilityCache passibilityCache = new PassibilityCache();
+        pathFinder.withPassibilityCache(passibilityCache);
+        this.batch.add(pathFinder, new Vec3d(-5.5, 1, 5.5));
+        assertNotNull(this.batch.compute().get(pathFinder));
+        assertTrue(this.batch.compute().isEmpty());
+    }
+
+    private HydrazinePathFinder daring(double y, short surviveFallDistance) {
+        return new HydrazinePathFinder(new SyntheticWorld.Entity(96, new Vec3d(0.5, y, 0.5)) {
+            @Override
+            public boolean cautious() {
+                return false;
+            }
+        }, this.world, PathingContext.from(PathingContextTests.configModel(24, surviveFallDistance)));
+    }
+
+    @Test
+    public void cachedPerContext() {
+        this.world = new SyntheticWorld(-1);
+        this.batch = new PathingBatch(this.world);
+        for (int z = -2; z <= 2; ++z)
+            for (int x = -2; x <= 2; ++x)
+                for (int y = 1; y <= 10; ++y)
+                    this.world.setBlock(x, y, z, TestingBlocks.stone);
+
+        final Vec3d destination = new Vec3d(8.5, 1, 0.5);
+        assertNotNull(daring(11, (short)20).computePathTo(destination));
+        assertNull(daring(11, (short)0).computePathTo(destination));
+
+        final HydrazinePathFinder
+            bold = daring(11, (short)20),
+            timid = daring(11, (short)0);
+
+        final Map<HydrazinePathFinder, IPath> results = this.batch
+            .add(bold, destination)
+            .add(timid, destination)
+            .compute();
+
+        assertNotNull(results.get(bold));
+        assertNull(results.get(timid));
+    }
+
+    @Test
+    public void farApart() {
+        final HydrazinePathFinder
+            near = pathFinder(0.5, 0.5),
+            far = pathFinder(1000.5, 0.5);
+
+        final Map<HydrazinePathFinder, IPath> results = this.batch
+            .add(near, new Vec3d(20.5, 1, 5.5))
+            .add(far, new Vec3d(1020.5, 1, 5.5))
+            .compute();
+
+        assertEquals(new Coords(20, 1, 5), results.get(near).last().coordinates());
+        assertEquals(new Coords(1020, 1, 5), results.get(far).last().coordinates());
+    }
+}
@@ -0,0 +1,134 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.PathObject;
+import com.extollit.linalg.immutable.Vec3d;
+import com.extollit.num.FloatRange;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PathingContextTests {
+    static IConfigModel configModel(final int initComputeIterations, final short surviveFallDistance) {
+        return new IConfigModel() {
+            @Override
+            public short safeFallDistance() {
+                return 2;
+            }
+
+            @Override
+            public short surviveFallDistance() {
+                return surviveFallDistance;
+            }
+
+            @Override
+            public short cesaLimit() {
+                return 8;
+            }
+
+            @Override
+            public float dotThreshold() {
+                return 0.5f;
+            }
+
+            @Override
+            public FloatRange passiblePointTimeLimit() {
+                return new FloatRange(12, 24);
+            }
+
+            @Override
+            public byte faultCountThreshold() {
+                return 2;
+            }
+
+            @Override
+            public int faultLimit() {
+                return 11;
+            }
+
+            @Override
+            public FloatRange probationaryTimeLimit() {
+                return new FloatRange(18, 32);
+            }
+
+            @Override
+            public FloatRange directLineTimeLimit() {
+                return new FloatRange(2, 3);
+            }
+
+            @Override
+            public Schedule scheduleFor(SchedulingPriority priority) {
+                return new Schedule(initComputeIterations, priority.ordinal() + 1);
+            }
+        };
+    }
+
+    @Test
+    public void fromModel() {
+        final PathingContext context = PathingContext.from(configModel(5, (short)9));
+
+        assertEquals(2, context.safeFallDistance);
+        assertEquals(9, context.fallDistance());
+        assertEquals(8, context.cesaLimit);
+        assertEquals(0.5, context.dotThreshold, 1e-6);
+        assertEquals(2, context.faultCountThreshold);
+        assertEquals(11, context.faultLimit);
+        assertEquals(3, context.directLineTimeLimit().max, 1e-6);
+        assertEquals(5, context.initComputeIterations(SchedulingPriority.low));
+        assertEquals(SchedulingPriority.low.ordinal() + 1, context.periodicComputeIterations(SchedulingPriority.low));
+        assertSame(PathingContext.DEFAULT, PathingContext.global());
+    }
+
+    @Test
+    public void defaults() {
+        for (SchedulingPriority priority : SchedulingPriority.values()) {
+            assertEquals(priority.initComputeIterations, PathingContext.DEFAULT.initComputeIterations(priority));
+            assertEquals(priority.periodicComputeIterations, PathingContext.DEFAULT.periodicComputeIterations(priority));
+        }
+    }
+
+    @Test
+    public void perInstanceSpace() {
+        final SyntheticWorld world = new SyntheticWorld(-1);
+        final HydrazinePathFinder
+            configured = new HydrazinePathFinder(new SyntheticWorld.Entity(96, new Vec3d(0.5, 1, 0.5)), world, PathingContext.from(configModel(2, (short)20))),
+            global = new HydrazinePathFinder(new SyntheticWorld.Entity(96, new Vec3d(0.5, 1, 0.5)), world);
+
+        configured.initiatePathTo(40.5, 1, 0.5);
+        global.initiatePathTo(40.5, 1, 0.5);
+
+        assertEquals(2, configured.expansions());
+        assertEquals(SchedulingPriority.medium.initComputeIterations, global.expansions());
+        assertSame(PathingContext.global(), global.context());
+    }
+
+    @SuppressWarnings("deprecation")
+    @Test
+    public void configuredAfterCreation() {
+        final SyntheticWorld world = new SyntheticWorld(-1);
+        final HydrazinePathFinder
+            global = new HydrazinePathFinder(new SyntheticWorld.Entity(96, new Vec3d(0.5, 1, 0.5)), world),
+            configured = new HydrazinePathFinder(new SyntheticWorld.Entity(96, new Vec3d(0.5, 1, 0.5)), world, PathingContext.DEFAULT);
+
+        global.schedulingPriority(SchedulingPriority.low);
+        configured.schedulingPriority(SchedulingPriority.low);
+        try {
+            HydrazinePathFinder.configureFrom(configModel(2, (short)20));
+            global.initiatePathTo(40.5, 1, 0.5);
+            configured.initiatePathTo(40.5, 1, 0.5);
+            assertEquals(2, global.expansions());
+            assertEquals(SchedulingPriority.low.initComputeIterations, configured.expansions());
+            assertSame(PathingContext.global(), global.context());
+
+            SchedulingPriority.configureFrom(configModel(5, (short)20));
+            global.initiatePathTo(40.5, 1, 0.5);
+            assertEquals(5, global.expansions());
+
+            PathObject.configureFrom(configModel(1, (short)20));
+            global.initiatePathTo(40.5, 1, 0.5);
+            assertEquals(1, global.expansions());
+            assertSame(PathingContext.DEFAULT, configured.context());
+        } finally {
+            PathingContext.global(PathingContext.DEFAULT);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.extollit.gaming.ai.path;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.junit.Assert.*;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class PathingSchedulerTests extends AbstractHydrazinePathFinderTests {
+    private HydrazinePathFinder pending(SchedulingPriority priority) {
+        final HydrazinePathFinder pathFinder = new HydrazinePathFinder(pathingEntity, instanceSpace, occlusionProviderFactory);
+        pathFinder.schedulingPriority(priority);
+        assertNotNull(pathFinder.initiatePathTo(0, 0, 30));
+        assertTrue(pathFinder.triagePending());
+        return pathFinder;
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void registerTwice() {
+        final PathingScheduler scheduler = new PathingScheduler(100);
+        scheduler.register(pathFinder);
+        new PathingScheduler(100).register(pathFinder);
+    }
+
+    @Test
+    public void unregister() {
+        final PathingScheduler scheduler = new PathingScheduler(100);
+        scheduler.register(pathFinder);
+        assertEquals(1, scheduler.size());
+        assertTrue(scheduler.unregister(pathFinder));
+        assertFalse(scheduler.unregister(pathFinder));
+        assertEquals(0, scheduler.size());
+        assertNull(pathFinder.ticket);
+    }
+
+    @Test
+    public void carryForwardCapped() {
+        final PathingScheduler scheduler = new PathingScheduler(100);
+        scheduler.register(pathFinder);
+        scheduler.tick();
+        assertEquals(100, scheduler.carriedIterations());
+        scheduler.tick();
+        assertEquals(100, scheduler.carriedIterations());
+    }
+
+    @Test
+    public void updateDrawsFromAllowance() {
+        defaultGround();
+
+        final HydrazinePathFinder pathFinder = pending(SchedulingPriority.high);
+        final PathingScheduler scheduler = new PathingScheduler(5);
+        scheduler.register(pathFinder);
+
+        final int size = pathFinder.queue.size();
+        assertNotNull(pathFinder.updatePathFor(pathingEntity));
+        assertEquals(size, pathFinder.queue.size());
+        assertEquals(0, scheduler.allowanceOf(pathFinder));
+
+        scheduler.tick();
+        assertEquals(5, scheduler.allowanceOf(pathFinder));
+        assertNotNull(pathFinder.updatePathFor(pathingEntity));
+        assertEquals(0, scheduler.allowanceOf(pathFinder));
+    }
+
+    @Test
+    public void unusedAllowanceCapped() {
+        defaultGround();
+
+        final HydrazinePathFinder pathFinder = pending(SchedulingPriority.high);
+        final PathingScheduler scheduler = new PathingScheduler(5);
+        scheduler.register(pathFinder);
+
+        for (int c = 0; c < 20; ++c) {
+            scheduler.tick();
+            assertTrue(pathFinder.triagePending());
+            assertTrue(scheduler.allowanceOf(pathFinder) <= 2 * 5);
+        }
+        assertEquals(2 * 5, scheduler.allowanceOf(pathFinder));
+    }
+
+    @Test
+    public void initiateIncursDebt() {
+        defaultGround();
+
+        final PathingScheduler scheduler = new PathingScheduler(5);
+        scheduler.register(pathFinder);
+        pathFinder.initiatePathTo(0, 0, 30);
+
+        assertEquals(-SchedulingPriority.high.initComputeIterations, scheduler.allowanceOf(pathFinder));
+    }
+
+    @Test
+    public void weightedShares() {
+        defaultGround();
+
+        final HydrazinePathFinder
+                heavy = pending(SchedulingPriority.extreme),
+                light = pending(SchedulingPriority.low);
+        final PathingScheduler scheduler = new PathingScheduler(100);
+        scheduler.register(heavy);
+        scheduler.register(light);
+
+        scheduler.tick();
+
+        final int
+                heavyAllowance = scheduler.allowanceOf(heavy),
+                lightAllowance = scheduler.allowanceOf(light);
+
+        assertEquals(100, heavyAllowance + lightAllowance);
+        assertTrue(heavyAllowance > lightAllowance);
+        assertTrue(lightAllowance > 0);
+        assertEquals(0, scheduler.carriedIterations());
+    }
+
+    @Test
+    public void starvedServiced() {
+        defaultGround();
+
+        final HydrazinePathFinder
+                first = pending(SchedulingPriority.medium),
+                second = pending(SchedulingPriority.medium);
+        final PathingScheduler scheduler = new PathingScheduler(1);
+        scheduler.register(first);
+        scheduler.register(second);
+
+        scheduler.tick();
+        assertEquals(1, scheduler.allowanceOf(first));
+        assertEquals(0, scheduler.allowanceOf(second));
+
+        first.updatePathFor(pathingEntity);
+        scheduler.tick();
+        assertEquals(0, scheduler.allowanceOf(first));
+        assertEquals(1, scheduler.allowanceOf(second));
+    }
+}
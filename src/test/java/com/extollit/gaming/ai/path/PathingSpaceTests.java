@@ -0,0 +1,81 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.Coords;
+import com.extollit.linalg.immutable.Vec3d;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PathingSpaceTests {
+    private static final int BOX_MIN = 20, BOX_MAX = 28, BOX_ROOF = 4;
+
+    private SyntheticWorld world;
+    private PathingSpace space;
+    private SyntheticWorld.Entity entity;
+
+    /**
+     * Seals a room with stone walls and a roof, the room is three blocks high inside
+     */
+    @Before
+    public void setup() {
+        this.world = new SyntheticWorld(-1);
+        for (int x = BOX_MIN; x <= BOX_MAX; ++x)
+            for (int z = BOX_MIN; z <= BOX_MAX; ++z) {
+                final boolean wall = x == BOX_MIN || x == BOX_MAX || z == BOX_MIN || z == BOX_MAX;
+                for (int y = wall ? 1 : BOX_ROOF; y <= BOX_ROOF; ++y)
+                    this.world.setBlock(x, y, z, TestingBlocks.stone);
+            }
+
+        this.space = new PathingSpace(this.world, PathingContext.DEFAULT, Runnable::run);
+        this.entity = new SyntheticWorld.Entity(64, new Vec3d(0.5, 1, 0.5));
+    }
+
+    private HydrazinePathFinder pathFinder() {
+        final HydrazinePathFinder pathFinder = this.space.attach(new HydrazinePathFinder(this.entity, this.world));
+        pathFinder.schedulingPriority(SchedulingPriority.extreme);
+        return pathFinder;
+    }
+
+    @Test
+    public void attachShares() {
+        final HydrazinePathFinder
+            first = pathFinder(),
+            second = pathFinder();
+
+        assertEquals(2, this.space.size());
+        assertSame(this.space.sectionGraph(), first.sectionGraph());
+        assertSame(first.sectionGraph(), second.sectionGraph());
+        assertSame(first.flowField(), second.flowField());
+        assertSame(first.passibilityCache(), second.passibilityCache());
+        assertSame(first.landmarks(), second.landmarks());
+
+        assertTrue(this.space.detach(first));
+        assertFalse(this.space.detach(first));
+        assertEquals(1, this.space.size());
+        assertNull(first.sectionGraph());
+        assertNull(first.passibilityCache());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void attachTwice() {
+        this.space.attach(pathFinder());
+    }
+
+    @Test
+    public void openedRoom() {
+        final HydrazinePathFinder pathFinder = pathFinder();
+        final CapabilityClass walker = CapabilityClass.of(this.entity);
+        for (int i = 0; i < 32; ++i)
+            this.space.sectionGraph().unreachable(walker, new Coords(0, 1, 0), 24, 1, 24);
+
+        assertNull(pathFinder.computePathTo(24.5, 1, 24.5));
+
+        for (int y = 1; y <= 2; ++y) {
+            this.world.setBlock(BOX_MIN, y, 24, TestingBlocks.air);
+            this.space.onBlockChanged(BOX_MIN, y, 24, TestingBlocks.air, 0);
+        }
+
+        assertNotNull(pathFinder.computePathTo(24.5, 1, 24.5));
+    }
+}
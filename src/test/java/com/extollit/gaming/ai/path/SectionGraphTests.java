@@ -0,0 +1,172 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.Coords;
+import com.extollit.gaming.ai.path.model.IBlockObject;
+import com.extollit.gaming.ai.path.model.IPath;
+import com.extollit.linalg.immutable.Vec3d;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class SectionGraphTests {
+    private static final int WALL_X = 40;
+
+    private WalledWorld world;
+    private SectionGraph graph;
+    private SyntheticWorld.Entity entity;
+    private CapabilityClass walker;
+
+    /**
+     * Open terrain divided by a three block high wall along x = 40 with a one block wide gap at z = 8
+     */
+    private static final class WalledWorld extends SyntheticWorld {
+        private final Map<Coords, IBlockObject> changes = new HashMap<>();
+
+        WalledWorld() {
+            super(-1);
+        }
+
+        @Override
+        public IBlockObject blockAtAbsolute(int x, int y, int z) {
+            final IBlockObject block = this.changes.get(new Coords(x, y, z));
+            if (block != null)
+                return block;
+
+            if (x == WALL_X && y >= 1 && y <= 3 && z != 8)
+                return TestingBlocks.stone;
+
+            return super.blockAtAbsolute(x, y, z);
+        }
+
+        void place(int x, int y, int z, IBlockObject block) {
+            this.changes.put(new Coords(x, y, z), block);
+            columnarSpaceAt(x >> 4, z >> 4).occlusionFields().onBlockChanged(x, y, z, block, 0);
+        }
+    }
+
+    @Before
+    public void setup() {
+        this.world = new WalledWorld();
+        this.graph = new SectionGraph(this.world);
+        this.entity = new SyntheticWorld.Entity(160, new Vec3d(8.5, 1, 8.5));
+        this.walker = CapabilityClass.of(this.entity);
+    }
+
+    @Test
+    public void sameRegion() {
+        final Coords[] route = this.graph.route(this.walker, new Coords(2, 1, 2), 10, 1, 12, 160);
+        assertNotNull(route);
+        assertEquals(0, route.length);
+    }
+
+    @Test
+    public void routeThroughGap() {
+        final Coords[] route = this.graph.route(this.walker, new Coords(8, 1, 8), 72, 1, 8, 160);
+        assertNotNull(route);
+        assertTrue(route.length > 0);
+
+        int previousSection = 0;
+        for (Coords waypoint : route) {
+            assertEquals(1, waypoint.y);
+            assertNotEquals(previousSection, waypoint.x >> 4);
+            previousSection = waypoint.x >> 4;
+        }
+        assertEquals(72 >> 4, route[route.length - 1].x >> 4);
+    }
+
+    @Test
+    public void plannedIncrementally() {
+        final SectionGraph.RoutePlan plan = this.graph.plan(this.walker, new Coords(8, 1, 8), 72, 1, 8, 160);
+        assertNull(plan.route());
+
+        int advances = 0;
+        while (!plan.done()) {
+            plan.advance(1);
+            advances++;
+        }
+
+        assertTrue(advances > 1);
+        assertArrayEquals(new SectionGraph(this.world).route(this.walker, new Coords(8, 1, 8), 72, 1, 8, 160), plan.route());
+    }
+
+    @Test
+    public void sectionsCachedPerCapabilityClass() {
+        assertNotNull(this.graph.route(this.walker, new Coords(8, 1, 8), 72, 1, 8, 160));
+        final int cached = this.graph.cachedSections(this.walker);
+        assertTrue(cached > 0);
+
+        assertNotNull(this.graph.route(CapabilityClass.of(new SyntheticWorld.Entity(32, new Vec3d(0, 1, 0))), new Coords(8, 1, 8), 72, 1, 8, 160));
+        assertEquals(cached, this.graph.cachedSections(this.walker));
+
+        final CapabilityClass flyer = CapabilityClass.of(new SyntheticWorld.Entity(32, new Vec3d(0, 1, 0)) {
+            @Override
+            public boolean avian() {
+                return true;
+            }
+        });
+        assertNotEquals(this.walker, flyer);
+        assertEquals(0, this.graph.cachedSections(flyer));
+    }
+
+    @Test
+    public void blockChangesInvalidate() {
+        assertNotNull(this.graph.route(this.walker, new Coords(8, 1, 8), 72, 1, 8, 160));
+
+        for (int y = 1; y <= 3; ++y)
+            this.world.place(WALL_X, y, 8, TestingBlocks.stone);
+
+        assertNull(this.graph.route(this.walker, new Coords(8, 1, 8), 72, 1, 8, 160));
+
+        this.world.place(WALL_X, 1, 8, TestingBlocks.air);
+        this.world.place(WALL_X, 2, 8, TestingBlocks.air);
+
+        assertNotNull(this.graph.route(this.walker, new Coords(8, 1, 8), 72, 1, 8, 160));
+    }
+
+    @Test
+    public void hierarchicalBeyondMaximumPathDistance() {
+        final SyntheticWorld world = new SyntheticWorld(-1);
+        final HydrazinePathFinder pathFinder = new HydrazinePathFinder(this.entity, world).withSectionGraph(new SectionGraph(world));
+        pathFinder.schedulingPriority(SchedulingPriority.extreme);
+
+        final PathOptions options = new PathOptions()
+            .targetingStrategy(PathOptions.TargetingStrategy.none)
+            .hierarchical(true);
+
+        IPath path = pathFinder.initiatePathTo(150.5, 1, 24.5, options);
+        assertNotNull(path);
+
+        for (int tick = 0; tick < 2000 && !atDestination(); ++tick) {
+            path = pathFinder.updatePathFor(this.entity);
+            assertNotNull(path);
+            this.entity.tick();
+        }
+
+        assertTrue(atDestination());
+    }
+
+    @Test
+    public void hierarchicalWithoutGraph() {
+        final SyntheticWorld world = new SyntheticWorld(-1);
+        final HydrazinePathFinder pathFinder = new HydrazinePathFinder(this.entity, world);
+        pathFinder.schedulingPriority(SchedulingPriority.extreme);
+
+        final PathOptions options = new PathOptions()
+            .targetingStrategy(PathOptions.TargetingStrategy.none)
+            .hierarchical(true);
+
+        final IPath path = pathFinder.initiatePathTo(20.5, 1, 8.5, options);
+        assertNotNull(path);
+        assertEquals(new Coords(20, 1, 8), path.last().coordinates());
+        assertNull(pathFinder.sectionGraph());
+    }
+
+    private boolean atDestination() {
+        final Vec3d coordinates = this.entity.coordinates();
+        return Math.floor(coordinates.x) == 150 && Math.floor(coordinates.z) == 24;
+    }
+}
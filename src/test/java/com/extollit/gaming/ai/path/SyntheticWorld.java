@@ -0,0 +1,152 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.*;
+import com.extollit.linalg.immutable.Vec3d;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Procedural instance space for benchmarks: a flat stone floor at y = 0 with two-block high stone pillars scattered
+ * pseudo-randomly over it.  Individual blocks may be replaced to simulate changes to the terrain.  Columnar spaces are
+ * created lazily and retained, so repeated benchmark invocations observe warm occlusion fields unless {@link #reset()}
+ * is called.
+ */
+public class SyntheticWorld implements IInstanceSpace {
+    private final Map<Long, Column> columns = new HashMap<>();
+    private final Map<Coords, IBlockObject> changes = new HashMap<>();
+    private final int obstacleMask;
+
+    /**
+     * @param obstacleMask pillars are placed where the hash of the column coordinates masked by this is zero, so
+     *                     larger (all ones) values give sparser terrain, zero gives a pillar everywhere and a negative
+     *                     value gives open terrain without pillars.
+     */
+    public SyntheticWorld(int obstacleMask) {
+        this.obstacleMask = obstacleMask;
+    }
+
+    public void reset() {
+        for (Column column : this.columns.values())
+            column.occlusionFields.reset();
+    }
+
+    private boolean pillar(int x, int z) {
+        if (this.obstacleMask < 0 || (x == 0 && z == 0))
+            return false;
+
+        int hash = x * 73856093 ^ z * 19349663;
+        hash ^= hash >>> 13;
+        hash *= 0x5bd1e995;
+        hash ^= hash >>> 15;
+        return (hash & this.obstacleMask) == 0;
+    }
+
+    public IBlockObject blockAtAbsolute(int x, int y, int z) {
+        if (!this.changes.isEmpty()) {
+            final IBlockObject block = this.changes.get(new Coords(x, y, z));
+            if (block != null)
+                return block;
+        }
+
+        return terrainAt(x, y, z);
+    }
+
+    protected IBlockObject terrainAt(int x, int y, int z) {
+        if (y == 0 || (y > 0 && y <= 2 && pillar(x, z)))
+            return TestingBlocks.stone;
+
+        return TestingBlocks.air;
+    }
+
+    /**
+     * Replaces a block of the terrain and notifies the occlusion fields of the containing column
+     */
+    public void setBlock(int x, int y, int z, IBlockObject block) {
+        this.changes.put(new Coords(x, y, z), block);
+        columnarSpaceAt(x >> 4, z >> 4).occlusionFields().onBlockChanged(x, y, z, block, 0);
+    }
+
+    @Override
+    public IBlockObject blockObjectAt(int x, int y, int z) {
+        return blockAtAbsolute(x, y, z);
+    }
+
+    @Override
+    public IColumnarSpace columnarSpaceAt(int cx, int cz) {
+        final long key = ((long)cx << 32) | (cz & 0xFFFFFFFFL);
+        Column column = this.columns.get(key);
+        if (column == null)
+            this.columns.put(key, column = new Column(cx, cz));
+
+        return column;
+    }
+
+    private final class Column implements IColumnarSpace {
+        private final int x0, z0;
+        private final ColumnarOcclusionFieldList occlusionFields = new ColumnarOcclusionFieldList(this);
+
+        private Column(int cx, int cz) {
+            this.x0 = cx << 4;
+            this.z0 = cz << 4;
+        }
+
+        @Override
+        public IBlockDescription blockAt(int x, int y, int z) {
+            return blockAtAbsolute(this.x0 + x, y, this.z0 + z);
+        }
+
+        @Override
+        public int metaDataAt(int x, int y, int z) {
+            return 0;
+        }
+
+        @Override
+        public ColumnarOcclusionFieldList occlusionFields() {
+            return this.occlusionFields;
+        }
+
+        @Override
+        public IInstanceSpace instance() {
+            return SyntheticWorld.this;
+        }
+    }
+
+    /**
+     * A simple ground-based pathing entity one block wide and two blocks tall
+     */
+    public static class Entity implements IPathingEntity, IPathingEntity.Capabilities {
+        private final float searchRange;
+        private Vec3d coordinates;
+        private int age;
+
+        public Entity(float searchRange, Vec3d coordinates) {
+            this.searchRange = searchRange;
+            this.coordinates = coordinates;
+        }
+
+        public void tick() {
+            this.age++;
+        }
+
+        @Override public int age() { return this.age; }
+        @Override public boolean bound() { return false; }
+        @Override public float searchRange() { return this.searchRange; }
+        @Override public Capabilities capabilities() { return this; }
+        @Override public void moveTo(Vec3d position, Passibility passibility, Gravitation gravitation) { this.coordinates = position; }
+        @Override public Vec3d coordinates() { return this.coordinates; }
+        @Override public float width() { return 0.6f; }
+        @Override public float height() { return 1.8f; }
+
+        @Override public float speed() { return 1; }
+        @Override public boolean fireResistant() { return false; }
+        @Override public boolean cautious() { return true; }
+        @Override public boolean climber() { return false; }
+        @Override public boolean swimmer() { return false; }
+        @Override public boolean aquatic() { return false; }
+        @Override public boolean avian() { return false; }
+        @Override public boolean aquaphobic() { return false; }
+        @Override public boolean avoidsDoorways() { return true; }
+        @Override public boolean opensDoors() { return false; }
+    }
+}
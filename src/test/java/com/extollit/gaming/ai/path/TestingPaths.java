@@ -0,0 +1,49 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.Coords;
+import com.extollit.gaming.ai.path.model.IPath;
+import com.extollit.linalg.immutable.Vec3d;
+
+import static org.junit.Assert.*;
+
+/**
+ * Helpers shared by tests that compute paths through a {@link SyntheticWorld}
+ */
+public class TestingPaths {
+    public static HydrazinePathFinder pathFinder(SyntheticWorld world, double x, double y, double z) {
+        return new HydrazinePathFinder(new SyntheticWorld.Entity(96, new Vec3d(x, y, z)), world);
+    }
+
+    public static boolean endsAt(IPath path, int x, int z) {
+        if (path == null || path.length() == 0)
+            return false;
+
+        final Coords last = path.last().coordinates();
+        return last.x == x && last.z == z;
+    }
+
+    public static boolean contains(IPath path, int x, int z) {
+        for (int i = 0; i < path.length(); ++i) {
+            final Coords coordinates = path.at(i).coordinates();
+            if (coordinates.x == x && coordinates.z == z)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Asserts that each node of a path is in the same column as the previous one or a column adjacent to it (including
+     * diagonally) and that the path ends at the specified coordinates
+     */
+    public static void assertFollowable(IPath path, int x, int y, int z) {
+        assertNotNull(path);
+        for (int i = 1; i < path.length(); ++i) {
+            final Coords
+                a = path.at(i - 1).coordinates(),
+                b = path.at(i).coordinates();
+
+            assertTrue(Math.abs(a.x - b.x) <= 1 && Math.abs(a.z - b.z) <= 1);
+        }
+        assertEquals(new Coords(x, y, z), path.last().coordinates());
+    }
+}
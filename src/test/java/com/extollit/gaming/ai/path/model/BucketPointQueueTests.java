@@ -0,0 +1,257 @@
+package com.extollit.gaming.ai.path.model;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class BucketPointQueueTests {
+    @Mock private IInstanceSpace instanceSpace;
+    @Mock private IOcclusionProviderFactory occlusionProviderFactory;
+    @Mock private INodeCalculator calculator;
+    @Mock private IOcclusionProvider occlusionProvider;
+
+    private BucketPointQueue q;
+    private NodeMap graph;
+    private Node
+        target,
+        source;
+
+    @Before
+    public void setup() {
+        when(occlusionProviderFactory.fromInstanceSpace(any(), anyInt(), anyInt(), anyInt(), anyInt())).thenReturn(occlusionProvider);
+        this.q = new BucketPointQueue();
+        this.graph = new NodeMap(instanceSpace, new TestNodeCalculatorDecorator(this.calculator), occlusionProviderFactory);
+        this.target = this.graph.cachedPointAt(0, 0, 7);
+        (this.source = visited(0, 0, 0)).target(this.target.key);
+    }
+
+    private Node node(int z, Passibility passibility, int remaining) {
+        final Node node = new Node(0, 0, z, passibility);
+        node.remaining(remaining);
+        return node;
+    }
+
+    @Test
+    public void ordering() {
+        final Node
+            a = node(0, Passibility.risky, 1),
+            b = node(1, Passibility.passible, 9),
+            c = node(2, Passibility.passible, 3),
+            d = node(3, Passibility.dangerous, 0);
+
+        q.add(a);
+        q.add(b);
+        q.add(c);
+        q.add(d);
+
+        assertEquals(4, q.size());
+        assertSame(c, q.top());
+        assertSame(c, q.dequeue());
+        assertSame(b, q.dequeue());
+        assertSame(a, q.dequeue());
+        assertSame(d, q.dequeue());
+        assertTrue(q.isEmpty());
+        assertFalse(c.assigned());
+    }
+
+    @Test
+    public void unsignedJourney() {
+        final Node
+            far = node(0, Passibility.passible, 100),
+            near = node(1, Passibility.passible, 10);
+
+        far.length(100);
+        q.add(far);
+        q.add(near);
+
+        assertSame(near, q.dequeue());
+        assertSame(far, q.dequeue());
+    }
+
+    @Test
+    public void addLength() {
+        final Node
+            a = node(0, Passibility.passible, 5),
+            b = node(1, Passibility.passible, 6);
+
+        q.add(a);
+        q.add(b);
+        assertSame(a, q.top());
+
+        assertTrue(q.addLength(a, 2));
+        assertSame(b, q.top());
+        assertEquals(2, q.size());
+        assertTrue(a.assigned());
+    }
+
+    @Test
+    public void passibilityChange() {
+        final Node
+            a = node(0, Passibility.passible, 5),
+            b = node(1, Passibility.passible, 6);
+
+        q.add(a);
+        q.add(b);
+        a.passibility(Passibility.risky);
+
+        assertTrue(q.addLength(a, 0));
+        assertSame(b, q.dequeue());
+        assertSame(a, q.dequeue());
+    }
+
+    @Test
+    public void appendToShorter() {
+        final Node
+            far = visited(source, 3, 0, 0),
+            point = add(far, 4, 0, 1),
+            other = add(source, -1, 0, 1);
+
+        assertSame(other, q.top());
+
+        point.length(10);
+        q.addLength(point, 0);
+        assertTrue(q.appendTo(point, source, target.key));
+        assertSame(source, point.up());
+        assertEquals(2, q.size());
+    }
+
+    @Test
+    public void trimFrom() {
+        Node n;
+        final Node
+            lower = add(n = visited(source, 0, 0, 1), 0, -1, 4),
+            up = add(n = visited(n, 0, 0, 2), 0, -1, 5),
+            middle = visited(n, 0, 0, 3);
+
+        add(visited(middle, 0, 0, 4), 0, 0, 5);
+        add(visited(middle, 1, 0, 3), 2, 0, 3);
+        add(visited(lower, 1, 0, 1), 2, 0, 1);
+
+        q.trimFrom(middle);
+
+        assertFalse(up.assigned());
+        assertFalse(lower.assigned());
+        assertFalse(source.assigned());
+
+        assertTrue(up.infecund() && !up.orphaned());
+
+        assertQueuePoints(
+            new Coords(0, 0, 5),
+            new Coords(2, 0, 3),
+            new Coords(2, 0, 1)
+        );
+    }
+
+    @Test
+    public void cullBranch() {
+        final Node
+            left = visited(source, -1, 0, 0),
+            right = visited(source, +1, 0, 0),
+            leftRoot = visited(left, -2, 0, 1),
+            rightHead = add(right, +1, 0, 1),
+            rightOutlier = add(right, +2, 0, 1),
+            leftOutlier = add(leftRoot, -3, 0, 1),
+            leftTertiary = visited(leftRoot, -3, 0, 2),
+            leftHead = add(leftTertiary, -4, 0, 3);
+
+        graph.cullBranchAt(leftRoot.key, q);
+
+        assertQueuePoints(
+            new Coords(-1, 0, 0),
+            new Coords(2, 0, 1),
+            new Coords(1, 0, 1)
+        );
+
+        assertTrue(rightHead.assigned());
+        assertTrue(rightOutlier.assigned());
+        assertFalse(leftOutlier.assigned());
+        assertFalse(leftHead.assigned());
+        assertTrue(left.assigned());
+    }
+
+    @Test
+    public void bucketLimit() {
+        int c;
+        for (c = 0; c < Node.MAX_INDICES; ++c)
+            q.add(node(c, Passibility.passible, 7));
+
+        final Node worst = node(c, Passibility.dangerous, 1);
+        q.add(worst);
+        assertEquals(Node.MAX_INDICES + 1, q.size());
+
+        q.add(node(c + 1, Passibility.passible, 7));
+
+        assertFalse(worst.assigned());
+        assertEquals(Node.MAX_INDICES + 2 - (int)Math.ceil((Node.MAX_INDICES + 1) * SortedPointQueue.CULL_THRESHOLD), q.size());
+    }
+
+    @Test
+    public void inflatedFarTarget() {
+        final Coords far = new Coords(0, 0, 100);
+        final Node
+            parent = new Node(0, 0, 10),
+            ahead = new Node(0, 0, 11),
+            behind = new Node(0, 0, 9);
+
+        q.heuristicWeight(2, far);
+        q.appendTo(ahead, parent, far);
+        q.appendTo(behind, parent, far);
+
+        assertSame(ahead, q.dequeue());
+        assertSame(behind, q.dequeue());
+    }
+
+    @Test
+    public void clear() {
+        final Node a = node(0, Passibility.passible, 5);
+        q.add(a);
+        q.clear();
+
+        assertTrue(q.isEmpty());
+        assertFalse(a.assigned());
+        assertTrue(q.view().isEmpty());
+    }
+
+    private Node visited(int x, int y, int z) {
+        Node node = graph.cachedPointAt(x, y, z);
+        node.visited(true);
+        return node;
+    }
+
+    private Node visited(Node parent, int x, int y, int z) {
+        Node cached = visited(x, y, z);
+        cached.appendTo(parent, 1, 0);
+        return cached;
+    }
+
+    private Node add(Node parent, int x, int y, int z) {
+        Node p = visited(x, y, z);
+        p.visited(false);
+        p.length(parent.length() + 1);
+        q.appendTo(p, parent, target.key);
+        return p;
+    }
+
+    private void assertQueuePoints(Coords... expected) {
+        final Set<Coords> actual = new HashSet<>();
+        for (Node p : q.view()) {
+            assertTrue(p.assigned());
+            actual.add(p.key);
+        }
+
+        assertEquals(new HashSet<>(Arrays.asList(expected)), actual);
+        assertEquals(expected.length, q.size());
+    }
+}
@@ -49,6 +49,59 @@ public class NodeMapTests {
         assertNotSame(node, fetched);
     }
 
+    private void sampledNodes() {
+        when(this.calculator.passibleNodeNear(anyInt(), anyInt(), anyInt(), any(), any())).thenAnswer(invocation ->
+            invocation.<FlagSampler>getArgument(4).node(
+                invocation.getArgument(0),
+                invocation.getArgument(1),
+                invocation.getArgument(2),
+                Passibility.passible,
+                false
+            )
+        );
+    }
+
+    @Test
+    public void clearRecycles() {
+        sampledNodes();
+
+        final Node
+            parent = this.nodeMap.cachedPassiblePointNear(1, 2, 3),
+            child = this.nodeMap.cachedPassiblePointNear(1, 2, 4);
+
+        child.appendTo(parent, 1, 5);
+        child.index(42);
+        child.passibility(Passibility.risky);
+
+        this.nodeMap.clear();
+
+        final Node
+            recycledChild = this.nodeMap.cachedPassiblePointNear(1, 2, 4),
+            recycledParent = this.nodeMap.cachedPassiblePointNear(1, 2, 3),
+            other = this.nodeMap.cachedPassiblePointNear(1, 2, 5);
+
+        assertSame(child, recycledChild);
+        assertSame(parent, recycledParent);
+        assertNotSame(child, other);
+        assertTrue(recycledChild.orphaned());
+        assertTrue(recycledParent.infecund());
+        assertFalse(recycledChild.assigned());
+        assertEquals(0, recycledChild.length());
+        assertEquals(Passibility.passible, recycledChild.passibility());
+    }
+
+    @Test
+    public void recycleOnlyLastGeneration() {
+        sampledNodes();
+
+        final Node node = this.nodeMap.cachedPassiblePointNear(1, 2, 3);
+
+        this.nodeMap.clear();
+        this.nodeMap.clear();
+
+        assertNotSame(node, this.nodeMap.cachedPassiblePointNear(1, 2, 3));
+    }
+
     @Test
     public void passibleControl() {
         when(this.calculator.passibleNodeNear(anyInt(), anyInt(), anyInt(), any(), any())).thenReturn(new Node(1, 2, 3));
@@ -0,0 +1,181 @@
+package com.extollit.gaming.ai.path.model;
+
+import com.extollit.gaming.ai.path.SyntheticWorld;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.extollit.gaming.ai.path.TestingBlocks.*;
+import static org.junit.Assert.*;
+
+/**
+ * Stress tests of occlusion fields read by many threads while a single thread applies block changes
+ */
+public class OcclusionFieldConcurrencyTests {
+    private static final int
+        READERS = 4,
+        WRITES = 20000;
+
+    private SyntheticWorld world;
+    private ExecutorService executor;
+
+    @Before
+    public void setup() {
+        this.world = new SyntheticWorld(-1);
+        this.executor = Executors.newFixedThreadPool(READERS);
+    }
+
+    private interface Reader {
+        void read();
+    }
+
+    private void stress(Runnable write, Reader reader) throws Exception {
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final CountDownLatch started = new CountDownLatch(READERS);
+        final List<Future<Integer>> readers = new ArrayList<>();
+
+        try {
+            for (int r = 0; r < READERS; ++r)
+                readers.add(this.executor.submit(() -> {
+                    int reads = 0;
+                    started.countDown();
+                    do {
+                        reader.read();
+                        reads++;
+                    } while (writing.get());
+                    return reads;
+                }));
+
+            started.await();
+            for (int i = 0; i < WRITES; ++i)
+                write.run();
+        } finally {
+            writing.set(false);
+        }
+
+        try {
+            for (Future<Integer> future : readers)
+                assertTrue(future.get(10, TimeUnit.SECONDS) > 0);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof AssertionError)
+                throw (AssertionError) e.getCause();
+            throw e;
+        } finally {
+            this.executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void unchangedNeverTorn() throws Exception {
+        final ColumnarOcclusionFieldList fieldList = this.world.columnarSpaceAt(0, 0).occlusionFields();
+        final OcclusionField
+            singleton = fieldList.occlusionFieldAt(0, 1, 0),
+            ground = fieldList.occlusionFieldAt(0, 0, 0);
+        final long airRow = singleton.rowAt(0, 8, 10);
+        final int[] toggles = { 0 };
+
+        stress(
+            () -> {
+                final boolean solid = (toggles[0]++ & 1) == 0;
+                this.world.setBlock(5, 20, 5, solid ? stone : air);
+                this.world.setBlock(0, 3, 5, solid ? stone : air);
+            },
+            () -> {
+                assertTrue(Element.air.in(singleton.elementAt(10, 8, 10)));
+                assertEquals(airRow, singleton.rowAt(0, 8, 10));
+                assertTrue(Element.earth.in(ground.elementAt(10, 0, 10)));
+                assertTrue(Element.air.in(ground.elementAt(10, 3, 10)));
+
+                final byte changing = singleton.elementAt(5, 4, 5);
+                assertTrue(Element.air.in(changing) || Element.earth.in(changing));
+            }
+        );
+
+        assertTrue(Element.air.in(singleton.elementAt(5, 4, 5)));
+        assertTrue(Element.air.in(ground.elementAt(0, 3, 5)));
+    }
+
+    @Test
+    public void decompressNeverTorn() throws Exception {
+        final SyntheticWorld world = new SyntheticWorld(-1) {
+            @Override
+            protected IBlockObject terrainAt(int x, int y, int z) {
+                return y >> 4 == 1 ? stone : super.terrainAt(x, y, z);
+            }
+        };
+        final IColumnarSpace columnarSpace = world.columnarSpaceAt(0, 0);
+        final AtomicReference<OcclusionField> current = new AtomicReference<>();
+        final OcclusionField initial = new OcclusionField();
+        initial.loadFrom(columnarSpace, 0, 1, 0);
+        current.set(initial);
+
+        stress(
+            () -> {
+                final OcclusionField field = new OcclusionField();
+                field.loadFrom(columnarSpace, 0, 1, 0);
+                current.set(field);
+                field.set(columnarSpace, 5, 20, 5, air);
+            },
+            () -> {
+                final OcclusionField field = current.get();
+                assertTrue(Element.earth.in(field.elementAt(10, 8, 10)));
+                assertTrue(Element.earth.in(field.elementAt(5, 3, 5)));
+            }
+        );
+    }
+
+    private static IColumnarSpace[][] loadedColumns(SyntheticWorld world) {
+        final IColumnarSpace[][] columnarSpaces = new IColumnarSpace[3][3];
+        for (int cz = -1; cz <= +1; ++cz)
+            for (int cx = -1; cx <= +1; ++cx) {
+                final IColumnarSpace columnarSpace = columnarSpaces[cz + 1][cx + 1] = world.columnarSpaceAt(cx, cz);
+                for (int cy = 0; cy <= 3; ++cy)
+                    columnarSpace.occlusionFields().occlusionFieldAt(cx, cy, cz);
+            }
+
+        return columnarSpaces;
+    }
+
+    private static void write(SyntheticWorld world, int i) {
+        world.setBlock(-1 + (i % 3), 1 + (i / 3) % 30, i % 16, (i & 1) == 0 ? stone : air);
+    }
+
+    @Test
+    public void areaInitDuringWrites() throws Exception {
+        final AreaOcclusionProvider provider = new AreaOcclusionProvider(loadedColumns(this.world), -1, -1);
+        final int[] step = { 0 };
+
+        stress(
+            () -> write(this.world, step[0]++),
+            () -> {
+                final ThreadLocalRandom random = ThreadLocalRandom.current();
+                final int
+                    x = random.nextInt(-16, 32),
+                    y = random.nextInt(0, 48),
+                    z = random.nextInt(-16, 32);
+
+                final byte flags = provider.elementAt(x, y, z);
+                assertTrue(Element.air.in(flags) || Element.earth.in(flags));
+            }
+        );
+
+        final SyntheticWorld expectedWorld = new SyntheticWorld(-1);
+        loadedColumns(expectedWorld);
+        for (int i = 0; i < WRITES; ++i)
+            write(expectedWorld, i);
+
+        final SnapshotOcclusionProvider
+            expected = SnapshotOcclusionProvider.capture(expectedWorld, -1, 0, -1, 1, 2, 1),
+            actual = SnapshotOcclusionProvider.capture(this.world, -1, 0, -1, 1, 2, 1);
+
+        for (int y = 0; y < 48; ++y)
+            for (int z = -16; z < 32; ++z)
+                for (int x = -16; x < 32; ++x)
+                    assertEquals("Flags differ at " + x + ", " + y + ", " + z, expected.elementAt(x, y, z), actual.elementAt(x, y, z));
+    }
+}
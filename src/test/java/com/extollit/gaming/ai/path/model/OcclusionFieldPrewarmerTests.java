@@ -0,0 +1,171 @@
+package com.extollit.gaming.ai.path.model;
+
+import com.extollit.gaming.ai.path.SyntheticWorld;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.extollit.gaming.ai.path.TestingBlocks.*;
+import static org.junit.Assert.*;
+
+public class OcclusionFieldPrewarmerTests {
+    private SyntheticWorld world;
+    private List<Runnable> tasks;
+    private OcclusionFieldPrewarmer prewarmer;
+
+    private static void decorate(SyntheticWorld world) {
+        world.setBlock(0, 1, 4, wall);
+        world.setBlock(15, 1, 9, wall);
+        world.setBlock(16, 1, 9, stone);
+        world.setBlock(4, 15, 0, wall);
+        world.setBlock(4, 16, 0, wall);
+        world.setBlock(7, 1, 15, fenceGate);
+        world.setBlock(8, 1, -1, ladder);
+    }
+
+    @Before
+    public void setup() {
+        this.world = new SyntheticWorld(0x3);
+        decorate(this.world);
+        this.tasks = new ArrayList<>();
+        this.prewarmer = new OcclusionFieldPrewarmer(this.world, this.tasks::add, 2);
+    }
+
+    private void runTasks() {
+        for (Runnable task : this.tasks)
+            task.run();
+
+        this.tasks.clear();
+    }
+
+    @Test
+    public void prewarmed() {
+        assertTrue(this.prewarmer.prewarm(0, 0));
+        runTasks();
+        assertEquals(0, this.prewarmer.pending());
+
+        final ColumnarOcclusionFieldList fieldList = this.world.columnarSpaceAt(0, 0).occlusionFields();
+        final SyntheticWorld lazyWorld = new SyntheticWorld(0x3);
+        decorate(lazyWorld);
+        final SnapshotOcclusionProvider expected = SnapshotOcclusionProvider.capture(lazyWorld, 0, 0, 0, 0, 2, 0);
+
+        for (int cy = 0; cy < OcclusionField.DIMENSION_SIZE; ++cy) {
+            final OcclusionField field = fieldList.optOcclusionFieldAt(cy);
+            assertNotNull(field);
+            assertTrue(field.areaInitFull());
+        }
+
+        for (int y = 0; y < 48; ++y)
+            for (int z = 0; z < 16; ++z)
+                for (int x = 0; x < 16; ++x)
+                    assertEquals(
+                        "Flags differ at " + x + ", " + y + ", " + z,
+                        expected.elementAt(x, y, z),
+                        fieldList.optOcclusionFieldAt(y >> 4).elementAt(x, y & 15, z)
+                    );
+    }
+
+    @Test
+    public void staleWithdrawn() {
+        final Runnable[] duringLoad = {
+            () -> {
+                this.world.setBlock(3, 1, 3, stone);
+                this.world.setBlock(16, 40, 3, stone);
+            }
+        };
+        this.world = new SyntheticWorld(0x3) {
+            @Override
+            protected IBlockObject terrainAt(int x, int y, int z) {
+                final Runnable hook = duringLoad[0];
+                if (hook != null && y == 5) {
+                    duringLoad[0] = null;
+                    hook.run();
+                }
+                return super.terrainAt(x, y, z);
+            }
+        };
+        this.prewarmer = new OcclusionFieldPrewarmer(this.world, this.tasks::add, 2);
+
+        assertTrue(this.prewarmer.prewarm(0, 0));
+        runTasks();
+
+        final ColumnarOcclusionFieldList fieldList = this.world.columnarSpaceAt(0, 0).occlusionFields();
+        assertNull(fieldList.optOcclusionFieldAt(0));
+        assertNull(fieldList.optOcclusionFieldAt(1));
+        assertNull(fieldList.optOcclusionFieldAt(2));
+        assertNotNull(fieldList.optOcclusionFieldAt(3));
+        assertTrue(Element.earth.in(fieldList.occlusionFieldAt(0, 0, 0).elementAt(3, 1, 3)));
+    }
+
+    @Test
+    public void bounded() {
+        assertTrue(this.prewarmer.prewarm(0, 0));
+        assertFalse(this.prewarmer.prewarm(0, 0));
+        assertTrue(this.prewarmer.prewarm(1, 0));
+        assertFalse(this.prewarmer.prewarm(2, 0));
+        assertEquals(2, this.prewarmer.pending());
+
+        runTasks();
+        assertEquals(0, this.prewarmer.pending());
+        assertTrue(this.prewarmer.prewarm(2, 0));
+    }
+
+    @Test
+    public void keepsFullyInitialized() {
+        final SnapshotOcclusionProvider snapshot = SnapshotOcclusionProvider.capture(this.world, 0, 0, 0, 0, 0, 0);
+        final ColumnarOcclusionFieldList fieldList = this.world.columnarSpaceAt(0, 0).occlusionFields();
+        final OcclusionField existing = fieldList.optOcclusionFieldAt(0);
+        assertNotNull(snapshot);
+        assertTrue(existing.areaInitFull());
+
+        assertTrue(this.prewarmer.prewarm(0, 0));
+        runTasks();
+        assertSame(existing, fieldList.optOcclusionFieldAt(0));
+    }
+
+    private static SyntheticWorld underground() {
+        final SyntheticWorld world = new SyntheticWorld(0x3) {
+            @Override
+            protected IBlockObject terrainAt(int x, int y, int z) {
+                return y == -40 || (y > -40 && y < -30 && (x & 7) == 0) ? stone : super.terrainAt(x, y, z);
+            }
+        };
+        world.setBlock(3, -39, 3, fenceGate);
+        world.setBlock(15, -39, 4, wall);
+        world.setBlock(4, -33, 0, wall);
+        world.setBlock(4, -32, 0, wall);
+        return world;
+    }
+
+    @Test
+    public void negativeSections() {
+        this.world = underground();
+        this.prewarmer = new OcclusionFieldPrewarmer(this.world, this.tasks::add, 2);
+
+        assertTrue(this.prewarmer.prewarm(0, 0));
+        runTasks();
+
+        final ColumnarOcclusionFieldList fieldList = this.world.columnarSpaceAt(0, 0).occlusionFields();
+        assertEquals(-4, fieldList.minSectionIndex());
+        for (int cy = fieldList.minSectionIndex(); cy <= fieldList.maxSectionIndex(); ++cy) {
+            final OcclusionField field = fieldList.optOcclusionFieldAt(cy);
+            assertNotNull(field);
+            assertTrue(field.areaInitFull());
+        }
+
+        final SnapshotOcclusionProvider expected = SnapshotOcclusionProvider.capture(underground(), 0, -4, 0, 0, 0, 0);
+        for (int y = -64; y < 16; ++y)
+            for (int z = 0; z < 16; ++z)
+                for (int x = 0; x < 16; ++x)
+                    assertEquals(
+                        "Flags differ at " + x + ", " + y + ", " + z,
+                        expected.elementAt(x, y, z),
+                        fieldList.optOcclusionFieldAt(y >> 4).elementAt(x, y & 15, z)
+                    );
+
+        assertTrue(Element.earth.in(expected.elementAt(5, -40, 5)));
+        assertTrue(Element.air.in(expected.elementAt(5, -39, 5)));
+    }
+}
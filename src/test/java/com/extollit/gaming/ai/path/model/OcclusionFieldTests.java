@@ -5,6 +5,10 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.*;
 
@@ -796,4 +800,31 @@ public class OcclusionFieldTests extends AbstractOcclusionFieldTesting {
         midField = fieldList.optOcclusionFieldAt(midChunkIndex);
         assertNotNull("Expected initialized field in mid-range", midField);
     }
+
+    @Test
+    public void concurrentLazyInit() throws Exception {
+        final ColumnarOcclusionFieldList fieldList = new ColumnarOcclusionFieldList(centerSpace, -64, 320);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final List<Future<OcclusionField>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < 32; ++i)
+                futures.add(executor.submit(() -> {
+                    latch.await();
+                    return fieldList.occlusionFieldAt(0, 2, 0);
+                }));
+
+            latch.countDown();
+            final OcclusionField expected = fieldList.occlusionFieldAt(0, 2, 0);
+            for (Future<OcclusionField> future : futures)
+                assertSame(expected, future.get());
+        } finally {
+            executor.shutdown();
+        }
+
+        assertSame(fieldList.optOcclusionFieldAt(2), fieldList.occlusionFieldAt(0, 2, 0));
+        fieldList.reset();
+        assertNull(fieldList.optOcclusionFieldAt(2));
+    }
 }
@@ -0,0 +1,71 @@
+package com.extollit.gaming.ai.path.model;
+
+import com.extollit.gaming.ai.path.SyntheticWorld;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.extollit.gaming.ai.path.TestingBlocks.*;
+import static org.junit.Assert.*;
+
+public class PaletteOcclusionFieldTests {
+    private static final int FULL_LENGTH = 256;
+
+    private SyntheticWorld world;
+    private OcclusionField field;
+
+    @Before
+    public void setup() {
+        this.world = new SyntheticWorld(-1);
+        this.field = this.world.columnarSpaceAt(0, 0).occlusionFields().occlusionFieldAt(0, 0, 0);
+    }
+
+    private static void assertRowsConsistent(OcclusionField field) {
+        for (int y = 0; y < 16; ++y)
+            for (int z = 0; z < 16; ++z) {
+                final long row = field.rowAt(0, y, z);
+                for (int x = 0; x < 16; ++x)
+                    assertEquals(field.elementAt(x, y, z), (byte)((row >>> (x << 2)) & 0xF));
+            }
+    }
+
+    @Test
+    public void loadedAsPalette() {
+        assertEquals(65, this.field.storageLength());
+        assertTrue(Element.earth.in(this.field.elementAt(7, 0, 3)));
+        assertTrue(Element.air.in(this.field.elementAt(7, 1, 3)));
+        assertRowsConsistent(this.field);
+    }
+
+    @Test
+    public void promoteAndDemote() {
+        this.world.setBlock(5, 3, 5, lava);
+        assertEquals(129, this.field.storageLength());
+        assertTrue(Element.fire.in(this.field.elementAt(5, 3, 5)));
+        assertRowsConsistent(this.field);
+
+        this.world.setBlock(8, 3, 8, wall);
+        this.world.setBlock(10, 3, 10, ladder);
+        assertEquals(FULL_LENGTH, this.field.storageLength());
+        assertTrue(Logic.ladder.in(this.field.elementAt(10, 3, 10)));
+        assertTrue(Element.fire.in(this.field.elementAt(5, 3, 5)));
+        assertRowsConsistent(this.field);
+
+        this.world.setBlock(10, 3, 10, air);
+        this.world.setBlock(8, 3, 8, air);
+        this.world.setBlock(5, 3, 5, air);
+        assertTrue(this.field.storageLength() < FULL_LENGTH);
+        assertTrue(Element.air.in(this.field.elementAt(5, 3, 5)));
+        assertTrue(Element.earth.in(this.field.elementAt(5, 0, 5)));
+        assertRowsConsistent(this.field);
+    }
+
+    @Test
+    public void copy() {
+        this.world.setBlock(5, 3, 5, lava);
+        final OcclusionField copy = new OcclusionField(this.field);
+        assertEquals(this.field.storageLength(), copy.storageLength());
+        for (int y = 0; y < 16; ++y)
+            for (int z = 0; z < 16; ++z)
+                assertEquals(this.field.rowAt(0, y, z), copy.rowAt(0, y, z));
+    }
+}
@@ -0,0 +1,136 @@
+package com.extollit.gaming.ai.path.model;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class PassibilityTableTests {
+    private static void put(PassibilityTable.Segment segment, int key, int value) {
+        assertTrue(segment.put(key, value, segment.revision()));
+    }
+
+    @Test
+    public void roundTrip() {
+        final Node node = new Node(new Coords(3, -7, 12), Passibility.risky, false, Gravitation.airborne);
+        final int value = PassibilityTable.valueOf(node);
+
+        assertEquals(-7, PassibilityTable.yOf(value));
+        assertEquals(Passibility.risky, PassibilityTable.passibilityOf(value));
+        assertEquals(Gravitation.airborne, PassibilityTable.gravitationOf(value));
+        assertNotEquals(PassibilityTable.MISSING, value);
+    }
+
+    @Test
+    public void uncacheable() {
+        assertEquals(0, PassibilityTable.keyOf(1, 2, 3, null));
+        assertEquals(0, PassibilityTable.keyOf(1, 2, 3, new Coords(3, 2, 3)));
+        assertNotEquals(0, PassibilityTable.keyOf(1, 2, 3, new Coords(2, 2, 3)));
+        assertNotEquals(
+            PassibilityTable.keyOf(1, 2, 3, new Coords(2, 2, 3)),
+            PassibilityTable.keyOf(1, 2, 3, new Coords(0, 2, 3))
+        );
+    }
+
+    @Test
+    public void invalidate() {
+        final PassibilityTable table = new PassibilityTable();
+        final int key = PassibilityTable.keyOf(17, 1, 1, new Coords(16, 1, 1));
+        put(table.segmentAt(1, 0, 0), key, 42);
+        put(table.segmentAt(0, 0, 0), key, 42);
+
+        table.invalidate(20, 0, 0, 30, 4, 4);
+        assertEquals(PassibilityTable.MISSING, table.segmentAt(1, 0, 0).get(key));
+        assertEquals(42, table.segmentAt(0, 0, 0).get(key));
+    }
+
+    @Test
+    public void growth() {
+        final PassibilityTable.Segment segment = new PassibilityTable().segmentAt(0, 0, 0);
+        for (int key = 1; key < 4096; ++key)
+            put(segment, key, key * 3);
+
+        assertEquals(4095, segment.size());
+        for (int key = 1; key < 4096; ++key)
+            assertEquals(key * 3, segment.get(key));
+    }
+
+    @Test
+    public void concurrentReadsAndWrites() throws InterruptedException {
+        final PassibilityTable.Segment segment = new PassibilityTable().segmentAt(0, 0, 0);
+        final AtomicInteger mismatches = new AtomicInteger();
+        final Thread[] threads = new Thread[4];
+
+        for (int t = 0; t < threads.length; ++t) {
+            final int offset = t;
+            threads[t] = new Thread(() -> {
+                for (int round = 0; round < 50; ++round) {
+                    for (int key = 1 + offset; key < 2048; key += threads.length)
+                        put(segment, key, -key);
+
+                    for (int key = 1; key < 2048; ++key) {
+                        final int value = segment.get(key);
+                        if (value != PassibilityTable.MISSING && value != -key)
+                            mismatches.incrementAndGet();
+                    }
+
+                    if (offset == 0 && round % 10 == 0)
+                        segment.clear();
+                }
+            });
+        }
+
+        for (Thread thread : threads)
+            thread.start();
+        for (Thread thread : threads)
+            thread.join();
+
+        assertEquals(0, mismatches.get());
+    }
+
+    @Test
+    public void staleRejected() {
+        final PassibilityTable table = new PassibilityTable();
+        final PassibilityTable.Segment segment = table.segmentAt(0, 0, 0);
+        final int revision = segment.revision();
+
+        table.invalidate(0, 0, 0, 1, 1, 1);
+        assertFalse(segment.put(7, 42, revision));
+        assertEquals(PassibilityTable.MISSING, segment.get(7));
+        assertTrue(segment.put(7, 42, segment.revision()));
+        assertEquals(42, segment.get(7));
+    }
+
+    @Test
+    public void evictedOnUnload() {
+        final PassibilityTable table = new PassibilityTable();
+        final PassibilityTable.Segment
+            lower = table.segmentAt(1, -4, 2),
+            upper = table.segmentAt(1, 19, 2),
+            neighbour = table.segmentAt(1, 0, 3);
+
+        put(lower, 7, 42);
+        table.evict(1, 2);
+
+        assertEquals(1, table.segmentCount());
+        assertTrue(lower.retired());
+        assertTrue(upper.retired());
+        assertFalse(neighbour.retired());
+        assertEquals(PassibilityTable.MISSING, lower.get(7));
+        assertFalse(lower.put(7, 42, lower.revision()));
+        assertNotSame(lower, table.segmentAt(1, -4, 2));
+    }
+
+    @Test
+    public void bounded() {
+        final PassibilityTable table = new PassibilityTable(4);
+        final PassibilityTable.Segment oldest = table.segmentAt(0, 0, 0);
+        for (int cx = 1; cx < 16; ++cx)
+            table.segmentAt(cx, 0, 0);
+
+        assertEquals(4, table.segmentCount());
+        assertTrue(oldest.retired());
+        assertFalse(table.segmentAt(15, 0, 0).retired());
+    }
+}
@@ -0,0 +1,135 @@
+package com.extollit.gaming.ai.path.model;
+
+import com.extollit.gaming.ai.path.SyntheticWorld;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.extollit.gaming.ai.path.TestingBlocks.*;
+import static org.junit.Assert.*;
+
+public class SectionSourceTests {
+    private SyntheticWorld world;
+    private IColumnarSpace column;
+    private BulkColumn bulkColumn;
+
+    private static final class BulkColumn implements IColumnarSpace, ISectionSource {
+        private final IColumnarSpace delegate;
+        private int blockReads;
+
+        private BulkColumn(IColumnarSpace delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public IBlockDescription[] paletteAt(int cy) {
+            final Map<IBlockDescription, Integer> palette = new IdentityHashMap<>();
+            final List<IBlockDescription> entries = new ArrayList<>();
+            for (int y = 0; y < 16; ++y)
+                for (int z = 0; z < 16; ++z)
+                    for (int x = 0; x < 16; ++x) {
+                        final IBlockDescription block = this.delegate.blockAt(x, (cy << 4) + y, z);
+                        if (!palette.containsKey(block)) {
+                            palette.put(block, entries.size());
+                            entries.add(block);
+                        }
+                    }
+
+            return entries.toArray(new IBlockDescription[0]);
+        }
+
+        @Override
+        public void paletteIndicesAt(int cy, int[] indices) {
+            final IBlockDescription[] palette = paletteAt(cy);
+            for (int y = 0; y < 16; ++y)
+                for (int z = 0; z < 16; ++z)
+                    for (int x = 0; x < 16; ++x) {
+                        final IBlockDescription block = this.delegate.blockAt(x, (cy << 4) + y, z);
+                        int p = 0;
+                        while (palette[p] != block)
+                            ++p;
+
+                        indices[(y << 8) | (z << 4) | x] = p;
+                    }
+        }
+
+        @Override
+        public IBlockDescription blockAt(int x, int y, int z) {
+            this.blockReads++;
+            return this.delegate.blockAt(x, y, z);
+        }
+
+        @Override
+        public int metaDataAt(int x, int y, int z) {
+            return this.delegate.metaDataAt(x, y, z);
+        }
+
+        @Override
+        public ColumnarOcclusionFieldList occlusionFields() {
+            return this.delegate.occlusionFields();
+        }
+
+        @Override
+        public IInstanceSpace instance() {
+            return this.delegate.instance();
+        }
+    }
+
+    @Before
+    public void setup() {
+        this.world = new SyntheticWorld(-1);
+        this.world.setBlock(3, 1, 4, wall);
+        this.world.setBlock(3, 2, 4, wall);
+        this.world.setBlock(7, 15, 7, wall);
+        this.world.setBlock(5, 1, 5, door);
+        this.world.setBlock(6, 1, 5, ironDoor);
+        this.world.setBlock(8, 1, 5, fenceGate);
+        this.world.setBlock(9, 3, 9, ladder);
+        this.world.setBlock(10, 1, 10, lava);
+        this.world.setBlock(11, 1, 11, slabDown);
+        door.open = true;
+        ironDoor.open = false;
+        fenceGate.open = false;
+
+        this.column = this.world.columnarSpaceAt(0, 0);
+        this.bulkColumn = new BulkColumn(this.column);
+    }
+
+    private void assertSameFlags(OcclusionField expected, OcclusionField actual) {
+        for (int y = 0; y < 16; ++y)
+            for (int z = 0; z < 16; ++z)
+                for (int x = 0; x < 16; ++x)
+                    assertEquals("Flags differ at " + x + ", " + y + ", " + z, expected.elementAt(x, y, z), actual.elementAt(x, y, z));
+    }
+
+    @Test
+    public void sameAsPerBlock() {
+        final OcclusionField
+            expected = new OcclusionField(),
+            actual = new OcclusionField();
+
+        expected.loadFrom(this.column, 0, 0, 0);
+        actual.loadFrom(this.bulkColumn, 0, 0, 0);
+
+        assertEquals(0, this.bulkColumn.blockReads);
+        assertSameFlags(expected, actual);
+    }
+
+    @Test
+    public void singleton() {
+        final OcclusionField
+            expected = new OcclusionField(),
+            actual = new OcclusionField();
+
+        expected.loadFrom(this.column, 0, 2, 0);
+        actual.loadFrom(this.bulkColumn, 0, 2, 0);
+
+        assertEquals(0, this.bulkColumn.blockReads);
+        assertSameFlags(expected, actual);
+        assertTrue(Element.air.in(actual.elementAt(5, 5, 5)));
+    }
+}
@@ -54,6 +54,23 @@ public class SortedPointQueueTests {
         );
     }
 
+    @Test
+    public void inflatedFarTarget() {
+        final Coords far = new Coords(0, 0, 100);
+        final Node
+            parent = new Node(0, 0, 10),
+            ahead = new Node(0, 0, 11),
+            behind = new Node(0, 0, 9);
+
+        this.q.clear();
+        this.q.heuristicWeight(2, far);
+        this.q.appendTo(behind, parent, far);
+        this.q.appendTo(ahead, parent, far);
+
+        assertSame(ahead, this.q.dequeue());
+        assertSame(behind, this.q.dequeue());
+    }
+
     @Test
     public void trimFrom() {
         Node n;
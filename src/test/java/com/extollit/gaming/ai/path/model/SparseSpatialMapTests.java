@@ -1,8 +1,11 @@
 package com.extollit.gaming.ai.path.model;
 
 import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
 import net.jqwik.api.constraints.Size;
 import net.jqwik.api.constraints.UniqueElements;
+import org.junit.Assert;
+import org.junit.Test;
 
 import java.util.*;
 
@@ -34,6 +37,114 @@ public class SparseSpatialMapTests {
         return actual.containsAll(expected) && expected.containsAll(actual);
     }
 
+    @Property(tries = 10000)
+    public boolean cullOutside(@ForAll @Size(min = 10, max = 100) List<@From("value") @UniqueElements TestNodeValue> init,
+                               @ForAll("coord") Coords min,
+                               @ForAll("coord") Coords max) {
+        final SparseSpatialMap<TestNodeValue> sparse = new SparseSpatialMap<>();
+        final Map<Coords, TestNodeValue> control = new HashMap<>();
+
+        for (TestNodeValue value : init)
+            put(sparse, control, value);
+
+        final Set<TestNodeValue> expectedCulled = new HashSet<>();
+        for (Iterator<TestNodeValue> i = control.values().iterator(); i.hasNext(); ) {
+            final Coords p = i.next().p;
+            final int
+                x = p.x >> 3,
+                y = p.y >> 3,
+                z = p.z >> 3;
+            if (x < min.x || y < min.y || z < min.z || x > max.x || y > max.y || z > max.z) {
+                expectedCulled.add(control.get(p));
+                i.remove();
+            }
+        }
+
+        final Set<TestNodeValue> culled = new HashSet<>();
+        for (TestNodeValue value : sparse.cullOutside(min.x, min.y, min.z, max.x, max.y, max.z))
+            culled.add(value);
+
+        for (TestNodeValue value : control.values())
+            if (sparse.get(value.p.x, value.p.y, value.p.z) != value)
+                return false;
+
+        return culled.equals(expectedCulled) && sparse.values().size() == control.size();
+    }
+
+    @Property(tries = 10000)
+    public boolean removeInside(@ForAll @Size(min = 10, max = 100) List<@From("value") @UniqueElements TestNodeValue> init,
+                                @ForAll("coord") Coords min,
+                                @ForAll @IntRange(max = 300) int width) {
+        final SparseSpatialMap<TestNodeValue> sparse = new SparseSpatialMap<>();
+        final Map<Coords, TestNodeValue> control = new HashMap<>();
+
+        for (TestNodeValue value : init)
+            put(sparse, control, value);
+
+        final Coords max = new Coords(min.x + width, min.y + width, min.z + width);
+        final Set<TestNodeValue> expectedRemoved = new HashSet<>();
+        for (Iterator<TestNodeValue> i = control.values().iterator(); i.hasNext(); ) {
+            final Coords p = i.next().p;
+            if (p.x >= min.x && p.y >= min.y && p.z >= min.z && p.x <= max.x && p.y <= max.y && p.z <= max.z) {
+                expectedRemoved.add(control.get(p));
+                i.remove();
+            }
+        }
+
+        final Set<TestNodeValue> inside = new HashSet<>();
+        sparse.collectInside(min.x, min.y, min.z, max.x, max.y, max.z, inside);
+        final Set<TestNodeValue> removed = new HashSet<>(sparse.removeInside(min.x, min.y, min.z, max.x, max.y, max.z));
+
+        for (TestNodeValue value : control.values())
+            if (sparse.get(value.p.x, value.p.y, value.p.z) != value)
+                return false;
+
+        return inside.equals(expectedRemoved) && removed.equals(expectedRemoved) && sparse.values().size() == control.size();
+    }
+
+    @Test
+    public void intersects() {
+        final SparseSpatialMap<TestNodeValue> sparse = new SparseSpatialMap<>();
+        Assert.assertFalse(sparse.intersects(-10, -10, -10, 10, 10, 10));
+
+        sparse.put(2, 3, 4, new TestNodeValue(new Coords(2, 3, 4)));
+        sparse.put(-2, 0, 8, new TestNodeValue(new Coords(-2, 0, 8)));
+        Assert.assertTrue(sparse.intersects(0, 0, 0, 0, 0, 8));
+        Assert.assertFalse(sparse.intersects(3, 0, 0, 10, 10, 10));
+        Assert.assertFalse(sparse.intersects(-2, 4, 4, 2, 10, 8));
+
+        sparse.clear();
+        Assert.assertFalse(sparse.intersects(-2, 0, 4, 2, 3, 8));
+    }
+
+    @Test
+    public void extremeCoordinates() {
+        final SparseSpatialMap<TestNodeValue> sparse = new SparseSpatialMap<>();
+        final Coords[] coords = {
+            new Coords(-(1 << 25), -(1 << 11), -(1 << 25)),
+            new Coords((1 << 25) - 1, (1 << 11) - 1, (1 << 25) - 1),
+            new Coords(-1, -1, -1),
+            new Coords(0, 0, 0)
+        };
+
+        for (Coords p : coords)
+            sparse.put(p.x, p.y, p.z, new TestNodeValue(p));
+
+        for (Coords p : coords)
+            Assert.assertEquals(p, sparse.get(p.x, p.y, p.z).p);
+
+        Assert.assertEquals(2, size(sparse.cullOutside(-1, -1, -1, 0, 0, 0)));
+        Assert.assertTrue(sparse.has(-1, -1, -1));
+        Assert.assertFalse(sparse.has((1 << 25) - 1, (1 << 11) - 1, (1 << 25) - 1));
+    }
+
+    private static int size(Iterable<?> iterable) {
+        int count = 0;
+        for (Object ignored : iterable)
+            count++;
+        return count;
+    }
+
     private void remove(SparseSpatialMap<TestNodeValue> sparse, Map<Coords, TestNodeValue> control, Coords coord) {
         sparse.remove(coord.x, coord.y, coord.z);
         control.remove(coord);